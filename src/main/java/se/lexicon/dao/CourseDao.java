@@ -1,9 +1,12 @@
 package se.lexicon.dao;
 
 import se.lexicon.model.Course;
+import se.lexicon.model.Student;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface CourseDao {
 
@@ -39,6 +42,103 @@ public interface CourseDao {
      */
     List<Course> findByDate(LocalDate date);
 
+    /**
+     * Finds courses that start within the given date range, both ends included.
+     *
+     * @param from the first start date to include
+     * @param to   the last start date to include
+     * @return a list of Courses starting within the range, ordered by start date
+     */
+    List<Course> findByDateRange(LocalDate from, LocalDate to);
+
+    /**
+     * Finds courses that start after the given date.
+     *
+     * @param date the date after which the courses start (exclusive)
+     * @return a list of Courses starting after the date, ordered by start date
+     */
+    List<Course> findStartingAfter(LocalDate date);
+
+    /**
+     * Finds the next courses to start on or after the given date.
+     *
+     * @param date  the first start date to include
+     * @param limit the maximum number of courses to return
+     * @return a list of at most limit Courses, ordered by start date
+     */
+    List<Course> findNextStarting(LocalDate date, int limit);
+
+    /**
+     * Finds courses that are running on the given date, from their start date to their end date.
+     *
+     * @param date the date to check
+     * @return a list of Courses running on the date, ordered by start date
+     */
+    List<Course> findActiveOn(LocalDate date);
+
+    /**
+     * Finds courses that are running at any point within the given date range, both ends included.
+     *
+     * @param from the first date of the range
+     * @param to   the last date of the range
+     * @return a list of Courses overlapping the range, ordered by start date
+     */
+    List<Course> findOverlapping(LocalDate from, LocalDate to);
+
+    /**
+     * Finds the courses a student is registered on.
+     *
+     * @param student the student to search for
+     * @return a list of Courses whose roster contains the student
+     */
+    List<Course> findByStudent(Student student);
+
+    /**
+     * Registers a student on a course, as {@link Course#register(Student)} does. Registering through the dao
+     * lets implementations time the whole call, including waiting for the course.
+     *
+     * @param course  the course to register on
+     * @param student the student to register
+     */
+    default void register(Course course, Student student) {
+        if (course == null) {
+            throw new IllegalArgumentException("Course cannot be null.");
+        }
+        course.register(student);
+    }
+
+    /**
+     * Removes a student from the roster of a course, as {@link Course#unregister(Student)} does.
+     *
+     * @param course  the course to unregister from
+     * @param student the student to unregister
+     * @return true if the student was registered
+     */
+    default boolean unregister(Course course, Student student) {
+        if (course == null) {
+            throw new IllegalArgumentException("Course cannot be null.");
+        }
+        return course.unregister(student);
+    }
+
+    /**
+     * Removes a student from the roster of every course the student is registered on.
+     * Only the student's own courses are visited.
+     *
+     * @param student the student to unregister
+     * @return the number of Courses the student was unregistered from
+     */
+    int unregisterFromAll(Student student);
+
+    /**
+     * Removes a batch of students from the rosters of all their courses.
+     * Each affected course is visited once, however many of the students it had.
+     *
+     * @param students the students to unregister
+     * @return the number of Courses whose roster changed
+     */
+    int unregisterFromAll(Collection<Student> students);
+
     /**
      * Returns all courses from the data source.
      *
@@ -46,6 +146,50 @@ public interface CourseDao {
      */
     List<Course> findAll();
 
+    /**
+     * Returns a page of courses in ascending ID order, for keyset pagination.
+     * Pass 0 for the first page, then the ID of the last Course of each page to get the next one.
+     *
+     * @param afterId the ID after which the page starts (exclusive)
+     * @param limit   the maximum number of courses to return
+     * @return a list of at most limit Courses with IDs above afterId
+     */
+    List<Course> findAll(int afterId, int limit);
+
+    /**
+     * Returns a lazy stream of all courses, without copying them first.
+     * The stream must be consumed before the data source is modified.
+     *
+     * @return a stream of all Courses
+     */
+    Stream<Course> streamAll();
+
+    /**
+     * Returns a lazy stream of the courses matching the name, like {@link #findByName(String)}.
+     * The stream must be consumed before the data source is modified.
+     *
+     * @param name the name to search for
+     * @return a stream of Courses whose names match the given name
+     */
+    Stream<Course> streamByName(String name);
+
+    /**
+     * Returns a lazy stream of the courses starting on the given date, like {@link #findByDate(LocalDate)}.
+     * The stream must be consumed before the data source is modified.
+     *
+     * @param date the start date to search for
+     * @return a stream of Courses starting on the given date
+     */
+    Stream<Course> streamByDate(LocalDate date);
+
+    /**
+     * Returns a read-only live view of all courses without copying them.
+     * The view reflects later saves and deletes, and must not be iterated while the data source is being modified.
+     *
+     * @return an unmodifiable view of all Courses
+     */
+    Collection<Course> viewAll();
+
     /**
      * Deletes a course from the data source.
      *
@@ -54,4 +198,21 @@ public interface CourseDao {
      */
     boolean delete(Course course);
 
+    /**
+     * Saves a batch of courses to the data source.
+     * The whole batch is validated before anything is saved, so a batch with an invalid course saves nothing.
+     *
+     * @param courses the Course objects to save
+     * @return the saved Course objects, in batch order
+     */
+    List<Course> saveAll(Collection<Course> courses);
+
+    /**
+     * Deletes a batch of courses from the data source.
+     *
+     * @param courses the Courses to delete
+     * @return the number of Courses that were deleted
+     */
+    int deleteAll(Collection<Course> courses);
+
 }
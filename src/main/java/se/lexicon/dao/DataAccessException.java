@@ -0,0 +1,14 @@
+package se.lexicon.dao;
+
+/**
+ * Thrown when a DAO cannot reach or use its data source, such as when a database statement fails for a
+ * reason other than invalid input.
+ */
+public class DataAccessException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DataAccessException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -2,7 +2,9 @@ package se.lexicon.dao;
 
 import se.lexicon.model.Student;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface StudentDao {
 
@@ -46,6 +48,41 @@ public interface StudentDao {
      */
     List<Student> findAll();
 
+    /**
+     * Returns a page of students in ascending ID order, for keyset pagination.
+     * Pass 0 for the first page, then the ID of the last Student of each page to get the next one.
+     *
+     * @param afterId the ID after which the page starts (exclusive)
+     * @param limit   the maximum number of students to return
+     * @return a list of at most limit Students with IDs above afterId
+     */
+    List<Student> findAll(int afterId, int limit);
+
+    /**
+     * Returns a lazy stream of all students, without copying them first.
+     * The stream must be consumed before the data source is modified.
+     *
+     * @return a stream of all Students
+     */
+    Stream<Student> streamAll();
+
+    /**
+     * Returns a lazy stream of the students matching the name, like {@link #findByName(String)}.
+     * The stream must be consumed before the data source is modified.
+     *
+     * @param name the name to search for
+     * @return a stream of Students whose names match the given name
+     */
+    Stream<Student> streamByName(String name);
+
+    /**
+     * Returns a read-only live view of all students without copying them.
+     * The view reflects later saves and deletes, and must not be iterated while the data source is being modified.
+     *
+     * @return an unmodifiable view of all Students
+     */
+    Collection<Student> viewAll();
+
     /**
      * Deletes a student from the data source.
      *
@@ -54,4 +91,21 @@ public interface StudentDao {
      */
     boolean delete(Student student);
 
+    /**
+     * Saves a batch of students to the data source.
+     * The whole batch is validated before anything is saved, so a batch with an invalid student saves nothing.
+     *
+     * @param students the Student objects to save
+     * @return the saved Student objects, in batch order
+     */
+    List<Student> saveAll(Collection<Student> students);
+
+    /**
+     * Deletes a batch of students from the data source.
+     *
+     * @param students the Students to delete
+     * @return the number of Students that were deleted
+     */
+    int deleteAll(Collection<Student> students);
+
 }
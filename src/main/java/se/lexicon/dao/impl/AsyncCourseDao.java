@@ -0,0 +1,130 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.dao.CourseDao;
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+
+import java.io.Closeable;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An asynchronous facade over a {@link CourseDao}, which runs calls and bounds how many are in flight as
+ * {@link AsyncStudentDao} does. The dao must be thread-safe, such as {@link ConcurrentCourseDaoImpl}.
+ */
+public class AsyncCourseDao implements Closeable {
+
+    private final CourseDao delegate;
+    private final AsyncExecutor executor;
+
+    public AsyncCourseDao(CourseDao delegate) {
+        this(delegate, AsyncExecutor.DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public AsyncCourseDao(CourseDao delegate, int maxInFlight) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Course dao cannot be null.");
+        }
+        this.delegate = delegate;
+        this.executor = new AsyncExecutor(maxInFlight);
+    }
+
+    public CompletableFuture<Course> save(Course course) {
+        return executor.submit(() -> delegate.save(course));
+    }
+
+    public CompletableFuture<List<Course>> saveAll(Collection<Course> courses) {
+        return executor.submit(() -> delegate.saveAll(courses));
+    }
+
+    public CompletableFuture<Course> findById(int id) {
+        return executor.submit(() -> delegate.findById(id));
+    }
+
+    public CompletableFuture<List<Course>> findByName(String name) {
+        return executor.submit(() -> delegate.findByName(name));
+    }
+
+    public CompletableFuture<List<Course>> findByDate(LocalDate date) {
+        return executor.submit(() -> delegate.findByDate(date));
+    }
+
+    public CompletableFuture<List<Course>> findByDateRange(LocalDate from, LocalDate to) {
+        return executor.submit(() -> delegate.findByDateRange(from, to));
+    }
+
+    public CompletableFuture<List<Course>> findStartingAfter(LocalDate date) {
+        return executor.submit(() -> delegate.findStartingAfter(date));
+    }
+
+    public CompletableFuture<List<Course>> findNextStarting(LocalDate date, int limit) {
+        return executor.submit(() -> delegate.findNextStarting(date, limit));
+    }
+
+    public CompletableFuture<List<Course>> findActiveOn(LocalDate date) {
+        return executor.submit(() -> delegate.findActiveOn(date));
+    }
+
+    public CompletableFuture<List<Course>> findOverlapping(LocalDate from, LocalDate to) {
+        return executor.submit(() -> delegate.findOverlapping(from, to));
+    }
+
+    public CompletableFuture<List<Course>> findByStudent(Student student) {
+        return executor.submit(() -> delegate.findByStudent(student));
+    }
+
+    public CompletableFuture<Integer> unregisterFromAll(Student student) {
+        return executor.submit(() -> delegate.unregisterFromAll(student));
+    }
+
+    public CompletableFuture<Integer> unregisterFromAll(Collection<Student> students) {
+        return executor.submit(() -> delegate.unregisterFromAll(students));
+    }
+
+    public CompletableFuture<List<Course>> findAll() {
+        return executor.submit(delegate::findAll);
+    }
+
+    public CompletableFuture<List<Course>> findAll(int afterId, int limit) {
+        return executor.submit(() -> delegate.findAll(afterId, limit));
+    }
+
+    public CompletableFuture<Boolean> delete(Course course) {
+        return executor.submit(() -> delegate.delete(course));
+    }
+
+    public CompletableFuture<Integer> deleteAll(Collection<Course> courses) {
+        return executor.submit(() -> delegate.deleteAll(courses));
+    }
+
+    /**
+     * Looks up each id concurrently.
+     *
+     * @return a future of the courses found, in the order of the ids; ids with no course are skipped
+     */
+    public CompletableFuture<List<Course>> findAllById(Collection<Integer> ids) {
+        return executor.submitEach(ids, delegate::findById);
+    }
+
+    public int maxInFlight() {
+        return executor.maxInFlight();
+    }
+
+    /**
+     * @return true if calls run on virtual threads, false if on the fallback thread pool
+     */
+    public boolean isVirtual() {
+        return executor.isVirtual();
+    }
+
+    /**
+     * Lets the calls already issued finish, and rejects new ones with an {@link IllegalStateException}.
+     * The dao itself is not closed.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
@@ -0,0 +1,118 @@
+package se.lexicon.dao.impl;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking dao calls for the async daos, on a virtual thread per call where the runtime has them
+ * (Java 21 and later), and otherwise on a pool of daemon threads. A semaphore bounds how many calls run
+ * against the dao at once; the rest wait for a permit on their own thread, so the caller never blocks.
+ */
+final class AsyncExecutor implements Closeable {
+
+    static final int DEFAULT_MAX_IN_FLIGHT = 256;
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxInFlight;
+    private final boolean virtual;
+    private volatile boolean closed;
+
+    AsyncExecutor(int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in flight is not allowed to be zero or negative.");
+        }
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+        ExecutorService virtualExecutor = newVirtualThreadPerTaskExecutor();
+        this.virtual = virtualExecutor != null;
+        this.executor = virtual ? virtualExecutor : newDaemonPool(maxInFlight);
+    }
+
+    <T> CompletableFuture<T> submit(Supplier<T> call) {
+        if (closed) {
+            throw new IllegalStateException("Async dao is closed.");
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                return call.get();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    // Submits one call per key and collects the non-null results in the order of the keys:
+    <K, T> CompletableFuture<List<T>> submitEach(Collection<K> keys, Function<K, T> call) {
+        if (keys == null) {
+            throw new IllegalArgumentException("Keys cannot be null.");
+        }
+        List<CompletableFuture<T>> calls = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            calls.add(submit(() -> call.apply(key)));
+        }
+        return CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            List<T> results = new ArrayList<>(calls.size());
+            for (CompletableFuture<T> future : calls) {
+                T result = future.join();
+                if (result != null) {
+                    results.add(result);
+                }
+            }
+            return results;
+        });
+    }
+
+    int maxInFlight() {
+        return maxInFlight;
+    }
+
+    boolean isVirtual() {
+        return virtual;
+    }
+
+    // Lets submitted calls finish, but accepts no new ones:
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdown();
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() is looked up by reflection to keep compiling on Java 8:
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    // One thread per permit at most, started on demand and stopped after a minute idle:
+    private static ExecutorService newDaemonPool(int size) {
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, "async-dao-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), factory);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
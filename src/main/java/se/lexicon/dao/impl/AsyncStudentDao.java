@@ -0,0 +1,112 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.dao.StudentDao;
+import se.lexicon.model.Student;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An asynchronous facade over a {@link StudentDao}: each method runs the dao method of the same name and
+ * returns a {@link CompletableFuture} of its result, which completes exceptionally with whatever the dao
+ * threw. Calls run on virtual threads where the runtime has them (Java 21 and later), and otherwise on a
+ * pool of daemon threads. At most {@code maxInFlight} calls run against the dao at once, 256 by default;
+ * any number more can be issued, and wait their turn without blocking the caller.
+ * <p>
+ * The dao must be thread-safe, such as {@link ConcurrentStudentDaoImpl}. The stream and view methods of
+ * the dao have no async form, since they are read on the caller's thread; use the find methods instead.
+ */
+public class AsyncStudentDao implements Closeable {
+
+    private final StudentDao delegate;
+    private final AsyncExecutor executor;
+
+    public AsyncStudentDao(StudentDao delegate) {
+        this(delegate, AsyncExecutor.DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public AsyncStudentDao(StudentDao delegate, int maxInFlight) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Student dao cannot be null.");
+        }
+        this.delegate = delegate;
+        this.executor = new AsyncExecutor(maxInFlight);
+    }
+
+    public CompletableFuture<Student> save(Student student) {
+        return executor.submit(() -> delegate.save(student));
+    }
+
+    public CompletableFuture<List<Student>> saveAll(Collection<Student> students) {
+        return executor.submit(() -> delegate.saveAll(students));
+    }
+
+    public CompletableFuture<Student> findByEmail(String email) {
+        return executor.submit(() -> delegate.findByEmail(email));
+    }
+
+    public CompletableFuture<Student> findById(int id) {
+        return executor.submit(() -> delegate.findById(id));
+    }
+
+    public CompletableFuture<List<Student>> findByName(String name) {
+        return executor.submit(() -> delegate.findByName(name));
+    }
+
+    public CompletableFuture<List<Student>> findAll() {
+        return executor.submit(delegate::findAll);
+    }
+
+    public CompletableFuture<List<Student>> findAll(int afterId, int limit) {
+        return executor.submit(() -> delegate.findAll(afterId, limit));
+    }
+
+    public CompletableFuture<Boolean> delete(Student student) {
+        return executor.submit(() -> delegate.delete(student));
+    }
+
+    public CompletableFuture<Integer> deleteAll(Collection<Student> students) {
+        return executor.submit(() -> delegate.deleteAll(students));
+    }
+
+    /**
+     * Looks up each id concurrently.
+     *
+     * @return a future of the students found, in the order of the ids; ids with no student are skipped
+     */
+    public CompletableFuture<List<Student>> findAllById(Collection<Integer> ids) {
+        return executor.submitEach(ids, delegate::findById);
+    }
+
+    /**
+     * Looks up each email concurrently.
+     *
+     * @return a future of the students found, in the order of the emails; emails with no student are
+     * skipped
+     */
+    public CompletableFuture<List<Student>> findAllByEmail(Collection<String> emails) {
+        return executor.submitEach(emails, delegate::findByEmail);
+    }
+
+    public int maxInFlight() {
+        return executor.maxInFlight();
+    }
+
+    /**
+     * @return true if calls run on virtual threads, false if on the fallback thread pool
+     */
+    public boolean isVirtual() {
+        return executor.isVirtual();
+    }
+
+    /**
+     * Lets the calls already issued finish, and rejects new ones with an {@link IllegalStateException}.
+     * The dao itself is not closed.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
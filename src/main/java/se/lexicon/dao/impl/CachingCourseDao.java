@@ -0,0 +1,223 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.dao.CourseDao;
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+import se.lexicon.util.Cache;
+import se.lexicon.util.CacheStats;
+import se.lexicon.util.EvictionPolicy;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A {@link CourseDao} decorator that caches the courses found by id, in front of a delegate that is slow
+ * to query, such as {@link JdbcCourseDaoImpl}. The cache holds at most the given number of courses and
+ * evicts by the given {@link EvictionPolicy}. Saving or deleting a course through the decorator drops its
+ * entry, and unregistering students from all courses drops every entry, since any roster may have changed.
+ * A course read from the delegate is not cached if an entry was dropped while it was read. Other queries
+ * go straight to the delegate.
+ * <p>
+ * As with {@link CachingStudentDao}, a hit returns the cached object, and with a delegate that returns a
+ * new view per lookup, a change made through another view is not seen until the entry is dropped.
+ * <p>
+ * This class is thread-safe if the delegate is.
+ */
+public class CachingCourseDao implements CourseDao {
+
+    private final CourseDao delegate;
+    private final Cache<Integer, Course> byId;
+
+    // Counts invalidations, so that a lookup which raced a save or delete does not cache what it read:
+    private long generation;
+
+    public CachingCourseDao(CourseDao delegate, int maximumSize, EvictionPolicy policy) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Course dao cannot be null.");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Eviction policy cannot be null.");
+        }
+        this.delegate = delegate;
+        this.byId = policy.newCache(maximumSize);
+    }
+
+    @Override
+    public Course save(Course course) {
+        Course saved = delegate.save(course);
+        invalidate(saved);
+        return saved;
+    }
+
+    @Override
+    public List<Course> saveAll(Collection<Course> courses) {
+        List<Course> saved = delegate.saveAll(courses);
+        for (Course course : saved) {
+            invalidate(course);
+        }
+        return saved;
+    }
+
+    @Override
+    public Course findById(int id) {
+
+        // Check if id is negative or zero:
+        if (id <= 0) {
+            throw new IllegalArgumentException("Id is not allowed to be zero or negative.");
+        }
+
+        Course course = byId.get(id);
+        if (course == null) {
+            long seen = generation();
+            course = delegate.findById(id);
+            if (course != null) {
+                putIfCurrent(id, course, seen);
+            }
+        }
+        return course;
+    }
+
+    @Override
+    public List<Course> findByName(String name) {
+        return delegate.findByName(name);
+    }
+
+    @Override
+    public List<Course> findByDate(LocalDate date) {
+        return delegate.findByDate(date);
+    }
+
+    @Override
+    public List<Course> findByDateRange(LocalDate from, LocalDate to) {
+        return delegate.findByDateRange(from, to);
+    }
+
+    @Override
+    public List<Course> findStartingAfter(LocalDate date) {
+        return delegate.findStartingAfter(date);
+    }
+
+    @Override
+    public List<Course> findNextStarting(LocalDate date, int limit) {
+        return delegate.findNextStarting(date, limit);
+    }
+
+    @Override
+    public List<Course> findActiveOn(LocalDate date) {
+        return delegate.findActiveOn(date);
+    }
+
+    @Override
+    public List<Course> findOverlapping(LocalDate from, LocalDate to) {
+        return delegate.findOverlapping(from, to);
+    }
+
+    @Override
+    public List<Course> findByStudent(Student student) {
+        return delegate.findByStudent(student);
+    }
+
+    @Override
+    public void register(Course course, Student student) {
+        delegate.register(course, student);
+    }
+
+    @Override
+    public boolean unregister(Course course, Student student) {
+        return delegate.unregister(course, student);
+    }
+
+    @Override
+    public int unregisterFromAll(Student student) {
+        int changed = delegate.unregisterFromAll(student);
+        if (changed > 0) {
+            invalidateAll();
+        }
+        return changed;
+    }
+
+    @Override
+    public int unregisterFromAll(Collection<Student> students) {
+        int changed = delegate.unregisterFromAll(students);
+        if (changed > 0) {
+            invalidateAll();
+        }
+        return changed;
+    }
+
+    @Override
+    public List<Course> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Course> findAll(int afterId, int limit) {
+        return delegate.findAll(afterId, limit);
+    }
+
+    @Override
+    public Stream<Course> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Stream<Course> streamByName(String name) {
+        return delegate.streamByName(name);
+    }
+
+    @Override
+    public Stream<Course> streamByDate(LocalDate date) {
+        return delegate.streamByDate(date);
+    }
+
+    @Override
+    public Collection<Course> viewAll() {
+        return delegate.viewAll();
+    }
+
+    @Override
+    public boolean delete(Course course) {
+        boolean deleted = delegate.delete(course);
+        invalidate(course);
+        return deleted;
+    }
+
+    @Override
+    public int deleteAll(Collection<Course> courses) {
+        int deleted = delegate.deleteAll(courses);
+        for (Course course : courses) {
+            invalidate(course);
+        }
+        return deleted;
+    }
+
+    /**
+     * Drops the cached entry of the course.
+     */
+    public synchronized void invalidate(Course course) {
+        generation++;
+        byId.invalidate(course.getId());
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        byId.clear();
+    }
+
+    public CacheStats stats() {
+        return byId.stats();
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    // Caches a course read from the delegate, unless an invalidation came after the read began:
+    private synchronized void putIfCurrent(int id, Course course, long seen) {
+        if (generation == seen) {
+            byId.put(id, course);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.dao.StudentDao;
+import se.lexicon.model.Student;
+import se.lexicon.util.Cache;
+import se.lexicon.util.CacheStats;
+import se.lexicon.util.EvictionPolicy;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static se.lexicon.util.TextNormalizer.fold;
+
+/**
+ * A {@link StudentDao} decorator that caches the students found by id and by email, in front of a
+ * delegate that is slow to query, such as {@link JdbcStudentDaoImpl}. Each cache holds at most the given
+ * number of students and evicts by the given {@link EvictionPolicy}. Saving or deleting a student through
+ * the decorator drops its entries, and an email hit is checked against the student's current email, so a
+ * changed email is never served from its old key. A student read from the delegate is not cached if an
+ * entry was dropped while it was read. Other queries go straight to the delegate.
+ * <p>
+ * A hit returns the cached object, so changes made through it are seen by later hits. With a delegate
+ * that returns a new view per lookup, a change made through another view is not seen until the entry is
+ * evicted or dropped with {@link #invalidate(Student)} or {@link #invalidateAll()}.
+ * <p>
+ * This class is thread-safe if the delegate is.
+ */
+public class CachingStudentDao implements StudentDao {
+
+    private final StudentDao delegate;
+    private final Cache<Integer, Student> byId;
+    private final Cache<String, Student> byEmail;
+
+    // Counts invalidations, so that a lookup which raced a save or delete does not cache what it read:
+    private long generation;
+
+    public CachingStudentDao(StudentDao delegate, int maximumSize, EvictionPolicy policy) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Student dao cannot be null.");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Eviction policy cannot be null.");
+        }
+        this.delegate = delegate;
+        this.byId = policy.newCache(maximumSize);
+        this.byEmail = policy.newCache(maximumSize);
+    }
+
+    @Override
+    public Student save(Student student) {
+        Student saved = delegate.save(student);
+        invalidate(saved);
+        return saved;
+    }
+
+    @Override
+    public List<Student> saveAll(Collection<Student> students) {
+        List<Student> saved = delegate.saveAll(students);
+        for (Student student : saved) {
+            invalidate(student);
+        }
+        return saved;
+    }
+
+    @Override
+    public Student findByEmail(String email) {
+
+        // Check for null and empty:
+        if (email == null || email.trim().isEmpty()) {
+            throw new IllegalArgumentException("Email cannot be null or empty.");
+        }
+
+        // Serve a hit only while the student still has the email, and count a stale entry as a miss:
+        String key = fold(email);
+        Student student = byEmail.get(key, cached -> fold(cached.getEmail()).equals(key));
+        if (student != null) {
+            return student;
+        }
+        long seen = generation();
+        student = delegate.findByEmail(email);
+        if (student != null) {
+            putIfCurrent(byEmail, key, student, seen);
+        }
+        return student;
+    }
+
+    @Override
+    public Student findById(int id) {
+
+        // Check if id is negative or zero:
+        if (id <= 0) {
+            throw new IllegalArgumentException("Id is not allowed to be zero or negative.");
+        }
+
+        Student student = byId.get(id);
+        if (student == null) {
+            long seen = generation();
+            student = delegate.findById(id);
+            if (student != null) {
+                putIfCurrent(byId, id, student, seen);
+            }
+        }
+        return student;
+    }
+
+    @Override
+    public List<Student> findByName(String name) {
+        return delegate.findByName(name);
+    }
+
+    @Override
+    public List<Student> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Student> findAll(int afterId, int limit) {
+        return delegate.findAll(afterId, limit);
+    }
+
+    @Override
+    public Stream<Student> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Stream<Student> streamByName(String name) {
+        return delegate.streamByName(name);
+    }
+
+    @Override
+    public Collection<Student> viewAll() {
+        return delegate.viewAll();
+    }
+
+    @Override
+    public boolean delete(Student student) {
+        boolean deleted = delegate.delete(student);
+        invalidate(student);
+        return deleted;
+    }
+
+    @Override
+    public int deleteAll(Collection<Student> students) {
+        int deleted = delegate.deleteAll(students);
+        for (Student student : students) {
+            invalidate(student);
+        }
+        return deleted;
+    }
+
+    /**
+     * Drops the cached entries of the student, by its id and by its current email.
+     */
+    public synchronized void invalidate(Student student) {
+        generation++;
+        byId.invalidate(student.getId());
+        byEmail.invalidate(fold(student.getEmail()));
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        byId.clear();
+        byEmail.clear();
+    }
+
+    public CacheStats byIdStats() {
+        return byId.stats();
+    }
+
+    public CacheStats byEmailStats() {
+        return byEmail.stats();
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    // Caches a student read from the delegate, unless an invalidation came after the read began:
+    private synchronized <K> void putIfCurrent(Cache<K, Student> cache, K key, Student student, long seen) {
+        if (generation == seen) {
+            cache.put(key, student);
+        }
+    }
+}
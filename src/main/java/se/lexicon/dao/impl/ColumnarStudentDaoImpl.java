@@ -0,0 +1,432 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.dao.CourseDao;
+import se.lexicon.dao.StudentDao;
+import se.lexicon.model.Student;
+import se.lexicon.model.StudentListener;
+import se.lexicon.util.IntBitmap;
+import se.lexicon.util.IntHashSet;
+import se.lexicon.util.Utf8Column;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static se.lexicon.dao.impl.StudentColumns.DELETED;
+import static se.lexicon.util.TextNormalizer.fold;
+
+/**
+ * A {@link StudentDao} that stores students column by column instead of as objects: ids and key hashes in
+ * {@code int} arrays, and names, emails and addresses as packed UTF-8 in {@link Utf8Column}s. Emails are
+ * split at the {@code @}: each row keeps its local part, and refers by code to the domain, which is
+ * stored once however many students share it. A stored student costs a few dozen bytes plus its text,
+ * several times less than a {@link Student} with its strings and index entries.
+ * <p>
+ * The DAO keeps no {@link Student} objects. Every lookup returns new views made from the columns, so
+ * two lookups of the same id return equal but distinct objects. Changing a view, or a student passed to
+ * {@link #save(Student)}, writes the change through to the columns; a view is not refreshed by changes
+ * made through another one. {@link #findByName(String)} scans the column of name hashes instead of
+ * keeping a name index.
+ * <p>
+ * The columns sit behind {@link StudentColumns}, so {@link OffHeapStudentDaoImpl} keeps the same rows and
+ * lookups outside the heap with this class's logic.
+ * <p>
+ * Like {@link StudentDaoImpl}, this class is not thread-safe, and deleting a student can also unregister
+ * it from all courses of a given {@link CourseDao}.
+ */
+public class ColumnarStudentDaoImpl implements StudentDao {
+
+    // Rows are appended in save order; a deleted row keeps id 0 until the rows are compacted:
+    private static final int MIN_DELETED_TO_COMPACT = 1024;
+
+    // Column storage, and how many of its rows are in use and live:
+    private final StudentColumns columns;
+    private int rowCount;
+    private int size;
+
+    // Set once the columns are closed, after which changes to saved students and views are not written anywhere:
+    private boolean closed;
+
+    // Ids in ascending order, for keyset pagination:
+    private final IntBitmap idSet = new IntBitmap();
+
+    // Row lookup by id, and by the hash of the case-folded email:
+    private final RowIndex rowsById;
+    private final RowIndex rowsByEmail;
+
+    // Course DAO to unregister deleted students from, or null when deletes do not cascade:
+    private final CourseDao courseDao;
+
+    // Writes changes to saved students and views through to the columns:
+    private final StudentListener writeThrough = new StudentListener() {
+        @Override
+        public void onEmailChange(Student student, String oldEmail, String newEmail) {
+            int row = rowToWriteThrough(student.getId());
+            if (row < 0) {
+                return;
+            }
+            String newKey = fold(newEmail);
+            int owner = rowOfEmail(newKey);
+            if (owner >= 0 && owner != row) {
+                throw new IllegalArgumentException("Student with email " + newEmail + " already exists.");
+            }
+            rowsByEmail.remove(row);
+            columns.setEmail(row, newEmail, newKey.hashCode());
+            rowsByEmail.insert(row);
+        }
+
+        @Override
+        public void onNameChange(Student student, String oldName, String newName) {
+            int row = rowToWriteThrough(student.getId());
+            if (row >= 0) {
+                columns.setName(row, newName, fold(newName).hashCode());
+            }
+        }
+
+        @Override
+        public void onAddressChange(Student student, String oldAddress, String newAddress) {
+            int row = rowToWriteThrough(student.getId());
+            if (row >= 0) {
+                columns.setAddress(row, newAddress);
+            }
+        }
+    };
+
+    public ColumnarStudentDaoImpl() {
+        this(new HeapStudentColumns(), null);
+    }
+
+    // Deleting a student also removes it from every course roster in the given course DAO:
+    public ColumnarStudentDaoImpl(CourseDao courseDao) {
+        this(new HeapStudentColumns(), requireCourseDao(courseDao));
+    }
+
+    // Keeps the rows in the given storage; a null course DAO means deletes do not cascade:
+    ColumnarStudentDaoImpl(StudentColumns columns, CourseDao courseDao) {
+        this.columns = columns;
+        this.rowsById = columns.newRowIndex(columns::id);
+        this.rowsByEmail = columns.newRowIndex(columns::emailHash);
+        this.courseDao = courseDao;
+    }
+
+    @Override
+    public Student save(Student student) {
+
+        // Check if student is null:
+        if (student == null) {
+            throw new IllegalArgumentException("Student is not allowed to be null.");
+        }
+
+        // Check if student already exists by id:
+        if (rowOf(student.getId()) >= 0) {
+            throw new IllegalArgumentException("Student already exists: " + student);
+        }
+
+        // Check if email already exists (case-insensitive):
+        if (rowOfEmail(fold(student.getEmail())) >= 0) {
+            throw new IllegalArgumentException("Student with email " + student.getEmail() + " already exists.");
+        }
+
+        // Append a row and write later changes through to it:
+        append(student);
+        return student;
+    }
+
+    @Override
+    public List<Student> saveAll(Collection<Student> batch) {
+
+        // Check if batch is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Students cannot be null.");
+        }
+
+        // Validate the whole batch against the stored rows and against itself before saving anything:
+        IntHashSet batchIds = new IntHashSet(batch.size());
+        Set<String> batchEmails = new HashSet<>(batch.size() * 4 / 3 + 1);
+        for (Student student : batch) {
+            if (student == null) {
+                throw new IllegalArgumentException("Student is not allowed to be null.");
+            }
+            if (rowOf(student.getId()) >= 0 || !batchIds.add(student.getId())) {
+                throw new IllegalArgumentException("Student already exists: " + student);
+            }
+            String emailKey = fold(student.getEmail());
+            if (rowOfEmail(emailKey) >= 0 || !batchEmails.add(emailKey)) {
+                throw new IllegalArgumentException("Student with email " + student.getEmail() + " already exists.");
+            }
+        }
+
+        // Size the columns once, then append the batch:
+        columns.ensureRows(rowCount + batch.size());
+        List<Student> result = new ArrayList<>(batch.size());
+        for (Student student : batch) {
+            append(student);
+            result.add(student);
+        }
+        return result;
+    }
+
+    @Override
+    public Student findByEmail(String email) {
+
+        // Check for null and empty:
+        if (email == null || email.trim().isEmpty()) {
+            throw new IllegalArgumentException("Email cannot be null or empty.");
+        }
+
+        // Look up the row of the email (case-insensitive):
+        int row = rowOfEmail(fold(email));
+        return row < 0 ? null : view(row);
+    }
+
+    @Override
+    public List<Student> findByName(String name) {
+
+        // Check for null and empty:
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be null or empty.");
+        }
+
+        // Scan the name hashes, and confirm each hit against the name itself (case-insensitive):
+        List<Student> result = new ArrayList<>();
+        IntPredicate matches = nameMatcher(name);
+        for (int row = 0; row < rowCount; row++) {
+            if (matches.test(row)) {
+                result.add(view(row));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Student findById(int id) {
+
+        // Check if id is negative or zero:
+        if (id <= 0) {
+            throw new IllegalArgumentException("Id is not allowed to be zero or negative.");
+        }
+
+        // Look up the row of the id:
+        int row = rowOf(id);
+        return row < 0 ? null : view(row);
+    }
+
+    @Override
+    public List<Student> findAll() {
+        return new ArrayList<>(viewAll());
+    }
+
+    @Override
+    public List<Student> findAll(int afterId, int limit) {
+
+        // Check that the cursor is not negative and the limit is positive:
+        if (afterId < 0) {
+            throw new IllegalArgumentException("After id cannot be negative.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit is not allowed to be zero or negative.");
+        }
+
+        // Walk the ids in order from the cursor:
+        List<Student> result = new ArrayList<>(Math.min(limit, size));
+        if (afterId < Integer.MAX_VALUE) {
+            idSet.forEachFrom(afterId + 1, limit, id -> result.add(view(rowOf(id))));
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<Student> streamAll() {
+        return viewAll().stream();
+    }
+
+    @Override
+    public Stream<Student> streamByName(String name) {
+
+        // Check for null and empty:
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be null or empty.");
+        }
+
+        // Scan the name hashes lazily, making views only for confirmed matches:
+        return IntStream.range(0, rowCount).filter(nameMatcher(name)).mapToObj(this::view);
+    }
+
+    @Override
+    public Collection<Student> viewAll() {
+        return new AbstractCollection<Student>() {
+            @Override
+            public Iterator<Student> iterator() {
+                return new Iterator<Student>() {
+                    private int row = nextRow(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return row < rowCount;
+                    }
+
+                    @Override
+                    public Student next() {
+                        if (row >= rowCount) {
+                            throw new NoSuchElementException();
+                        }
+                        Student student = view(row);
+                        row = nextRow(row + 1);
+                        return student;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public boolean delete(Student student) {
+
+        // Check for null:
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+
+        // Remove the row, then take the student off the rosters of its courses:
+        if (!remove(student)) {
+            return false;
+        }
+        if (courseDao != null) {
+            courseDao.unregisterFromAll(student);
+        }
+        compactIfSparse();
+        return true;
+    }
+
+    @Override
+    public int deleteAll(Collection<Student> batch) {
+
+        // Check if batch or any student in it is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Students cannot be null.");
+        }
+        for (Student student : batch) {
+            if (student == null) {
+                throw new IllegalArgumentException("Student cannot be null.");
+            }
+        }
+
+        // Remove each row, then unregister the removed students in a single pass over their courses:
+        List<Student> removed = new ArrayList<>(batch.size());
+        for (Student student : batch) {
+            if (remove(student)) {
+                removed.add(student);
+            }
+        }
+        if (courseDao != null && !removed.isEmpty()) {
+            courseDao.unregisterFromAll(removed);
+        }
+        compactIfSparse();
+        return removed.size();
+    }
+
+    static CourseDao requireCourseDao(CourseDao courseDao) {
+        if (courseDao == null) {
+            throw new IllegalArgumentException("Course dao cannot be null.");
+        }
+        return courseDao;
+    }
+
+    // Frees the columns and lookups. Saved students and views stay usable, but are no longer written through:
+    void closeColumns() {
+        closed = true;
+        columns.close();
+        rowsById.close();
+        rowsByEmail.close();
+    }
+
+    private void append(Student student) {
+        int row = rowCount++;
+        columns.append(row, student.getId(), student.getName(), fold(student.getName()).hashCode(),
+                student.getEmail(), fold(student.getEmail()).hashCode(), student.getAddress());
+        rowsById.insert(row);
+        rowsByEmail.insert(row);
+        idSet.add(student.getId());
+        size++;
+        student.addListener(writeThrough);
+    }
+
+    // Marks the student's row deleted and frees its text, without touching any course:
+    private boolean remove(Student student) {
+        int row = rowOf(student.getId());
+        if (row < 0) {
+            return false;
+        }
+        rowsById.remove(row);
+        rowsByEmail.remove(row);
+        idSet.remove(student.getId());
+        columns.delete(row);
+        size--;
+        student.removeListener(writeThrough);
+        return true;
+    }
+
+    // Drops deleted rows once they outnumber the live ones, and rebuilds the row lookups:
+    private void compactIfSparse() {
+        int deleted = rowCount - size;
+        if (deleted < MIN_DELETED_TO_COMPACT || deleted < size) {
+            return;
+        }
+        rowCount = columns.compact(rowCount);
+        rowsById.clear(rowCount);
+        rowsByEmail.clear(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            rowsById.insert(row);
+            rowsByEmail.insert(row);
+        }
+    }
+
+    private int rowOf(int id) {
+        return rowsById.find(id, row -> columns.id(row) == id);
+    }
+
+    // Returns the row a change to the student is written to, or -1 once closed, so that students saved
+    // before closing stay usable as plain objects:
+    private int rowToWriteThrough(int id) {
+        return closed ? -1 : rowOf(id);
+    }
+
+    private int rowOfEmail(String emailKey) {
+        return rowsByEmail.find(emailKey.hashCode(), row -> fold(columns.email(row)).equals(emailKey));
+    }
+
+    // Matches live rows whose case-folded name equals the folded query, checking the hash first:
+    private IntPredicate nameMatcher(String name) {
+        String key = fold(name);
+        int hash = key.hashCode();
+        return row -> columns.nameHash(row) == hash && columns.id(row) != DELETED
+                && fold(columns.name(row)).equals(key);
+    }
+
+    private int nextRow(int row) {
+        while (row < rowCount && columns.id(row) == DELETED) {
+            row++;
+        }
+        return row;
+    }
+
+    // Makes a new student from a row, whose changes are written back to the row:
+    private Student view(int row) {
+        Student student = new Student(columns.id(row), columns.name(row), columns.email(row), columns.address(row));
+        student.addListener(writeThrough);
+        return student;
+    }
+}
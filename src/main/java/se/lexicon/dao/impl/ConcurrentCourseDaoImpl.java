@@ -0,0 +1,540 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.dao.CourseDao;
+import se.lexicon.jfr.EnrollmentEvent;
+import se.lexicon.model.Course;
+import se.lexicon.model.CourseListener;
+import se.lexicon.model.Student;
+import se.lexicon.util.ConcurrentMultiIndex;
+import se.lexicon.util.ConcurrentSortedMultiIndex;
+import se.lexicon.util.ConcurrentTrigramIndex;
+import se.lexicon.util.IntHashSet;
+import se.lexicon.util.StripedLocks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * A thread-safe {@link CourseDao} for use from many request threads at once.
+ * <p>
+ * Lookups are lock-free and read weakly consistent indexes. Writes for the same course are serialized on
+ * a lock stripe chosen by id, and each index serializes writers per key. Interval queries scan the start
+ * date index from the earliest start that could still be running, bounded by the longest stored duration.
+ * {@link #findAll()} has no particular order, while {@link #findAll(int, int)} pages in id order.
+ * <p>
+ * Registration is synchronized on the course itself, and the roster is read under that monitor. Lock
+ * order is always stripe, then course, so registration never takes a stripe.
+ * <p>
+ * The DAO is safe to share, but a single {@link Course} should still be changed by one thread at a time.
+ */
+public class ConcurrentCourseDaoImpl implements CourseDao {
+
+    // Primary-key index:
+    private final Map<Integer, Course> courses = new ConcurrentHashMap<>();
+    private final Collection<Course> coursesView = Collections.unmodifiableCollection(courses.values());
+
+    // Ids in ascending order, for keyset pagination:
+    private final ConcurrentSkipListSet<Integer> ids = new ConcurrentSkipListSet<>();
+
+    // Trigram index on the case-folded course name, for substring search:
+    private final ConcurrentTrigramIndex names = new ConcurrentTrigramIndex();
+
+    // Sorted index on the start date, also used to answer interval queries:
+    private final ConcurrentSortedMultiIndex<LocalDate, Course> startDates = new ConcurrentSortedMultiIndex<>();
+
+    // Number of stored courses per duration. The longest bounds how far back a running course can have started:
+    private final ConcurrentSkipListMap<Integer, Integer> weekDurations = new ConcurrentSkipListMap<>();
+
+    // Start date and duration each stored course is indexed under, by id. A course's fields only change after
+    // its listeners return, outside any lock, so the indexes are re-keyed and cleaned up from these:
+    private final Map<Integer, IndexKeys> keys = new ConcurrentHashMap<>();
+
+    // Reverse index from student id to the courses the student is registered on:
+    private final ConcurrentMultiIndex<Integer, Course> enrollments = new ConcurrentMultiIndex<>();
+
+    // Serializes writes that concern the same course:
+    private final StripedLocks locks = new StripedLocks(64);
+
+    // Keeps the indexes in sync when a saved course is changed:
+    private final CourseListener indexUpdater = new CourseListener() {
+        @Override
+        public void onNameChange(Course course, String oldName, String newName) {
+            synchronized (locks.forInt(course.getId())) {
+                if (keys.get(course.getId()) == null) {
+                    return;
+                }
+                names.add(course.getId(), newName);
+            }
+        }
+
+        @Override
+        public void onStartDateChange(Course course, LocalDate oldStartDate, LocalDate newStartDate) {
+            synchronized (locks.forInt(course.getId())) {
+                IndexKeys indexed = keys.get(course.getId());
+                if (indexed == null) {
+                    return;
+                }
+                startDates.remove(indexed.startDate, course);
+                indexed.startDate = newStartDate;
+                startDates.add(newStartDate, course);
+            }
+        }
+
+        @Override
+        public void onWeekDurationChange(Course course, int oldWeekDuration, int newWeekDuration) {
+            synchronized (locks.forInt(course.getId())) {
+                IndexKeys indexed = keys.get(course.getId());
+                if (indexed == null) {
+                    return;
+                }
+                // Count the new duration before dropping the old, so the maximum never dips below either:
+                addWeekDuration(newWeekDuration);
+                removeWeekDuration(indexed.weekDuration);
+                indexed.weekDuration = newWeekDuration;
+            }
+        }
+
+        @Override
+        public void onRegister(Course course, Student student) {
+            enrollments.add(student.getId(), course);
+        }
+
+        @Override
+        public void onUnregister(Course course, Student student) {
+            enrollments.remove(student.getId(), course);
+        }
+    };
+
+    @Override
+    public Course save(Course course) {
+
+        // Check if course is null:
+        if (course == null) {
+            throw new IllegalArgumentException("Course is not allowed to be null.");
+        }
+
+        synchronized (locks.forInt(course.getId())) {
+
+            // Claim the id, failing if the course already exists:
+            if (courses.putIfAbsent(course.getId(), course) != null) {
+                throw new IllegalArgumentException("Course already exists: " + course);
+            }
+
+            // Add the course to the remaining indexes:
+            LocalDate startDate = course.getStartDate();
+            int weekDuration = course.getWeekDuration();
+            keys.put(course.getId(), new IndexKeys(startDate, weekDuration));
+            ids.add(course.getId());
+            names.add(course.getId(), course.getCourseName());
+            startDates.add(startDate, course);
+            addWeekDuration(weekDuration);
+
+            // Index the roster and follow its changes in one step, so no registration falls in between:
+            synchronized (course) {
+                for (Student student : course.viewStudents()) {
+                    enrollments.add(student.getId(), course);
+                }
+                course.addListener(indexUpdater);
+            }
+        }
+
+        // Return the course:
+        return course;
+    }
+
+    /**
+     * Saves the batch after checking it against itself in one pass. Each course is then claimed like in
+     * {@link #save(Course)}; if a concurrent writer takes an id first, the courses already saved from this
+     * batch are deleted again, so a failed batch leaves nothing behind. Concurrent readers may briefly see
+     * part of a batch.
+     */
+    @Override
+    public List<Course> saveAll(Collection<Course> batch) {
+
+        // Check if batch is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Courses cannot be null.");
+        }
+
+        // Validate the whole batch against itself before saving anything:
+        IntHashSet batchIds = new IntHashSet(batch.size());
+        for (Course course : batch) {
+            if (course == null) {
+                throw new IllegalArgumentException("Course is not allowed to be null.");
+            }
+            if (!batchIds.add(course.getId())) {
+                throw new IllegalArgumentException("Course already exists: " + course);
+            }
+        }
+
+        // Save each course, rolling the batch back on the first failure:
+        List<Course> result = new ArrayList<>(batch.size());
+        try {
+            for (Course course : batch) {
+                result.add(save(course));
+            }
+        } catch (IllegalArgumentException e) {
+            for (Course course : result) {
+                delete(course);
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    @Override
+    public Course findById(int id) {
+
+        // Check if id is negative or zero:
+        if (id <= 0) {
+            throw new IllegalArgumentException("Id is not allowed to be zero or negative.");
+        }
+
+        // Look up the id in the index:
+        return courses.get(id);
+    }
+
+    @Override
+    public List<Course> findByName(String name) {
+
+        // Check for null and empty:
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Course name cannot be null or empty.");
+        }
+
+        // Create a list to hold matching courses, and search the name index (case-insensitive):
+        List<Course> result = new ArrayList<>();
+        names.forEachMatch(name, id -> {
+            Course course = courses.get(id);
+            if (course != null) {
+                result.add(course);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public List<Course> findByDate(LocalDate date) {
+
+        // Check if date is null:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+
+        // Look up the matching courses in the date index:
+        return new ArrayList<>(startDates.get(date));
+    }
+
+    @Override
+    public List<Course> findByDateRange(LocalDate from, LocalDate to) {
+
+        // Check if dates are null or in the wrong order:
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Dates are not allowed to be null.");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From date cannot be after to date.");
+        }
+
+        return startDates.range(from, true, to, true);
+    }
+
+    @Override
+    public List<Course> findStartingAfter(LocalDate date) {
+
+        // Check if date is null:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+
+        return startDates.tail(date, false, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Course> findNextStarting(LocalDate date, int limit) {
+
+        // Check if date is null and limit is positive:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit is not allowed to be zero or negative.");
+        }
+
+        return startDates.tail(date, true, limit);
+    }
+
+    @Override
+    public List<Course> findActiveOn(LocalDate date) {
+
+        // Check if date is null:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+
+        return findOverlapping(date, date);
+    }
+
+    @Override
+    public List<Course> findOverlapping(LocalDate from, LocalDate to) {
+
+        // Check if dates are null or in the wrong order:
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Dates are not allowed to be null.");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From date cannot be after to date.");
+        }
+
+        // Only courses starting within the longest duration before the range can still be running:
+        List<Course> result = new ArrayList<>();
+        Map.Entry<Integer, Integer> longest = weekDurations.lastEntry();
+        if (longest == null || longest.getKey() == 0) {
+            return result;
+        }
+        int weeks = longest.getKey();
+        long earliestDay = Math.max(from.toEpochDay() - weeks * 7L + 1, LocalDate.MIN.toEpochDay());
+        LocalDate earliest = LocalDate.ofEpochDay(earliestDay);
+
+        for (Course course : startDates.range(earliest, true, to, true)) {
+            if (!course.getEndDate().isBefore(from)) {
+                result.add(course);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Course> findByStudent(Student student) {
+
+        // Check if student is null:
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+
+        // Look up the student's courses in the reverse index:
+        return new ArrayList<>(enrollments.get(student.getId()));
+    }
+
+    @Override
+    public void register(Course course, Student student) {
+        EnrollmentEvent event = EnrollmentEvent.start();
+        CourseDao.super.register(course, student);
+        event.finish(getClass(), "register", course.getId(), student.getId(), 1);
+    }
+
+    @Override
+    public boolean unregister(Course course, Student student) {
+        EnrollmentEvent event = EnrollmentEvent.start();
+        boolean unregistered = CourseDao.super.unregister(course, student);
+        event.finish(getClass(), "unregister", course.getId(), student.getId(), unregistered ? 1 : 0);
+        return unregistered;
+    }
+
+    @Override
+    public int unregisterFromAll(Student student) {
+
+        // Check if student is null:
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+
+        // Copy the student's courses, since each unregistration updates the reverse index. The course
+        // serializes its own roster, and counts only the courses the student was still registered on:
+        List<Course> registered = new ArrayList<>(enrollments.get(student.getId()));
+        int unregistered = 0;
+        for (Course course : registered) {
+            if (unregister(course, student)) {
+                unregistered++;
+            }
+        }
+        return unregistered;
+    }
+
+    @Override
+    public int unregisterFromAll(Collection<Student> batch) {
+
+        // Check if batch or any student in it is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Students cannot be null.");
+        }
+        for (Student student : batch) {
+            if (student == null) {
+                throw new IllegalArgumentException("Student cannot be null.");
+            }
+        }
+
+        // Group the students by the courses they are registered on:
+        Map<Course, List<Student>> affected = new HashMap<>();
+        for (Student student : batch) {
+            for (Course course : enrollments.get(student.getId())) {
+                affected.computeIfAbsent(course, c -> new ArrayList<>()).add(student);
+            }
+        }
+
+        // Visit each affected course once, counting the ones a student was still registered on:
+        int unregistered = 0;
+        for (Map.Entry<Course, List<Student>> entry : affected.entrySet()) {
+            Course course = entry.getKey();
+            List<Student> group = entry.getValue();
+            EnrollmentEvent event = EnrollmentEvent.start();
+            int removed = course.unregisterAll(group);
+            event.finish(getClass(), "unregisterAll", course.getId(), group.get(0).getId(), removed);
+            if (removed > 0) {
+                unregistered++;
+            }
+        }
+        return unregistered;
+    }
+
+    @Override
+    public List<Course> findAll() {
+        return new ArrayList<>(courses.values());
+    }
+
+    @Override
+    public List<Course> findAll(int afterId, int limit) {
+
+        // Check that the cursor is not negative and the limit is positive:
+        if (afterId < 0) {
+            throw new IllegalArgumentException("After id cannot be negative.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit is not allowed to be zero or negative.");
+        }
+
+        // Walk the ids in order from the cursor, skipping courses deleted in the meantime:
+        List<Course> result = new ArrayList<>(Math.min(limit, courses.size()));
+        for (Integer id : ids.tailSet(afterId, false)) {
+            Course course = courses.get(id);
+            if (course != null) {
+                result.add(course);
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<Course> streamAll() {
+        return courses.values().stream();
+    }
+
+    @Override
+    public Stream<Course> streamByName(String name) {
+
+        // Check for null and empty:
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Course name cannot be null or empty.");
+        }
+
+        // Stream the matches of the name index, skipping courses deleted in the meantime:
+        return names.matches(name).mapToObj(courses::get).filter(course -> course != null);
+    }
+
+    @Override
+    public Stream<Course> streamByDate(LocalDate date) {
+
+        // Check if date is null:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+
+        // Stream the matching bucket of the date index without copying it:
+        return startDates.get(date).stream();
+    }
+
+    @Override
+    public Collection<Course> viewAll() {
+        return coursesView;
+    }
+
+    @Override
+    public boolean delete(Course course) {
+
+        // Check for null:
+        if (course == null) {
+            throw new IllegalArgumentException("Course cannot be null.");
+        }
+
+        synchronized (locks.forInt(course.getId())) {
+
+            // Remove the stored course from all indexes:
+            Course removed = courses.remove(course.getId());
+            if (removed == null) {
+                return false;
+            }
+            synchronized (removed) {
+                removed.removeListener(indexUpdater);
+                for (Student student : removed.viewStudents()) {
+                    enrollments.remove(student.getId(), removed);
+                }
+            }
+            IndexKeys indexed = keys.remove(removed.getId());
+            ids.remove(removed.getId());
+            names.remove(removed.getId());
+            startDates.remove(indexed.startDate, removed);
+            removeWeekDuration(indexed.weekDuration);
+            return true;
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<Course> batch) {
+
+        // Check if batch or any course in it is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Courses cannot be null.");
+        }
+        for (Course course : batch) {
+            if (course == null) {
+                throw new IllegalArgumentException("Course cannot be null.");
+            }
+        }
+
+        // Delete each course, counting the ones that were stored:
+        int deleted = 0;
+        for (Course course : batch) {
+            if (delete(course)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    void clear() {
+        for (Course course : courses.values()) {
+            delete(course);
+        }
+    }
+
+    private void addWeekDuration(int weekDuration) {
+        weekDurations.merge(weekDuration, 1, Integer::sum);
+    }
+
+    private void removeWeekDuration(int weekDuration) {
+        weekDurations.computeIfPresent(weekDuration, (weeks, count) -> count == 1 ? null : count - 1);
+    }
+
+    // The start date and duration a course is indexed under, guarded by the course's lock stripe:
+    private static final class IndexKeys {
+        LocalDate startDate;
+        int weekDuration;
+
+        IndexKeys(LocalDate startDate, int weekDuration) {
+            this.startDate = startDate;
+            this.weekDuration = weekDuration;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.dao.CourseDao;
+import se.lexicon.dao.StudentDao;
+import se.lexicon.model.Student;
+import se.lexicon.model.StudentListener;
+import se.lexicon.util.ConcurrentMultiIndex;
+import se.lexicon.util.IntHashSet;
+import se.lexicon.util.StripedLocks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+import static se.lexicon.util.TextNormalizer.fold;
+
+/**
+ * A thread-safe {@link StudentDao} for use from many request threads at once.
+ * <p>
+ * Lookups are lock-free and read weakly consistent indexes. Writes for the same student are serialized on
+ * a lock stripe chosen by id, and the unique email is claimed with an atomic put-if-absent, so two
+ * concurrent saves can never both take the same email. {@link #findAll()} has no particular order, while
+ * {@link #findAll(int, int)} pages in id order.
+ */
+public class ConcurrentStudentDaoImpl implements StudentDao {
+
+    // Primary-key index:
+    private final Map<Integer, Student> students = new ConcurrentHashMap<>();
+    private final Collection<Student> studentsView = Collections.unmodifiableCollection(students.values());
+
+    // Ids in ascending order, for keyset pagination:
+    private final ConcurrentSkipListSet<Integer> ids = new ConcurrentSkipListSet<>();
+
+    // Unique index on the case-folded email:
+    private final Map<String, Student> emails = new ConcurrentHashMap<>();
+
+    // Secondary index on the case-folded name:
+    private final ConcurrentMultiIndex<String, Student> names = new ConcurrentMultiIndex<>();
+
+    // Keys each stored student is indexed under, by id. A student's fields only change after its listeners
+    // return, outside any lock, so the indexes are re-keyed and cleaned up from these rather than the fields:
+    private final Map<Integer, IndexKeys> keys = new ConcurrentHashMap<>();
+
+    // Serializes writes that concern the same student:
+    private final StripedLocks locks = new StripedLocks(64);
+
+    // Course DAO to unregister deleted students from, or null when deletes do not cascade:
+    private final CourseDao courseDao;
+
+    // Keeps the indexes in sync when a saved student is changed:
+    private final StudentListener indexUpdater = new StudentListener() {
+        @Override
+        public void onEmailChange(Student student, String oldEmail, String newEmail) {
+            synchronized (locks.forInt(student.getId())) {
+                IndexKeys indexed = keys.get(student.getId());
+                if (indexed == null) {
+                    return;
+                }
+                String newKey = fold(newEmail);
+                if (indexed.email.equals(newKey)) {
+                    return;
+                }
+                Student owner = emails.putIfAbsent(newKey, student);
+                if (owner != null && owner != student) {
+                    throw new IllegalArgumentException("Student with email " + newEmail + " already exists.");
+                }
+                emails.remove(indexed.email, student);
+                indexed.email = newKey;
+            }
+        }
+
+        @Override
+        public void onNameChange(Student student, String oldName, String newName) {
+            synchronized (locks.forInt(student.getId())) {
+                IndexKeys indexed = keys.get(student.getId());
+                if (indexed == null) {
+                    return;
+                }
+                names.remove(indexed.name, student);
+                indexed.name = fold(newName);
+                names.add(indexed.name, student);
+            }
+        }
+    };
+
+    public ConcurrentStudentDaoImpl() {
+        this.courseDao = null;
+    }
+
+    // Deleting a student also removes it from every course roster in the given course DAO:
+    public ConcurrentStudentDaoImpl(CourseDao courseDao) {
+        if (courseDao == null) {
+            throw new IllegalArgumentException("Course dao cannot be null.");
+        }
+        this.courseDao = courseDao;
+    }
+
+    @Override
+    public Student save(Student student) {
+
+        // Check if student is null:
+        if (student == null) {
+            throw new IllegalArgumentException("Student is not allowed to be null.");
+        }
+
+        synchronized (locks.forInt(student.getId())) {
+
+            // Claim the id, failing if the student already exists:
+            if (students.putIfAbsent(student.getId(), student) != null) {
+                throw new IllegalArgumentException("Student already exists: " + student);
+            }
+
+            // Claim the email (case-insensitive), releasing the id if it is taken:
+            String emailKey = fold(student.getEmail());
+            if (emails.putIfAbsent(emailKey, student) != null) {
+                students.remove(student.getId(), student);
+                throw new IllegalArgumentException("Student with email " + student.getEmail() + " already exists.");
+            }
+
+            // Add the student to the remaining indexes and follow its changes:
+            String nameKey = fold(student.getName());
+            keys.put(student.getId(), new IndexKeys(emailKey, nameKey));
+            ids.add(student.getId());
+            names.add(nameKey, student);
+            student.addListener(indexUpdater);
+        }
+
+        // Return the student:
+        return student;
+    }
+
+    /**
+     * Saves the batch after checking it against itself in one pass. Each student is then claimed like in
+     * {@link #save(Student)}; if a concurrent writer takes an id or email first, the students already
+     * saved from this batch are deleted again, so a failed batch leaves nothing behind. Concurrent readers
+     * may briefly see part of a batch.
+     */
+    @Override
+    public List<Student> saveAll(Collection<Student> batch) {
+
+        // Check if batch is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Students cannot be null.");
+        }
+
+        // Validate the whole batch against itself before saving anything:
+        IntHashSet batchIds = new IntHashSet(batch.size());
+        Set<String> batchEmails = new HashSet<>(batch.size() * 4 / 3 + 1);
+        for (Student student : batch) {
+            if (student == null) {
+                throw new IllegalArgumentException("Student is not allowed to be null.");
+            }
+            if (!batchIds.add(student.getId())) {
+                throw new IllegalArgumentException("Student already exists: " + student);
+            }
+            if (!batchEmails.add(fold(student.getEmail()))) {
+                throw new IllegalArgumentException("Student with email " + student.getEmail() + " already exists.");
+            }
+        }
+
+        // Save each student, rolling the batch back on the first failure:
+        List<Student> result = new ArrayList<>(batch.size());
+        try {
+            for (Student student : batch) {
+                result.add(save(student));
+            }
+        } catch (IllegalArgumentException e) {
+            for (Student student : result) {
+                remove(student);
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    @Override
+    public Student findByEmail(String email) {
+
+        // Check for null and empty:
+        if (email == null || email.trim().isEmpty()) {
+            throw new IllegalArgumentException("Email cannot be null or empty.");
+        }
+
+        // Look up the matching email in the index (case-insensitive):
+        return emails.get(fold(email));
+    }
+
+    @Override
+    public List<Student> findByName(String name) {
+
+        // Check for null and empty:
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be null or empty.");
+        }
+
+        // Look up the matching students in the index (case-insensitive):
+        return new ArrayList<>(names.get(fold(name)));
+    }
+
+    @Override
+    public Student findById(int id) {
+
+        // Check if id is negative or zero:
+        if (id <= 0) {
+            throw new IllegalArgumentException("Id is not allowed to be zero or negative.");
+        }
+
+        // Look up the id in the index:
+        return students.get(id);
+    }
+
+    @Override
+    public List<Student> findAll() {
+        return new ArrayList<>(students.values());
+    }
+
+    @Override
+    public List<Student> findAll(int afterId, int limit) {
+
+        // Check that the cursor is not negative and the limit is positive:
+        if (afterId < 0) {
+            throw new IllegalArgumentException("After id cannot be negative.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit is not allowed to be zero or negative.");
+        }
+
+        // Walk the ids in order from the cursor, skipping students deleted in the meantime:
+        List<Student> result = new ArrayList<>(Math.min(limit, students.size()));
+        for (Integer id : ids.tailSet(afterId, false)) {
+            Student student = students.get(id);
+            if (student != null) {
+                result.add(student);
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<Student> streamAll() {
+        return students.values().stream();
+    }
+
+    @Override
+    public Stream<Student> streamByName(String name) {
+
+        // Check for null and empty:
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be null or empty.");
+        }
+
+        // Stream the matching bucket of the index without copying it:
+        return names.get(fold(name)).stream();
+    }
+
+    @Override
+    public Collection<Student> viewAll() {
+        return studentsView;
+    }
+
+    @Override
+    public boolean delete(Student student) {
+
+        // Check for null:
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+
+        // Remove the student, then take it off the rosters of its courses:
+        if (!remove(student)) {
+            return false;
+        }
+        if (courseDao != null) {
+            courseDao.unregisterFromAll(student);
+        }
+        return true;
+    }
+
+    @Override
+    public int deleteAll(Collection<Student> batch) {
+
+        // Check if batch or any student in it is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Students cannot be null.");
+        }
+        for (Student student : batch) {
+            if (student == null) {
+                throw new IllegalArgumentException("Student cannot be null.");
+            }
+        }
+
+        // Remove each student, then unregister the removed ones in a single pass over their courses:
+        List<Student> removed = new ArrayList<>(batch.size());
+        for (Student student : batch) {
+            if (remove(student)) {
+                removed.add(student);
+            }
+        }
+        if (courseDao != null && !removed.isEmpty()) {
+            courseDao.unregisterFromAll(removed);
+        }
+        return removed.size();
+    }
+
+    void clear() {
+        for (Student student : students.values()) {
+            remove(student);
+        }
+    }
+
+    // Removes the stored student from all indexes, without touching any course:
+    private boolean remove(Student student) {
+        synchronized (locks.forInt(student.getId())) {
+            Student removed = students.remove(student.getId());
+            if (removed == null) {
+                return false;
+            }
+            removed.removeListener(indexUpdater);
+            IndexKeys indexed = keys.remove(removed.getId());
+            ids.remove(removed.getId());
+            emails.remove(indexed.email, removed);
+            names.remove(indexed.name, removed);
+            return true;
+        }
+    }
+
+    // The case-folded email and name a student is indexed under, guarded by the student's lock stripe:
+    private static final class IndexKeys {
+        String email;
+        String name;
+
+        IndexKeys(String email, String name) {
+            this.email = email;
+            this.name = name;
+        }
+    }
+}
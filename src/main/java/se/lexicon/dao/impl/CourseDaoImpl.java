@@ -1,16 +1,79 @@
 package se.lexicon.dao.impl;
 
 import se.lexicon.dao.CourseDao;
+import se.lexicon.jfr.DaoDeleteEvent;
+import se.lexicon.jfr.DaoQueryEvent;
+import se.lexicon.jfr.DaoSaveEvent;
+import se.lexicon.jfr.EnrollmentEvent;
 import se.lexicon.model.Course;
+import se.lexicon.model.CourseListener;
 import se.lexicon.model.Student;
+import se.lexicon.util.IntBitmap;
+import se.lexicon.util.IntHashSet;
+import se.lexicon.util.IntLinkedHashMap;
+import se.lexicon.util.IntervalTree;
+import se.lexicon.util.SortedMultiIndex;
+import se.lexicon.util.TrigramIndex;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public class CourseDaoImpl implements CourseDao {
 
-    private List<Course> courses = new ArrayList<>();
+    // Primary-key index, in insertion order:
+    private final IntLinkedHashMap<Course> courses = new IntLinkedHashMap<>();
+
+    // Ids in ascending order, for keyset pagination:
+    private final IntBitmap ids = new IntBitmap();
+
+    // Trigram index on the case-folded course name, for substring search:
+    private final TrigramIndex names = new TrigramIndex();
+
+    // Sorted index on the start date, for exact and range queries:
+    private final SortedMultiIndex<LocalDate, Course> startDates = new SortedMultiIndex<>();
+
+    // Interval index on the days each course runs, keyed by epoch day:
+    private final IntervalTree<Course> schedule = new IntervalTree<>();
+
+    // Reverse index from student id to the ids of the courses the student is registered on:
+    private final IntLinkedHashMap<IntHashSet> enrollments = new IntLinkedHashMap<>();
+
+    // Keeps the indexes in sync when a saved course is changed:
+    private final CourseListener indexUpdater = new CourseListener() {
+        @Override
+        public void onNameChange(Course course, String oldName, String newName) {
+            names.add(course.getId(), newName);
+        }
+
+        @Override
+        public void onStartDateChange(Course course, LocalDate oldStartDate, LocalDate newStartDate) {
+            startDates.remove(oldStartDate, course);
+            startDates.add(newStartDate, course);
+            unschedule(course, oldStartDate);
+            schedule(course, newStartDate, course.getWeekDuration());
+        }
+
+        @Override
+        public void onWeekDurationChange(Course course, int oldWeekDuration, int newWeekDuration) {
+            unschedule(course, course.getStartDate());
+            schedule(course, course.getStartDate(), newWeekDuration);
+        }
+
+        @Override
+        public void onRegister(Course course, Student student) {
+            enroll(course, student);
+        }
+
+        @Override
+        public void onUnregister(Course course, Student student) {
+            unenroll(course, student);
+        }
+    };
 
     @Override
     public Course save(Course course) {
@@ -19,19 +82,52 @@ public class CourseDaoImpl implements CourseDao {
         if(course == null){
             throw new IllegalArgumentException("Course is not allowed to be null.");
         }
+        DaoSaveEvent event = DaoSaveEvent.start();
 
         // Check if course already exists:
-        if (courses.contains(course)) {
+        if (courses.containsKey(course.getId())) {
             throw new IllegalArgumentException("Course already exists: " + course);
         }
 
-        // Add the course to the list:
-        courses.add(course);
+        // Add the course to the indexes and follow its changes:
+        index(course);
+        event.finish(getClass(), "save", 1);
 
         // Return the course:
         return course;
     }
 
+    @Override
+    public List<Course> saveAll(Collection<Course> batch) {
+
+        // Check if batch is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Courses cannot be null.");
+        }
+        DaoSaveEvent event = DaoSaveEvent.start();
+
+        // Validate the whole batch against the index and against itself before saving anything:
+        IntHashSet batchIds = new IntHashSet(batch.size());
+        for (Course course : batch) {
+            if (course == null) {
+                throw new IllegalArgumentException("Course is not allowed to be null.");
+            }
+            if (courses.containsKey(course.getId()) || !batchIds.add(course.getId())) {
+                throw new IllegalArgumentException("Course already exists: " + course);
+            }
+        }
+
+        // Size the primary index once, then add the batch:
+        courses.ensureCapacity(courses.size() + batch.size());
+        List<Course> result = new ArrayList<>(batch.size());
+        for (Course course : batch) {
+            index(course);
+            result.add(course);
+        }
+        event.finish(getClass(), "saveAll", result.size());
+        return result;
+    }
+
     @Override
     public Course findById(int id) {
 
@@ -40,13 +136,8 @@ public class CourseDaoImpl implements CourseDao {
             throw new IllegalArgumentException("Id is not allowed to be zero or negative.");
         }
 
-        // Check if the id is in the list:
-        for (Course course : courses) {
-            if (course.getId() == id) {
-                return course;
-            }
-        }
-        return null;
+        // Look up the id in the index:
+        return courses.get(id);
     }
 
     @Override
@@ -57,16 +148,16 @@ public class CourseDaoImpl implements CourseDao {
             throw new IllegalArgumentException("Course name cannot be null or empty.");
         }
 
-        // Create a list to hold matching courses, and trim the name to search for:
+        // Create a list to hold matching courses, and search the name index (case-insensitive):
+        DaoQueryEvent event = DaoQueryEvent.start();
         List<Course> result = new ArrayList<>();
-        String searchName = name.toLowerCase().trim();
+        int scanned = names.forEachMatch(name, id -> result.add(courses.get(id)));
 
-        // Search for matching courses (case-insensitive):
-        for (Course course : courses) {
-            if (course.getCourseName().toLowerCase().contains(searchName)) {
-                result.add(course);
-            }
+        // The index yields matches in hash order, so put them back in insertion order:
+        if (result.size() > 1) {
+            result.sort(Comparator.comparingInt(course -> courses.position(course.getId())));
         }
+        event.finish(getClass(), "findByName", scanned, result.size());
         return result;
     }
 
@@ -78,20 +169,247 @@ public class CourseDaoImpl implements CourseDao {
             throw new IllegalArgumentException("Date is not allowed to be null.");
         }
 
-        // Create a list to hold matching courses:
+        // Look up the matching courses in the date index:
+        DaoQueryEvent event = DaoQueryEvent.start();
+        List<Course> result = new ArrayList<>(startDates.get(date));
+        event.finish(getClass(), "findByDate", result.size(), result.size());
+        return result;
+    }
+
+    @Override
+    public List<Course> findByDateRange(LocalDate from, LocalDate to) {
+
+        // Check if dates are null or in the wrong order:
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Dates are not allowed to be null.");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From date cannot be after to date.");
+        }
+
+        DaoQueryEvent event = DaoQueryEvent.start();
+        List<Course> result = startDates.range(from, true, to, true);
+        event.finish(getClass(), "findByDateRange", result.size(), result.size());
+        return result;
+    }
+
+    @Override
+    public List<Course> findStartingAfter(LocalDate date) {
+
+        // Check if date is null:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+
+        DaoQueryEvent event = DaoQueryEvent.start();
+        List<Course> result = startDates.tail(date, false, Integer.MAX_VALUE);
+        event.finish(getClass(), "findStartingAfter", result.size(), result.size());
+        return result;
+    }
+
+    @Override
+    public List<Course> findNextStarting(LocalDate date, int limit) {
+
+        // Check if date is null and limit is positive:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit is not allowed to be zero or negative.");
+        }
+
+        DaoQueryEvent event = DaoQueryEvent.start();
+        List<Course> result = startDates.tail(date, true, limit);
+        event.finish(getClass(), "findNextStarting", result.size(), result.size());
+        return result;
+    }
+
+    @Override
+    public List<Course> findActiveOn(LocalDate date) {
+
+        // Check if date is null:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+
+        return findOverlapping(date, date);
+    }
+
+    @Override
+    public List<Course> findOverlapping(LocalDate from, LocalDate to) {
+
+        // Check if dates are null or in the wrong order:
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Dates are not allowed to be null.");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From date cannot be after to date.");
+        }
+
+        // Collect the courses whose running days overlap the range:
+        DaoQueryEvent event = DaoQueryEvent.start();
         List<Course> result = new ArrayList<>();
+        schedule.forEachOverlapping(from.toEpochDay(), to.toEpochDay(), result::add);
+        event.finish(getClass(), "findOverlapping", result.size(), result.size());
+        return result;
+    }
 
-        for (Course course : courses) {
-            if (course.getStartDate().equals(date)) {
-                result.add(course);
-            }
+    @Override
+    public List<Course> findByStudent(Student student) {
+
+        // Check if student is null:
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
         }
+
+        // Look up the student's courses in the reverse index:
+        DaoQueryEvent event = DaoQueryEvent.start();
+        List<Course> result = new ArrayList<>();
+        IntHashSet courseIds = enrollments.get(student.getId());
+        if (courseIds != null) {
+            courseIds.forEach(id -> result.add(courses.get(id)));
+        }
+        event.finish(getClass(), "findByStudent", result.size(), result.size());
         return result;
     }
 
+    @Override
+    public void register(Course course, Student student) {
+        EnrollmentEvent event = EnrollmentEvent.start();
+        CourseDao.super.register(course, student);
+        event.finish(getClass(), "register", course.getId(), student.getId(), 1);
+    }
+
+    @Override
+    public boolean unregister(Course course, Student student) {
+        EnrollmentEvent event = EnrollmentEvent.start();
+        boolean unregistered = CourseDao.super.unregister(course, student);
+        event.finish(getClass(), "unregister", course.getId(), student.getId(), unregistered ? 1 : 0);
+        return unregistered;
+    }
+
+    @Override
+    public int unregisterFromAll(Student student) {
+
+        // Check if student is null:
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+
+        // Copy the student's course ids, since each unregistration updates the reverse index:
+        IntHashSet courseIds = enrollments.get(student.getId());
+        if (courseIds == null) {
+            return 0;
+        }
+        int[] ids = courseIds.toArray();
+        for (int id : ids) {
+            unregister(courses.get(id), student);
+        }
+        return ids.length;
+    }
+
+    @Override
+    public int unregisterFromAll(Collection<Student> batch) {
+
+        // Check if batch or any student in it is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Students cannot be null.");
+        }
+        for (Student student : batch) {
+            if (student == null) {
+                throw new IllegalArgumentException("Student cannot be null.");
+            }
+        }
+
+        // Group the students by the courses they are registered on:
+        IntLinkedHashMap<List<Student>> affected = new IntLinkedHashMap<>();
+        for (Student student : batch) {
+            IntHashSet courseIds = enrollments.get(student.getId());
+            if (courseIds != null) {
+                courseIds.forEach(id -> {
+                    List<Student> group = affected.get(id);
+                    if (group == null) {
+                        group = new ArrayList<>();
+                        affected.put(id, group);
+                    }
+                    group.add(student);
+                });
+            }
+        }
+
+        // Visit each affected course once:
+        affected.forEachEntry((group, id) -> {
+            EnrollmentEvent event = EnrollmentEvent.start();
+            int removed = courses.get(id).unregisterAll(group);
+            event.finish(getClass(), "unregisterAll", id, group.get(0).getId(), removed);
+        });
+        return affected.size();
+    }
+
     @Override
     public List<Course> findAll() {
-        return new ArrayList<>(courses);
+        DaoQueryEvent event = DaoQueryEvent.start();
+        List<Course> result = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            result.add(course);
+        }
+        event.finish(getClass(), "findAll", result.size(), result.size());
+        return result;
+    }
+
+    @Override
+    public List<Course> findAll(int afterId, int limit) {
+
+        // Check that the cursor is not negative and the limit is positive:
+        if (afterId < 0) {
+            throw new IllegalArgumentException("After id cannot be negative.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit is not allowed to be zero or negative.");
+        }
+
+        // Walk the ids in order from the cursor:
+        DaoQueryEvent event = DaoQueryEvent.start();
+        List<Course> result = new ArrayList<>(Math.min(limit, courses.size()));
+        if (afterId < Integer.MAX_VALUE) {
+            ids.forEachFrom(afterId + 1, limit, id -> result.add(courses.get(id)));
+        }
+        event.finish(getClass(), "findAllPage", result.size(), result.size());
+        return result;
+    }
+
+    @Override
+    public Stream<Course> streamAll() {
+        return courses.values().stream();
+    }
+
+    @Override
+    public Stream<Course> streamByName(String name) {
+
+        // Check for null and empty:
+        if (name == null || name.trim().isEmpty()){
+            throw new IllegalArgumentException("Course name cannot be null or empty.");
+        }
+
+        // Stream the matches of the name index as they are confirmed:
+        return names.matches(name).mapToObj(courses::get);
+    }
+
+    @Override
+    public Stream<Course> streamByDate(LocalDate date) {
+
+        // Check if date is null:
+        if(date == null){
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+
+        // Stream the matching bucket of the date index without copying it:
+        return startDates.get(date).stream();
+    }
+
+    @Override
+    public Collection<Course> viewAll() {
+        return courses.values();
     }
 
     @Override
@@ -101,11 +419,158 @@ public class CourseDaoImpl implements CourseDao {
             throw new IllegalArgumentException("Course cannot be null.");
         }
 
-        // Returns boolean-value:
-        return courses.remove(course);
+        // Remove the stored course from all indexes:
+        DaoDeleteEvent event = DaoDeleteEvent.start();
+        Course removed = courses.remove(course.getId());
+        if (removed == null) {
+            return false;
+        }
+        ids.remove(removed.getId());
+        names.remove(removed.getId());
+        startDates.remove(removed.getStartDate(), removed);
+        unschedule(removed, removed.getStartDate());
+        for (Student student : removed.viewStudents()) {
+            unenroll(removed, student);
+        }
+        removed.removeListener(indexUpdater);
+        event.finish(getClass(), "delete", 1);
+        return true;
+    }
+
+    @Override
+    public int deleteAll(Collection<Course> batch) {
+
+        // Check if batch or any course in it is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Courses cannot be null.");
+        }
+        for (Course course : batch) {
+            if (course == null) {
+                throw new IllegalArgumentException("Course cannot be null.");
+            }
+        }
+
+        // Delete each course, counting the ones that were stored:
+        DaoDeleteEvent event = DaoDeleteEvent.start();
+        int deleted = 0;
+        for (Course course : batch) {
+            if (delete(course)) {
+                deleted++;
+            }
+        }
+        event.finish(getClass(), "deleteAll", deleted);
+        return deleted;
+    }
+
+    // Bulk-loads trusted courses, such as a recovered snapshot, into an empty DAO. Each index is built on
+    // its own thread; duplicate ids are detected afterwards, and leave the DAO empty again:
+    public void loadAll(List<Course> batch) {
+
+        // Check if batch or any course in it is null, and that nothing is loaded yet:
+        if (batch == null) {
+            throw new IllegalArgumentException("Courses cannot be null.");
+        }
+        for (Course course : batch) {
+            if (course == null) {
+                throw new IllegalArgumentException("Course is not allowed to be null.");
+            }
+            course.canonicalize();
+        }
+        if (!courses.isEmpty()) {
+            throw new IllegalStateException("Courses can only be loaded into an empty dao.");
+        }
+
+        // Build the indexes side by side; each task is the only writer of its index:
+        CompletableFuture.allOf(
+                CompletableFuture.runAsync(() -> {
+                    courses.ensureCapacity(batch.size());
+                    for (Course course : batch) {
+                        courses.put(course.getId(), course);
+                        ids.add(course.getId());
+                    }
+                }),
+                CompletableFuture.runAsync(() -> {
+                    for (Course course : batch) {
+                        names.add(course.getId(), course.getCourseName());
+                    }
+                }),
+                CompletableFuture.runAsync(() -> {
+                    for (Course course : batch) {
+                        startDates.add(course.getStartDate(), course);
+                        schedule(course, course.getStartDate(), course.getWeekDuration());
+                    }
+                }),
+                CompletableFuture.runAsync(() -> {
+                    for (Course course : batch) {
+                        for (Student student : course.viewStudents()) {
+                            enroll(course, student);
+                        }
+                    }
+                }),
+                CompletableFuture.runAsync(() -> {
+                    for (Course course : batch) {
+                        course.addListener(indexUpdater);
+                    }
+                })).join();
+
+        // A duplicate overwrote an entry in the primary index:
+        if (courses.size() != batch.size()) {
+            for (Course course : batch) {
+                course.removeListener(indexUpdater);
+            }
+            clear();
+            throw new IllegalArgumentException("Courses contain duplicate ids.");
+        }
     }
 
     void clear() {
+        for (Course course : courses) {
+            course.removeListener(indexUpdater);
+        }
         courses.clear();
+        ids.clear();
+        names.clear();
+        startDates.clear();
+        schedule.clear();
+        enrollments.clear();
+    }
+
+    private void index(Course course) {
+        course.canonicalize();
+        courses.put(course.getId(), course);
+        ids.add(course.getId());
+        names.add(course.getId(), course.getCourseName());
+        startDates.add(course.getStartDate(), course);
+        schedule(course, course.getStartDate(), course.getWeekDuration());
+        for (Student student : course.viewStudents()) {
+            enroll(course, student);
+        }
+        course.addListener(indexUpdater);
+    }
+
+    private void schedule(Course course, LocalDate startDate, int weekDuration) {
+        long firstDay = startDate.toEpochDay();
+        long lastDay = firstDay + weekDuration * 7L - 1;
+        schedule.insert(firstDay, lastDay, course.getId(), course);
+    }
+
+    private void unschedule(Course course, LocalDate startDate) {
+        schedule.remove(startDate.toEpochDay(), course.getId());
+    }
+
+    private void enroll(Course course, Student student) {
+        IntHashSet courseIds = enrollments.get(student.getId());
+        if (courseIds == null) {
+            courseIds = new IntHashSet();
+            enrollments.put(student.getId(), courseIds);
+        }
+        courseIds.add(course.getId());
+    }
+
+    private void unenroll(Course course, Student student) {
+        IntHashSet courseIds = enrollments.get(student.getId());
+        if (courseIds != null && courseIds.remove(course.getId()) && courseIds.isEmpty()) {
+            enrollments.remove(student.getId());
+        }
     }
 }
@@ -0,0 +1,103 @@
+package se.lexicon.dao.impl;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The per-method call statistics of a {@link MeteredStudentDao} or {@link MeteredCourseDao}. They can be
+ * read directly, or registered with the platform MBean server under
+ * {@code se.lexicon:type=DaoMetrics,name=<name>} to be read through JMX, for example in JConsole.
+ * <p>
+ * This class is thread-safe.
+ */
+public class DaoMetrics implements DaoMetricsMXBean {
+
+    private final Map<String, OperationMetrics> operations = new LinkedHashMap<>();
+    private ObjectName registeredName;
+
+    DaoMetrics() {
+    }
+
+    // Adds a method while the metered dao is built; the map is not changed after that:
+    OperationMetrics operation(String name) {
+        OperationMetrics operation = new OperationMetrics();
+        operations.put(name, operation);
+        return operation;
+    }
+
+    /**
+     * @return the statistics of the named dao method, or null if there is no such method
+     */
+    public OperationStats stats(String operation) {
+        OperationMetrics metrics = operations.get(operation);
+        return metrics == null ? null : metrics.stats();
+    }
+
+    @Override
+    public Map<String, OperationStats> getOperations() {
+        Map<String, OperationStats> stats = new LinkedHashMap<>();
+        for (Map.Entry<String, OperationMetrics> entry : operations.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().stats());
+        }
+        return Collections.unmodifiableMap(stats);
+    }
+
+    @Override
+    public long getTotalCalls() {
+        long calls = 0;
+        for (OperationMetrics operation : operations.values()) {
+            calls += operation.calls();
+        }
+        return calls;
+    }
+
+    @Override
+    public void reset() {
+        for (OperationMetrics operation : operations.values()) {
+            operation.reset();
+        }
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under the given name.
+     *
+     * @throws IllegalStateException if they are already registered, or the name is taken
+     */
+    public synchronized void register(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be null or empty.");
+        }
+        if (registeredName != null) {
+            throw new IllegalStateException("Metrics are already registered as " + registeredName + ".");
+        }
+        try {
+            ObjectName objectName = new ObjectName("se.lexicon:type=DaoMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            registeredName = objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics as " + name + ".", e);
+        }
+    }
+
+    /**
+     * Removes these metrics from the platform MBean server, if they are registered.
+     */
+    public synchronized void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(registeredName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister metrics " + registeredName + ".", e);
+        } finally {
+            registeredName = null;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package se.lexicon.dao.impl;
+
+import java.util.Map;
+
+/**
+ * The JMX view of the {@link DaoMetrics} of a metered dao, with one {@link OperationStats} per dao method.
+ */
+public interface DaoMetricsMXBean {
+
+    /**
+     * @return the statistics of each dao method, by method name
+     */
+    Map<String, OperationStats> getOperations();
+
+    /**
+     * @return the number of calls to all dao methods
+     */
+    long getTotalCalls();
+
+    /**
+     * Forgets all recorded calls.
+     */
+    void reset();
+}
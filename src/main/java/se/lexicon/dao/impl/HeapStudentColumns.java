@@ -0,0 +1,155 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.util.Utf8Column;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * {@link StudentColumns} on the heap: ids and key hashes in {@code int} arrays, and names, emails and
+ * addresses as packed UTF-8 in {@link Utf8Column}s. Emails are split at the {@code @}: each row keeps its
+ * local part, and refers by code to the domain, which is stored once however many students share it.
+ */
+final class HeapStudentColumns implements StudentColumns {
+
+    // Columns, one entry per row:
+    private int[] ids = new int[16];
+    private int[] nameHashes = new int[16];
+    private int[] emailHashes = new int[16];
+    private int[] emailDomains = new int[16];
+    private final Utf8Column names = new Utf8Column();
+    private final Utf8Column emails = new Utf8Column();
+    private final Utf8Column addresses = new Utf8Column();
+
+    // Email domains by code, and codes by domain:
+    private final List<String> domains = new ArrayList<>();
+    private final Map<String, Integer> domainCodes = new HashMap<>();
+
+    @Override
+    public void ensureRows(int rows) {
+        if (rows > ids.length) {
+            int capacity = Math.max(rows, ids.length + (ids.length >> 1));
+            ids = Arrays.copyOf(ids, capacity);
+            nameHashes = Arrays.copyOf(nameHashes, capacity);
+            emailHashes = Arrays.copyOf(emailHashes, capacity);
+            emailDomains = Arrays.copyOf(emailDomains, capacity);
+        }
+    }
+
+    @Override
+    public void append(int row, int id, String name, int nameHash, String email, int emailHash, String address) {
+        ensureRows(row + 1);
+        ids[row] = id;
+        nameHashes[row] = nameHash;
+        emailHashes[row] = emailHash;
+        names.add(name);
+        emails.add(localPart(email));
+        emailDomains[row] = domainCode(email);
+        addresses.add(address);
+    }
+
+    @Override
+    public int id(int row) {
+        return ids[row];
+    }
+
+    @Override
+    public int nameHash(int row) {
+        return nameHashes[row];
+    }
+
+    @Override
+    public int emailHash(int row) {
+        return emailHashes[row];
+    }
+
+    @Override
+    public String name(int row) {
+        return names.get(row);
+    }
+
+    @Override
+    public String email(int row) {
+        return emails.get(row) + '@' + domains.get(emailDomains[row]);
+    }
+
+    @Override
+    public String address(int row) {
+        return addresses.get(row);
+    }
+
+    @Override
+    public void setName(int row, String name, int nameHash) {
+        names.set(row, name);
+        nameHashes[row] = nameHash;
+    }
+
+    @Override
+    public void setEmail(int row, String email, int emailHash) {
+        emails.set(row, localPart(email));
+        emailDomains[row] = domainCode(email);
+        emailHashes[row] = emailHash;
+    }
+
+    @Override
+    public void setAddress(int row, String address) {
+        addresses.set(row, address);
+    }
+
+    @Override
+    public void delete(int row) {
+        ids[row] = DELETED;
+        names.release(row);
+        emails.release(row);
+        addresses.release(row);
+    }
+
+    @Override
+    public int compact(int rowCount) {
+        IntPredicate live = row -> ids[row] != DELETED;
+        names.retain(live);
+        emails.retain(live);
+        addresses.retain(live);
+        int kept = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (ids[row] != DELETED) {
+                ids[kept] = ids[row];
+                nameHashes[kept] = nameHashes[row];
+                emailHashes[kept] = emailHashes[row];
+                emailDomains[kept] = emailDomains[row];
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    @Override
+    public RowIndex newRowIndex(IntUnaryOperator hashOfRow) {
+        return new RowTable(hashOfRow);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static String localPart(String email) {
+        return email.substring(0, email.lastIndexOf('@'));
+    }
+
+    // Returns the code of the email's domain, adding the domain when it is new:
+    private int domainCode(String email) {
+        String domain = email.substring(email.lastIndexOf('@') + 1);
+        Integer code = domainCodes.get(domain);
+        if (code == null) {
+            code = domains.size();
+            domains.add(domain);
+            domainCodes.put(domain, code);
+        }
+        return code;
+    }
+}
@@ -0,0 +1,709 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.dao.CourseDao;
+import se.lexicon.model.Course;
+import se.lexicon.model.CourseListener;
+import se.lexicon.model.Student;
+
+import java.io.Closeable;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static se.lexicon.util.TextNormalizer.fold;
+
+/**
+ * A {@link CourseDao} that stores courses in the same database as a {@link JdbcStudentDaoImpl}, with the
+ * rosters in a join table that refers to both. The tables are created on construction if they do not
+ * exist. Lookups by date are indexed range queries on the start date, and every query reads its courses
+ * and their rosters in a single statement. The name search is a case-insensitive substring match, which
+ * no index can serve, so it scans the course table.
+ * <p>
+ * Lookups return new views whose changes and registrations are written through, as are those of a saved
+ * course. A roster can only hold students saved in the student DAO, and keeps them in enrollment order;
+ * deleting a student drops it from every roster. Courses starting on the same day come in id order.
+ * <p>
+ * The connection stays owned by the caller; {@link #close()} only closes the cached statements. This
+ * class is not thread-safe.
+ */
+public class JdbcCourseDaoImpl implements CourseDao, Closeable {
+
+    // Selects the courses of a subquery on the course table, each followed by its roster in order:
+    private static final String SELECT = "SELECT c.id, c.name, c.start_date, c.week_duration, "
+            + "s.id, s.name, s.email, s.address FROM (%s) c "
+            + "LEFT JOIN course_student cs ON cs.course_id = c.id "
+            + "LEFT JOIN student s ON s.id = cs.student_id "
+            + "ORDER BY %s, cs.position";
+    private static final String BY_ID = "c.id";
+    private static final String BY_START_DATE = "c.start_date, c.id";
+
+    private static final String FIND_BY_ID = select("SELECT * FROM course WHERE id = ?", BY_ID);
+    private static final String FIND_BY_NAME =
+            select("SELECT * FROM course WHERE name_key LIKE ? ESCAPE '\\' AND id > ? ORDER BY id LIMIT ?", BY_ID);
+    private static final String FIND_BY_DATE =
+            select("SELECT * FROM course WHERE start_date = ? AND id > ? ORDER BY id LIMIT ?", BY_ID);
+    private static final String FIND_BY_DATE_RANGE =
+            select("SELECT * FROM course WHERE start_date BETWEEN ? AND ?", BY_START_DATE);
+    private static final String FIND_STARTING_AFTER =
+            select("SELECT * FROM course WHERE start_date > ?", BY_START_DATE);
+    private static final String FIND_NEXT_STARTING =
+            select("SELECT * FROM course WHERE start_date >= ? ORDER BY start_date, id LIMIT ?", BY_START_DATE);
+    private static final String FIND_OVERLAPPING =
+            select("SELECT * FROM course WHERE start_date <= ? AND end_date >= ?", BY_START_DATE);
+    private static final String FIND_BY_STUDENT = select("SELECT * FROM course WHERE id IN "
+            + "(SELECT course_id FROM course_student WHERE student_id = ?)", BY_ID);
+    private static final String FIND_ALL = select("SELECT * FROM course", BY_ID);
+    private static final String FIND_PAGE = select("SELECT * FROM course WHERE id > ? ORDER BY id LIMIT ?", BY_ID);
+    private static final String COUNT = "SELECT COUNT(*) FROM course";
+
+    private static final String INSERT = "INSERT INTO course (id, name, name_key, start_date, end_date, week_duration) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ENROLLMENT =
+            "INSERT INTO course_student (course_id, student_id, position) VALUES (?, ?, ?)";
+    private static final String APPEND_ENROLLMENT = "INSERT INTO course_student (course_id, student_id, position) "
+            + "SELECT ?, ?, COALESCE(MAX(position), 0) + 1 FROM course_student WHERE course_id = ?";
+    private static final String IS_ENROLLED = "SELECT 1 FROM course_student WHERE course_id = ? AND student_id = ?";
+    private static final String COURSES_OF_STUDENT = "SELECT course_id FROM course_student WHERE student_id = ?";
+    private static final String UPDATE_NAME = "UPDATE course SET name = ?, name_key = ? WHERE id = ?";
+    private static final String UPDATE_SCHEDULE = "UPDATE course SET start_date = ?, end_date = ?, week_duration = ? "
+            + "WHERE id = ?";
+    private static final String DELETE = "DELETE FROM course WHERE id = ?";
+    private static final String DELETE_ENROLLMENT = "DELETE FROM course_student WHERE course_id = ? AND student_id = ?";
+    private static final String DELETE_ENROLLMENTS_OF_STUDENT = "DELETE FROM course_student WHERE student_id = ?";
+
+    private final JdbcStudentDaoImpl studentDao;
+    private final JdbcSession session;
+
+    // Writes changes to saved courses and views through to their rows:
+    private final CourseListener writeThrough = new CourseListener() {
+        @Override
+        public void onNameChange(Course course, String oldName, String newName) {
+            try {
+                PreparedStatement statement = session.prepare(UPDATE_NAME);
+                statement.setString(1, newName);
+                statement.setString(2, fold(newName));
+                statement.setInt(3, course.getId());
+                statement.executeUpdate();
+            } catch (SQLException e) {
+                throw JdbcSession.failure(e);
+            }
+        }
+
+        @Override
+        public void onStartDateChange(Course course, LocalDate oldStartDate, LocalDate newStartDate) {
+            updateSchedule(course.getId(), newStartDate, course.getWeekDuration());
+        }
+
+        @Override
+        public void onWeekDurationChange(Course course, int oldWeekDuration, int newWeekDuration) {
+            updateSchedule(course.getId(), course.getStartDate(), newWeekDuration);
+        }
+
+        @Override
+        public void onRegister(Course course, Student student) {
+            try {
+                if (isEnrolled(course.getId(), student.getId())) {
+                    return;
+                }
+                PreparedStatement statement = session.prepare(APPEND_ENROLLMENT);
+                statement.setInt(1, course.getId());
+                statement.setInt(2, student.getId());
+                statement.setInt(3, course.getId());
+                statement.executeUpdate();
+            } catch (SQLException e) {
+                if (JdbcSession.isConstraintViolation(e)) {
+                    throw new IllegalArgumentException("Student is not saved: " + student);
+                }
+                throw JdbcSession.failure(e);
+            }
+        }
+
+        @Override
+        public void onUnregister(Course course, Student student) {
+            try {
+                PreparedStatement statement = session.prepare(DELETE_ENROLLMENT);
+                statement.setInt(1, course.getId());
+                statement.setInt(2, student.getId());
+                statement.executeUpdate();
+            } catch (SQLException e) {
+                throw JdbcSession.failure(e);
+            }
+        }
+    };
+
+    // Uses the connection of the student DAO, creating the course and roster tables on it if needed:
+    public JdbcCourseDaoImpl(JdbcStudentDaoImpl studentDao) {
+        if (studentDao == null) {
+            throw new IllegalArgumentException("Student dao cannot be null.");
+        }
+        this.studentDao = studentDao;
+        this.session = studentDao.session();
+        session.execute("CREATE TABLE IF NOT EXISTS course ("
+                + "id INT PRIMARY KEY, "
+                + "name VARCHAR NOT NULL, "
+                + "name_key VARCHAR NOT NULL, "
+                + "start_date DATE NOT NULL, "
+                + "end_date DATE NOT NULL, "
+                + "week_duration INT NOT NULL)");
+        session.execute("CREATE INDEX IF NOT EXISTS course_start_date ON course (start_date)");
+        session.execute("CREATE TABLE IF NOT EXISTS course_student ("
+                + "course_id INT NOT NULL REFERENCES course (id) ON DELETE CASCADE, "
+                + "student_id INT NOT NULL REFERENCES student (id) ON DELETE CASCADE, "
+                + "position INT NOT NULL, "
+                + "PRIMARY KEY (course_id, student_id))");
+        session.execute("CREATE INDEX IF NOT EXISTS course_student_student ON course_student (student_id)");
+    }
+
+    @Override
+    public Course save(Course course) {
+
+        // Check if course is null:
+        if (course == null) {
+            throw new IllegalArgumentException("Course is not allowed to be null.");
+        }
+
+        // Insert the course and its roster in one transaction:
+        try {
+            session.inTransaction(() -> {
+                insert(course);
+                return session.prepare(INSERT_ENROLLMENT).executeBatch();
+            });
+        } catch (SQLException e) {
+            if (JdbcSession.isConstraintViolation(e)) {
+                throw invalid(course);
+            }
+            throw JdbcSession.failure(e);
+        }
+        course.addListener(writeThrough);
+        return course;
+    }
+
+    @Override
+    public List<Course> saveAll(Collection<Course> batch) {
+
+        // Check if batch is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Courses cannot be null.");
+        }
+
+        // Validate the batch against itself; the keys check it against the stored rows:
+        Set<Integer> batchIds = new HashSet<>(batch.size() * 4 / 3 + 1);
+        for (Course course : batch) {
+            if (course == null) {
+                throw new IllegalArgumentException("Course is not allowed to be null.");
+            }
+            if (!batchIds.add(course.getId())) {
+                throw new IllegalArgumentException("Course already exists: " + course);
+            }
+        }
+
+        // Insert the courses and then all rosters as batches, in one transaction:
+        try {
+            session.inTransaction(() -> {
+                PreparedStatement insert = session.prepare(INSERT);
+                for (Course course : batch) {
+                    bind(insert, course);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                for (Course course : batch) {
+                    addRoster(course);
+                }
+                return session.prepare(INSERT_ENROLLMENT).executeBatch();
+            });
+        } catch (SQLException e) {
+            if (JdbcSession.isConstraintViolation(e)) {
+                for (Course course : batch) {
+                    if (findById(course.getId()) != null) {
+                        throw invalid(course);
+                    }
+                }
+                throw new IllegalArgumentException("A roster in the batch has a student that is not saved.");
+            }
+            throw JdbcSession.failure(e);
+        }
+
+        List<Course> result = new ArrayList<>(batch.size());
+        for (Course course : batch) {
+            course.addListener(writeThrough);
+            result.add(course);
+        }
+        return result;
+    }
+
+    @Override
+    public Course findById(int id) {
+
+        // Check if id is negative or zero:
+        if (id <= 0) {
+            throw new IllegalArgumentException("Id is not allowed to be zero or negative.");
+        }
+
+        try {
+            PreparedStatement query = session.prepare(FIND_BY_ID);
+            query.setInt(1, id);
+            List<Course> found = list(query);
+            return found.isEmpty() ? null : found.get(0);
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    @Override
+    public List<Course> findByName(String name) {
+
+        // Check for null and empty:
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Course name cannot be null or empty.");
+        }
+
+        return findByName(namePattern(name), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Course> findByDate(LocalDate date) {
+
+        // Check if date is null:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+
+        return findByDate(date, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Course> findByDateRange(LocalDate from, LocalDate to) {
+
+        // Check if dates are null or in the wrong order:
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Dates are not allowed to be null.");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From date cannot be after to date.");
+        }
+
+        try {
+            PreparedStatement query = session.prepare(FIND_BY_DATE_RANGE);
+            query.setDate(1, Date.valueOf(from));
+            query.setDate(2, Date.valueOf(to));
+            return list(query);
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    @Override
+    public List<Course> findStartingAfter(LocalDate date) {
+
+        // Check if date is null:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+
+        try {
+            PreparedStatement query = session.prepare(FIND_STARTING_AFTER);
+            query.setDate(1, Date.valueOf(date));
+            return list(query);
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    @Override
+    public List<Course> findNextStarting(LocalDate date, int limit) {
+
+        // Check if date is null and limit is positive:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit is not allowed to be zero or negative.");
+        }
+
+        try {
+            PreparedStatement query = session.prepare(FIND_NEXT_STARTING);
+            query.setDate(1, Date.valueOf(date));
+            query.setInt(2, limit);
+            return list(query);
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    @Override
+    public List<Course> findActiveOn(LocalDate date) {
+
+        // Check if date is null:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+
+        return findOverlapping(date, date);
+    }
+
+    @Override
+    public List<Course> findOverlapping(LocalDate from, LocalDate to) {
+
+        // Check if dates are null or in the wrong order:
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Dates are not allowed to be null.");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From date cannot be after to date.");
+        }
+
+        // Courses starting by the end of the range and ending after its start:
+        try {
+            PreparedStatement query = session.prepare(FIND_OVERLAPPING);
+            query.setDate(1, Date.valueOf(to));
+            query.setDate(2, Date.valueOf(from));
+            return list(query);
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    @Override
+    public List<Course> findByStudent(Student student) {
+
+        // Check if student is null:
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+
+        try {
+            PreparedStatement query = session.prepare(FIND_BY_STUDENT);
+            query.setInt(1, student.getId());
+            return list(query);
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    @Override
+    public int unregisterFromAll(Student student) {
+
+        // Check if student is null:
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+
+        // Each course has the student at most once, so the deleted rows are the affected courses:
+        try {
+            PreparedStatement delete = session.prepare(DELETE_ENROLLMENTS_OF_STUDENT);
+            delete.setInt(1, student.getId());
+            return delete.executeUpdate();
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    @Override
+    public int unregisterFromAll(Collection<Student> batch) {
+
+        // Check if batch or any student in it is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Students cannot be null.");
+        }
+        for (Student student : batch) {
+            if (student == null) {
+                throw new IllegalArgumentException("Student cannot be null.");
+            }
+        }
+
+        // Collect the affected courses, then delete the enrollments as one batch:
+        try {
+            return session.inTransaction(() -> {
+                Set<Integer> courseIds = new HashSet<>();
+                PreparedStatement query = session.prepare(COURSES_OF_STUDENT);
+                PreparedStatement delete = session.prepare(DELETE_ENROLLMENTS_OF_STUDENT);
+                for (Student student : batch) {
+                    query.setInt(1, student.getId());
+                    try (ResultSet rows = query.executeQuery()) {
+                        while (rows.next()) {
+                            courseIds.add(rows.getInt(1));
+                        }
+                    }
+                    delete.setInt(1, student.getId());
+                    delete.addBatch();
+                }
+                delete.executeBatch();
+                return courseIds.size();
+            });
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    @Override
+    public List<Course> findAll() {
+        try {
+            return list(session.prepare(FIND_ALL));
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    @Override
+    public List<Course> findAll(int afterId, int limit) {
+
+        // Check that the cursor is not negative and the limit is positive:
+        if (afterId < 0) {
+            throw new IllegalArgumentException("After id cannot be negative.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit is not allowed to be zero or negative.");
+        }
+
+        try {
+            PreparedStatement query = session.prepare(FIND_PAGE);
+            query.setInt(1, afterId);
+            query.setInt(2, limit);
+            return list(query);
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    @Override
+    public Stream<Course> streamAll() {
+        return KeysetPager.stream(this::findAll, Course::getId);
+    }
+
+    @Override
+    public Stream<Course> streamByName(String name) {
+
+        // Check for null and empty:
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Course name cannot be null or empty.");
+        }
+
+        String pattern = namePattern(name);
+        return KeysetPager.stream((afterId, limit) -> findByName(pattern, afterId, limit), Course::getId);
+    }
+
+    @Override
+    public Stream<Course> streamByDate(LocalDate date) {
+
+        // Check if date is null:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+
+        return KeysetPager.stream((afterId, limit) -> findByDate(date, afterId, limit), Course::getId);
+    }
+
+    @Override
+    public Collection<Course> viewAll() {
+        return new AbstractCollection<Course>() {
+            @Override
+            public Iterator<Course> iterator() {
+                return KeysetPager.iterator(JdbcCourseDaoImpl.this::findAll, Course::getId);
+            }
+
+            @Override
+            public int size() {
+                try (ResultSet rows = session.prepare(COUNT).executeQuery()) {
+                    rows.next();
+                    return rows.getInt(1);
+                } catch (SQLException e) {
+                    throw JdbcSession.failure(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean delete(Course course) {
+
+        // Check for null:
+        if (course == null) {
+            throw new IllegalArgumentException("Course cannot be null.");
+        }
+
+        // Delete the row; its roster goes with it through the foreign key:
+        try {
+            PreparedStatement delete = session.prepare(DELETE);
+            delete.setInt(1, course.getId());
+            boolean deleted = delete.executeUpdate() > 0;
+            course.removeListener(writeThrough);
+            return deleted;
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<Course> batch) {
+
+        // Check if batch or any course in it is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Courses cannot be null.");
+        }
+        for (Course course : batch) {
+            if (course == null) {
+                throw new IllegalArgumentException("Course cannot be null.");
+            }
+        }
+
+        // Delete the batch in one transaction, counting the rows that were there:
+        try {
+            int[] counts = session.inTransaction(() -> {
+                PreparedStatement delete = session.prepare(DELETE);
+                for (Course course : batch) {
+                    delete.setInt(1, course.getId());
+                    delete.addBatch();
+                }
+                return delete.executeBatch();
+            });
+            int deleted = 0;
+            for (int count : counts) {
+                deleted += Math.max(0, count);
+            }
+            for (Course course : batch) {
+                course.removeListener(writeThrough);
+            }
+            return deleted;
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    /**
+     * Closes the cached statements, which are shared with the student DAO. The connection is left open.
+     */
+    @Override
+    public void close() {
+        session.close();
+    }
+
+    private List<Course> findByName(String pattern, int afterId, int limit) {
+        try {
+            PreparedStatement query = session.prepare(FIND_BY_NAME);
+            query.setString(1, pattern);
+            query.setInt(2, afterId);
+            query.setInt(3, limit);
+            return list(query);
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    private List<Course> findByDate(LocalDate date, int afterId, int limit) {
+        try {
+            PreparedStatement query = session.prepare(FIND_BY_DATE);
+            query.setDate(1, Date.valueOf(date));
+            query.setInt(2, afterId);
+            query.setInt(3, limit);
+            return list(query);
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    private void insert(Course course) throws SQLException {
+        PreparedStatement insert = session.prepare(INSERT);
+        bind(insert, course);
+        insert.executeUpdate();
+        addRoster(course);
+    }
+
+    // Adds the roster of the course to the batch of enrollments, numbered in enrollment order:
+    private void addRoster(Course course) throws SQLException {
+        PreparedStatement enroll = session.prepare(INSERT_ENROLLMENT);
+        int position = 0;
+        for (Student student : course.viewStudents()) {
+            enroll.setInt(1, course.getId());
+            enroll.setInt(2, student.getId());
+            enroll.setInt(3, ++position);
+            enroll.addBatch();
+        }
+    }
+
+    private boolean isEnrolled(int courseId, int studentId) throws SQLException {
+        PreparedStatement query = session.prepare(IS_ENROLLED);
+        query.setInt(1, courseId);
+        query.setInt(2, studentId);
+        try (ResultSet rows = query.executeQuery()) {
+            return rows.next();
+        }
+    }
+
+    private void updateSchedule(int id, LocalDate startDate, int weekDuration) {
+        try {
+            PreparedStatement statement = session.prepare(UPDATE_SCHEDULE);
+            statement.setDate(1, Date.valueOf(startDate));
+            statement.setDate(2, Date.valueOf(endDate(startDate, weekDuration)));
+            statement.setInt(3, weekDuration);
+            statement.setInt(4, id);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    // A taken id or a roster student that is not saved breaks a key:
+    private IllegalArgumentException invalid(Course course) {
+        if (findById(course.getId()) != null) {
+            return new IllegalArgumentException("Course already exists: " + course);
+        }
+        return new IllegalArgumentException("Course roster has a student that is not saved: " + course);
+    }
+
+    // Reads courses from the rows of a query made by select(), each course's rows together:
+    private List<Course> list(PreparedStatement query) throws SQLException {
+        List<Course> result = new ArrayList<>();
+        try (ResultSet rows = query.executeQuery()) {
+            Course course = null;
+            while (rows.next()) {
+                int id = rows.getInt(1);
+                if (course == null || course.getId() != id) {
+                    course = new Course(id, rows.getString(2), rows.getDate(3).toLocalDate(), rows.getInt(4),
+                            new ArrayList<>());
+                    result.add(course);
+                }
+                int studentId = rows.getInt(5);
+                if (!rows.wasNull()) {
+                    course.register(studentDao.view(studentId, rows.getString(6), rows.getString(7), rows.getString(8)));
+                }
+            }
+        }
+        for (Course course : result) {
+            course.addListener(writeThrough);
+        }
+        return result;
+    }
+
+    private static void bind(PreparedStatement insert, Course course) throws SQLException {
+        insert.setInt(1, course.getId());
+        insert.setString(2, course.getCourseName());
+        insert.setString(3, fold(course.getCourseName()));
+        insert.setDate(4, Date.valueOf(course.getStartDate()));
+        insert.setDate(5, Date.valueOf(course.getEndDate()));
+        insert.setInt(6, course.getWeekDuration());
+    }
+
+    private static LocalDate endDate(LocalDate startDate, int weekDuration) {
+        return startDate.plusWeeks(weekDuration).minusDays(1);
+    }
+
+    // Matches names containing the folded query, with the LIKE wildcards in it escaped:
+    private static String namePattern(String name) {
+        String escaped = fold(name).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static String select(String courses, String order) {
+        return String.format(SELECT, courses, order);
+    }
+}
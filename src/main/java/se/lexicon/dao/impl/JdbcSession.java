@@ -0,0 +1,118 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.dao.DataAccessException;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The connection shared by the JDBC DAOs, with a cache of its prepared statements and transaction
+ * handling. Statements are cached by their SQL, and the least recently used one is closed once the cache
+ * is full. Closing the session closes the statements, but leaves the connection to its owner.
+ */
+final class JdbcSession implements Closeable {
+
+    private static final int MAX_STATEMENTS = 64;
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements =
+            new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() <= MAX_STATEMENTS) {
+                        return false;
+                    }
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+            };
+
+    JdbcSession(Connection connection) {
+        this.connection = connection;
+    }
+
+    // Runs a statement once, without caching it, such as to create the schema:
+    void execute(String sql) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw failure(e);
+        }
+    }
+
+    // Returns the cached statement for the SQL, preparing it on first use:
+    PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    // Runs the work in a transaction that is rolled back if the work throws, or joins the one in progress:
+    <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        if (!connection.getAutoCommit()) {
+            return work.run();
+        }
+        connection.setAutoCommit(false);
+        try {
+            T result = work.run();
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            clearBatches();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // Drops statements left in the batches of the cached statements by failed work:
+    private void clearBatches() throws SQLException {
+        for (PreparedStatement statement : statements.values()) {
+            statement.clearBatch();
+        }
+    }
+
+    // Tells whether the statement broke a constraint, such as a unique or foreign key:
+    static boolean isConstraintViolation(SQLException e) {
+        for (SQLException cause = e; cause != null; cause = cause.getNextException()) {
+            String state = cause.getSQLState();
+            if (state != null && state.startsWith("23")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static DataAccessException failure(SQLException e) {
+        return new DataAccessException("Database access failed: " + e.getMessage(), e);
+    }
+
+    @Override
+    public void close() {
+        for (PreparedStatement statement : statements.values()) {
+            closeQuietly(statement);
+        }
+        statements.clear();
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // Nothing left to do with a statement that cannot be closed.
+        }
+    }
+
+    interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+}
@@ -0,0 +1,424 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.dao.StudentDao;
+import se.lexicon.model.Student;
+import se.lexicon.model.StudentListener;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static se.lexicon.util.TextNormalizer.fold;
+
+/**
+ * A {@link StudentDao} that stores students in a relational database through JDBC, so the dataset is not
+ * bounded by the heap. The table is created on construction if it does not exist. Each student row keeps
+ * the case-folded name and email beside the values, and lookups by email and name are indexed queries on
+ * those keys. Batches are saved and deleted with batched statements in one transaction.
+ * <p>
+ * As in {@link ColumnarStudentDaoImpl}, lookups return new views whose changes are written through, as
+ * are changes to a saved student; a change to a taken email is vetoed by the unique key. Lists come in id
+ * order, and streams and {@link #viewAll()} fetch the rows a page at a time.
+ * <p>
+ * Deleting a student removes it from the rosters of a {@link JdbcCourseDaoImpl} on the same database,
+ * through the foreign key of the roster table. The connection stays owned by the caller; {@link #close()}
+ * only closes the cached statements. This class is not thread-safe.
+ */
+public class JdbcStudentDaoImpl implements StudentDao, Closeable {
+
+    private static final String COLUMNS = "id, name, email, address";
+
+    private static final String INSERT =
+            "INSERT INTO student (id, name, name_key, email, email_key, address) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String FIND_BY_ID = "SELECT " + COLUMNS + " FROM student WHERE id = ?";
+    private static final String FIND_BY_EMAIL = "SELECT " + COLUMNS + " FROM student WHERE email_key = ?";
+    private static final String FIND_BY_NAME =
+            "SELECT " + COLUMNS + " FROM student WHERE name_key = ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String FIND_ALL = "SELECT " + COLUMNS + " FROM student ORDER BY id";
+    private static final String FIND_PAGE = "SELECT " + COLUMNS + " FROM student WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String COUNT = "SELECT COUNT(*) FROM student";
+    private static final String UPDATE_NAME = "UPDATE student SET name = ?, name_key = ? WHERE id = ?";
+    private static final String UPDATE_EMAIL = "UPDATE student SET email = ?, email_key = ? WHERE id = ?";
+    private static final String UPDATE_ADDRESS = "UPDATE student SET address = ? WHERE id = ?";
+    private static final String DELETE = "DELETE FROM student WHERE id = ?";
+
+    private final JdbcSession session;
+
+    // Writes changes to saved students and views through to their rows:
+    private final StudentListener writeThrough = new StudentListener() {
+        @Override
+        public void onEmailChange(Student student, String oldEmail, String newEmail) {
+            try {
+                update(UPDATE_EMAIL, newEmail, fold(newEmail), student.getId());
+            } catch (SQLException e) {
+                if (JdbcSession.isConstraintViolation(e)) {
+                    throw new IllegalArgumentException("Student with email " + newEmail + " already exists.");
+                }
+                throw JdbcSession.failure(e);
+            }
+        }
+
+        @Override
+        public void onNameChange(Student student, String oldName, String newName) {
+            try {
+                update(UPDATE_NAME, newName, fold(newName), student.getId());
+            } catch (SQLException e) {
+                throw JdbcSession.failure(e);
+            }
+        }
+
+        @Override
+        public void onAddressChange(Student student, String oldAddress, String newAddress) {
+            try {
+                PreparedStatement statement = session.prepare(UPDATE_ADDRESS);
+                statement.setString(1, newAddress);
+                statement.setInt(2, student.getId());
+                statement.executeUpdate();
+            } catch (SQLException e) {
+                throw JdbcSession.failure(e);
+            }
+        }
+    };
+
+    // Uses the given connection, creating the student table on it if needed:
+    public JdbcStudentDaoImpl(Connection connection) {
+        if (connection == null) {
+            throw new IllegalArgumentException("Connection cannot be null.");
+        }
+        this.session = new JdbcSession(connection);
+        session.execute("CREATE TABLE IF NOT EXISTS student ("
+                + "id INT PRIMARY KEY, "
+                + "name VARCHAR NOT NULL, "
+                + "name_key VARCHAR NOT NULL, "
+                + "email VARCHAR NOT NULL, "
+                + "email_key VARCHAR NOT NULL UNIQUE, "
+                + "address VARCHAR NOT NULL)");
+        session.execute("CREATE INDEX IF NOT EXISTS student_name_key ON student (name_key)");
+    }
+
+    @Override
+    public Student save(Student student) {
+
+        // Check if student is null:
+        if (student == null) {
+            throw new IllegalArgumentException("Student is not allowed to be null.");
+        }
+
+        // Insert the row; a taken id or email breaks a key:
+        try {
+            PreparedStatement insert = session.prepare(INSERT);
+            bind(insert, student);
+            insert.executeUpdate();
+        } catch (SQLException e) {
+            if (JdbcSession.isConstraintViolation(e)) {
+                throw duplicate(student);
+            }
+            throw JdbcSession.failure(e);
+        }
+        student.addListener(writeThrough);
+        return student;
+    }
+
+    @Override
+    public List<Student> saveAll(Collection<Student> batch) {
+
+        // Check if batch is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Students cannot be null.");
+        }
+
+        // Validate the batch against itself; the keys check it against the stored rows:
+        Set<Integer> batchIds = new HashSet<>(batch.size() * 4 / 3 + 1);
+        Set<String> batchEmails = new HashSet<>(batch.size() * 4 / 3 + 1);
+        for (Student student : batch) {
+            if (student == null) {
+                throw new IllegalArgumentException("Student is not allowed to be null.");
+            }
+            if (!batchIds.add(student.getId())) {
+                throw new IllegalArgumentException("Student already exists: " + student);
+            }
+            if (!batchEmails.add(fold(student.getEmail()))) {
+                throw new IllegalArgumentException("Student with email " + student.getEmail() + " already exists.");
+            }
+        }
+
+        // Insert the batch in one transaction, so that a broken key saves nothing:
+        try {
+            session.inTransaction(() -> {
+                PreparedStatement insert = session.prepare(INSERT);
+                for (Student student : batch) {
+                    bind(insert, student);
+                    insert.addBatch();
+                }
+                return insert.executeBatch();
+            });
+        } catch (SQLException e) {
+            if (JdbcSession.isConstraintViolation(e)) {
+                for (Student student : batch) {
+                    if (findById(student.getId()) != null || findByEmail(student.getEmail()) != null) {
+                        throw duplicate(student);
+                    }
+                }
+            }
+            throw JdbcSession.failure(e);
+        }
+
+        List<Student> result = new ArrayList<>(batch.size());
+        for (Student student : batch) {
+            student.addListener(writeThrough);
+            result.add(student);
+        }
+        return result;
+    }
+
+    @Override
+    public Student findByEmail(String email) {
+
+        // Check for null and empty:
+        if (email == null || email.trim().isEmpty()) {
+            throw new IllegalArgumentException("Email cannot be null or empty.");
+        }
+
+        // Look up the row by the unique email key (case-insensitive):
+        try {
+            PreparedStatement query = session.prepare(FIND_BY_EMAIL);
+            query.setString(1, fold(email));
+            return first(query);
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    @Override
+    public List<Student> findByName(String name) {
+
+        // Check for null and empty:
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be null or empty.");
+        }
+
+        // Look up the rows by the indexed name key (case-insensitive):
+        return findByName(fold(name), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Student findById(int id) {
+
+        // Check if id is negative or zero:
+        if (id <= 0) {
+            throw new IllegalArgumentException("Id is not allowed to be zero or negative.");
+        }
+
+        try {
+            PreparedStatement query = session.prepare(FIND_BY_ID);
+            query.setInt(1, id);
+            return first(query);
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    @Override
+    public List<Student> findAll() {
+        try {
+            return list(session.prepare(FIND_ALL));
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    @Override
+    public List<Student> findAll(int afterId, int limit) {
+
+        // Check that the cursor is not negative and the limit is positive:
+        if (afterId < 0) {
+            throw new IllegalArgumentException("After id cannot be negative.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit is not allowed to be zero or negative.");
+        }
+
+        try {
+            PreparedStatement query = session.prepare(FIND_PAGE);
+            query.setInt(1, afterId);
+            query.setInt(2, limit);
+            return list(query);
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    @Override
+    public Stream<Student> streamAll() {
+        return KeysetPager.stream(this::findAll, Student::getId);
+    }
+
+    @Override
+    public Stream<Student> streamByName(String name) {
+
+        // Check for null and empty:
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be null or empty.");
+        }
+
+        String key = fold(name);
+        return KeysetPager.stream((afterId, limit) -> findByName(key, afterId, limit), Student::getId);
+    }
+
+    @Override
+    public Collection<Student> viewAll() {
+        return new AbstractCollection<Student>() {
+            @Override
+            public Iterator<Student> iterator() {
+                return KeysetPager.iterator(JdbcStudentDaoImpl.this::findAll, Student::getId);
+            }
+
+            @Override
+            public int size() {
+                try (ResultSet rows = session.prepare(COUNT).executeQuery()) {
+                    rows.next();
+                    return rows.getInt(1);
+                } catch (SQLException e) {
+                    throw JdbcSession.failure(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean delete(Student student) {
+
+        // Check for null:
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+
+        // Delete the row; the roster table drops the student through its foreign key:
+        try {
+            PreparedStatement delete = session.prepare(DELETE);
+            delete.setInt(1, student.getId());
+            boolean deleted = delete.executeUpdate() > 0;
+            student.removeListener(writeThrough);
+            return deleted;
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<Student> batch) {
+
+        // Check if batch or any student in it is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Students cannot be null.");
+        }
+        for (Student student : batch) {
+            if (student == null) {
+                throw new IllegalArgumentException("Student cannot be null.");
+            }
+        }
+
+        // Delete the batch in one transaction, counting the rows that were there:
+        try {
+            int[] counts = session.inTransaction(() -> {
+                PreparedStatement delete = session.prepare(DELETE);
+                for (Student student : batch) {
+                    delete.setInt(1, student.getId());
+                    delete.addBatch();
+                }
+                return delete.executeBatch();
+            });
+            int deleted = 0;
+            for (int count : counts) {
+                deleted += Math.max(0, count);
+            }
+            for (Student student : batch) {
+                student.removeListener(writeThrough);
+            }
+            return deleted;
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    /**
+     * Closes the cached statements. The connection is left open.
+     */
+    @Override
+    public void close() {
+        session.close();
+    }
+
+    JdbcSession session() {
+        return session;
+    }
+
+    // Makes a new student from the values of a row, whose changes are written back to the row:
+    Student view(int id, String name, String email, String address) {
+        Student student = new Student(id, name, email, address);
+        student.addListener(writeThrough);
+        return student;
+    }
+
+    private List<Student> findByName(String key, int afterId, int limit) {
+        try {
+            PreparedStatement query = session.prepare(FIND_BY_NAME);
+            query.setString(1, key);
+            query.setInt(2, afterId);
+            query.setInt(3, limit);
+            return list(query);
+        } catch (SQLException e) {
+            throw JdbcSession.failure(e);
+        }
+    }
+
+    private void update(String sql, String value, String key, int id) throws SQLException {
+        PreparedStatement statement = session.prepare(sql);
+        statement.setString(1, value);
+        statement.setString(2, key);
+        statement.setInt(3, id);
+        statement.executeUpdate();
+    }
+
+    private IllegalArgumentException duplicate(Student student) {
+        if (findById(student.getId()) != null) {
+            return new IllegalArgumentException("Student already exists: " + student);
+        }
+        return new IllegalArgumentException("Student with email " + student.getEmail() + " already exists.");
+    }
+
+    private static void bind(PreparedStatement insert, Student student) throws SQLException {
+        insert.setInt(1, student.getId());
+        insert.setString(2, student.getName());
+        insert.setString(3, fold(student.getName()));
+        insert.setString(4, student.getEmail());
+        insert.setString(5, fold(student.getEmail()));
+        insert.setString(6, student.getAddress());
+    }
+
+    private Student first(PreparedStatement query) throws SQLException {
+        try (ResultSet rows = query.executeQuery()) {
+            return rows.next() ? view(rows.getInt(1), rows.getString(2), rows.getString(3), rows.getString(4)) : null;
+        }
+    }
+
+    private List<Student> list(PreparedStatement query) throws SQLException {
+        List<Student> result = new ArrayList<>();
+        try (ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                result.add(view(rows.getInt(1), rows.getString(2), rows.getString(3), rows.getString(4)));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package se.lexicon.dao.impl;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks a query page by page in ascending id order, fetching the next page only when the previous one is
+ * used up. Used by the JDBC DAOs for lazy streams and live views that hold no open result set.
+ */
+final class KeysetPager<T> implements Iterator<T> {
+
+    static final int PAGE_SIZE = 1000;
+
+    private final Page<T> page;
+    private final ToIntFunction<T> idOf;
+    private List<T> current;
+    private int index;
+
+    private KeysetPager(Page<T> page, ToIntFunction<T> idOf) {
+        this.page = page;
+        this.idOf = idOf;
+        this.current = page.fetch(0, PAGE_SIZE);
+    }
+
+    static <T> Iterator<T> iterator(Page<T> page, ToIntFunction<T> idOf) {
+        return new KeysetPager<>(page, idOf);
+    }
+
+    static <T> Stream<T> stream(Page<T> page, ToIntFunction<T> idOf) {
+        return StreamSupport.stream(() -> Spliterators.spliteratorUnknownSize(iterator(page, idOf),
+                Spliterator.ORDERED | Spliterator.NONNULL), Spliterator.ORDERED | Spliterator.NONNULL, false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (index < current.size()) {
+            return true;
+        }
+        if (current.size() < PAGE_SIZE) {
+            return false;
+        }
+        current = page.fetch(idOf.applyAsInt(current.get(current.size() - 1)), PAGE_SIZE);
+        index = 0;
+        return !current.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.get(index++);
+    }
+
+    interface Page<T> {
+        List<T> fetch(int afterId, int limit);
+    }
+}
@@ -0,0 +1,356 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.dao.CourseDao;
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A {@link CourseDao} decorator that records the latency and result size of every call, per method, in its
+ * {@link DaoMetrics}, as {@link MeteredStudentDao} does for students. The result size of
+ * {@code unregisterFromAll} and {@code deleteAll} is the number of courses changed or deleted, and that of
+ * {@code unregister} is 1 if the student was registered and 0 otherwise.
+ * <p>
+ * This class is thread-safe if the delegate is.
+ */
+public class MeteredCourseDao implements CourseDao {
+
+    private final CourseDao delegate;
+    private final DaoMetrics metrics = new DaoMetrics();
+    private final OperationMetrics save = metrics.operation("save");
+    private final OperationMetrics saveAll = metrics.operation("saveAll");
+    private final OperationMetrics findById = metrics.operation("findById");
+    private final OperationMetrics findByName = metrics.operation("findByName");
+    private final OperationMetrics findByDate = metrics.operation("findByDate");
+    private final OperationMetrics findByDateRange = metrics.operation("findByDateRange");
+    private final OperationMetrics findStartingAfter = metrics.operation("findStartingAfter");
+    private final OperationMetrics findNextStarting = metrics.operation("findNextStarting");
+    private final OperationMetrics findActiveOn = metrics.operation("findActiveOn");
+    private final OperationMetrics findOverlapping = metrics.operation("findOverlapping");
+    private final OperationMetrics findByStudent = metrics.operation("findByStudent");
+    private final OperationMetrics register = metrics.operation("register");
+    private final OperationMetrics unregister = metrics.operation("unregister");
+    private final OperationMetrics unregisterFromAll = metrics.operation("unregisterFromAll");
+    private final OperationMetrics unregisterFromAllBatch = metrics.operation("unregisterFromAllBatch");
+    private final OperationMetrics findAll = metrics.operation("findAll");
+    private final OperationMetrics findAllPage = metrics.operation("findAllPage");
+    private final OperationMetrics streamAll = metrics.operation("streamAll");
+    private final OperationMetrics streamByName = metrics.operation("streamByName");
+    private final OperationMetrics streamByDate = metrics.operation("streamByDate");
+    private final OperationMetrics viewAll = metrics.operation("viewAll");
+    private final OperationMetrics delete = metrics.operation("delete");
+    private final OperationMetrics deleteAll = metrics.operation("deleteAll");
+
+    public MeteredCourseDao(CourseDao delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Course dao cannot be null.");
+        }
+        this.delegate = delegate;
+    }
+
+    public DaoMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public Course save(Course course) {
+        long start = System.nanoTime();
+        try {
+            Course saved = delegate.save(course);
+            save.record(start, 1);
+            return saved;
+        } catch (RuntimeException e) {
+            save.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Course> saveAll(Collection<Course> courses) {
+        long start = System.nanoTime();
+        try {
+            List<Course> saved = delegate.saveAll(courses);
+            saveAll.record(start, saved.size());
+            return saved;
+        } catch (RuntimeException e) {
+            saveAll.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Course findById(int id) {
+        long start = System.nanoTime();
+        try {
+            Course course = delegate.findById(id);
+            findById.record(start, course == null ? 0 : 1);
+            return course;
+        } catch (RuntimeException e) {
+            findById.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Course> findByName(String name) {
+        long start = System.nanoTime();
+        try {
+            List<Course> found = delegate.findByName(name);
+            findByName.record(start, found.size());
+            return found;
+        } catch (RuntimeException e) {
+            findByName.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Course> findByDate(LocalDate date) {
+        long start = System.nanoTime();
+        try {
+            List<Course> found = delegate.findByDate(date);
+            findByDate.record(start, found.size());
+            return found;
+        } catch (RuntimeException e) {
+            findByDate.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Course> findByDateRange(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        try {
+            List<Course> found = delegate.findByDateRange(from, to);
+            findByDateRange.record(start, found.size());
+            return found;
+        } catch (RuntimeException e) {
+            findByDateRange.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Course> findStartingAfter(LocalDate date) {
+        long start = System.nanoTime();
+        try {
+            List<Course> found = delegate.findStartingAfter(date);
+            findStartingAfter.record(start, found.size());
+            return found;
+        } catch (RuntimeException e) {
+            findStartingAfter.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Course> findNextStarting(LocalDate date, int limit) {
+        long start = System.nanoTime();
+        try {
+            List<Course> found = delegate.findNextStarting(date, limit);
+            findNextStarting.record(start, found.size());
+            return found;
+        } catch (RuntimeException e) {
+            findNextStarting.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Course> findActiveOn(LocalDate date) {
+        long start = System.nanoTime();
+        try {
+            List<Course> found = delegate.findActiveOn(date);
+            findActiveOn.record(start, found.size());
+            return found;
+        } catch (RuntimeException e) {
+            findActiveOn.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Course> findOverlapping(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        try {
+            List<Course> found = delegate.findOverlapping(from, to);
+            findOverlapping.record(start, found.size());
+            return found;
+        } catch (RuntimeException e) {
+            findOverlapping.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Course> findByStudent(Student student) {
+        long start = System.nanoTime();
+        try {
+            List<Course> found = delegate.findByStudent(student);
+            findByStudent.record(start, found.size());
+            return found;
+        } catch (RuntimeException e) {
+            findByStudent.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public void register(Course course, Student student) {
+        long start = System.nanoTime();
+        try {
+            delegate.register(course, student);
+            register.record(start, 1);
+        } catch (RuntimeException e) {
+            register.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean unregister(Course course, Student student) {
+        long start = System.nanoTime();
+        try {
+            boolean unregistered = delegate.unregister(course, student);
+            unregister.record(start, unregistered ? 1 : 0);
+            return unregistered;
+        } catch (RuntimeException e) {
+            unregister.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public int unregisterFromAll(Student student) {
+        long start = System.nanoTime();
+        try {
+            int changed = delegate.unregisterFromAll(student);
+            unregisterFromAll.record(start, changed);
+            return changed;
+        } catch (RuntimeException e) {
+            unregisterFromAll.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public int unregisterFromAll(Collection<Student> students) {
+        long start = System.nanoTime();
+        try {
+            int changed = delegate.unregisterFromAll(students);
+            unregisterFromAllBatch.record(start, changed);
+            return changed;
+        } catch (RuntimeException e) {
+            unregisterFromAllBatch.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Course> findAll() {
+        long start = System.nanoTime();
+        try {
+            List<Course> found = delegate.findAll();
+            findAll.record(start, found.size());
+            return found;
+        } catch (RuntimeException e) {
+            findAll.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Course> findAll(int afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            List<Course> found = delegate.findAll(afterId, limit);
+            findAllPage.record(start, found.size());
+            return found;
+        } catch (RuntimeException e) {
+            findAllPage.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<Course> streamAll() {
+        long start = System.nanoTime();
+        try {
+            Stream<Course> stream = delegate.streamAll();
+            streamAll.record(start, 0);
+            return stream;
+        } catch (RuntimeException e) {
+            streamAll.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<Course> streamByName(String name) {
+        long start = System.nanoTime();
+        try {
+            Stream<Course> stream = delegate.streamByName(name);
+            streamByName.record(start, 0);
+            return stream;
+        } catch (RuntimeException e) {
+            streamByName.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<Course> streamByDate(LocalDate date) {
+        long start = System.nanoTime();
+        try {
+            Stream<Course> stream = delegate.streamByDate(date);
+            streamByDate.record(start, 0);
+            return stream;
+        } catch (RuntimeException e) {
+            streamByDate.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Collection<Course> viewAll() {
+        long start = System.nanoTime();
+        try {
+            Collection<Course> view = delegate.viewAll();
+            viewAll.record(start, 0);
+            return view;
+        } catch (RuntimeException e) {
+            viewAll.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean delete(Course course) {
+        long start = System.nanoTime();
+        try {
+            boolean deleted = delegate.delete(course);
+            delete.record(start, deleted ? 1 : 0);
+            return deleted;
+        } catch (RuntimeException e) {
+            delete.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<Course> courses) {
+        long start = System.nanoTime();
+        try {
+            int deleted = delegate.deleteAll(courses);
+            deleteAll.record(start, deleted);
+            return deleted;
+        } catch (RuntimeException e) {
+            deleteAll.recordFailure(start);
+            throw e;
+        }
+    }
+}
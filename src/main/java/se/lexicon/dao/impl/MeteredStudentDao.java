@@ -0,0 +1,201 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.dao.StudentDao;
+import se.lexicon.model.Student;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A {@link StudentDao} decorator that records the latency and result size of every call, per method, in
+ * its {@link DaoMetrics}. Recording takes two clock reads and a few atomic increments, and allocates
+ * nothing, so it can stay on in production. The stream and view methods are timed until the stream or
+ * view is returned, not until it is read, and their result size is not recorded.
+ * <p>
+ * This class is thread-safe if the delegate is.
+ */
+public class MeteredStudentDao implements StudentDao {
+
+    private final StudentDao delegate;
+    private final DaoMetrics metrics = new DaoMetrics();
+    private final OperationMetrics save = metrics.operation("save");
+    private final OperationMetrics saveAll = metrics.operation("saveAll");
+    private final OperationMetrics findByEmail = metrics.operation("findByEmail");
+    private final OperationMetrics findById = metrics.operation("findById");
+    private final OperationMetrics findByName = metrics.operation("findByName");
+    private final OperationMetrics findAll = metrics.operation("findAll");
+    private final OperationMetrics findAllPage = metrics.operation("findAllPage");
+    private final OperationMetrics streamAll = metrics.operation("streamAll");
+    private final OperationMetrics streamByName = metrics.operation("streamByName");
+    private final OperationMetrics viewAll = metrics.operation("viewAll");
+    private final OperationMetrics delete = metrics.operation("delete");
+    private final OperationMetrics deleteAll = metrics.operation("deleteAll");
+
+    public MeteredStudentDao(StudentDao delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Student dao cannot be null.");
+        }
+        this.delegate = delegate;
+    }
+
+    public DaoMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public Student save(Student student) {
+        long start = System.nanoTime();
+        try {
+            Student saved = delegate.save(student);
+            save.record(start, 1);
+            return saved;
+        } catch (RuntimeException e) {
+            save.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Student> saveAll(Collection<Student> students) {
+        long start = System.nanoTime();
+        try {
+            List<Student> saved = delegate.saveAll(students);
+            saveAll.record(start, saved.size());
+            return saved;
+        } catch (RuntimeException e) {
+            saveAll.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Student findByEmail(String email) {
+        long start = System.nanoTime();
+        try {
+            Student student = delegate.findByEmail(email);
+            findByEmail.record(start, student == null ? 0 : 1);
+            return student;
+        } catch (RuntimeException e) {
+            findByEmail.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Student findById(int id) {
+        long start = System.nanoTime();
+        try {
+            Student student = delegate.findById(id);
+            findById.record(start, student == null ? 0 : 1);
+            return student;
+        } catch (RuntimeException e) {
+            findById.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Student> findByName(String name) {
+        long start = System.nanoTime();
+        try {
+            List<Student> found = delegate.findByName(name);
+            findByName.record(start, found.size());
+            return found;
+        } catch (RuntimeException e) {
+            findByName.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Student> findAll() {
+        long start = System.nanoTime();
+        try {
+            List<Student> found = delegate.findAll();
+            findAll.record(start, found.size());
+            return found;
+        } catch (RuntimeException e) {
+            findAll.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Student> findAll(int afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            List<Student> found = delegate.findAll(afterId, limit);
+            findAllPage.record(start, found.size());
+            return found;
+        } catch (RuntimeException e) {
+            findAllPage.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<Student> streamAll() {
+        long start = System.nanoTime();
+        try {
+            Stream<Student> stream = delegate.streamAll();
+            streamAll.record(start, 0);
+            return stream;
+        } catch (RuntimeException e) {
+            streamAll.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<Student> streamByName(String name) {
+        long start = System.nanoTime();
+        try {
+            Stream<Student> stream = delegate.streamByName(name);
+            streamByName.record(start, 0);
+            return stream;
+        } catch (RuntimeException e) {
+            streamByName.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Collection<Student> viewAll() {
+        long start = System.nanoTime();
+        try {
+            Collection<Student> view = delegate.viewAll();
+            viewAll.record(start, 0);
+            return view;
+        } catch (RuntimeException e) {
+            viewAll.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean delete(Student student) {
+        long start = System.nanoTime();
+        try {
+            boolean deleted = delegate.delete(student);
+            delete.record(start, deleted ? 1 : 0);
+            return deleted;
+        } catch (RuntimeException e) {
+            delete.recordFailure(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<Student> students) {
+        long start = System.nanoTime();
+        try {
+            int deleted = delegate.deleteAll(students);
+            deleteAll.record(start, deleted);
+            return deleted;
+        } catch (RuntimeException e) {
+            deleteAll.recordFailure(start);
+            throw e;
+        }
+    }
+}
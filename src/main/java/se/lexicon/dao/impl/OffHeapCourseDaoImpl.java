@@ -0,0 +1,751 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.dao.CourseDao;
+import se.lexicon.dao.StudentDao;
+import se.lexicon.model.Course;
+import se.lexicon.model.CourseListener;
+import se.lexicon.model.Student;
+import se.lexicon.util.IntBitmap;
+import se.lexicon.util.IntHashSet;
+import se.lexicon.util.OffHeapMemory;
+import se.lexicon.util.OffHeapUtf8Column;
+
+import java.io.Closeable;
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static se.lexicon.util.TextNormalizer.fold;
+
+/**
+ * A {@link CourseDao} that keeps its courses and their rosters outside the Java heap, in
+ * {@link OffHeapMemory}. A roster is stored as the ids of its students, and turned back into students
+ * through the given {@link StudentDao} when a course is read; ids the student DAO no longer knows are
+ * skipped, so deleted students drop off the rosters without a cascade.
+ * <p>
+ * Lookups return new course views whose changes, registrations included, are written through. The courses
+ * of a student are found through an off-heap index of enrollments; other queries except by id scan the rows,
+ * which are far fewer than the students they hold. {@link #close()} frees
+ * the memory at once; any use of the DAO afterwards throws {@link IllegalStateException}, while saved
+ * courses and views stay usable and simply stop being written through. This class is not thread-safe.
+ */
+public class OffHeapCourseDaoImpl implements CourseDao, Closeable {
+
+    // Rows are appended in save order; a deleted row keeps id 0 until the rows are compacted:
+    private static final int DELETED = 0;
+    private static final int MIN_DELETED_TO_COMPACT = 1024;
+
+    // Each row holds the id, week duration, start day, and where its roster is:
+    private static final int ROW_SIZE = 32;
+    private static final int ID = 0;
+    private static final int WEEK_DURATION = 4;
+    private static final int START_DAY = 8;
+    private static final int ROSTER_OFFSET = 16;
+    private static final int ROSTER_COUNT = 24;
+    private static final int ROSTER_CAPACITY = 28;
+
+    private final StudentDao studentDao;
+    private final int pageSize;
+    private final OffHeapMemory rows;
+    private final OffHeapUtf8Column names;
+    private int rowCount;
+    private int size;
+
+    // Set by close(), after which changes to saved courses and views are no longer written anywhere:
+    private boolean closed;
+
+    // Student ids of every roster, each in its own run of ints; a run that moves leaves garbage behind:
+    private OffHeapMemory rosters;
+    private long rosterUsed;
+    private long rosterGarbage;
+
+    // Every course and student id pair on a roster, with the courses of each student, so that registration
+    // and student queries never scan a roster or the rows:
+    private final OffHeapEnrollments enrollments;
+
+    // Ids in ascending order, for keyset pagination, and row lookup by id:
+    private final IntBitmap idSet = new IntBitmap();
+    private final OffHeapRowTable rowsById;
+
+    // Writes changes to saved courses and views through to the rows:
+    private final CourseListener writeThrough = new CourseListener() {
+        @Override
+        public void onNameChange(Course course, String oldName, String newName) {
+            int row = rowToWriteThrough(course.getId());
+            if (row >= 0) {
+                names.set(row, newName);
+            }
+        }
+
+        @Override
+        public void onStartDateChange(Course course, LocalDate oldStartDate, LocalDate newStartDate) {
+            int row = rowToWriteThrough(course.getId());
+            if (row >= 0) {
+                rows.putLong(field(row, START_DAY), newStartDate.toEpochDay());
+            }
+        }
+
+        @Override
+        public void onWeekDurationChange(Course course, int oldWeekDuration, int newWeekDuration) {
+            int row = rowToWriteThrough(course.getId());
+            if (row >= 0) {
+                rows.putInt(field(row, WEEK_DURATION), newWeekDuration);
+            }
+        }
+
+        @Override
+        public void onRegister(Course course, Student student) {
+            int row = rowToWriteThrough(course.getId());
+            if (row >= 0) {
+                register(row, student.getId());
+            }
+        }
+
+        @Override
+        public void onUnregister(Course course, Student student) {
+            int row = rowToWriteThrough(course.getId());
+            if (row >= 0) {
+                unregister(row, student.getId());
+            }
+        }
+    };
+
+    // Resolves roster ids to students through the given student DAO:
+    public OffHeapCourseDaoImpl(StudentDao studentDao) {
+        this(studentDao, OffHeapMemory.DEFAULT_PAGE_SIZE);
+    }
+
+    // Allocates memory in pages of the given size, which tests keep small to cross page boundaries:
+    OffHeapCourseDaoImpl(StudentDao studentDao, int pageSize) {
+        if (studentDao == null) {
+            throw new IllegalArgumentException("Student dao cannot be null.");
+        }
+        this.studentDao = studentDao;
+        this.pageSize = pageSize;
+        this.rows = new OffHeapMemory(16 * ROW_SIZE, pageSize);
+        this.names = new OffHeapUtf8Column(pageSize);
+        this.rosters = new OffHeapMemory(256, pageSize);
+        this.rowsById = new OffHeapRowTable(row -> rows.getInt(field(row, ID)), pageSize);
+        this.enrollments = new OffHeapEnrollments(pageSize);
+    }
+
+    @Override
+    public Course save(Course course) {
+
+        // Check if course is null:
+        if (course == null) {
+            throw new IllegalArgumentException("Course is not allowed to be null.");
+        }
+
+        // Check if course already exists:
+        if (rowOf(course.getId()) >= 0) {
+            throw new IllegalArgumentException("Course already exists: " + course);
+        }
+
+        // Append a row and write later changes through to it:
+        append(course);
+        return course;
+    }
+
+    @Override
+    public List<Course> saveAll(Collection<Course> batch) {
+
+        // Check if batch is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Courses cannot be null.");
+        }
+
+        // Validate the whole batch against the stored rows and against itself before saving anything:
+        IntHashSet batchIds = new IntHashSet(batch.size());
+        for (Course course : batch) {
+            if (course == null) {
+                throw new IllegalArgumentException("Course is not allowed to be null.");
+            }
+            if (rowOf(course.getId()) >= 0 || !batchIds.add(course.getId())) {
+                throw new IllegalArgumentException("Course already exists: " + course);
+            }
+        }
+
+        // Size the rows once, then append the batch:
+        rows.ensureCapacity((long) (rowCount + batch.size()) * ROW_SIZE);
+        List<Course> result = new ArrayList<>(batch.size());
+        for (Course course : batch) {
+            append(course);
+            result.add(course);
+        }
+        return result;
+    }
+
+    @Override
+    public Course findById(int id) {
+
+        // Check if id is negative or zero:
+        if (id <= 0) {
+            throw new IllegalArgumentException("Id is not allowed to be zero or negative.");
+        }
+
+        // Look up the row of the id:
+        int row = rowOf(id);
+        return row < 0 ? null : view(row);
+    }
+
+    @Override
+    public List<Course> findByName(String name) {
+
+        // Check for null and empty:
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Course name cannot be null or empty.");
+        }
+
+        // Scan for names containing the query (case-insensitive):
+        return collect(nameMatcher(name));
+    }
+
+    @Override
+    public List<Course> findByDate(LocalDate date) {
+
+        // Check if date is null:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+
+        long day = date.toEpochDay();
+        return collect(row -> rows.getLong(field(row, START_DAY)) == day);
+    }
+
+    @Override
+    public List<Course> findByDateRange(LocalDate from, LocalDate to) {
+
+        // Check if dates are null or in the wrong order:
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Dates are not allowed to be null.");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From date cannot be after to date.");
+        }
+
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        return byStartDate(collect(row -> {
+            long day = rows.getLong(field(row, START_DAY));
+            return day >= first && day <= last;
+        }), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Course> findStartingAfter(LocalDate date) {
+
+        // Check if date is null:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+
+        long day = date.toEpochDay();
+        return byStartDate(collect(row -> rows.getLong(field(row, START_DAY)) > day), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Course> findNextStarting(LocalDate date, int limit) {
+
+        // Check if date is null and limit is positive:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit is not allowed to be zero or negative.");
+        }
+
+        long day = date.toEpochDay();
+        return byStartDate(collect(row -> rows.getLong(field(row, START_DAY)) >= day), limit);
+    }
+
+    @Override
+    public List<Course> findActiveOn(LocalDate date) {
+
+        // Check if date is null:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+
+        return findOverlapping(date, date);
+    }
+
+    @Override
+    public List<Course> findOverlapping(LocalDate from, LocalDate to) {
+
+        // Check if dates are null or in the wrong order:
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Dates are not allowed to be null.");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From date cannot be after to date.");
+        }
+
+        // Collect the courses whose running days overlap the range:
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        return byStartDate(collect(row -> {
+            long firstDay = rows.getLong(field(row, START_DAY));
+            long lastDay = firstDay + rows.getInt(field(row, WEEK_DURATION)) * 7L - 1;
+            return firstDay <= last && lastDay >= first;
+        }), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Course> findByStudent(Student student) {
+
+        // Check if student is null:
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+
+        // A student the student DAO no longer knows is on no roster:
+        if (studentDao.findById(student.getId()) == null) {
+            return new ArrayList<>();
+        }
+        // Look up the rows of the student's courses, in save order:
+        int[] courseRows = rowsOf(enrollments.coursesOf(student.getId()));
+        List<Course> result = new ArrayList<>(courseRows.length);
+        for (int row : courseRows) {
+            result.add(view(row));
+        }
+        return result;
+    }
+
+    @Override
+    public int unregisterFromAll(Student student) {
+
+        // Check if student is null:
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+
+        // Take the id off the roster of each of the student's courses:
+        int[] courseRows = rowsOf(enrollments.coursesOf(student.getId()));
+        for (int row : courseRows) {
+            unregister(row, student.getId());
+        }
+        return courseRows.length;
+    }
+
+    @Override
+    public int unregisterFromAll(Collection<Student> batch) {
+
+        // Check if batch or any student in it is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Students cannot be null.");
+        }
+        IntHashSet studentIds = new IntHashSet(batch.size());
+        for (Student student : batch) {
+            if (student == null) {
+                throw new IllegalArgumentException("Student cannot be null.");
+            }
+            studentIds.add(student.getId());
+        }
+
+        // Find the courses of the batch, then filter each of their rosters in place in a single pass:
+        IntHashSet courseIds = new IntHashSet();
+        studentIds.forEach(studentId -> {
+            for (int courseId : enrollments.coursesOf(studentId)) {
+                courseIds.add(courseId);
+            }
+        });
+        int changed = 0;
+        for (int row : rowsOf(courseIds.toArray())) {
+            int courseId = rows.getInt(field(row, ID));
+            long offset = rows.getLong(field(row, ROSTER_OFFSET));
+            int count = rows.getInt(field(row, ROSTER_COUNT));
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                int studentId = rosters.getInt(offset + i * 4L);
+                if (studentIds.contains(studentId)) {
+                    enrollments.remove(courseId, studentId);
+                } else {
+                    rosters.putInt(offset + kept++ * 4L, studentId);
+                }
+            }
+            if (kept != count) {
+                rows.putInt(field(row, ROSTER_COUNT), kept);
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public List<Course> findAll() {
+        return new ArrayList<>(viewAll());
+    }
+
+    @Override
+    public List<Course> findAll(int afterId, int limit) {
+
+        // Check that the cursor is not negative and the limit is positive:
+        if (afterId < 0) {
+            throw new IllegalArgumentException("After id cannot be negative.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit is not allowed to be zero or negative.");
+        }
+
+        // Walk the ids in order from the cursor:
+        List<Course> result = new ArrayList<>(Math.min(limit, size));
+        if (afterId < Integer.MAX_VALUE) {
+            idSet.forEachFrom(afterId + 1, limit, id -> result.add(view(rowOf(id))));
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<Course> streamAll() {
+        return viewAll().stream();
+    }
+
+    @Override
+    public Stream<Course> streamByName(String name) {
+
+        // Check for null and empty:
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Course name cannot be null or empty.");
+        }
+
+        // Scan lazily, making views only for matches:
+        return IntStream.range(0, rowCount).filter(nameMatcher(name)).mapToObj(this::view);
+    }
+
+    @Override
+    public Stream<Course> streamByDate(LocalDate date) {
+
+        // Check if date is null:
+        if (date == null) {
+            throw new IllegalArgumentException("Date is not allowed to be null.");
+        }
+
+        long day = date.toEpochDay();
+        return IntStream.range(0, rowCount)
+                .filter(row -> isLive(row) && rows.getLong(field(row, START_DAY)) == day)
+                .mapToObj(this::view);
+    }
+
+    @Override
+    public Collection<Course> viewAll() {
+        return new AbstractCollection<Course>() {
+            @Override
+            public Iterator<Course> iterator() {
+                return new Iterator<Course>() {
+                    private int row = nextRow(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return row < rowCount;
+                    }
+
+                    @Override
+                    public Course next() {
+                        if (row >= rowCount) {
+                            throw new NoSuchElementException();
+                        }
+                        Course course = view(row);
+                        row = nextRow(row + 1);
+                        return course;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public boolean delete(Course course) {
+
+        // Check for null:
+        if (course == null) {
+            throw new IllegalArgumentException("Course cannot be null.");
+        }
+
+        // Remove the row and free its roster:
+        int row = rowOf(course.getId());
+        if (row < 0) {
+            return false;
+        }
+        rowsById.remove(row);
+        idSet.remove(course.getId());
+        for (int studentId : rosterIds(row)) {
+            enrollments.remove(course.getId(), studentId);
+        }
+        rows.putInt(field(row, ID), DELETED);
+        names.release(row);
+        rosterGarbage += rows.getInt(field(row, ROSTER_CAPACITY)) * 4L;
+        size--;
+        course.removeListener(writeThrough);
+        compactIfSparse();
+        return true;
+    }
+
+    @Override
+    public int deleteAll(Collection<Course> batch) {
+
+        // Check if batch or any course in it is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Courses cannot be null.");
+        }
+        for (Course course : batch) {
+            if (course == null) {
+                throw new IllegalArgumentException("Course cannot be null.");
+            }
+        }
+
+        // Delete each course, counting the ones that were stored:
+        int deleted = 0;
+        for (Course course : batch) {
+            if (delete(course)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Frees the off-heap memory. Closing twice has no effect.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        rows.close();
+        names.close();
+        rosters.close();
+        rowsById.close();
+        enrollments.close();
+    }
+
+    private void append(Course course) {
+        rows.ensureCapacity((long) (rowCount + 1) * ROW_SIZE);
+        int row = rowCount++;
+        rows.putInt(field(row, ID), course.getId());
+        rows.putInt(field(row, WEEK_DURATION), course.getWeekDuration());
+        rows.putLong(field(row, START_DAY), course.getStartDate().toEpochDay());
+        names.add(course.getCourseName());
+        Collection<Student> roster = course.viewStudents();
+        allocateRoster(row, Math.max(4, roster.size()));
+        long offset = rows.getLong(field(row, ROSTER_OFFSET));
+        int count = 0;
+        for (Student student : roster) {
+            if (enrollments.add(course.getId(), student.getId())) {
+                rosters.putInt(offset + count++ * 4L, student.getId());
+            }
+        }
+        rows.putInt(field(row, ROSTER_COUNT), count);
+        rowsById.insert(row);
+        idSet.add(course.getId());
+        size++;
+        course.addListener(writeThrough);
+    }
+
+    // Gives the row an empty roster run with room for the given number of ids:
+    private void allocateRoster(int row, int capacity) {
+        long bytes = capacity * 4L;
+        if (rosterUsed + bytes > rosters.capacity()) {
+            if (rosterGarbage >= rosterUsed >> 1) {
+                compactRosters();
+            }
+            rosters.ensureCapacity(Math.max(rosterUsed + bytes, rosters.capacity() + (rosters.capacity() >> 1)));
+        }
+        rows.putLong(field(row, ROSTER_OFFSET), rosterUsed);
+        rows.putInt(field(row, ROSTER_COUNT), 0);
+        rows.putInt(field(row, ROSTER_CAPACITY), capacity);
+        rosterUsed += bytes;
+    }
+
+    // Adds the id to the roster unless it is there, moving the roster to a run twice as large when full:
+    private void register(int row, int studentId) {
+        if (!enrollments.add(rows.getInt(field(row, ID)), studentId)) {
+            return;
+        }
+        int count = rows.getInt(field(row, ROSTER_COUNT));
+        int capacity = rows.getInt(field(row, ROSTER_CAPACITY));
+        if (count == capacity) {
+            int[] ids = rosterIds(row);
+            rosterGarbage += capacity * 4L;
+            rows.putInt(field(row, ROSTER_COUNT), 0);
+            rows.putInt(field(row, ROSTER_CAPACITY), 0);
+            allocateRoster(row, capacity * 2);
+            long offset = rows.getLong(field(row, ROSTER_OFFSET));
+            for (int i = 0; i < ids.length; i++) {
+                rosters.putInt(offset + i * 4L, ids[i]);
+            }
+        }
+        rosters.putInt(rows.getLong(field(row, ROSTER_OFFSET)) + count * 4L, studentId);
+        rows.putInt(field(row, ROSTER_COUNT), count + 1);
+    }
+
+    // Removes the id from the roster, keeping the order of the others:
+    private boolean unregister(int row, int studentId) {
+        if (!enrollments.remove(rows.getInt(field(row, ID)), studentId)) {
+            return false;
+        }
+        int index = indexInRoster(row, studentId);
+        long offset = rows.getLong(field(row, ROSTER_OFFSET));
+        int count = rows.getInt(field(row, ROSTER_COUNT));
+        for (int i = index + 1; i < count; i++) {
+            rosters.putInt(offset + (i - 1) * 4L, rosters.getInt(offset + i * 4L));
+        }
+        rows.putInt(field(row, ROSTER_COUNT), count - 1);
+        return true;
+    }
+
+    private int indexInRoster(int row, int studentId) {
+        long offset = rows.getLong(field(row, ROSTER_OFFSET));
+        int count = rows.getInt(field(row, ROSTER_COUNT));
+        for (int i = 0; i < count; i++) {
+            if (rosters.getInt(offset + i * 4L) == studentId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int[] rosterIds(int row) {
+        long offset = rows.getLong(field(row, ROSTER_OFFSET));
+        int[] ids = new int[rows.getInt(field(row, ROSTER_COUNT))];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = rosters.getInt(offset + i * 4L);
+        }
+        return ids;
+    }
+
+    // Copies the roster of every live row to the front of new memory and frees the old:
+    private void compactRosters() {
+        long live = rosterUsed - rosterGarbage;
+        OffHeapMemory compacted = new OffHeapMemory(Math.max(256, live + (live >> 1)), pageSize);
+        long position = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (!isLive(row)) {
+                continue;
+            }
+            long offset = rows.getLong(field(row, ROSTER_OFFSET));
+            int capacity = rows.getInt(field(row, ROSTER_CAPACITY));
+            int count = rows.getInt(field(row, ROSTER_COUNT));
+            for (int i = 0; i < count; i++) {
+                compacted.putInt(position + i * 4L, rosters.getInt(offset + i * 4L));
+            }
+            rows.putLong(field(row, ROSTER_OFFSET), position);
+            position += capacity * 4L;
+        }
+        rosters.close();
+        rosters = compacted;
+        rosterUsed = position;
+        rosterGarbage = 0;
+    }
+
+    // Drops deleted rows once they outnumber the live ones, and rebuilds the id lookup:
+    private void compactIfSparse() {
+        int deleted = rowCount - size;
+        if (deleted < MIN_DELETED_TO_COMPACT || deleted < size) {
+            return;
+        }
+        names.retain(this::isLive);
+        int kept = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (isLive(row)) {
+                rows.putInt(field(kept, ID), rows.getInt(field(row, ID)));
+                rows.putInt(field(kept, WEEK_DURATION), rows.getInt(field(row, WEEK_DURATION)));
+                rows.putLong(field(kept, START_DAY), rows.getLong(field(row, START_DAY)));
+                rows.putLong(field(kept, ROSTER_OFFSET), rows.getLong(field(row, ROSTER_OFFSET)));
+                rows.putInt(field(kept, ROSTER_COUNT), rows.getInt(field(row, ROSTER_COUNT)));
+                rows.putInt(field(kept, ROSTER_CAPACITY), rows.getInt(field(row, ROSTER_CAPACITY)));
+                kept++;
+            }
+        }
+        rowCount = kept;
+        rowsById.clear(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            rowsById.insert(row);
+        }
+    }
+
+    private List<Course> collect(IntPredicate matches) {
+        List<Course> result = new ArrayList<>();
+        for (int row = 0; row < rowCount; row++) {
+            if (isLive(row) && matches.test(row)) {
+                result.add(view(row));
+            }
+        }
+        return result;
+    }
+
+    // Orders courses by start date, keeping save order among equal dates, and keeps the first ones:
+    private static List<Course> byStartDate(List<Course> courses, int limit) {
+        courses.sort(Comparator.comparing(Course::getStartDate));
+        return courses.size() <= limit ? courses : new ArrayList<>(courses.subList(0, limit));
+    }
+
+    private IntPredicate nameMatcher(String name) {
+        String folded = fold(name);
+        return row -> isLive(row) && fold(names.get(row)).contains(folded);
+    }
+
+    private int rowOf(int id) {
+        return rowsById.find(id, row -> rows.getInt(field(row, ID)) == id);
+    }
+
+    // Returns the rows of the courses, in ascending order, which is save order:
+    private int[] rowsOf(int[] courseIds) {
+        int[] courseRows = new int[courseIds.length];
+        for (int i = 0; i < courseIds.length; i++) {
+            courseRows[i] = rowOf(courseIds[i]);
+        }
+        Arrays.sort(courseRows);
+        return courseRows;
+    }
+
+    // Returns the row a change to the course is written to, or -1 once closed, so that courses saved
+    // before closing stay usable as plain objects:
+    private int rowToWriteThrough(int id) {
+        return closed ? -1 : rowOf(id);
+    }
+
+    private boolean isLive(int row) {
+        return rows.getInt(field(row, ID)) != DELETED;
+    }
+
+    private int nextRow(int row) {
+        while (row < rowCount && !isLive(row)) {
+            row++;
+        }
+        return row;
+    }
+
+    // Makes a new course from a row, with the roster students the student DAO still knows:
+    private Course view(int row) {
+        int[] studentIds = rosterIds(row);
+        List<Student> roster = new ArrayList<>(studentIds.length);
+        for (int studentId : studentIds) {
+            Student student = studentDao.findById(studentId);
+            if (student != null) {
+                roster.add(student);
+            }
+        }
+        Course course = new Course(rows.getInt(field(row, ID)), names.get(row),
+                LocalDate.ofEpochDay(rows.getLong(field(row, START_DAY))), rows.getInt(field(row, WEEK_DURATION)),
+                roster);
+        course.addListener(writeThrough);
+        return course;
+    }
+
+    private static long field(int row, int field) {
+        return (long) row * ROW_SIZE + field;
+    }
+}
@@ -0,0 +1,118 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.util.OffHeapMemory;
+
+import java.io.Closeable;
+
+/**
+ * The course and student id pairs on the rosters of the off-heap course DAO, in {@link OffHeapMemory}.
+ * Each pair is a node, found by its pair in constant time, and linked into a list of the student's nodes,
+ * so the courses of a student are listed without scanning the courses.
+ */
+final class OffHeapEnrollments implements Closeable {
+
+    // Each node holds the course id and the links of the student's list. Links are node indexes plus one,
+    // with 0 for none; a freed node is kept on a list of its own through its next link:
+    private static final int NODE_SIZE = 12;
+    private static final int COURSE_ID = 0;
+    private static final int NEXT = 4;
+    private static final int PREVIOUS = 8;
+
+    private final OffHeapMemory nodes;
+    private int nodeCount;
+    private int freeNodes;
+
+    // Node of every pair, and first node of every student:
+    private final OffHeapLongIntMap nodesByPair;
+    private final OffHeapLongIntMap firstByStudent;
+
+    OffHeapEnrollments(int pageSize) {
+        this.nodes = new OffHeapMemory(16L * NODE_SIZE, pageSize);
+        this.nodesByPair = new OffHeapLongIntMap(pageSize);
+        this.firstByStudent = new OffHeapLongIntMap(pageSize);
+    }
+
+    boolean contains(int courseId, int studentId) {
+        return nodesByPair.get(pair(courseId, studentId)) != 0;
+    }
+
+    // Returns whether the pair was not already there:
+    boolean add(int courseId, int studentId) {
+        long pair = pair(courseId, studentId);
+        if (nodesByPair.get(pair) != 0) {
+            return false;
+        }
+        int node = newNode();
+        int first = firstByStudent.put(studentId, node);
+        nodes.putInt(field(node, COURSE_ID), courseId);
+        nodes.putInt(field(node, NEXT), first);
+        nodes.putInt(field(node, PREVIOUS), 0);
+        if (first != 0) {
+            nodes.putInt(field(first, PREVIOUS), node);
+        }
+        nodesByPair.put(pair, node);
+        return true;
+    }
+
+    // Returns whether the pair was there:
+    boolean remove(int courseId, int studentId) {
+        int node = nodesByPair.remove(pair(courseId, studentId));
+        if (node == 0) {
+            return false;
+        }
+        int next = nodes.getInt(field(node, NEXT));
+        int previous = nodes.getInt(field(node, PREVIOUS));
+        if (next != 0) {
+            nodes.putInt(field(next, PREVIOUS), previous);
+        }
+        if (previous != 0) {
+            nodes.putInt(field(previous, NEXT), next);
+        } else if (next != 0) {
+            firstByStudent.put(studentId, next);
+        } else {
+            firstByStudent.remove(studentId);
+        }
+        nodes.putInt(field(node, NEXT), freeNodes);
+        freeNodes = node;
+        return true;
+    }
+
+    // Returns the ids of the courses the student is on, latest registration first:
+    int[] coursesOf(int studentId) {
+        int count = 0;
+        for (int node = firstByStudent.get(studentId); node != 0; node = nodes.getInt(field(node, NEXT))) {
+            count++;
+        }
+        int[] courseIds = new int[count];
+        int i = 0;
+        for (int node = firstByStudent.get(studentId); node != 0; node = nodes.getInt(field(node, NEXT))) {
+            courseIds[i++] = nodes.getInt(field(node, COURSE_ID));
+        }
+        return courseIds;
+    }
+
+    @Override
+    public void close() {
+        nodes.close();
+        nodesByPair.close();
+        firstByStudent.close();
+    }
+
+    private int newNode() {
+        if (freeNodes != 0) {
+            int node = freeNodes;
+            freeNodes = nodes.getInt(field(node, NEXT));
+            return node;
+        }
+        nodes.ensureCapacity((long) (nodeCount + 1) * NODE_SIZE);
+        return ++nodeCount;
+    }
+
+    private static long field(int node, int field) {
+        return (long) (node - 1) * NODE_SIZE + field;
+    }
+
+    private static long pair(int courseId, int studentId) {
+        return ((long) courseId << 32) | (studentId & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,136 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.util.OffHeapMemory;
+
+import java.io.Closeable;
+
+/**
+ * An open-addressing map from non-zero {@code long} keys to non-zero {@code int} values in
+ * {@link OffHeapMemory} (linear probing, backward-shift deletion). Used by {@link OffHeapEnrollments} to
+ * find enrollments without scanning rosters.
+ */
+final class OffHeapLongIntMap implements Closeable {
+
+    // Zero marks a free slot and a missing value, so neither can be stored:
+    private static final long FREE = 0;
+    private static final int MIN_SLOTS = 16;
+
+    // Each slot holds the key, then the value:
+    private static final int SLOT_SIZE = 16;
+    private static final int VALUE = 8;
+
+    private final int pageSize;
+    private OffHeapMemory slots;
+    private int mask;
+    private int size;
+
+    OffHeapLongIntMap(int pageSize) {
+        this.pageSize = pageSize;
+        allocate(MIN_SLOTS);
+    }
+
+    // Returns the value of the key, or 0 if the key is not in the map:
+    int get(long key) {
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long slot = key(i);
+            if (slot == FREE) {
+                return 0;
+            }
+            if (slot == key) {
+                return value(i);
+            }
+        }
+    }
+
+    // Maps the key to the value, and returns the previous value, or 0 if there was none:
+    int put(long key, int value) {
+        if ((size + 1) * 4L > (mask + 1) * 3L) {
+            OffHeapMemory old = slots;
+            int oldSlots = mask + 1;
+            allocate(oldSlots * 2);
+            for (int i = 0; i < oldSlots; i++) {
+                long slot = old.getLong((long) i * SLOT_SIZE);
+                if (slot != FREE) {
+                    set(freeSlot(slot), slot, old.getInt((long) i * SLOT_SIZE + VALUE));
+                }
+            }
+            old.close();
+        }
+        int i = mix(key) & mask;
+        for (long slot = key(i); slot != FREE; slot = key(i)) {
+            if (slot == key) {
+                int previous = value(i);
+                set(i, key, value);
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        set(i, key, value);
+        size++;
+        return 0;
+    }
+
+    // Removes the key, and returns the value it had, or 0 if it was not in the map:
+    int remove(long key) {
+        int gap = mix(key) & mask;
+        while (key(gap) != key) {
+            if (key(gap) == FREE) {
+                return 0;
+            }
+            gap = (gap + 1) & mask;
+        }
+        int removed = value(gap);
+
+        // Shift later entries of the probe run back into the gap where they belong:
+        for (int i = (gap + 1) & mask; key(i) != FREE; i = (i + 1) & mask) {
+            int home = mix(key(i)) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                set(gap, key(i), value(i));
+                gap = i;
+            }
+        }
+        set(gap, FREE, 0);
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @Override
+    public void close() {
+        slots.close();
+    }
+
+    private void allocate(int count) {
+        slots = new OffHeapMemory((long) count * SLOT_SIZE, pageSize);
+        mask = count - 1;
+    }
+
+    private int freeSlot(long key) {
+        int i = mix(key) & mask;
+        while (key(i) != FREE) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private long key(int i) {
+        return slots.getLong((long) i * SLOT_SIZE);
+    }
+
+    private int value(int i) {
+        return slots.getInt((long) i * SLOT_SIZE + VALUE);
+    }
+
+    private void set(int i, long key, int value) {
+        slots.putLong((long) i * SLOT_SIZE, key);
+        slots.putInt((long) i * SLOT_SIZE + VALUE, value);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) ^ (int) h;
+    }
+}
@@ -0,0 +1,125 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.util.OffHeapMemory;
+
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A {@link RowIndex} in {@link OffHeapMemory} (linear probing, backward-shift deletion). Used by the off-heap
+ * DAOs to find rows by id and by email.
+ */
+final class OffHeapRowTable implements RowIndex {
+
+    // Slots hold the row plus one, so zero marks a free slot:
+    private static final int FREE = 0;
+    private static final int MIN_SLOTS = 16;
+
+    private final IntUnaryOperator hashOfRow;
+    private final int pageSize;
+    private OffHeapMemory slots;
+    private int mask;
+    private int size;
+
+    OffHeapRowTable(IntUnaryOperator hashOfRow, int pageSize) {
+        this.hashOfRow = hashOfRow;
+        this.pageSize = pageSize;
+        allocate(MIN_SLOTS);
+    }
+
+    @Override
+    public int find(int hash, IntPredicate matches) {
+        for (int i = mix(hash) & mask; ; i = (i + 1) & mask) {
+            int slot = get(i);
+            if (slot == FREE) {
+                return -1;
+            }
+            int row = slot - 1;
+            if (hashOfRow.applyAsInt(row) == hash && matches.test(row)) {
+                return row;
+            }
+        }
+    }
+
+    @Override
+    public void insert(int row) {
+        if ((size + 1) * 4L > (mask + 1) * 3L) {
+            OffHeapMemory old = slots;
+            int oldSlots = mask + 1;
+            allocate(oldSlots * 2);
+            for (int i = 0; i < oldSlots; i++) {
+                int slot = old.getInt(i * 4L);
+                if (slot != FREE) {
+                    place(slot);
+                }
+            }
+            old.close();
+        }
+        place(row + 1);
+        size++;
+    }
+
+    @Override
+    public void remove(int row) {
+        int gap = mix(hashOfRow.applyAsInt(row)) & mask;
+        while (get(gap) != row + 1) {
+            if (get(gap) == FREE) {
+                return;
+            }
+            gap = (gap + 1) & mask;
+        }
+
+        // Shift later entries of the probe run back into the gap where they belong:
+        for (int i = (gap + 1) & mask; get(i) != FREE; i = (i + 1) & mask) {
+            int home = mix(hashOfRow.applyAsInt(get(i) - 1)) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                set(gap, get(i));
+                gap = i;
+            }
+        }
+        set(gap, FREE);
+        size--;
+    }
+
+    @Override
+    public void clear(int expectedRows) {
+        slots.close();
+        int count = MIN_SLOTS;
+        while (count * 3L < expectedRows * 4L) {
+            count <<= 1;
+        }
+        allocate(count);
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+        slots.close();
+    }
+
+    private void allocate(int count) {
+        slots = new OffHeapMemory(count * 4L, pageSize);
+        mask = count - 1;
+    }
+
+    private void place(int slot) {
+        int i = mix(hashOfRow.applyAsInt(slot - 1)) & mask;
+        while (get(i) != FREE) {
+            i = (i + 1) & mask;
+        }
+        set(i, slot);
+    }
+
+    private int get(int i) {
+        return slots.getInt(i * 4L);
+    }
+
+    private void set(int i, int slot) {
+        slots.putInt(i * 4L, slot);
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
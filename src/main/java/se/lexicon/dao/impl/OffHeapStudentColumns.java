@@ -0,0 +1,149 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.util.OffHeapMemory;
+import se.lexicon.util.OffHeapUtf8Column;
+
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * {@link StudentColumns} outside the Java heap: fixed-size rows of ids and key hashes in
+ * {@link OffHeapMemory}, and names, emails and addresses as packed UTF-8 in {@link OffHeapUtf8Column}s.
+ * {@link #close()} frees the memory at once; any access afterwards throws {@link IllegalStateException}.
+ */
+final class OffHeapStudentColumns implements StudentColumns {
+
+    // Each row holds the id and the hashes of the case-folded name and email:
+    private static final int ROW_SIZE = 16;
+    private static final int ID = 0;
+    private static final int NAME_HASH = 4;
+    private static final int EMAIL_HASH = 8;
+
+    private final int pageSize;
+    private final OffHeapMemory rows;
+    private final OffHeapUtf8Column names;
+    private final OffHeapUtf8Column emails;
+    private final OffHeapUtf8Column addresses;
+
+    // Allocates memory in pages of the given size:
+    OffHeapStudentColumns(int pageSize) {
+        this.pageSize = pageSize;
+        this.rows = new OffHeapMemory(16 * ROW_SIZE, pageSize);
+        this.names = new OffHeapUtf8Column(pageSize);
+        this.emails = new OffHeapUtf8Column(pageSize);
+        this.addresses = new OffHeapUtf8Column(pageSize);
+    }
+
+    @Override
+    public void ensureRows(int rowCount) {
+        rows.ensureCapacity((long) rowCount * ROW_SIZE);
+    }
+
+    @Override
+    public void append(int row, int id, String name, int nameHash, String email, int emailHash, String address) {
+        ensureRows(row + 1);
+        putInt(row, ID, id);
+        putInt(row, NAME_HASH, nameHash);
+        putInt(row, EMAIL_HASH, emailHash);
+        names.add(name);
+        emails.add(email);
+        addresses.add(address);
+    }
+
+    @Override
+    public int id(int row) {
+        return getInt(row, ID);
+    }
+
+    @Override
+    public int nameHash(int row) {
+        return getInt(row, NAME_HASH);
+    }
+
+    @Override
+    public int emailHash(int row) {
+        return getInt(row, EMAIL_HASH);
+    }
+
+    @Override
+    public String name(int row) {
+        return names.get(row);
+    }
+
+    @Override
+    public String email(int row) {
+        return emails.get(row);
+    }
+
+    @Override
+    public String address(int row) {
+        return addresses.get(row);
+    }
+
+    @Override
+    public void setName(int row, String name, int nameHash) {
+        names.set(row, name);
+        putInt(row, NAME_HASH, nameHash);
+    }
+
+    @Override
+    public void setEmail(int row, String email, int emailHash) {
+        emails.set(row, email);
+        putInt(row, EMAIL_HASH, emailHash);
+    }
+
+    @Override
+    public void setAddress(int row, String address) {
+        addresses.set(row, address);
+    }
+
+    @Override
+    public void delete(int row) {
+        putInt(row, ID, DELETED);
+        names.release(row);
+        emails.release(row);
+        addresses.release(row);
+    }
+
+    @Override
+    public int compact(int rowCount) {
+        IntPredicate live = row -> getInt(row, ID) != DELETED;
+        names.retain(live);
+        emails.retain(live);
+        addresses.retain(live);
+        int kept = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (getInt(row, ID) != DELETED) {
+                putInt(kept, ID, getInt(row, ID));
+                putInt(kept, NAME_HASH, getInt(row, NAME_HASH));
+                putInt(kept, EMAIL_HASH, getInt(row, EMAIL_HASH));
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    @Override
+    public RowIndex newRowIndex(IntUnaryOperator hashOfRow) {
+        return new OffHeapRowTable(hashOfRow, pageSize);
+    }
+
+    /**
+     * Frees the off-heap memory. Closing twice has no effect.
+     */
+    @Override
+    public void close() {
+        rows.close();
+        names.close();
+        emails.close();
+        addresses.close();
+    }
+
+    private int getInt(int row, int field) {
+        return rows.getInt((long) row * ROW_SIZE + field);
+    }
+
+    private void putInt(int row, int field, int value) {
+        rows.putInt((long) row * ROW_SIZE + field, value);
+    }
+}
@@ -0,0 +1,43 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.dao.CourseDao;
+import se.lexicon.util.OffHeapMemory;
+
+import java.io.Closeable;
+
+/**
+ * A {@link se.lexicon.dao.StudentDao} that keeps its students outside the Java heap. It is a
+ * {@link ColumnarStudentDaoImpl} whose rows, packed UTF-8 text and lookup tables all live in
+ * {@link OffHeapMemory}. The only per-student heap cost left is the id in the pagination bitmap, which is
+ * a fraction of a byte when ids are dense. The collector neither scans nor copies the stored students,
+ * so they do not lengthen its pauses.
+ * <p>
+ * As in {@link ColumnarStudentDaoImpl}, lookups return new views whose changes are written through.
+ * {@link #close()} frees the memory at once; any use of the DAO afterwards throws
+ * {@link IllegalStateException}, while saved students and views stay usable and simply stop being written
+ * through. This class is not thread-safe.
+ */
+public class OffHeapStudentDaoImpl extends ColumnarStudentDaoImpl implements Closeable {
+
+    public OffHeapStudentDaoImpl() {
+        this(OffHeapMemory.DEFAULT_PAGE_SIZE, null);
+    }
+
+    // Deleting a student also removes it from every course roster in the given course DAO:
+    public OffHeapStudentDaoImpl(CourseDao courseDao) {
+        this(OffHeapMemory.DEFAULT_PAGE_SIZE, requireCourseDao(courseDao));
+    }
+
+    // Allocates memory in pages of the given size, which tests keep small to cross page boundaries:
+    OffHeapStudentDaoImpl(int pageSize, CourseDao courseDao) {
+        super(new OffHeapStudentColumns(pageSize), courseDao);
+    }
+
+    /**
+     * Frees the off-heap memory. Closing twice has no effect.
+     */
+    @Override
+    public void close() {
+        closeColumns();
+    }
+}
@@ -0,0 +1,44 @@
+package se.lexicon.dao.impl;
+
+import se.lexicon.util.Histogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The latencies, result sizes and failures of one dao method, as recorded by a metered dao.
+ */
+final class OperationMetrics {
+
+    private final Histogram latencies = new Histogram();
+    private final Histogram resultSizes = new Histogram();
+    private final AtomicLong failures = new AtomicLong();
+
+    // Records a call that returned the given number of objects, started at the given nano time:
+    void record(long startNanos, long resultSize) {
+        latencies.record(Math.max(0, System.nanoTime() - startNanos));
+        resultSizes.record(resultSize);
+    }
+
+    // Records a call that threw, started at the given nano time:
+    void recordFailure(long startNanos) {
+        latencies.record(Math.max(0, System.nanoTime() - startNanos));
+        failures.incrementAndGet();
+    }
+
+    long calls() {
+        return latencies.count();
+    }
+
+    OperationStats stats() {
+        return new OperationStats(latencies.count(), failures.get(), latencies.mean(),
+                latencies.percentile(50), latencies.percentile(90), latencies.percentile(99),
+                latencies.percentile(99.9), latencies.max(),
+                resultSizes.mean(), resultSizes.percentile(99), resultSizes.max());
+    }
+
+    void reset() {
+        latencies.reset();
+        resultSizes.reset();
+        failures.set(0);
+    }
+}
@@ -0,0 +1,87 @@
+package se.lexicon.dao.impl;
+
+/**
+ * The recorded calls of one dao method at one moment: how many there were and how many threw, their
+ * latency percentiles in microseconds, and the number of objects they returned. Latencies include calls
+ * that threw; result sizes do not.
+ */
+public final class OperationStats {
+
+    private final long calls;
+    private final long failures;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p90Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+    private final double meanResultSize;
+    private final long p99ResultSize;
+    private final long maxResultSize;
+
+    OperationStats(long calls, long failures, double meanNanos, long p50Nanos, long p90Nanos, long p99Nanos,
+                   long p999Nanos, long maxNanos, double meanResultSize, long p99ResultSize,
+                   long maxResultSize) {
+        this.calls = calls;
+        this.failures = failures;
+        this.meanMicros = meanNanos / 1000;
+        this.p50Micros = p50Nanos / 1000.0;
+        this.p90Micros = p90Nanos / 1000.0;
+        this.p99Micros = p99Nanos / 1000.0;
+        this.p999Micros = p999Nanos / 1000.0;
+        this.maxMicros = maxNanos / 1000.0;
+        this.meanResultSize = meanResultSize;
+        this.p99ResultSize = p99ResultSize;
+        this.maxResultSize = maxResultSize;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    public double getP90Micros() {
+        return p90Micros;
+    }
+
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public double getP999Micros() {
+        return p999Micros;
+    }
+
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+
+    public double getMeanResultSize() {
+        return meanResultSize;
+    }
+
+    public long getP99ResultSize() {
+        return p99ResultSize;
+    }
+
+    public long getMaxResultSize() {
+        return maxResultSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OperationStats{calls=%d, failures=%d, p50=%.1fus, p99=%.1fus, max=%.1fus, "
+                + "meanResultSize=%.1f}", calls, failures, p50Micros, p99Micros, maxMicros, meanResultSize);
+    }
+}
@@ -0,0 +1,26 @@
+package se.lexicon.dao.impl;
+
+import java.io.Closeable;
+import java.util.function.IntPredicate;
+
+/**
+ * A table of row numbers keyed by a hash that the owning DAO keeps for every row. Rows with equal hashes
+ * are told apart by the caller's predicate.
+ */
+interface RowIndex extends Closeable {
+
+    /**
+     * Returns the row with the given hash that the predicate accepts, or -1 if there is none.
+     */
+    int find(int hash, IntPredicate matches);
+
+    void insert(int row);
+
+    void remove(int row);
+
+    // Empties the table, sizing it for the given number of rows:
+    void clear(int expectedRows);
+
+    @Override
+    void close();
+}
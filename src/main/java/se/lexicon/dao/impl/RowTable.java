@@ -0,0 +1,105 @@
+package se.lexicon.dao.impl;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A {@link RowIndex} in an {@code int} array on the heap (linear probing, backward-shift deletion).
+ */
+final class RowTable implements RowIndex {
+
+    // Slots hold the row plus one, so zero marks a free slot:
+    private static final int FREE = 0;
+    private static final int MIN_SLOTS = 16;
+
+    private final IntUnaryOperator hashOfRow;
+    private int[] slots = new int[MIN_SLOTS];
+    private int size;
+
+    RowTable(IntUnaryOperator hashOfRow) {
+        this.hashOfRow = hashOfRow;
+    }
+
+    @Override
+    public int find(int hash, IntPredicate matches) {
+        int mask = slots.length - 1;
+        for (int i = mix(hash) & mask; slots[i] != FREE; i = (i + 1) & mask) {
+            int row = slots[i] - 1;
+            if (hashOfRow.applyAsInt(row) == hash && matches.test(row)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void insert(int row) {
+        if ((size + 1) * 4L > slots.length * 3L) {
+            int[] old = slots;
+            slots = new int[old.length * 2];
+            for (int slot : old) {
+                if (slot != FREE) {
+                    place(slot);
+                }
+            }
+        }
+        place(row + 1);
+        size++;
+    }
+
+    @Override
+    public void remove(int row) {
+        int mask = slots.length - 1;
+        int gap = mix(hashOfRow.applyAsInt(row)) & mask;
+        while (slots[gap] != row + 1) {
+            if (slots[gap] == FREE) {
+                return;
+            }
+            gap = (gap + 1) & mask;
+        }
+
+        // Shift later entries of the probe run back into the gap where they belong:
+        for (int i = (gap + 1) & mask; slots[i] != FREE; i = (i + 1) & mask) {
+            int home = mix(hashOfRow.applyAsInt(slots[i] - 1)) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                slots[gap] = slots[i];
+                gap = i;
+            }
+        }
+        slots[gap] = FREE;
+        size--;
+    }
+
+    @Override
+    public void clear(int expectedRows) {
+        int count = MIN_SLOTS;
+        while (count * 3L < expectedRows * 4L) {
+            count <<= 1;
+        }
+        if (count == slots.length) {
+            Arrays.fill(slots, FREE);
+        } else {
+            slots = new int[count];
+        }
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void place(int slot) {
+        int mask = slots.length - 1;
+        int i = mix(hashOfRow.applyAsInt(slot - 1)) & mask;
+        while (slots[i] != FREE) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = slot;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
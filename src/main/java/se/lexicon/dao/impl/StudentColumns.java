@@ -0,0 +1,54 @@
+package se.lexicon.dao.impl;
+
+import java.io.Closeable;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Storage for the rows of a {@link ColumnarStudentDaoImpl}: per row the id of a student, the hashes of its
+ * case-folded name and email, and its name, email and address. Rows are numbered from zero in the order
+ * they are appended; the DAO keeps the row count and the lookups. A deleted row keeps id
+ * {@link #DELETED} until the rows are compacted.
+ * <p>
+ * {@link HeapStudentColumns} keeps the rows in arrays on the heap, and {@link OffHeapStudentColumns} in
+ * off-heap memory.
+ */
+interface StudentColumns extends Closeable {
+
+    int DELETED = 0;
+
+    // Makes sure the given number of rows fit without growing:
+    void ensureRows(int rows);
+
+    // Fills in the row just past the last one:
+    void append(int row, int id, String name, int nameHash, String email, int emailHash, String address);
+
+    int id(int row);
+
+    int nameHash(int row);
+
+    int emailHash(int row);
+
+    String name(int row);
+
+    String email(int row);
+
+    String address(int row);
+
+    void setName(int row, String name, int nameHash);
+
+    void setEmail(int row, String email, int emailHash);
+
+    void setAddress(int row, String address);
+
+    // Marks the row deleted and frees its text:
+    void delete(int row);
+
+    // Moves the live rows among the first rowCount to the front in their order, returning how many there are:
+    int compact(int rowCount);
+
+    // Makes a lookup table for rows of this storage, keyed by the given hash of a row:
+    RowIndex newRowIndex(IntUnaryOperator hashOfRow);
+
+    @Override
+    void close();
+}
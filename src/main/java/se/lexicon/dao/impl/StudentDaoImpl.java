@@ -1,14 +1,81 @@
 package se.lexicon.dao.impl;
 
+import se.lexicon.dao.CourseDao;
 import se.lexicon.dao.StudentDao;
+import se.lexicon.jfr.DaoDeleteEvent;
+import se.lexicon.jfr.DaoQueryEvent;
+import se.lexicon.jfr.DaoSaveEvent;
 import se.lexicon.model.Student;
+import se.lexicon.model.StudentListener;
+import se.lexicon.util.IntBitmap;
+import se.lexicon.util.IntHashSet;
+import se.lexicon.util.IntLinkedHashMap;
+import se.lexicon.util.MultiIndex;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static se.lexicon.util.TextNormalizer.fold;
 
 public class StudentDaoImpl implements StudentDao {
 
-    private List<Student> students = new ArrayList<>();
+    // Primary-key index, in insertion order:
+    private final IntLinkedHashMap<Student> students = new IntLinkedHashMap<>();
+
+    // Ids in ascending order, for keyset pagination:
+    private final IntBitmap ids = new IntBitmap();
+
+    // Unique index on the case-folded email:
+    private final Map<String, Student> emails = new HashMap<>();
+
+    // Secondary index on the case-folded name:
+    private final MultiIndex<String, Student> names = new MultiIndex<>();
+
+    // Course DAO to unregister deleted students from, or null when deletes do not cascade:
+    private final CourseDao courseDao;
+
+    // Keeps the indexes in sync when a saved student is changed:
+    private final StudentListener indexUpdater = new StudentListener() {
+        @Override
+        public void onEmailChange(Student student, String oldEmail, String newEmail) {
+            String oldKey = fold(oldEmail);
+            String newKey = fold(newEmail);
+            if (oldKey.equals(newKey)) {
+                return;
+            }
+            Student owner = emails.get(newKey);
+            if (owner != null && owner != student) {
+                throw new IllegalArgumentException("Student with email " + newEmail + " already exists.");
+            }
+            emails.remove(oldKey);
+            emails.put(newKey, student);
+        }
+
+        @Override
+        public void onNameChange(Student student, String oldName, String newName) {
+            names.remove(fold(oldName), student);
+            names.add(fold(newName), student);
+        }
+    };
+
+    public StudentDaoImpl() {
+        this.courseDao = null;
+    }
+
+    // Deleting a student also removes it from every course roster in the given course DAO:
+    public StudentDaoImpl(CourseDao courseDao) {
+        if (courseDao == null) {
+            throw new IllegalArgumentException("Course dao cannot be null.");
+        }
+        this.courseDao = courseDao;
+    }
 
     @Override
     public Student save(Student student) {
@@ -17,26 +84,63 @@ public class StudentDaoImpl implements StudentDao {
         if(student == null){
             throw new IllegalArgumentException("Student is not allowed to be null.");
         }
+        DaoSaveEvent event = DaoSaveEvent.start();
 
         // Check if student already exists by object equality (id):
-        if (students.contains(student)) {
+        if (students.containsKey(student.getId())) {
             throw new IllegalArgumentException("Student already exists: " + student);
         }
 
-        // Optional: check if email already exists:
-        for (Student s : students) {
-            if (s.getEmail().equalsIgnoreCase(student.getEmail())) {
-                throw new IllegalArgumentException("Student with email " + student.getEmail() + " already exists.");
-            }
+        // Check if email already exists (case-insensitive):
+        String emailKey = fold(student.getEmail());
+        if (emails.containsKey(emailKey)) {
+            throw new IllegalArgumentException("Student with email " + student.getEmail() + " already exists.");
         }
 
-        // Add the student to the list:
-        students.add(student);
+        // Add the student to the indexes and follow its changes:
+        index(student, emailKey);
+        event.finish(getClass(), "save", 1);
 
         // Return the student:
         return student;
     }
 
+    @Override
+    public List<Student> saveAll(Collection<Student> batch) {
+
+        // Check if batch is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Students cannot be null.");
+        }
+        DaoSaveEvent event = DaoSaveEvent.start();
+
+        // Validate the whole batch against the indexes and against itself before saving anything:
+        IntHashSet batchIds = new IntHashSet(batch.size());
+        Set<String> batchEmails = new HashSet<>(batch.size() * 4 / 3 + 1);
+        for (Student student : batch) {
+            if (student == null) {
+                throw new IllegalArgumentException("Student is not allowed to be null.");
+            }
+            if (students.containsKey(student.getId()) || !batchIds.add(student.getId())) {
+                throw new IllegalArgumentException("Student already exists: " + student);
+            }
+            String emailKey = fold(student.getEmail());
+            if (emails.containsKey(emailKey) || !batchEmails.add(emailKey)) {
+                throw new IllegalArgumentException("Student with email " + student.getEmail() + " already exists.");
+            }
+        }
+
+        // Size the primary index once, then add the batch:
+        students.ensureCapacity(students.size() + batch.size());
+        List<Student> result = new ArrayList<>(batch.size());
+        for (Student student : batch) {
+            index(student, fold(student.getEmail()));
+            result.add(student);
+        }
+        event.finish(getClass(), "saveAll", result.size());
+        return result;
+    }
+
     @Override
     public Student findByEmail(String email) {
 
@@ -45,13 +149,8 @@ public class StudentDaoImpl implements StudentDao {
             throw new IllegalArgumentException("Email cannot be null or empty.");
         }
 
-        // Search through the list for matching email (case-insensitive)
-        for (Student student : students) {
-            if (student.getEmail().equalsIgnoreCase(email.trim())) {
-                return student;
-            }
-        }
-        return null;
+        // Look up the matching email in the index (case-insensitive):
+        return emails.get(fold(email));
     }
 
     @Override
@@ -62,16 +161,10 @@ public class StudentDaoImpl implements StudentDao {
             throw new IllegalArgumentException("Name cannot be null or empty.");
         }
 
-        // Create a list to hold matching students, and trim the name to search for:
-        List<Student> result = new ArrayList<>();
-        String searchName = name.trim();
-
-        // Search for matching students (case-insensitive):
-        for (Student student : students) {
-            if (student.getName().equalsIgnoreCase(searchName)) {
-                result.add(student);
-            }
-        }
+        // Look up the matching students in the index (case-insensitive):
+        DaoQueryEvent event = DaoQueryEvent.start();
+        List<Student> result = new ArrayList<>(names.get(fold(name)));
+        event.finish(getClass(), "findByName", result.size(), result.size());
         return result;
     }
 
@@ -83,18 +176,62 @@ public class StudentDaoImpl implements StudentDao {
             throw new IllegalArgumentException("Id is not allowed to be zero or negative.");
         }
 
-        // Check if the id is in the list:
+        // Look up the id in the index:
+        return students.get(id);
+    }
+
+    @Override
+    public List<Student> findAll() {
+        DaoQueryEvent event = DaoQueryEvent.start();
+        List<Student> result = new ArrayList<>(students.size());
         for (Student student : students) {
-            if (student.getId() == id) {
-                return student;
-            }
+            result.add(student);
         }
-        return null;
+        event.finish(getClass(), "findAll", result.size(), result.size());
+        return result;
     }
 
     @Override
-    public List<Student> findAll() {
-        return new ArrayList<>(students);
+    public List<Student> findAll(int afterId, int limit) {
+
+        // Check that the cursor is not negative and the limit is positive:
+        if (afterId < 0) {
+            throw new IllegalArgumentException("After id cannot be negative.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit is not allowed to be zero or negative.");
+        }
+
+        // Walk the ids in order from the cursor:
+        DaoQueryEvent event = DaoQueryEvent.start();
+        List<Student> result = new ArrayList<>(Math.min(limit, students.size()));
+        if (afterId < Integer.MAX_VALUE) {
+            ids.forEachFrom(afterId + 1, limit, id -> result.add(students.get(id)));
+        }
+        event.finish(getClass(), "findAllPage", result.size(), result.size());
+        return result;
+    }
+
+    @Override
+    public Stream<Student> streamAll() {
+        return students.values().stream();
+    }
+
+    @Override
+    public Stream<Student> streamByName(String name) {
+
+        // Check for null and empty:
+        if (name == null || name.trim().isEmpty()){
+            throw new IllegalArgumentException("Name cannot be null or empty.");
+        }
+
+        // Stream the matching bucket of the index without copying it:
+        return names.get(fold(name)).stream();
+    }
+
+    @Override
+    public Collection<Student> viewAll() {
+        return students.values();
     }
 
     @Override
@@ -105,11 +242,128 @@ public class StudentDaoImpl implements StudentDao {
             throw new IllegalArgumentException("Student cannot be null.");
         }
 
-        // Returns boolean-value:
-        return students.remove(student);
+        // Remove the student, then take it off the rosters of its courses:
+        DaoDeleteEvent event = DaoDeleteEvent.start();
+        if (!remove(student)) {
+            return false;
+        }
+        if (courseDao != null) {
+            courseDao.unregisterFromAll(student);
+        }
+        event.finish(getClass(), "delete", 1);
+        return true;
+    }
+
+    @Override
+    public int deleteAll(Collection<Student> batch) {
+
+        // Check if batch or any student in it is null:
+        if (batch == null) {
+            throw new IllegalArgumentException("Students cannot be null.");
+        }
+        for (Student student : batch) {
+            if (student == null) {
+                throw new IllegalArgumentException("Student cannot be null.");
+            }
+        }
+
+        // Remove each student, then unregister the removed ones in a single pass over their courses:
+        DaoDeleteEvent event = DaoDeleteEvent.start();
+        List<Student> removed = new ArrayList<>(batch.size());
+        for (Student student : batch) {
+            if (remove(student)) {
+                removed.add(student);
+            }
+        }
+        if (courseDao != null && !removed.isEmpty()) {
+            courseDao.unregisterFromAll(removed);
+        }
+        event.finish(getClass(), "deleteAll", removed.size());
+        return removed.size();
+    }
+
+    // Bulk-loads trusted students, such as a recovered snapshot, into an empty DAO. Each index is built on
+    // its own thread; duplicate ids or emails are detected afterwards, and leave the DAO empty again:
+    public void loadAll(List<Student> batch) {
+
+        // Check if batch or any student in it is null, and that nothing is loaded yet:
+        if (batch == null) {
+            throw new IllegalArgumentException("Students cannot be null.");
+        }
+        for (Student student : batch) {
+            if (student == null) {
+                throw new IllegalArgumentException("Student is not allowed to be null.");
+            }
+            student.canonicalize();
+        }
+        if (!students.isEmpty()) {
+            throw new IllegalStateException("Students can only be loaded into an empty dao.");
+        }
+
+        // Build the indexes side by side; each task is the only writer of its index:
+        CompletableFuture.allOf(
+                CompletableFuture.runAsync(() -> {
+                    students.ensureCapacity(batch.size());
+                    for (Student student : batch) {
+                        students.put(student.getId(), student);
+                        ids.add(student.getId());
+                    }
+                }),
+                CompletableFuture.runAsync(() -> {
+                    for (Student student : batch) {
+                        emails.put(fold(student.getEmail()), student);
+                    }
+                }),
+                CompletableFuture.runAsync(() -> {
+                    for (Student student : batch) {
+                        names.add(fold(student.getName()), student);
+                    }
+                }),
+                CompletableFuture.runAsync(() -> {
+                    for (Student student : batch) {
+                        student.addListener(indexUpdater);
+                    }
+                })).join();
+
+        // A duplicate overwrote an entry in the primary or the email index:
+        if (students.size() != batch.size() || emails.size() != batch.size()) {
+            for (Student student : batch) {
+                student.removeListener(indexUpdater);
+            }
+            clear();
+            throw new IllegalArgumentException("Students contain duplicate ids or emails.");
+        }
     }
 
     void clear() {
+        for (Student student : students) {
+            student.removeListener(indexUpdater);
+        }
         students.clear();
+        ids.clear();
+        emails.clear();
+        names.clear();
+    }
+
+    private void index(Student student, String emailKey) {
+        student.canonicalize();
+        students.put(student.getId(), student);
+        ids.add(student.getId());
+        emails.put(emailKey, student);
+        names.add(fold(student.getName()), student);
+        student.addListener(indexUpdater);
+    }
+
+    // Removes the stored student from all indexes, without touching any course:
+    private boolean remove(Student student) {
+        Student removed = students.remove(student.getId());
+        if (removed == null) {
+            return false;
+        }
+        ids.remove(removed.getId());
+        emails.remove(fold(removed.getEmail()));
+        names.remove(fold(removed.getName()), removed);
+        removed.removeListener(indexUpdater);
+        return true;
     }
 }
@@ -0,0 +1,51 @@
+package se.lexicon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for a dao delete of one or more objects that took at least the threshold, 1 ms
+ * unless the recording settings say otherwise.
+ */
+@Name("se.lexicon.DaoDelete")
+@Label("DAO Delete")
+@Category({"School Management", "DAO"})
+@Description("A student or course dao delete")
+@Threshold("1 ms")
+public class DaoDeleteEvent extends Event {
+
+    @Label("DAO")
+    Class<?> dao;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Deleted")
+    int deleted;
+
+    /**
+     * Returns a new event, with its timing begun.
+     */
+    public static DaoDeleteEvent start() {
+        DaoDeleteEvent event = new DaoDeleteEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the timing, and commits the event with the given details if it took at least the threshold.
+     */
+    public void finish(Class<?> dao, String operation, int deleted) {
+        end();
+        if (shouldCommit()) {
+            this.dao = dao;
+            this.operation = operation;
+            this.deleted = deleted;
+            commit();
+        }
+    }
+}
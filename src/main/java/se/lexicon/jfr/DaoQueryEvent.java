@@ -0,0 +1,58 @@
+package se.lexicon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for a dao query that took at least the threshold, 1 ms unless the recording
+ * settings say otherwise. It records how many stored objects or index entries the query looked at and how
+ * many it returned, so a slow query can be told apart as a long scan or a stall. Lookups by id or email
+ * are single index probes and emit no event, since timing them would cost more than the lookup.
+ */
+@Name("se.lexicon.DaoQuery")
+@Label("DAO Query")
+@Category({"School Management", "DAO"})
+@Description("A student or course dao query")
+@Threshold("1 ms")
+public class DaoQueryEvent extends Event {
+
+    @Label("DAO")
+    Class<?> dao;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Scanned")
+    @Description("Stored objects or index entries looked at")
+    int scanned;
+
+    @Label("Results")
+    int results;
+
+    /**
+     * Returns a new event, with its timing begun.
+     */
+    public static DaoQueryEvent start() {
+        DaoQueryEvent event = new DaoQueryEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the timing, and commits the event with the given details if it took at least the threshold.
+     */
+    public void finish(Class<?> dao, String operation, int scanned, int results) {
+        end();
+        if (shouldCommit()) {
+            this.dao = dao;
+            this.operation = operation;
+            this.scanned = scanned;
+            this.results = results;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package se.lexicon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for a dao save of one or more objects that took at least the threshold, 1 ms
+ * unless the recording settings say otherwise.
+ */
+@Name("se.lexicon.DaoSave")
+@Label("DAO Save")
+@Category({"School Management", "DAO"})
+@Description("A student or course dao save")
+@Threshold("1 ms")
+public class DaoSaveEvent extends Event {
+
+    @Label("DAO")
+    Class<?> dao;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Saved")
+    int saved;
+
+    /**
+     * Returns a new event, with its timing begun.
+     */
+    public static DaoSaveEvent start() {
+        DaoSaveEvent event = new DaoSaveEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the timing, and commits the event with the given details if it took at least the threshold.
+     */
+    public void finish(Class<?> dao, String operation, int saved) {
+        end();
+        if (shouldCommit()) {
+            this.dao = dao;
+            this.operation = operation;
+            this.saved = saved;
+            commit();
+        }
+    }
+}
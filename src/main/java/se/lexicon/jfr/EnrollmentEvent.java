@@ -0,0 +1,63 @@
+package se.lexicon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for registering students on or unregistering them from a course through a course
+ * dao that took at least the threshold, 1 ms unless the recording settings say otherwise. The time covers
+ * the whole call: waiting for the course's monitor, and every listener of the course, such as dao indexes
+ * and journals.
+ */
+@Name("se.lexicon.Enrollment")
+@Label("Enrollment")
+@Category({"School Management", "DAO"})
+@Description("A student registered on or unregistered from a course saved in a dao")
+@Threshold("1 ms")
+public class EnrollmentEvent extends Event {
+
+    @Label("DAO")
+    Class<?> dao;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Course Id")
+    int courseId;
+
+    @Label("Student Id")
+    @Description("The student, or the first student of a batch")
+    int studentId;
+
+    @Label("Students")
+    @Description("Students registered or unregistered")
+    int students;
+
+    /**
+     * Returns a new event, with its timing begun.
+     */
+    public static EnrollmentEvent start() {
+        EnrollmentEvent event = new EnrollmentEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the timing, and commits the event with the given details if it took at least the threshold.
+     */
+    public void finish(Class<?> dao, String operation, int courseId, int studentId, int students) {
+        end();
+        if (shouldCommit()) {
+            this.dao = dao;
+            this.operation = operation;
+            this.courseId = courseId;
+            this.studentId = studentId;
+            this.students = students;
+            commit();
+        }
+    }
+}
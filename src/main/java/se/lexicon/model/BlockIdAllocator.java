@@ -0,0 +1,57 @@
+package se.lexicon.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates ids in blocks claimed per thread, so threads only touch the shared counter once per block.
+ * <p>
+ * Ids are unique but only increase within a thread; across threads they interleave by block.
+ * After {@link #advancePast(int)}, blocks claimed before the call are discarded.
+ */
+public class BlockIdAllocator implements IdAllocator {
+
+    // Counters are longs so that neither a block ending at Integer.MAX_VALUE nor repeated claims after
+    // exhaustion can wrap around to ids already handed out:
+    private static final class Block {
+        long next;
+        long limit;
+        int floor;
+    }
+
+    private final int blockSize;
+    private final AtomicLong lastClaimed = new AtomicLong();
+    private final AtomicInteger floor = new AtomicInteger();
+    private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+
+    public BlockIdAllocator(int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size cannot be zero or negative.");
+        }
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public int nextId() {
+        Block block = blocks.get();
+
+        // Claim a new block when the current one is used up or predates an advance:
+        int currentFloor = floor.get();
+        if (block.next == 0 || block.next > block.limit || block.floor != currentFloor) {
+            long last = lastClaimed.getAndAdd(blockSize);
+            if (last >= Integer.MAX_VALUE) {
+                throw new IllegalStateException("Id space is exhausted.");
+            }
+            block.next = last + 1;
+            block.limit = Math.min(last + blockSize, Integer.MAX_VALUE);
+            block.floor = currentFloor;
+        }
+        return (int) block.next++;
+    }
+
+    @Override
+    public void advancePast(int id) {
+        lastClaimed.accumulateAndGet(id, Math::max);
+        floor.accumulateAndGet(id, Math::max);
+    }
+}
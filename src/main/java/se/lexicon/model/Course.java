@@ -1,20 +1,41 @@
 package se.lexicon.model;
 
+import se.lexicon.util.IntBitmap;
+import se.lexicon.util.StringPool;
+
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class Course {
 
-    private static int courseIdCounter = 0;
+    private static volatile IdAllocator idAllocator = new SequentialIdAllocator();
+
+    // Pool sharing course names repeated across terms, or null to keep names as given:
+    private static volatile StringPool stringPool;
 
     // Attributes:
     private final int id;
     private String courseName;
     private LocalDate startDate;
     private int weekDuration;
-    private List<Student> students = new ArrayList<>();;
+    // Roster in enrollment order, with constant-time membership:
+    private final Set<Student> students = new LinkedHashSet<>();
+    private final Set<Student> studentsView = Collections.unmodifiableSet(students);
+
+    // Ids of the registered students, for set operations across courses:
+    private IntBitmap studentIds = new IntBitmap();
+
+    // Listeners notified before indexed fields change, created once on first registration and volatile,
+    // since DAOs on other threads add and remove them:
+    private volatile List<CourseListener> listeners;
 
     // Constructor without List of Students:
     public Course(String courseName, LocalDate startDate, int weekDuration) {
@@ -23,13 +44,50 @@ public class Course {
 
     // Constructor with List of Students:
     public Course(String courseName, LocalDate startDate, int weekDuration, List<Student> students) {
-        this.id = ++courseIdCounter;
+        this.id = idAllocator.nextId();
         this.setCourseName(courseName);
         this.setStartDate(startDate);
         this.setWeekDuration(weekDuration);
         this.setStudents(students);
     }
 
+    // Constructor restoring a persisted course, whose start date may since have passed:
+    public Course(int id, String courseName, LocalDate startDate, int weekDuration, List<Student> students) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Id is not allowed to be zero or negative.");
+        }
+        if (startDate == null) {
+            throw new IllegalArgumentException("Start date cannot be null or in the past.");
+        }
+        this.id = id;
+        this.setCourseName(courseName);
+        this.startDate = startDate;
+        this.setWeekDuration(weekDuration);
+        this.setStudents(students);
+        idAllocator.advancePast(id);
+    }
+
+    // Id allocation:
+    public static IdAllocator getIdAllocator() {
+        return idAllocator;
+    }
+
+    public static void setIdAllocator(IdAllocator idAllocator) {
+        if (idAllocator == null) {
+            throw new IllegalArgumentException("Id allocator cannot be null.");
+        }
+        Course.idAllocator = idAllocator;
+    }
+
+    // String pooling:
+    public static StringPool getStringPool() {
+        return stringPool;
+    }
+
+    public static void setStringPool(StringPool stringPool) {
+        Course.stringPool = stringPool;
+    }
+
     // Getters:
     public int getId() {
         return id;
@@ -47,22 +105,41 @@ public class Course {
         return weekDuration;
     }
 
-    public List<Student> getStudents() {
+    // Last day the course runs, derived from the start date and duration:
+    public LocalDate getEndDate() {
+        return startDate.plusWeeks(weekDuration).minusDays(1);
+    }
+
+    public synchronized List<Student> getStudents() {
         return new ArrayList<>(students);
     }
 
+    // Read-only live view of the roster in enrollment order, without copying. Enrollment is synchronized on
+    // the course, so hold its monitor while iterating if other threads may register or unregister:
+    public Collection<Student> viewStudents() {
+        return studentsView;
+    }
+
     // Setters:
     public void setCourseName(String courseName) {
         if (courseName == null || courseName.trim().isEmpty()){
             throw new IllegalArgumentException("Course name cannot be null or empty.");
         }
-        this.courseName = courseName;
+        if (listeners != null) {
+            notifyListeners(listener -> listener.onNameChange(this, this.courseName, courseName),
+                    listener -> listener.onNameChange(this, courseName, this.courseName));
+        }
+        this.courseName = canonical(courseName);
     }
 
     public void setStartDate(LocalDate startDate) {
         if (startDate == null || startDate.isBefore(LocalDate.now())) {
             throw new IllegalArgumentException("Start date cannot be null or in the past.");
         }
+        if (listeners != null) {
+            notifyListeners(listener -> listener.onStartDateChange(this, this.startDate, startDate),
+                    listener -> listener.onStartDateChange(this, startDate, this.startDate));
+        }
         this.startDate = startDate;
     }
 
@@ -70,33 +147,244 @@ public class Course {
         if (weekDuration <= 0) {
             throw new IllegalArgumentException("Duration cannot be zero or a negative number.");
         }
+        if (listeners != null) {
+            notifyListeners(listener -> listener.onWeekDurationChange(this, this.weekDuration, weekDuration),
+                    listener -> listener.onWeekDurationChange(this, weekDuration, this.weekDuration));
+        }
 
         this.weekDuration = weekDuration;
     }
 
-    public void setStudents(List<Student> students) {
+    public synchronized void setStudents(List<Student> students) {
         if (students == null){
             throw new IllegalArgumentException("Students cannot be null.");
         }
-        this.students = new ArrayList<>(students);
+        if (listeners != null) {
+            notifyRosterChange(new LinkedHashSet<>(students));
+        }
+        this.students.clear();
+        this.students.addAll(students);
+        this.studentIds = new IntBitmap();
+        for (Student student : this.students) {
+            this.studentIds.add(student.getId());
+        }
+    }
+
+    // Listeners:
+    public void addListener(CourseListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null.");
+        }
+        List<CourseListener> current = listeners;
+        if (current == null) {
+            synchronized (this) {
+                if (listeners == null) {
+                    listeners = new CopyOnWriteArrayList<>();
+                }
+                current = listeners;
+            }
+        }
+        current.add(listener);
+    }
+
+    public void removeListener(CourseListener listener) {
+        List<CourseListener> current = listeners;
+        if (current != null) {
+            current.remove(listener);
+        }
+    }
+
+    // Sends a change to every listener. If one vetoes it, or fails with any other runtime exception, the
+    // listeners that already accepted the change are sent the revert, latest first, before the exception is
+    // rethrown:
+    private void notifyListeners(Consumer<CourseListener> change, Consumer<CourseListener> revert) {
+        List<CourseListener> current = listeners;
+        CourseListener notified = null;
+        try {
+            for (CourseListener listener : current) {
+                notified = listener;
+                change.accept(listener);
+            }
+        } catch (RuntimeException veto) {
+            List<CourseListener> accepted = new ArrayList<>();
+            for (CourseListener listener : current) {
+                if (listener == notified) {
+                    break;
+                }
+                accepted.add(listener);
+            }
+            for (int i = accepted.size() - 1; i >= 0; i--) {
+                try {
+                    revert.accept(accepted.get(i));
+                } catch (RuntimeException e) {
+                    veto.addSuppressed(e);
+                }
+            }
+            throw veto;
+        }
+    }
+
+    // Sends the unregistrations and then the registrations that turn the roster into the replacement, each
+    // as its own change. If one is vetoed, the changes already sent are reverted, latest first, so every
+    // listener ends up where it started before the veto is rethrown:
+    private void notifyRosterChange(Set<Student> replacement) {
+        List<Consumer<CourseListener>> reverts = new ArrayList<>();
+        try {
+            for (Student student : this.students) {
+                if (!replacement.contains(student)) {
+                    notifyListeners(listener -> listener.onUnregister(this, student),
+                            listener -> listener.onRegister(this, student));
+                    reverts.add(listener -> listener.onRegister(this, student));
+                }
+            }
+            for (Student student : replacement) {
+                if (!this.students.contains(student)) {
+                    notifyListeners(listener -> listener.onRegister(this, student),
+                            listener -> listener.onUnregister(this, student));
+                    reverts.add(listener -> listener.onUnregister(this, student));
+                }
+            }
+        } catch (RuntimeException veto) {
+            List<CourseListener> current = new ArrayList<>(listeners);
+            for (int i = reverts.size() - 1; i >= 0; i--) {
+                for (int j = current.size() - 1; j >= 0; j--) {
+                    try {
+                        reverts.get(i).accept(current.get(j));
+                    } catch (RuntimeException e) {
+                        veto.addSuppressed(e);
+                    }
+                }
+            }
+            throw veto;
+        }
     }
 
     // Operations:
-    public void register(Student student) {
+    // Swaps the name for its pooled instance, for courses made before the pool was set:
+    public void canonicalize() {
+        this.courseName = canonical(courseName);
+    }
+
+    private static String canonical(String value) {
+        StringPool pool = stringPool;
+        return pool == null ? value : pool.canonical(value);
+    }
+
+    public synchronized void register(Student student) {
         // Check if student is null:
         if (student == null) throw new IllegalArgumentException("Student cannot be null.");
 
-        // Check if student already exists in students:
-        if (!this.students.contains(student)) {
-            this.students.add(student);
+        // Add the student unless already registered:
+        if (this.students.contains(student)) {
+            return;
         }
+        if (listeners != null) {
+            notifyListeners(listener -> listener.onRegister(this, student),
+                    listener -> listener.onUnregister(this, student));
+        }
+        this.students.add(student);
+        this.studentIds.add(student.getId());
     }
 
-    public void unregister(Student student) {
+    // Returns whether the student was registered:
+    public synchronized boolean unregister(Student student) {
         if (student == null) {
             throw new IllegalArgumentException("Student cannot be null.");
         }
+        if (!students.contains(student)) {
+            return false;
+        }
+        if (listeners != null) {
+            notifyListeners(listener -> listener.onUnregister(this, student),
+                    listener -> listener.onRegister(this, student));
+        }
         students.remove(student);
+        studentIds.remove(student.getId());
+        return true;
+    }
+
+    // Returns the number of the students that were registered:
+    public synchronized int unregisterAll(Collection<Student> students) {
+        if (students == null) {
+            throw new IllegalArgumentException("Students cannot be null.");
+        }
+        for (Student student : students) {
+            if (student == null) {
+                throw new IllegalArgumentException("Student cannot be null.");
+            }
+        }
+
+        // Remove the registered students in one pass over the batch, skipping the others:
+        int removed = 0;
+        for (Student student : students) {
+            if (!this.students.contains(student)) {
+                continue;
+            }
+            if (listeners != null) {
+                notifyListeners(listener -> listener.onUnregister(this, student),
+                        listener -> listener.onRegister(this, student));
+            }
+            this.students.remove(student);
+            studentIds.remove(student.getId());
+            removed++;
+        }
+        return removed;
+    }
+
+    public synchronized int getStudentCount() {
+        return studentIds.cardinality();
+    }
+
+    // Returns a copy of the ids of the registered students:
+    public synchronized IntBitmap getStudentIds() {
+        return new IntBitmap(studentIds);
+    }
+
+    // Ids of students registered on both this course and the other:
+    public IntBitmap studentIdsInCommon(Course other) {
+        if (other == null) throw new IllegalArgumentException("Course cannot be null.");
+        synchronized (lockedFirst(this, other)) {
+            synchronized (lockedFirst(this, other) == this ? other : this) {
+                return IntBitmap.and(studentIds, other.studentIds);
+            }
+        }
+    }
+
+    // Ids of students registered on this course, the other, or both:
+    public IntBitmap studentIdsInEither(Course other) {
+        if (other == null) throw new IllegalArgumentException("Course cannot be null.");
+        synchronized (lockedFirst(this, other)) {
+            synchronized (lockedFirst(this, other) == this ? other : this) {
+                return IntBitmap.or(studentIds, other.studentIds);
+            }
+        }
+    }
+
+    // Ids of students registered on this course but not on the other:
+    public IntBitmap studentIdsNotIn(Course other) {
+        if (other == null) throw new IllegalArgumentException("Course cannot be null.");
+        synchronized (lockedFirst(this, other)) {
+            synchronized (lockedFirst(this, other) == this ? other : this) {
+                return IntBitmap.andNot(studentIds, other.studentIds);
+            }
+        }
+    }
+
+    // Number of students registered on both this course and the other:
+    public int countStudentsInCommon(Course other) {
+        if (other == null) throw new IllegalArgumentException("Course cannot be null.");
+        synchronized (lockedFirst(this, other)) {
+            synchronized (lockedFirst(this, other) == this ? other : this) {
+                return IntBitmap.andCardinality(studentIds, other.studentIds);
+            }
+        }
+    }
+
+    // Of two rosters read together, the one to lock first: the lower id (then identity), so two threads
+    // reading the same pair never deadlock:
+    private static Course lockedFirst(Course a, Course b) {
+        if (a.id != b.id) return a.id < b.id ? a : b;
+        return System.identityHashCode(a) <= System.identityHashCode(b) ? a : b;
     }
 
     @Override
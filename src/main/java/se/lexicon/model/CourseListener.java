@@ -0,0 +1,67 @@
+package se.lexicon.model;
+
+import java.time.LocalDate;
+
+/**
+ * Receives notifications when a field of a {@link Course} is about to change.
+ * <p>
+ * Callbacks run after the new value has been validated but before it is assigned. Throwing an
+ * {@link IllegalArgumentException} from a callback vetoes the change and leaves the course untouched; any
+ * other runtime exception, such as a failed write to storage, aborts the change the same way and is rethrown.
+ * Listeners that accepted the change before the veto are then called again with the change reverted,
+ * from the value they were offered back to the current one (a registration is reverted by an
+ * unregistration and vice versa), so listeners keeping state in step need no separate rollback hook.
+ */
+public interface CourseListener {
+
+    /**
+     * Called before the name of a course changes.
+     *
+     * @param course  the course being changed
+     * @param oldName the current name
+     * @param newName the name about to be assigned
+     */
+    default void onNameChange(Course course, String oldName, String newName) {
+    }
+
+    /**
+     * Called before the start date of a course changes.
+     *
+     * @param course       the course being changed
+     * @param oldStartDate the current start date
+     * @param newStartDate the start date about to be assigned
+     */
+    default void onStartDateChange(Course course, LocalDate oldStartDate, LocalDate newStartDate) {
+    }
+
+    /**
+     * Called before the duration of a course changes.
+     *
+     * @param course          the course being changed
+     * @param oldWeekDuration the current duration in weeks
+     * @param newWeekDuration the duration about to be assigned
+     */
+    default void onWeekDurationChange(Course course, int oldWeekDuration, int newWeekDuration) {
+    }
+
+    /**
+     * Called before a student is added to the roster of a course.
+     * Not called for students that are already registered.
+     *
+     * @param course  the course being changed
+     * @param student the student about to be registered
+     */
+    default void onRegister(Course course, Student student) {
+    }
+
+    /**
+     * Called before a student is removed from the roster of a course.
+     * Not called for students that are not registered.
+     *
+     * @param course  the course being changed
+     * @param student the student about to be unregistered
+     */
+    default void onUnregister(Course course, Student student) {
+    }
+
+}
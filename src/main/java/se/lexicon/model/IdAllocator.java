@@ -0,0 +1,26 @@
+package se.lexicon.model;
+
+/**
+ * Hands out positive, unique ids for new entities.
+ * <p>
+ * Implementations must be safe to call from many threads at once.
+ */
+public interface IdAllocator {
+
+    /**
+     * Allocates a new id.
+     *
+     * @return an id that has not been handed out before
+     * @throws IllegalStateException if the id space is exhausted
+     */
+    int nextId();
+
+    /**
+     * Makes sure every id allocated from now on is greater than the given id.
+     * Used to resume allocation after entities have been reloaded from storage.
+     *
+     * @param id the highest id already in use
+     */
+    void advancePast(int id);
+
+}
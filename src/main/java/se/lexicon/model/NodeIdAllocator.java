@@ -0,0 +1,60 @@
+package se.lexicon.model;
+
+/**
+ * Prefixes ids with a node number, so that several JVMs can create entities without coordinating.
+ * <p>
+ * The upper {@code nodeBits} bits below the sign bit hold the node number, and the remaining bits hold an
+ * id from a node-local allocator. Ids from different nodes never collide.
+ */
+public class NodeIdAllocator implements IdAllocator {
+
+    private final int node;
+    private final int localBits;
+    private final int localMask;
+    private final IdAllocator local;
+
+    /**
+     * @param node     this node's number, between 0 and 2^nodeBits - 1
+     * @param nodeBits the number of bits reserved for the node number, between 1 and 16
+     * @param local    the allocator for the node-local part of the id
+     */
+    public NodeIdAllocator(int node, int nodeBits, IdAllocator local) {
+        if (nodeBits < 1 || nodeBits > 16) {
+            throw new IllegalArgumentException("Node bits must be between 1 and 16.");
+        }
+        if (node < 0 || node >= (1 << nodeBits)) {
+            throw new IllegalArgumentException("Node must be between 0 and " + ((1 << nodeBits) - 1) + ".");
+        }
+        if (local == null) {
+            throw new IllegalArgumentException("Local allocator cannot be null.");
+        }
+        this.node = node;
+        this.localBits = 31 - nodeBits;
+        this.localMask = (1 << localBits) - 1;
+        this.local = local;
+    }
+
+    @Override
+    public int nextId() {
+        int localId = local.nextId();
+        if (localId > localMask) {
+            throw new IllegalStateException("Id space of node " + node + " is exhausted.");
+        }
+        return (node << localBits) | localId;
+    }
+
+    /**
+     * Advances the node-local allocator if the id belongs to this node. Ids of other nodes are ignored,
+     * since they can never collide with ids of this node.
+     */
+    @Override
+    public void advancePast(int id) {
+        if (id > 0 && (id >>> localBits) == node) {
+            local.advancePast(id & localMask);
+        }
+    }
+
+    public int getNode() {
+        return node;
+    }
+}
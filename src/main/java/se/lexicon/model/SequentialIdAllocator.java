@@ -0,0 +1,25 @@
+package se.lexicon.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Allocates ids 1, 2, 3, ... from a single atomic counter.
+ */
+public class SequentialIdAllocator implements IdAllocator {
+
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    @Override
+    public int nextId() {
+        int id = lastId.incrementAndGet();
+        if (id <= 0) {
+            throw new IllegalStateException("Id space is exhausted.");
+        }
+        return id;
+    }
+
+    @Override
+    public void advancePast(int id) {
+        lastId.accumulateAndGet(id, Math::max);
+    }
+}
@@ -1,10 +1,18 @@
 package se.lexicon.model;
 
-import java.util.Objects;
+import se.lexicon.util.StringPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class Student {
 
-    private static int personIdCounter = 0;
+    private static volatile IdAllocator idAllocator = new SequentialIdAllocator();
+
+    // Pool sharing repeated names and addresses between students, or null to keep values as given:
+    private static volatile StringPool stringPool;
 
     // Attributes:
     private final int id;
@@ -12,12 +20,49 @@ public class Student {
     private String email;
     private String address;
 
+    // Listeners notified before fields change, created once on first registration and volatile, since
+    // DAOs on other threads add and remove them:
+    private volatile List<StudentListener> listeners;
+
     // Constructor:
     public Student(String name, String email, String address) {
-        this.id = ++personIdCounter;
+        this.id = idAllocator.nextId();
+        this.setName(name);
+        this.setEmail(email);
+        this.setAddress(address);
+    }
+
+    // Constructor restoring a persisted student, which keeps later ids above the restored one:
+    public Student(int id, String name, String email, String address) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Id is not allowed to be zero or negative.");
+        }
+        this.id = id;
         this.setName(name);
         this.setEmail(email);
         this.setAddress(address);
+        idAllocator.advancePast(id);
+    }
+
+    // Id allocation:
+    public static IdAllocator getIdAllocator() {
+        return idAllocator;
+    }
+
+    public static void setIdAllocator(IdAllocator idAllocator) {
+        if (idAllocator == null) {
+            throw new IllegalArgumentException("Id allocator cannot be null.");
+        }
+        Student.idAllocator = idAllocator;
+    }
+
+    // String pooling:
+    public static StringPool getStringPool() {
+        return stringPool;
+    }
+
+    public static void setStringPool(StringPool stringPool) {
+        Student.stringPool = stringPool;
     }
 
     // Getters:
@@ -42,7 +87,11 @@ public class Student {
         if (name == null || name.trim().isEmpty()){
             throw new IllegalArgumentException("Name cannot be null or empty.");
         }
-        this.name = name;
+        if (listeners != null) {
+            notifyListeners(listener -> listener.onNameChange(this, this.name, name),
+                    listener -> listener.onNameChange(this, name, this.name));
+        }
+        this.name = canonical(name);
     }
 
     public void setEmail(String email) {
@@ -52,6 +101,10 @@ public class Student {
         if (!email.contains("@")) {
             throw new IllegalArgumentException("Email must contain a '@'.");
         }
+        if (listeners != null) {
+            notifyListeners(listener -> listener.onEmailChange(this, this.email, email),
+                    listener -> listener.onEmailChange(this, email, this.email));
+        }
         this.email = email;
     }
 
@@ -59,10 +112,81 @@ public class Student {
         if (address == null || address.trim().isEmpty()){
             throw new IllegalArgumentException("Address cannot be null or empty.");
         }
-        this.address = address;
+        if (listeners != null) {
+            notifyListeners(listener -> listener.onAddressChange(this, this.address, address),
+                    listener -> listener.onAddressChange(this, address, this.address));
+        }
+        this.address = canonical(address);
+    }
+
+    // Listeners:
+    public void addListener(StudentListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null.");
+        }
+        List<StudentListener> current = listeners;
+        if (current == null) {
+            synchronized (this) {
+                if (listeners == null) {
+                    listeners = new CopyOnWriteArrayList<>();
+                }
+                current = listeners;
+            }
+        }
+        current.add(listener);
+    }
+
+    public void removeListener(StudentListener listener) {
+        List<StudentListener> current = listeners;
+        if (current != null) {
+            current.remove(listener);
+        }
+    }
+
+    // Sends a change to every listener. If one vetoes it, or fails with any other runtime exception, the
+    // listeners that already accepted the change are sent the revert, latest first, before the exception is
+    // rethrown. Listeners are only ever appended, so the ones ahead of the failing listener are the ones
+    // that accepted:
+    private void notifyListeners(Consumer<StudentListener> change, Consumer<StudentListener> revert) {
+        List<StudentListener> current = listeners;
+        StudentListener notified = null;
+        try {
+            for (StudentListener listener : current) {
+                notified = listener;
+                change.accept(listener);
+            }
+        } catch (RuntimeException veto) {
+            List<StudentListener> accepted = new ArrayList<>();
+            for (StudentListener listener : current) {
+                if (listener == notified) {
+                    break;
+                }
+                accepted.add(listener);
+            }
+            for (int i = accepted.size() - 1; i >= 0; i--) {
+                try {
+                    revert.accept(accepted.get(i));
+                } catch (RuntimeException e) {
+                    veto.addSuppressed(e);
+                }
+            }
+            throw veto;
+        }
     }
 
     // Operations:
+    // Swaps the name and address for their pooled instances, for students made before the pool was set.
+    // Emails are not pooled: they are nearly unique, and a String cannot share its domain with another:
+    public void canonicalize() {
+        this.name = canonical(name);
+        this.address = canonical(address);
+    }
+
+    private static String canonical(String value) {
+        StringPool pool = stringPool;
+        return pool == null ? value : pool.canonical(value);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
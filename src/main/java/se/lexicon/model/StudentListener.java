@@ -0,0 +1,45 @@
+package se.lexicon.model;
+
+/**
+ * Receives notifications when a field of a {@link Student} is about to change.
+ * <p>
+ * Callbacks run after the new value has been validated but before it is assigned. Throwing an
+ * {@link IllegalArgumentException} from a callback vetoes the change and leaves the student untouched; any
+ * other runtime exception, such as a failed write to storage, aborts the change the same way and is rethrown.
+ * Listeners that accepted the change before the veto are then called again with the change reverted,
+ * from the value they were offered back to the current one, so listeners keeping state in step need no
+ * separate rollback hook.
+ */
+public interface StudentListener {
+
+    /**
+     * Called before the email of a student changes.
+     *
+     * @param student  the student being changed
+     * @param oldEmail the current email
+     * @param newEmail the email about to be assigned
+     */
+    default void onEmailChange(Student student, String oldEmail, String newEmail) {
+    }
+
+    /**
+     * Called before the name of a student changes.
+     *
+     * @param student the student being changed
+     * @param oldName the current name
+     * @param newName the name about to be assigned
+     */
+    default void onNameChange(Student student, String oldName, String newName) {
+    }
+
+    /**
+     * Called before the address of a student changes.
+     *
+     * @param student    the student being changed
+     * @param oldAddress the current address
+     * @param newAddress the address about to be assigned
+     */
+    default void onAddressChange(Student student, String oldAddress, String newAddress) {
+    }
+
+}
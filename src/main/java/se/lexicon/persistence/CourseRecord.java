@@ -0,0 +1,103 @@
+package se.lexicon.persistence;
+
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+import se.lexicon.util.IntLinkedHashMap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+/**
+ * A course as plain data, with its roster as student ids in enrollment order.
+ * <p>
+ * Recovery keeps courses in this form until it ends, so replaying a change never runs into the validation
+ * that rejects start dates which have since passed. Checkpoints capture courses in this form, so the
+ * snapshot can be written on another thread while the live courses keep changing.
+ */
+final class CourseRecord {
+
+    final int id;
+    String name;
+    LocalDate startDate;
+    int weekDuration;
+
+    // Roster ids in enrollment order, as loaded or captured:
+    private final int[] studentIds;
+
+    // Roster ids in enrollment order with constant-time membership, built from studentIds on the first
+    // registration change, so replaying a long journal stays linear and untouched records stay compact:
+    private IntLinkedHashMap<Boolean> roster;
+
+    CourseRecord(int id, String name, LocalDate startDate, int weekDuration, int[] studentIds) {
+        this.id = id;
+        this.name = name;
+        this.startDate = startDate;
+        this.weekDuration = weekDuration;
+        this.studentIds = studentIds;
+    }
+
+    // Captures the current state of a course:
+    static CourseRecord of(Course course) {
+        Collection<Student> roster = course.viewStudents();
+        int[] studentIds = new int[roster.size()];
+        int i = 0;
+        for (Student student : roster) {
+            studentIds[i++] = student.getId();
+        }
+        return new CourseRecord(course.getId(), course.getCourseName(), course.getStartDate(),
+                course.getWeekDuration(), studentIds);
+    }
+
+    int[] studentIds() {
+        if (roster == null) {
+            return Arrays.copyOf(studentIds, studentIds.length);
+        }
+        int[] ids = new int[roster.size()];
+        PrimitiveIterator.OfInt keys = roster.keyIterator();
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = keys.nextInt();
+        }
+        return ids;
+    }
+
+    void register(int studentId) {
+        IntLinkedHashMap<Boolean> current = roster();
+        if (!current.containsKey(studentId)) {
+            current.put(studentId, Boolean.TRUE);
+        }
+    }
+
+    void unregister(int studentId) {
+        roster().remove(studentId);
+    }
+
+    /**
+     * Builds the course, with a roster holding the given students. Roster entries for students that no
+     * longer exist are dropped. Only reads the students, so records can be built in parallel.
+     */
+    Course toCourse(IntLinkedHashMap<Student> students) {
+        int[] ids = roster == null ? studentIds : studentIds();
+        List<Student> enrolled = new ArrayList<>(ids.length);
+        for (int studentId : ids) {
+            Student student = students.get(studentId);
+            if (student != null) {
+                enrolled.add(student);
+            }
+        }
+        return new Course(id, name, startDate, weekDuration, enrolled);
+    }
+
+    private IntLinkedHashMap<Boolean> roster() {
+        if (roster == null) {
+            roster = new IntLinkedHashMap<>(studentIds.length);
+            for (int studentId : studentIds) {
+                roster.put(studentId, Boolean.TRUE);
+            }
+        }
+        return roster;
+    }
+}
@@ -0,0 +1,25 @@
+package se.lexicon.persistence;
+
+/**
+ * Decides when journal records are forced from the operating system to the storage device.
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Every write is durable before it returns. Writers that arrive while a force is running share the next
+     * force (group commit), so concurrent writers do not pay for one force each.
+     */
+    ALWAYS,
+
+    /**
+     * Records are forced by a background task at a fixed interval. A power loss can lose the writes of the
+     * last interval, but a write only costs the hand-off to the operating system.
+     */
+    INTERVAL,
+
+    /**
+     * Records are handed to the operating system and never forced explicitly. They survive a crash of the
+     * process, but a power loss can lose any write the operating system has not flushed yet.
+     */
+    NONE
+}
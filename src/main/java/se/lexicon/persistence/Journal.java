@@ -0,0 +1,475 @@
+package se.lexicon.persistence;
+
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only binary journal of changes to students and courses, split into numbered segment files.
+ * <p>
+ * Each record is framed as its payload length, a type byte, the payload and a CRC-32 of type and payload.
+ * Records are encoded into a reused direct buffer and written through a {@link FileChannel}, and the
+ * {@link FsyncPolicy} decides when they are forced to the device. A record cut short by a crash fails its
+ * length or checksum check; replay stops there, and the segment is truncated before new records are appended.
+ * <p>
+ * Every record sets a value instead of changing one relative to the current state, so replaying records
+ * whose effects are already in a snapshot is harmless. Appends are thread-safe.
+ */
+final class Journal implements Closeable {
+
+    // Segment header:
+    static final int MAGIC = 0x534A4E4C;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    // Record types:
+    static final byte SAVE_STUDENT = 1;
+    static final byte DELETE_STUDENT = 2;
+    static final byte STUDENT_NAME = 3;
+    static final byte STUDENT_EMAIL = 4;
+    static final byte STUDENT_ADDRESS = 5;
+    static final byte SAVE_COURSE = 6;
+    static final byte DELETE_COURSE = 7;
+    static final byte COURSE_NAME = 8;
+    static final byte COURSE_START_DATE = 9;
+    static final byte COURSE_WEEK_DURATION = 10;
+    static final byte REGISTER = 11;
+    static final byte UNREGISTER = 12;
+
+    // Length, type and checksum around each payload:
+    private static final int FRAME_SIZE = 9;
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+
+    /**
+     * Receives the records of a segment during replay. The payload buffer is only valid during the call.
+     */
+    interface RecordHandler {
+        void record(byte type, ByteBuffer payload) throws IOException;
+    }
+
+    private final Path directory;
+    private final FsyncPolicy policy;
+    private final CRC32 crc = new CRC32();
+    private final ScheduledExecutorService flusher;
+
+    // Guarded by this:
+    private FileChannel channel;
+    private int generation;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+
+    // Bytes appended since opening, across segments, and how many of them are known to be forced:
+    private volatile long written;
+    private volatile long durable;
+
+    // Serializes forces and segment rotation; taken before this when both are needed:
+    private final Object syncLock = new Object();
+
+    // Set when a write or background force fails, after which the journal refuses further appends:
+    private volatile IOException failure;
+
+    private Journal(Path directory, int generation, long validLength, FsyncPolicy policy, long intervalMillis)
+            throws IOException {
+        this.directory = directory;
+        this.generation = generation;
+        this.policy = policy;
+        this.channel = openSegment(segment(directory, generation), validLength);
+
+        if (policy == FsyncPolicy.INTERVAL) {
+            flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "journal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::syncQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Replays the segments from the given generation on, then opens the last one for appending.
+     * Older segments are already covered by a snapshot and are deleted.
+     */
+    static Journal open(Path directory, int fromGeneration, FsyncPolicy policy, long intervalMillis,
+                        RecordHandler replay) throws IOException {
+        Files.createDirectories(directory);
+        List<Integer> generations = generations(directory);
+
+        int last = fromGeneration;
+        long validLength = 0;
+        for (int i = 0; i < generations.size(); i++) {
+            int generation = generations.get(i);
+            Path segment = segment(directory, generation);
+            if (generation < fromGeneration) {
+                Files.delete(segment);
+                continue;
+            }
+
+            // Only the last segment may end in a torn record; anywhere else it means lost records:
+            validLength = replay(segment, replay);
+            if (i < generations.size() - 1 && validLength < Files.size(segment)) {
+                throw new IOException("Corrupt journal segment: " + segment);
+            }
+            last = generation;
+        }
+        return new Journal(directory, last, validLength, policy, intervalMillis);
+    }
+
+    /**
+     * Passes every intact record of the segment to the handler, in order.
+     *
+     * @return the length of the intact part of the segment, or 0 if even its header is incomplete
+     */
+    static long replay(Path segment, RecordHandler handler) throws IOException {
+        long size = Files.size(segment);
+        if (size < HEADER_SIZE) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a journal segment: " + segment);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported journal version " + version + ": " + segment);
+            }
+
+            long valid = HEADER_SIZE;
+            byte[] record = new byte[256];
+            CRC32 checksum = new CRC32();
+            while (valid + FRAME_SIZE <= size) {
+
+                // Stop at a length running past the end, or a record whose checksum does not match:
+                int length = in.readInt();
+                if (length < 0 || valid + FRAME_SIZE + length > size) {
+                    break;
+                }
+                if (record.length < length + 1) {
+                    record = new byte[Math.max(length + 1, record.length * 2)];
+                }
+                in.readFully(record, 0, length + 1);
+                int expected = in.readInt();
+                checksum.reset();
+                checksum.update(record, 0, length + 1);
+                if ((int) checksum.getValue() != expected) {
+                    break;
+                }
+
+                handler.record(record[0], ByteBuffer.wrap(record, 1, length).slice());
+                valid += FRAME_SIZE + length;
+            }
+            return valid;
+        }
+    }
+
+    // Records:
+
+    void saveStudent(Student student) {
+        force(writeStudent(student));
+    }
+
+    void saveStudents(Collection<Student> students) {
+        long end = written;
+        for (Student student : students) {
+            end = writeStudent(student);
+        }
+        force(end);
+    }
+
+    void deleteStudent(int id) {
+        force(write(DELETE_STUDENT, 4, out -> out.putInt(id)));
+    }
+
+    void setStudentName(int id, String name) {
+        writeText(STUDENT_NAME, id, name);
+    }
+
+    void setStudentEmail(int id, String email) {
+        writeText(STUDENT_EMAIL, id, email);
+    }
+
+    void setStudentAddress(int id, String address) {
+        writeText(STUDENT_ADDRESS, id, address);
+    }
+
+    void saveCourse(Course course) {
+        force(writeCourse(course));
+    }
+
+    void saveCourses(Collection<Course> courses) {
+        long end = written;
+        for (Course course : courses) {
+            end = writeCourse(course);
+        }
+        force(end);
+    }
+
+    void deleteCourse(int id) {
+        force(write(DELETE_COURSE, 4, out -> out.putInt(id)));
+    }
+
+    void setCourseName(int id, String name) {
+        writeText(COURSE_NAME, id, name);
+    }
+
+    void setCourseStartDate(int id, LocalDate startDate) {
+        force(write(COURSE_START_DATE, 12, out -> out.putInt(id).putLong(startDate.toEpochDay())));
+    }
+
+    void setCourseWeekDuration(int id, int weekDuration) {
+        force(write(COURSE_WEEK_DURATION, 8, out -> out.putInt(id).putInt(weekDuration)));
+    }
+
+    void register(int courseId, int studentId) {
+        force(write(REGISTER, 8, out -> out.putInt(courseId).putInt(studentId)));
+    }
+
+    void unregister(int courseId, int studentId) {
+        force(write(UNREGISTER, 8, out -> out.putInt(courseId).putInt(studentId)));
+    }
+
+    // Segments:
+
+    /**
+     * Closes the current segment and starts the next one.
+     *
+     * @return the generation of the new segment
+     */
+    int rotate() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                channel.force(false);
+                channel.close();
+                durable = written;
+                generation++;
+                channel = openSegment(segment(directory, generation), 0);
+                return generation;
+            }
+        }
+    }
+
+    /**
+     * Deletes the segments older than the given generation.
+     */
+    void deleteBefore(int generation) throws IOException {
+        for (int old : generations(directory)) {
+            if (old < generation) {
+                Files.deleteIfExists(segment(directory, old));
+            }
+        }
+    }
+
+    /**
+     * Forces every record appended so far to the device, whatever the policy.
+     */
+    void sync() throws IOException {
+        forceTo(written);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (channel.isOpen()) {
+                    channel.force(false);
+                    durable = written;
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    private long writeStudent(Student student) {
+        byte[] name = utf8(student.getName());
+        byte[] email = utf8(student.getEmail());
+        byte[] address = utf8(student.getAddress());
+        return write(SAVE_STUDENT, 16 + name.length + email.length + address.length, out -> {
+            out.putInt(student.getId());
+            putText(out, name);
+            putText(out, email);
+            putText(out, address);
+        });
+    }
+
+    private long writeCourse(Course course) {
+        byte[] name = utf8(course.getCourseName());
+        Collection<Student> students = course.viewStudents();
+        return write(SAVE_COURSE, 24 + name.length + 4 * students.size(), out -> {
+            out.putInt(course.getId());
+            putText(out, name);
+            out.putLong(course.getStartDate().toEpochDay());
+            out.putInt(course.getWeekDuration());
+            out.putInt(students.size());
+            for (Student student : students) {
+                out.putInt(student.getId());
+            }
+        });
+    }
+
+    private void writeText(byte type, int id, String text) {
+        byte[] bytes = utf8(text);
+        force(write(type, 8 + bytes.length, out -> {
+            out.putInt(id);
+            putText(out, bytes);
+        }));
+    }
+
+    // Frames and writes one record of at most payloadSize bytes, returning the append position just after it:
+    private long write(byte type, int payloadSize, Consumer<ByteBuffer> payload) {
+        IOException failed = failure;
+        if (failed != null) {
+            throw new UncheckedIOException("Journal is unusable after an earlier failure.", failed);
+        }
+        synchronized (this) {
+            int recordSize = FRAME_SIZE + payloadSize;
+            if (buffer.capacity() < recordSize) {
+                buffer = ByteBuffer.allocateDirect(Math.max(recordSize, buffer.capacity() * 2));
+            }
+
+            // The length is filled in from what the payload actually wrote:
+            ByteBuffer out = buffer;
+            out.clear();
+            out.putInt(0).put(type);
+            payload.accept(out);
+            out.putInt(0, out.position() - 5);
+            ByteBuffer body = out.duplicate();
+            body.flip().position(4);
+            crc.reset();
+            crc.update(body);
+            out.putInt((int) crc.getValue());
+            out.flip();
+
+            try {
+                long position = written;
+                while (out.hasRemaining()) {
+                    position += channel.write(out);
+                }
+                written = position;
+                return position;
+            } catch (IOException e) {
+                // A partly written record would hide every later one from replay:
+                failure = e;
+                throw new UncheckedIOException("Could not append to the journal.", e);
+            }
+        }
+    }
+
+    private void force(long end) {
+        if (policy != FsyncPolicy.ALWAYS) {
+            return;
+        }
+        try {
+            forceTo(end);
+        } catch (IOException e) {
+            failure = e;
+            throw new UncheckedIOException("Could not force the journal.", e);
+        }
+    }
+
+    // Group commit: a writer arriving during a force waits for it, then finds its record already covered or
+    // forces on behalf of everyone who arrived in the meantime:
+    private void forceTo(long end) throws IOException {
+        if (durable >= end) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durable >= end) {
+                return;
+            }
+            long target;
+            FileChannel current;
+            synchronized (this) {
+                target = written;
+                current = channel;
+            }
+            current.force(false);
+            durable = target;
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private static FileChannel openSegment(Path segment, long validLength) throws IOException {
+        FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (validLength < HEADER_SIZE) {
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            validLength = HEADER_SIZE;
+        } else {
+            channel.truncate(validLength);
+        }
+        channel.position(validLength);
+        return channel;
+    }
+
+    private static List<Integer> generations(Path directory) throws IOException {
+        List<Integer> generations = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    generations.add(Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours; leave it alone.
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    static Path segment(Path directory, int generation) {
+        return directory.resolve(PREFIX + generation + SUFFIX);
+    }
+
+    static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static void putText(ByteBuffer out, byte[] text) {
+        out.putInt(text.length).put(text);
+    }
+
+    static String getText(ByteBuffer in) {
+        byte[] text = new byte[in.getInt()];
+        in.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+}
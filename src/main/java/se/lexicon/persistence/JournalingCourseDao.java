@@ -0,0 +1,273 @@
+package se.lexicon.persistence;
+
+import se.lexicon.dao.CourseDao;
+import se.lexicon.model.Course;
+import se.lexicon.model.CourseListener;
+import se.lexicon.model.Student;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * A {@link CourseDao} decorator that journals every save and delete, and every change to a saved course,
+ * including registrations.
+ * <p>
+ * Saves are applied to the delegate first, which validates them, and then journaled. If the journal write
+ * fails, the save is undone in the delegate before the failure is rethrown, so memory never holds
+ * a course the journal does not. Deletes are journaled first and only then applied to the delegate.
+ * <p>
+ * The journal listener is added after the delegate has registered its own, so a change the delegate vetoes
+ * is never journaled.
+ */
+final class JournalingCourseDao implements CourseDao {
+
+    private final CourseDao delegate;
+    private final Journal journal;
+
+    // Highest id ever saved, so that ids of deleted courses are not handed out again after a restart:
+    private final AtomicInteger highestId;
+
+    // Journals changes to saved courses:
+    private final CourseListener journalWriter = new CourseListener() {
+        @Override
+        public void onNameChange(Course course, String oldName, String newName) {
+            journal.setCourseName(course.getId(), newName);
+        }
+
+        @Override
+        public void onStartDateChange(Course course, LocalDate oldStartDate, LocalDate newStartDate) {
+            journal.setCourseStartDate(course.getId(), newStartDate);
+        }
+
+        @Override
+        public void onWeekDurationChange(Course course, int oldWeekDuration, int newWeekDuration) {
+            journal.setCourseWeekDuration(course.getId(), newWeekDuration);
+        }
+
+        @Override
+        public void onRegister(Course course, Student student) {
+            journal.register(course.getId(), student.getId());
+        }
+
+        @Override
+        public void onUnregister(Course course, Student student) {
+            journal.unregister(course.getId(), student.getId());
+        }
+    };
+
+    JournalingCourseDao(CourseDao delegate, Journal journal, int highestId) {
+        this.delegate = delegate;
+        this.journal = journal;
+        this.highestId = new AtomicInteger(highestId);
+    }
+
+    // Starts journaling changes to a course that is already in the delegate:
+    void follow(Course course) {
+        course.addListener(journalWriter);
+        highestId.accumulateAndGet(course.getId(), Math::max);
+    }
+
+    int getHighestId() {
+        return highestId.get();
+    }
+
+    @Override
+    public Course save(Course course) {
+        Course saved = delegate.save(course);
+        try {
+            journal.saveCourse(saved);
+        } catch (RuntimeException e) {
+            undoSave(Collections.singletonList(saved), e);
+            throw e;
+        }
+        follow(saved);
+        return saved;
+    }
+
+    @Override
+    public List<Course> saveAll(Collection<Course> courses) {
+        List<Course> saved = delegate.saveAll(courses);
+        try {
+            journal.saveCourses(saved);
+        } catch (RuntimeException e) {
+            undoSave(saved, e);
+            throw e;
+        }
+        for (Course course : saved) {
+            follow(course);
+        }
+        return saved;
+    }
+
+    // Removes courses the journal failed to record from the delegate again. They are not followed yet, so
+    // removing them journals nothing of their own:
+    private void undoSave(Collection<Course> saved, RuntimeException failure) {
+        try {
+            delegate.deleteAll(saved);
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    @Override
+    public boolean delete(Course course) {
+        if (course == null) {
+            throw new IllegalArgumentException("Course cannot be null.");
+        }
+        Course stored = delegate.findById(course.getId());
+        if (stored == null) {
+            return delegate.delete(course);
+        }
+
+        // Journal the delete before applying it, so a failed write leaves memory untouched:
+        journal.deleteCourse(stored.getId());
+        stored.removeListener(journalWriter);
+        return delegate.delete(course);
+    }
+
+    @Override
+    public int deleteAll(Collection<Course> courses) {
+
+        // Check if batch or any course in it is null:
+        if (courses == null) {
+            throw new IllegalArgumentException("Courses cannot be null.");
+        }
+        Map<Integer, Course> stored = new LinkedHashMap<>();
+        for (Course course : courses) {
+            if (course == null) {
+                throw new IllegalArgumentException("Course cannot be null.");
+            }
+            Course found = delegate.findById(course.getId());
+            if (found != null) {
+                stored.put(found.getId(), found);
+            }
+        }
+
+        // Journal the deletes before applying them. If a write fails, the deletes already journaled are still
+        // applied, so memory ends up matching the journal:
+        List<Course> journaled = new ArrayList<>(stored.size());
+        try {
+            for (Course course : stored.values()) {
+                journal.deleteCourse(course.getId());
+                journaled.add(course);
+            }
+        } catch (RuntimeException e) {
+            try {
+                unfollowAndDelete(journaled);
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        return unfollowAndDelete(journaled);
+    }
+
+    private int unfollowAndDelete(List<Course> courses) {
+        for (Course course : courses) {
+            course.removeListener(journalWriter);
+        }
+        return delegate.deleteAll(courses);
+    }
+
+    @Override
+    public void register(Course course, Student student) {
+        delegate.register(course, student);
+    }
+
+    @Override
+    public boolean unregister(Course course, Student student) {
+        return delegate.unregister(course, student);
+    }
+
+    @Override
+    public int unregisterFromAll(Student student) {
+        return delegate.unregisterFromAll(student);
+    }
+
+    @Override
+    public int unregisterFromAll(Collection<Student> students) {
+        return delegate.unregisterFromAll(students);
+    }
+
+    @Override
+    public Course findById(int id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Course> findByName(String name) {
+        return delegate.findByName(name);
+    }
+
+    @Override
+    public List<Course> findByDate(LocalDate date) {
+        return delegate.findByDate(date);
+    }
+
+    @Override
+    public List<Course> findByDateRange(LocalDate from, LocalDate to) {
+        return delegate.findByDateRange(from, to);
+    }
+
+    @Override
+    public List<Course> findStartingAfter(LocalDate date) {
+        return delegate.findStartingAfter(date);
+    }
+
+    @Override
+    public List<Course> findNextStarting(LocalDate date, int limit) {
+        return delegate.findNextStarting(date, limit);
+    }
+
+    @Override
+    public List<Course> findActiveOn(LocalDate date) {
+        return delegate.findActiveOn(date);
+    }
+
+    @Override
+    public List<Course> findOverlapping(LocalDate from, LocalDate to) {
+        return delegate.findOverlapping(from, to);
+    }
+
+    @Override
+    public List<Course> findByStudent(Student student) {
+        return delegate.findByStudent(student);
+    }
+
+    @Override
+    public List<Course> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Course> findAll(int afterId, int limit) {
+        return delegate.findAll(afterId, limit);
+    }
+
+    @Override
+    public Stream<Course> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Stream<Course> streamByName(String name) {
+        return delegate.streamByName(name);
+    }
+
+    @Override
+    public Stream<Course> streamByDate(LocalDate date) {
+        return delegate.streamByDate(date);
+    }
+
+    @Override
+    public Collection<Course> viewAll() {
+        return delegate.viewAll();
+    }
+}
@@ -0,0 +1,205 @@
+package se.lexicon.persistence;
+
+import se.lexicon.dao.StudentDao;
+import se.lexicon.model.Student;
+import se.lexicon.model.StudentListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * A {@link StudentDao} decorator that journals every save and delete, and every change to a saved student.
+ * <p>
+ * Saves are applied to the delegate first, which validates them, and then journaled. If the journal write
+ * fails, the save is undone in the delegate before the failure is rethrown, so memory never holds
+ * a student the journal does not. Deletes are journaled first and only then applied to the delegate.
+ * <p>
+ * The journal listener is added after the delegate has registered its own, so a change the delegate vetoes
+ * (such as a taken email) is never journaled.
+ */
+final class JournalingStudentDao implements StudentDao {
+
+    private final StudentDao delegate;
+    private final Journal journal;
+
+    // Highest id ever saved, so that ids of deleted students are not handed out again after a restart:
+    private final AtomicInteger highestId;
+
+    // Journals changes to saved students:
+    private final StudentListener journalWriter = new StudentListener() {
+        @Override
+        public void onEmailChange(Student student, String oldEmail, String newEmail) {
+            journal.setStudentEmail(student.getId(), newEmail);
+        }
+
+        @Override
+        public void onNameChange(Student student, String oldName, String newName) {
+            journal.setStudentName(student.getId(), newName);
+        }
+
+        @Override
+        public void onAddressChange(Student student, String oldAddress, String newAddress) {
+            journal.setStudentAddress(student.getId(), newAddress);
+        }
+    };
+
+    JournalingStudentDao(StudentDao delegate, Journal journal, int highestId) {
+        this.delegate = delegate;
+        this.journal = journal;
+        this.highestId = new AtomicInteger(highestId);
+    }
+
+    // Starts journaling changes to a student that is already in the delegate:
+    void follow(Student student) {
+        student.addListener(journalWriter);
+        highestId.accumulateAndGet(student.getId(), Math::max);
+    }
+
+    int getHighestId() {
+        return highestId.get();
+    }
+
+    @Override
+    public Student save(Student student) {
+        Student saved = delegate.save(student);
+        try {
+            journal.saveStudent(saved);
+        } catch (RuntimeException e) {
+            undoSave(Collections.singletonList(saved), e);
+            throw e;
+        }
+        follow(saved);
+        return saved;
+    }
+
+    @Override
+    public List<Student> saveAll(Collection<Student> students) {
+        List<Student> saved = delegate.saveAll(students);
+        try {
+            journal.saveStudents(saved);
+        } catch (RuntimeException e) {
+            undoSave(saved, e);
+            throw e;
+        }
+        for (Student student : saved) {
+            follow(student);
+        }
+        return saved;
+    }
+
+    // Removes students the journal failed to record from the delegate again. They are not followed yet, so
+    // removing them journals nothing of their own:
+    private void undoSave(Collection<Student> saved, RuntimeException failure) {
+        try {
+            delegate.deleteAll(saved);
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    @Override
+    public boolean delete(Student student) {
+        if (student == null) {
+            throw new IllegalArgumentException("Student cannot be null.");
+        }
+        Student stored = delegate.findById(student.getId());
+        if (stored == null) {
+            return delegate.delete(student);
+        }
+
+        // Journal the delete before applying it, so a failed write leaves memory untouched:
+        journal.deleteStudent(stored.getId());
+        stored.removeListener(journalWriter);
+        return delegate.delete(student);
+    }
+
+    @Override
+    public int deleteAll(Collection<Student> students) {
+
+        // Check if batch or any student in it is null:
+        if (students == null) {
+            throw new IllegalArgumentException("Students cannot be null.");
+        }
+        Map<Integer, Student> stored = new LinkedHashMap<>();
+        for (Student student : students) {
+            if (student == null) {
+                throw new IllegalArgumentException("Student cannot be null.");
+            }
+            Student found = delegate.findById(student.getId());
+            if (found != null) {
+                stored.put(found.getId(), found);
+            }
+        }
+
+        // Journal the deletes before applying them. If a write fails, the deletes already journaled are still
+        // applied, so memory ends up matching the journal:
+        List<Student> journaled = new ArrayList<>(stored.size());
+        try {
+            for (Student student : stored.values()) {
+                journal.deleteStudent(student.getId());
+                journaled.add(student);
+            }
+        } catch (RuntimeException e) {
+            try {
+                unfollowAndDelete(journaled);
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        return unfollowAndDelete(journaled);
+    }
+
+    private int unfollowAndDelete(List<Student> students) {
+        for (Student student : students) {
+            student.removeListener(journalWriter);
+        }
+        return delegate.deleteAll(students);
+    }
+
+    @Override
+    public Student findByEmail(String email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public List<Student> findByName(String name) {
+        return delegate.findByName(name);
+    }
+
+    @Override
+    public Student findById(int id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Student> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Student> findAll(int afterId, int limit) {
+        return delegate.findAll(afterId, limit);
+    }
+
+    @Override
+    public Stream<Student> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Stream<Student> streamByName(String name) {
+        return delegate.streamByName(name);
+    }
+
+    @Override
+    public Collection<Student> viewAll() {
+        return delegate.viewAll();
+    }
+}
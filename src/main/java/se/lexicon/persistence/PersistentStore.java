@@ -0,0 +1,172 @@
+package se.lexicon.persistence;
+
+import se.lexicon.dao.CourseDao;
+import se.lexicon.dao.StudentDao;
+import se.lexicon.dao.impl.CourseDaoImpl;
+import se.lexicon.dao.impl.StudentDaoImpl;
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps students and courses in memory, and makes every change durable in an append-only journal.
+ * <p>
+ * Opening a store recovers the last snapshot and replays the journal written after it. Changes made
+ * through the DAOs are journaled, and so are changes to the students and courses saved in them.
+ * Deleting a student also unregisters it from all courses. Call {@link #checkpoint()} from time to
+ * time: it writes a fresh snapshot and drops the journal it covers, which keeps recovery short.
+ * {@link #checkpointInBackground()} does the same, but writes the snapshot on a background thread.
+ * <p>
+ * Recovery memory-maps the snapshot and parses it in parallel, then builds the DAO indexes in parallel.
+ * <p>
+ * The store is not thread-safe, like the in-memory DAOs it is built on.
+ */
+public class PersistentStore implements Closeable {
+
+    public static final long DEFAULT_FSYNC_INTERVAL_MILLIS = 100;
+
+    private static final String SNAPSHOT = "snapshot.bin";
+
+    private final Path directory;
+    private final Journal journal;
+
+    // Writes background snapshots one at a time, in the order they were taken:
+    private final ExecutorService snapshotWriter = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // In-memory DAOs holding the state, and the journaling views handed out:
+    private final CourseDaoImpl courseStore = new CourseDaoImpl();
+    private final StudentDaoImpl studentStore = new StudentDaoImpl(courseStore);
+    private final JournalingCourseDao courseDao;
+    private final JournalingStudentDao studentDao;
+
+    public PersistentStore(Path directory, FsyncPolicy policy) throws IOException {
+        this(directory, policy, DEFAULT_FSYNC_INTERVAL_MILLIS);
+    }
+
+    public PersistentStore(Path directory, FsyncPolicy policy, long fsyncIntervalMillis) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory cannot be null.");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Fsync policy cannot be null.");
+        }
+        if (fsyncIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Fsync interval is not allowed to be zero or negative.");
+        }
+        this.directory = directory;
+
+        // Recover the snapshot, then replay the journal after it:
+        Files.createDirectories(directory);
+        StoreState state = new StoreState();
+        int generation = Snapshot.read(directory.resolve(SNAPSHOT), state);
+        this.journal = Journal.open(directory, generation, policy, fsyncIntervalMillis, state::apply);
+
+        // Keep new ids above every id saved before, including deleted ones:
+        Student.getIdAllocator().advancePast(state.getHighestStudentId());
+        Course.getIdAllocator().advancePast(state.getHighestCourseId());
+
+        // Load the recovered entities without journaling them again, then follow their changes:
+        List<Student> students = state.students();
+        List<Course> courses = state.courses();
+        studentStore.loadAll(students);
+        courseStore.loadAll(courses);
+        this.studentDao = new JournalingStudentDao(studentStore, journal, state.getHighestStudentId());
+        this.courseDao = new JournalingCourseDao(courseStore, journal, state.getHighestCourseId());
+        for (Student student : students) {
+            studentDao.follow(student);
+        }
+        for (Course course : courses) {
+            courseDao.follow(course);
+        }
+    }
+
+    public StudentDao getStudentDao() {
+        return studentDao;
+    }
+
+    public CourseDao getCourseDao() {
+        return courseDao;
+    }
+
+    /**
+     * Writes a snapshot of the current state and deletes the journal segments it covers.
+     * Later changes go to a new segment, which is all that recovery has to replay on top of the snapshot.
+     */
+    public void checkpoint() throws IOException {
+        try {
+            checkpointInBackground().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Starts a checkpoint whose snapshot is written on a background thread, so the caller can keep changing
+     * the store meanwhile. The caller only starts a new journal segment and copies the references to the
+     * students and the plain data of the courses.
+     * <p>
+     * The snapshot is fuzzy: a student changed while it is written may be saved with the change. Recovery
+     * replays the journal from the new segment on top of it, which repeats that change, so it ends up in the
+     * same state either way.
+     *
+     * @return a future completed once the snapshot is in place and the older journal segments are deleted
+     */
+    public CompletableFuture<Void> checkpointInBackground() throws IOException {
+        int generation = journal.rotate();
+        int highestStudentId = studentDao.getHighestId();
+        int highestCourseId = courseDao.getHighestId();
+        List<Student> students = new ArrayList<>(studentStore.viewAll());
+        List<CourseRecord> courses = new ArrayList<>(courseStore.viewAll().size());
+        for (Course course : courseStore.viewAll()) {
+            courses.add(CourseRecord.of(course));
+        }
+        return CompletableFuture.runAsync(() -> {
+            try {
+                Snapshot.write(directory.resolve(SNAPSHOT), generation, highestStudentId, highestCourseId,
+                        students, courses);
+                journal.deleteBefore(generation);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, snapshotWriter);
+    }
+
+    /**
+     * Forces every journaled change to the storage device, whatever the fsync policy.
+     */
+    public void sync() throws IOException {
+        journal.sync();
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        // Let a snapshot in progress finish before the journal closes:
+        snapshotWriter.shutdown();
+        try {
+            snapshotWriter.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+}
@@ -0,0 +1,325 @@
+package se.lexicon.persistence;
+
+import se.lexicon.model.Student;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+import static se.lexicon.persistence.Journal.getText;
+
+/**
+ * A full copy of all students and courses, together with the journal generation replay must start from.
+ * <p>
+ * Version 2 splits the entities into chunks of up to {@value #CHUNK_SIZE}, each with its own CRC-32, and
+ * ends with a table locating every chunk:
+ * <pre>
+ * header:  int magic, int version
+ * chunks:  student chunks, then course chunks
+ * table:   int generation, int highest student id, int highest course id,
+ *          int student chunk count, int course chunk count,
+ *          per chunk: long offset, int length, int entity count, int crc
+ * footer:  long table offset, int table length, int table crc
+ * </pre>
+ * Loading memory-maps each chunk and parses the chunks in parallel. Version 1 snapshots, a single stream
+ * with one trailing CRC-32, can still be read.
+ * <p>
+ * The file is written next to its final location, forced, and then moved over the previous snapshot in one
+ * atomic step, so a crash leaves either the old or the new snapshot.
+ */
+final class Snapshot {
+
+    static final int MAGIC = 0x53534E50;
+    static final int VERSION = 2;
+    static final int CHUNK_SIZE = 1 << 16;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int FOOTER_SIZE = 16;
+    private static final int CHUNK_ENTRY_SIZE = 20;
+
+    private Snapshot() {
+    }
+
+    /**
+     * Writes a snapshot. The students may change while they are written: anything changed after the journal
+     * generation began is replayed on top of the snapshot, and replay overwrites whatever the snapshot holds.
+     */
+    static void write(Path path, int journalGeneration, int highestStudentId, int highestCourseId,
+                      List<Student> students, List<CourseRecord> courses) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        int studentChunks = chunkCount(students.size());
+        int courseChunks = chunkCount(courses.size());
+        ByteBuffer table = ByteBuffer.allocate(20 + (studentChunks + courseChunks) * CHUNK_ENTRY_SIZE);
+        table.putInt(journalGeneration).putInt(highestStudentId).putInt(highestCourseId)
+                .putInt(studentChunks).putInt(courseChunks);
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            writeFully(channel, header);
+
+            // Encode one chunk at a time, recording where it went:
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+            DataOutputStream out = new DataOutputStream(bytes);
+            for (int from = 0; from < students.size(); from += CHUNK_SIZE) {
+                List<Student> chunk = students.subList(from, Math.min(students.size(), from + CHUNK_SIZE));
+                bytes.reset();
+                for (Student student : chunk) {
+                    out.writeInt(student.getId());
+                    writeText(out, student.getName());
+                    writeText(out, student.getEmail());
+                    writeText(out, student.getAddress());
+                }
+                writeChunk(channel, bytes, chunk.size(), table);
+            }
+            for (int from = 0; from < courses.size(); from += CHUNK_SIZE) {
+                List<CourseRecord> chunk = courses.subList(from, Math.min(courses.size(), from + CHUNK_SIZE));
+                bytes.reset();
+                for (CourseRecord course : chunk) {
+                    int[] studentIds = course.studentIds();
+                    out.writeInt(course.id);
+                    writeText(out, course.name);
+                    out.writeLong(course.startDate.toEpochDay());
+                    out.writeInt(course.weekDuration);
+                    out.writeInt(studentIds.length);
+                    for (int studentId : studentIds) {
+                        out.writeInt(studentId);
+                    }
+                }
+                writeChunk(channel, bytes, chunk.size(), table);
+            }
+
+            long tableOffset = channel.position();
+            table.flip();
+            writeFully(channel, table.duplicate());
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE);
+            footer.putLong(tableOffset).putInt(table.limit()).putInt(crc(table));
+            footer.flip();
+            writeFully(channel, footer);
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads the snapshot into the state.
+     *
+     * @return the journal generation to replay from, or 1 if there is no snapshot yet
+     */
+    static int read(Path path, StoreState state) throws IOException {
+        if (!Files.exists(path)) {
+            return 1;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not a snapshot: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot: " + path);
+            }
+            int version = header.getInt();
+            if (version == 1) {
+                return readVersion1(path, state);
+            }
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + path);
+            }
+
+            // Locate and check the chunk table:
+            if (size < HEADER_SIZE + FOOTER_SIZE) {
+                throw new IOException("Corrupt snapshot: " + path);
+            }
+            ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, size - FOOTER_SIZE, FOOTER_SIZE);
+            long tableOffset = footer.getLong();
+            int tableLength = footer.getInt();
+            int tableCrc = footer.getInt();
+            if (tableOffset < HEADER_SIZE || tableLength < 20 || tableOffset + tableLength != size - FOOTER_SIZE) {
+                throw new IOException("Corrupt snapshot: " + path);
+            }
+            ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, tableOffset, tableLength);
+            if (crc(table) != tableCrc) {
+                throw new IOException("Corrupt snapshot: " + path);
+            }
+            int journalGeneration = table.getInt();
+            state.advanceHighestIds(table.getInt(), table.getInt());
+            int studentChunks = table.getInt();
+            int courseChunks = table.getInt();
+            if (table.remaining() != (long) (studentChunks + courseChunks) * CHUNK_ENTRY_SIZE) {
+                throw new IOException("Corrupt snapshot: " + path);
+            }
+            Chunk[] students = chunks(table, studentChunks, tableOffset, path);
+            Chunk[] courses = chunks(table, courseChunks, tableOffset, path);
+
+            // Map and parse every chunk on its own, straight into its slot of the result:
+            Student[] loadedStudents = new Student[total(students)];
+            parallel(students.length, i -> {
+                ByteBuffer in = students[i].map(channel, path);
+                for (int j = 0, slot = students[i].first; j < students[i].count; j++) {
+                    loadedStudents[slot + j] = new Student(in.getInt(), getText(in), getText(in), getText(in));
+                }
+            });
+            state.putStudents(loadedStudents);
+
+            CourseRecord[] loadedCourses = new CourseRecord[total(courses)];
+            parallel(courses.length, i -> {
+                ByteBuffer in = courses[i].map(channel, path);
+                for (int j = 0, slot = courses[i].first; j < courses[i].count; j++) {
+                    int id = in.getInt();
+                    String name = getText(in);
+                    LocalDate startDate = LocalDate.ofEpochDay(in.getLong());
+                    int weekDuration = in.getInt();
+                    int[] studentIds = new int[in.getInt()];
+                    in.asIntBuffer().get(studentIds);
+                    in.position(in.position() + studentIds.length * 4);
+                    loadedCourses[slot + j] = new CourseRecord(id, name, startDate, weekDuration, studentIds);
+                }
+            });
+            state.putCourses(loadedCourses);
+            return journalGeneration;
+        }
+    }
+
+    private static int readVersion1(Path path, StoreState state) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 1 << 16), crc))) {
+            in.readInt();
+            in.readInt();
+            int journalGeneration = in.readInt();
+            state.advanceHighestIds(in.readInt(), in.readInt());
+
+            int studentCount = in.readInt();
+            for (int i = 0; i < studentCount; i++) {
+                state.putStudent(in.readInt(), readText(in), readText(in), readText(in));
+            }
+
+            int courseCount = in.readInt();
+            for (int i = 0; i < courseCount; i++) {
+                int id = in.readInt();
+                String name = readText(in);
+                LocalDate startDate = LocalDate.ofEpochDay(in.readLong());
+                int weekDuration = in.readInt();
+                int[] studentIds = new int[in.readInt()];
+                for (int j = 0; j < studentIds.length; j++) {
+                    studentIds[j] = in.readInt();
+                }
+                state.putCourse(new CourseRecord(id, name, startDate, weekDuration, studentIds));
+            }
+
+            int expected = (int) crc.getValue();
+            if (in.readInt() != expected) {
+                throw new IOException("Corrupt snapshot: " + path);
+            }
+            return journalGeneration;
+        }
+    }
+
+    // A run of entities in the file, and the slot its first entity takes in the loaded array:
+    private static final class Chunk {
+        long offset;
+        int length;
+        int count;
+        int crc;
+        int first;
+
+        ByteBuffer map(FileChannel channel, Path path) {
+            try {
+                ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                if (crc(in) != crc) {
+                    throw new IOException("Corrupt snapshot: " + path);
+                }
+                return in;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static Chunk[] chunks(ByteBuffer table, int count, long end, Path path) throws IOException {
+        Chunk[] chunks = new Chunk[count];
+        int first = 0;
+        for (int i = 0; i < count; i++) {
+            Chunk chunk = new Chunk();
+            chunk.offset = table.getLong();
+            chunk.length = table.getInt();
+            chunk.count = table.getInt();
+            chunk.crc = table.getInt();
+            chunk.first = first;
+            if (chunk.offset < HEADER_SIZE || chunk.length < 0 || chunk.count < 0
+                    || chunk.offset + chunk.length > end) {
+                throw new IOException("Corrupt snapshot: " + path);
+            }
+            first += chunk.count;
+            chunks[i] = chunk;
+        }
+        return chunks;
+    }
+
+    private static int total(Chunk[] chunks) {
+        return chunks.length == 0 ? 0 : chunks[chunks.length - 1].first + chunks[chunks.length - 1].count;
+    }
+
+    // Runs the task for every index on the common pool, rethrowing an I/O failure as checked:
+    private static void parallel(int count, IntConsumer task) throws IOException {
+        try {
+            IntStream.range(0, count).parallel().forEach(task);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeChunk(FileChannel channel, ByteArrayOutputStream bytes, int count, ByteBuffer table)
+            throws IOException {
+        ByteBuffer chunk = ByteBuffer.wrap(bytes.toByteArray());
+        table.putLong(channel.position()).putInt(chunk.remaining()).putInt(count).putInt(crc(chunk));
+        writeFully(channel, chunk);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // CRC-32 of the buffer's remaining bytes, leaving its position alone:
+    private static int crc(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static int chunkCount(int size) {
+        return (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
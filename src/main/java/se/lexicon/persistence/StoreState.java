@@ -0,0 +1,162 @@
+package se.lexicon.persistence;
+
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+import se.lexicon.util.IntLinkedHashMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static se.lexicon.persistence.Journal.getText;
+
+/**
+ * The students and courses being rebuilt from a snapshot and the journal during recovery.
+ * <p>
+ * Courses are kept as {@link CourseRecord}s until recovery ends. Records for unknown ids are ignored, and
+ * a save of a known id overwrites it, so replaying changes that a fuzzy snapshot already holds is harmless.
+ */
+final class StoreState {
+
+    private final IntLinkedHashMap<Student> students = new IntLinkedHashMap<>();
+    private final IntLinkedHashMap<CourseRecord> courses = new IntLinkedHashMap<>();
+
+    // Highest ids ever saved, which survive the deletion of the entities that had them:
+    private int highestStudentId;
+    private int highestCourseId;
+
+    void putStudent(int id, String name, String email, String address) {
+        Student student = students.get(id);
+        if (student == null) {
+            students.put(id, new Student(id, name, email, address));
+        } else {
+            student.setName(name);
+            student.setEmail(email);
+            student.setAddress(address);
+        }
+        highestStudentId = Math.max(highestStudentId, id);
+    }
+
+    // Adds the students of a snapshot, which are known to have distinct ids:
+    void putStudents(Student[] loaded) {
+        students.ensureCapacity(students.size() + loaded.length);
+        for (Student student : loaded) {
+            students.put(student.getId(), student);
+            highestStudentId = Math.max(highestStudentId, student.getId());
+        }
+    }
+
+    void putCourse(CourseRecord course) {
+        courses.put(course.id, course);
+        highestCourseId = Math.max(highestCourseId, course.id);
+    }
+
+    void putCourses(CourseRecord[] loaded) {
+        courses.ensureCapacity(courses.size() + loaded.length);
+        for (CourseRecord course : loaded) {
+            putCourse(course);
+        }
+    }
+
+    void advanceHighestIds(int studentId, int courseId) {
+        highestStudentId = Math.max(highestStudentId, studentId);
+        highestCourseId = Math.max(highestCourseId, courseId);
+    }
+
+    /**
+     * Applies one journal record.
+     */
+    void apply(byte type, ByteBuffer in) throws IOException {
+        int id = in.getInt();
+        Student student;
+        CourseRecord course;
+        switch (type) {
+            case Journal.SAVE_STUDENT:
+                putStudent(id, getText(in), getText(in), getText(in));
+                break;
+            case Journal.DELETE_STUDENT:
+                students.remove(id);
+                break;
+            case Journal.STUDENT_NAME:
+                if ((student = students.get(id)) != null) {
+                    student.setName(getText(in));
+                }
+                break;
+            case Journal.STUDENT_EMAIL:
+                if ((student = students.get(id)) != null) {
+                    student.setEmail(getText(in));
+                }
+                break;
+            case Journal.STUDENT_ADDRESS:
+                if ((student = students.get(id)) != null) {
+                    student.setAddress(getText(in));
+                }
+                break;
+            case Journal.SAVE_COURSE:
+                String name = getText(in);
+                LocalDate startDate = LocalDate.ofEpochDay(in.getLong());
+                int weekDuration = in.getInt();
+                int[] studentIds = new int[in.getInt()];
+                for (int i = 0; i < studentIds.length; i++) {
+                    studentIds[i] = in.getInt();
+                }
+                putCourse(new CourseRecord(id, name, startDate, weekDuration, studentIds));
+                break;
+            case Journal.DELETE_COURSE:
+                courses.remove(id);
+                break;
+            case Journal.COURSE_NAME:
+                if ((course = courses.get(id)) != null) {
+                    course.name = getText(in);
+                }
+                break;
+            case Journal.COURSE_START_DATE:
+                if ((course = courses.get(id)) != null) {
+                    course.startDate = LocalDate.ofEpochDay(in.getLong());
+                }
+                break;
+            case Journal.COURSE_WEEK_DURATION:
+                if ((course = courses.get(id)) != null) {
+                    course.weekDuration = in.getInt();
+                }
+                break;
+            case Journal.REGISTER:
+                if ((course = courses.get(id)) != null) {
+                    course.register(in.getInt());
+                }
+                break;
+            case Journal.UNREGISTER:
+                if ((course = courses.get(id)) != null) {
+                    course.unregister(in.getInt());
+                }
+                break;
+            default:
+                throw new IOException("Unknown journal record type: " + type);
+        }
+    }
+
+    List<Student> students() {
+        return new ArrayList<>(students.values());
+    }
+
+    /**
+     * Builds the recovered courses in parallel, with rosters holding the recovered students.
+     * Roster entries for students that no longer exist are dropped.
+     */
+    List<Course> courses() {
+        return new ArrayList<>(courses.values()).parallelStream()
+                .map(course -> course.toCourse(students))
+                .collect(Collectors.toList());
+    }
+
+    int getHighestStudentId() {
+        return highestStudentId;
+    }
+
+    int getHighestCourseId() {
+        return highestCourseId;
+    }
+}
@@ -0,0 +1,46 @@
+package se.lexicon.util;
+
+import java.util.function.Predicate;
+
+/**
+ * A bounded cache of values by key, which evicts entries on its own once it holds its maximum size.
+ * Implementations count hits and misses, and are thread-safe.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public interface Cache<K, V> {
+
+    /**
+     * Returns the value cached for the key, counting a hit, or null, counting a miss.
+     */
+    V get(K key);
+
+    /**
+     * Returns the value cached for the key if the check accepts it, counting a hit. Otherwise removes the
+     * rejected entry, if there was one, and returns null, counting a miss.
+     */
+    V get(K key, Predicate<? super V> check);
+
+    /**
+     * Caches the value for the key, replacing any value cached for it, and evicts an entry if the cache is
+     * over its maximum size. The cache may also decline to keep a new entry.
+     */
+    void put(K key, V value);
+
+    /**
+     * Removes the entry of the key, if there is one.
+     */
+    void invalidate(K key);
+
+    /**
+     * Removes all entries. The statistics are kept.
+     */
+    void clear();
+
+    int size();
+
+    int maximumSize();
+
+    CacheStats stats();
+}
@@ -0,0 +1,76 @@
+package se.lexicon.util;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread-safe secondary index mapping each key to the set of values stored under it.
+ * <p>
+ * Lookups are lock-free and see a weakly consistent view of the values under a key. Writers to the same
+ * key are serialized on a lock stripe, which keeps adding to a key and dropping its last value atomic.
+ * Values under one key have no particular order.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class ConcurrentMultiIndex<K, V> {
+
+    final ConcurrentMap<K, Set<V>> buckets;
+    private final StripedLocks locks = new StripedLocks(64);
+
+    public ConcurrentMultiIndex() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    ConcurrentMultiIndex(ConcurrentMap<K, Set<V>> buckets) {
+        this.buckets = buckets;
+    }
+
+    /**
+     * Adds the value under the key.
+     *
+     * @return true if the value was not already stored under the key
+     */
+    public boolean add(K key, V value) {
+        synchronized (locks.forKey(key)) {
+            Set<V> bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = ConcurrentHashMap.newKeySet(2);
+                buckets.put(key, bucket);
+            }
+            return bucket.add(value);
+        }
+    }
+
+    /**
+     * Removes the value from the key, dropping the key once it has no values left.
+     *
+     * @return true if the value was stored under the key
+     */
+    public boolean remove(K key, V value) {
+        synchronized (locks.forKey(key)) {
+            Set<V> bucket = buckets.get(key);
+            if (bucket == null || !bucket.remove(value)) {
+                return false;
+            }
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns a read-only, weakly consistent view of the values stored under the key.
+     */
+    public Set<V> get(K key) {
+        Set<V> bucket = buckets.get(key);
+        return bucket == null ? Collections.<V>emptySet() : Collections.unmodifiableSet(bucket);
+    }
+
+    public void clear() {
+        buckets.clear();
+    }
+}
@@ -0,0 +1,55 @@
+package se.lexicon.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A {@link ConcurrentMultiIndex} that keeps its keys sorted, adding lock-free range queries.
+ * <p>
+ * Range queries cost logarithmic time in the number of distinct keys plus the size of the result,
+ * and are ordered by key.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class ConcurrentSortedMultiIndex<K extends Comparable<? super K>, V> extends ConcurrentMultiIndex<K, V> {
+
+    public ConcurrentSortedMultiIndex() {
+        super(new ConcurrentSkipListMap<>());
+    }
+
+    /**
+     * Returns the values whose keys lie between the bounds.
+     */
+    public List<V> range(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        return collect(sorted().subMap(from, fromInclusive, to, toInclusive), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns at most {@code limit} values whose keys lie at or after the bound, in key order.
+     */
+    public List<V> tail(K from, boolean inclusive, int limit) {
+        return collect(sorted().tailMap(from, inclusive), limit);
+    }
+
+    private ConcurrentNavigableMap<K, Set<V>> sorted() {
+        return (ConcurrentNavigableMap<K, Set<V>>) buckets;
+    }
+
+    private static <K, V> List<V> collect(NavigableMap<K, Set<V>> view, int limit) {
+        List<V> result = new ArrayList<>();
+        for (Set<V> bucket : view.values()) {
+            for (V value : bucket) {
+                if (result.size() == limit) {
+                    return result;
+                }
+                result.add(value);
+            }
+        }
+        return result;
+    }
+}
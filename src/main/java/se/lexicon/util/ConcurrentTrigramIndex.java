@@ -0,0 +1,122 @@
+package se.lexicon.util;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import static se.lexicon.util.TextNormalizer.fold;
+
+/**
+ * A thread-safe variant of {@link TrigramIndex}.
+ * <p>
+ * Searches are lock-free and see a weakly consistent view of the index. Callers must serialize
+ * {@link #add(int, String)} and {@link #remove(int)} calls for the same id.
+ */
+public class ConcurrentTrigramIndex {
+
+    private final Map<Integer, String> texts = new ConcurrentHashMap<>();
+    private final ConcurrentMultiIndex<Long, Integer> postings = new ConcurrentMultiIndex<>();
+
+    /**
+     * Indexes the text under the id, replacing any text previously indexed under it.
+     */
+    public void add(int id, String text) {
+        remove(id);
+        String folded = fold(text);
+        for (int i = 0; i + 3 <= folded.length(); i++) {
+            postings.add(TrigramIndex.trigram(folded, i), id);
+        }
+        texts.put(id, folded);
+    }
+
+    /**
+     * Removes the text indexed under the id.
+     *
+     * @return true if the id was indexed
+     */
+    public boolean remove(int id) {
+        String folded = texts.remove(id);
+        if (folded == null) {
+            return false;
+        }
+        for (int i = 0; i + 3 <= folded.length(); i++) {
+            postings.remove(TrigramIndex.trigram(folded, i), id);
+        }
+        return true;
+    }
+
+    /**
+     * Passes the id of every text containing the query (case-insensitive) to the action.
+     */
+    public void forEachMatch(String query, IntConsumer action) {
+        String folded = fold(query);
+
+        // Short queries have no trigram to narrow on, so check every folded text:
+        if (folded.length() < 3) {
+            for (Map.Entry<Integer, String> entry : texts.entrySet()) {
+                if (entry.getValue().contains(folded)) {
+                    action.accept(entry.getKey());
+                }
+            }
+            return;
+        }
+
+        // Narrow on the rarest trigram of the query; a missing one means there is no match:
+        Set<Integer> candidates = rarest(folded);
+        if (candidates == null) {
+            return;
+        }
+
+        // Confirm each candidate against its current text:
+        for (Integer id : candidates) {
+            String text = texts.get(id);
+            if (text != null && text.contains(folded)) {
+                action.accept(id);
+            }
+        }
+    }
+
+    /**
+     * Returns a lazy, weakly consistent stream of the ids of every text containing the query (case-insensitive).
+     */
+    public IntStream matches(String query) {
+        String folded = fold(query);
+        if (folded.length() < 3) {
+            return texts.entrySet().stream()
+                    .filter(entry -> entry.getValue().contains(folded))
+                    .mapToInt(Map.Entry::getKey);
+        }
+        Set<Integer> candidates = rarest(folded);
+        if (candidates == null) {
+            return IntStream.empty();
+        }
+        return candidates.stream()
+                .filter(id -> {
+                    String text = texts.get(id);
+                    return text != null && text.contains(folded);
+                })
+                .mapToInt(Integer::intValue);
+    }
+
+    public void clear() {
+        texts.clear();
+        postings.clear();
+    }
+
+    // Returns the postings of the query's rarest trigram, or null if one of its trigrams is missing:
+    private Set<Integer> rarest(String folded) {
+        Set<Integer> candidates = null;
+        for (int i = 0; i + 3 <= folded.length(); i++) {
+            Set<Integer> ids = postings.get(TrigramIndex.trigram(folded, i));
+            if (ids.isEmpty()) {
+                return null;
+            }
+            if (candidates == null || ids.size() < candidates.size()) {
+                candidates = ids;
+            }
+        }
+        return candidates;
+    }
+}
@@ -0,0 +1,30 @@
+package se.lexicon.util;
+
+/**
+ * The ways a {@link Cache} can choose what to evict.
+ */
+public enum EvictionPolicy {
+
+    /**
+     * Evicts the least recently used entry. Simple and cheap, but a scan of one-off keys flushes it.
+     */
+    LRU {
+        @Override
+        public <K, V> Cache<K, V> newCache(int maximumSize) {
+            return new LruCache<>(maximumSize);
+        }
+    },
+
+    /**
+     * Admits a new entry into the main cache only if it is used more often than the entry it would
+     * replace, as estimated from recent traffic, so frequently used entries survive scans.
+     */
+    WINDOW_TINY_LFU {
+        @Override
+        public <K, V> Cache<K, V> newCache(int maximumSize) {
+            return new WindowTinyLfuCache<>(maximumSize);
+        }
+    };
+
+    public abstract <K, V> Cache<K, V> newCache(int maximumSize);
+}
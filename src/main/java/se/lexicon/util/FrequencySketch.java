@@ -0,0 +1,68 @@
+package se.lexicon.util;
+
+/**
+ * Estimates how often keys were seen recently, in a count-min sketch of 4-bit counters: each key counts
+ * in one counter of each of four rows, and its estimate is the smallest of them. Only the smallest
+ * counters are incremented, so keys sharing a counter inflate each other's estimates less. Once the
+ * sketch has counted ten times the expected number of keys, all counters are halved, so old traffic fades.
+ */
+final class FrequencySketch {
+
+    private static final int ROWS = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final byte[][] counters;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int expectedKeys) {
+        // At least four counters per expected key in a row, so one-off keys rarely collide with hot ones:
+        int keys = Math.min(Math.max(16, expectedKeys), 1 << 22);
+        int width = Integer.highestOneBit(keys - 1) << 3;
+        this.counters = new byte[ROWS][width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * keys;
+    }
+
+    void increment(Object key) {
+        int frequency = frequency(key);
+        if (frequency == MAX_COUNT) {
+            return;
+        }
+        int hash = key.hashCode();
+        for (int row = 0; row < ROWS; row++) {
+            int index = index(hash, row);
+            if (counters[row][index] == frequency) {
+                counters[row][index]++;
+            }
+        }
+        if (++additions >= sampleSize) {
+            halve();
+        }
+    }
+
+    int frequency(Object key) {
+        int hash = key.hashCode();
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < ROWS; row++) {
+            frequency = Math.min(frequency, counters[row][index(hash, row)]);
+        }
+        return frequency;
+    }
+
+    private void halve() {
+        for (byte[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>= 1;
+            }
+        }
+        additions >>= 1;
+    }
+
+    private int index(int hash, int row) {
+        int h = (hash + SEEDS[row]) * SEEDS[row];
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
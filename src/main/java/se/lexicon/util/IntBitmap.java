@@ -0,0 +1,628 @@
+package se.lexicon.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed bitmap of {@code int} values, laid out the way Roaring bitmaps are.
+ * <p>
+ * Values are split on their upper 16 bits into chunks. Each chunk keeps its lower 16 bits either in a
+ * sorted {@code char} array, while it holds at most 4096 values, or in a fixed 8 KB bit set once it
+ * grows past that. Sparse sets of ids cost about two bytes per value, and dense ones one bit per value.
+ * <p>
+ * The static {@link #and}, {@link #or}, {@link #andNot} and {@link #andCardinality} operations work chunk
+ * by chunk, using word-wide bit operations where a bit set is involved.
+ * <p>
+ * Values are iterated in unsigned order. This class is not thread-safe.
+ */
+public class IntBitmap {
+
+    // Largest number of values a chunk keeps in array form:
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int WORDS = 1024;
+
+    private char[] keys;
+    private Container[] containers;
+    private int chunks;
+    private int cardinality;
+
+    public IntBitmap() {
+        keys = new char[4];
+        containers = new Container[4];
+    }
+
+    /**
+     * Creates an independent copy of the given bitmap.
+     */
+    public IntBitmap(IntBitmap other) {
+        keys = Arrays.copyOf(other.keys, Math.max(other.chunks, 4));
+        containers = new Container[keys.length];
+        for (int i = 0; i < other.chunks; i++) {
+            containers[i] = other.containers[i].copy();
+        }
+        chunks = other.chunks;
+        cardinality = other.cardinality;
+    }
+
+    public static IntBitmap of(int... values) {
+        IntBitmap bitmap = new IntBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public boolean contains(int value) {
+        int index = indexOf(high(value));
+        return index >= 0 && containers[index].contains(low(value));
+    }
+
+    /**
+     * Adds the value to the bitmap.
+     *
+     * @return true if the value was not already present
+     */
+    public boolean add(int value) {
+        char high = high(value);
+        int index = indexOf(high);
+        if (index < 0) {
+            index = -index - 1;
+            insertChunk(index, high, new ArrayContainer());
+        }
+        Container container = containers[index];
+        int before = container.cardinality;
+        containers[index] = container.add(low(value));
+        if (containers[index].cardinality == before) {
+            return false;
+        }
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * Removes the value from the bitmap.
+     *
+     * @return true if the value was present
+     */
+    public boolean remove(int value) {
+        int index = indexOf(high(value));
+        if (index < 0) {
+            return false;
+        }
+        Container container = containers[index];
+        int before = container.cardinality;
+        containers[index] = container.remove(low(value));
+        if (containers[index].cardinality == before) {
+            return false;
+        }
+        cardinality--;
+        if (containers[index].cardinality == 0) {
+            removeChunk(index);
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(containers, 0, chunks, null);
+        chunks = 0;
+        cardinality = 0;
+    }
+
+    /**
+     * Passes every value to the action, in unsigned order.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < chunks; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * Passes the values at or above from (unsigned) to the action, in unsigned order, stopping after limit values.
+     *
+     * @return the number of values passed to the action
+     */
+    public int forEachFrom(int from, int limit, IntConsumer action) {
+        int index = indexOf(high(from));
+        char fromLow = low(from);
+        if (index < 0) {
+            index = -index - 1;
+            fromLow = 0;
+        }
+        int visited = 0;
+        for (int i = index; i < chunks && visited < limit; i++) {
+            visited += containers[i].forEachFrom(keys[i] << 16, i == index ? fromLow : 0, limit - visited, action);
+        }
+        return visited;
+    }
+
+    public int[] toArray() {
+        int[] result = new int[cardinality];
+        int count = 0;
+        for (int i = 0; i < chunks; i++) {
+            count = containers[i].copyTo(keys[i] << 16, result, count);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values present in both bitmaps.
+     */
+    public static IntBitmap and(IntBitmap a, IntBitmap b) {
+        IntBitmap result = new IntBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.chunks && j < b.chunks) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                result.appendChunk(a.keys[i], and(a.containers[i], b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values present in either bitmap.
+     */
+    public static IntBitmap or(IntBitmap a, IntBitmap b) {
+        IntBitmap result = new IntBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.chunks || j < b.chunks) {
+            if (j == b.chunks || (i < a.chunks && a.keys[i] < b.keys[j])) {
+                result.appendChunk(a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i == a.chunks || a.keys[i] > b.keys[j]) {
+                result.appendChunk(b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.appendChunk(a.keys[i], or(a.containers[i], b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values present in the first bitmap but not in the second.
+     */
+    public static IntBitmap andNot(IntBitmap a, IntBitmap b) {
+        IntBitmap result = new IntBitmap();
+        int j = 0;
+        for (int i = 0; i < a.chunks; i++) {
+            while (j < b.chunks && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            if (j < b.chunks && b.keys[j] == a.keys[i]) {
+                result.appendChunk(a.keys[i], andNot(a.containers[i], b.containers[j]));
+            } else {
+                result.appendChunk(a.keys[i], a.containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts the values present in both bitmaps without building the intersection.
+     */
+    public static int andCardinality(IntBitmap a, IntBitmap b) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.chunks && j < b.chunks) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                count += andCardinality(a.containers[i], b.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IntBitmap other = (IntBitmap) o;
+        return cardinality == other.cardinality && Arrays.equals(toArray(), other.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private int indexOf(char high) {
+        return Arrays.binarySearch(keys, 0, chunks, high);
+    }
+
+    private void insertChunk(int index, char high, Container container) {
+        if (chunks == keys.length) {
+            keys = Arrays.copyOf(keys, chunks * 2);
+            containers = Arrays.copyOf(containers, chunks * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, chunks - index);
+        System.arraycopy(containers, index, containers, index + 1, chunks - index);
+        keys[index] = high;
+        containers[index] = container;
+        chunks++;
+    }
+
+    private void removeChunk(int index) {
+        System.arraycopy(keys, index + 1, keys, index, chunks - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, chunks - index - 1);
+        chunks--;
+        containers[chunks] = null;
+    }
+
+    // Appends a chunk with a key larger than all present ones, skipping empty results:
+    private void appendChunk(char high, Container container) {
+        if (container.cardinality == 0) {
+            return;
+        }
+        insertChunk(chunks, high, container);
+        cardinality += container.cardinality;
+    }
+
+    private static char high(int value) {
+        return (char) (value >>> 16);
+    }
+
+    private static char low(int value) {
+        return (char) value;
+    }
+
+    // Chunk-level set operations:
+
+    private static Container and(Container a, Container b) {
+        if (a instanceof ArrayContainer && b instanceof ArrayContainer) {
+            ArrayContainer x = (ArrayContainer) a;
+            ArrayContainer y = (ArrayContainer) b;
+            char[] out = new char[Math.min(x.cardinality, y.cardinality)];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < x.cardinality && j < y.cardinality) {
+                if (x.content[i] < y.content[j]) {
+                    i++;
+                } else if (x.content[i] > y.content[j]) {
+                    j++;
+                } else {
+                    out[count++] = x.content[i];
+                    i++;
+                    j++;
+                }
+            }
+            return new ArrayContainer(out, count);
+        }
+        if (a instanceof ArrayContainer || b instanceof ArrayContainer) {
+            ArrayContainer x = (ArrayContainer) (a instanceof ArrayContainer ? a : b);
+            Container y = x == a ? b : a;
+            char[] out = new char[x.cardinality];
+            int count = 0;
+            for (int i = 0; i < x.cardinality; i++) {
+                if (y.contains(x.content[i])) {
+                    out[count++] = x.content[i];
+                }
+            }
+            return new ArrayContainer(out, count);
+        }
+        long[] words = ((BitmapContainer) a).words.clone();
+        long[] other = ((BitmapContainer) b).words;
+        for (int i = 0; i < WORDS; i++) {
+            words[i] &= other[i];
+        }
+        return fromWords(words);
+    }
+
+    private static Container or(Container a, Container b) {
+        if (a instanceof ArrayContainer && b instanceof ArrayContainer) {
+            ArrayContainer x = (ArrayContainer) a;
+            ArrayContainer y = (ArrayContainer) b;
+            if (x.cardinality + y.cardinality <= ARRAY_LIMIT) {
+                char[] out = new char[x.cardinality + y.cardinality];
+                int count = 0;
+                int i = 0;
+                int j = 0;
+                while (i < x.cardinality || j < y.cardinality) {
+                    if (j == y.cardinality || (i < x.cardinality && x.content[i] < y.content[j])) {
+                        out[count++] = x.content[i++];
+                    } else if (i == x.cardinality || x.content[i] > y.content[j]) {
+                        out[count++] = y.content[j++];
+                    } else {
+                        out[count++] = x.content[i];
+                        i++;
+                        j++;
+                    }
+                }
+                return new ArrayContainer(out, count);
+            }
+        }
+        long[] words = a.toWords();
+        long[] other = b instanceof BitmapContainer ? ((BitmapContainer) b).words : b.toWords();
+        for (int i = 0; i < WORDS; i++) {
+            words[i] |= other[i];
+        }
+        return fromWords(words);
+    }
+
+    private static Container andNot(Container a, Container b) {
+        if (a instanceof ArrayContainer) {
+            ArrayContainer x = (ArrayContainer) a;
+            char[] out = new char[x.cardinality];
+            int count = 0;
+            for (int i = 0; i < x.cardinality; i++) {
+                if (!b.contains(x.content[i])) {
+                    out[count++] = x.content[i];
+                }
+            }
+            return new ArrayContainer(out, count);
+        }
+        long[] words = a.toWords();
+        long[] other = b instanceof BitmapContainer ? ((BitmapContainer) b).words : b.toWords();
+        for (int i = 0; i < WORDS; i++) {
+            words[i] &= ~other[i];
+        }
+        return fromWords(words);
+    }
+
+    private static int andCardinality(Container a, Container b) {
+        if (a instanceof BitmapContainer && b instanceof BitmapContainer) {
+            long[] x = ((BitmapContainer) a).words;
+            long[] y = ((BitmapContainer) b).words;
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                count += Long.bitCount(x[i] & y[i]);
+            }
+            return count;
+        }
+        ArrayContainer x = (ArrayContainer) (a instanceof ArrayContainer ? a : b);
+        Container y = x == a ? b : a;
+        int count = 0;
+        for (int i = 0; i < x.cardinality; i++) {
+            if (y.contains(x.content[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Container fromWords(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        if (count > ARRAY_LIMIT) {
+            return new BitmapContainer(words, count);
+        }
+        char[] out = new char[count];
+        int index = 0;
+        for (int i = 0; i < WORDS; i++) {
+            long word = words[i];
+            while (word != 0) {
+                out[index++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return new ArrayContainer(out, count);
+    }
+
+    // Containers hold the lower 16 bits of the values in one chunk:
+
+    private abstract static class Container {
+        int cardinality;
+
+        abstract boolean contains(char value);
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract Container copy();
+
+        abstract long[] toWords();
+
+        abstract void forEach(int base, IntConsumer action);
+
+        abstract int forEachFrom(int base, char from, int limit, IntConsumer action);
+
+        abstract int copyTo(int base, int[] target, int offset);
+    }
+
+    private static final class ArrayContainer extends Container {
+        char[] content;
+
+        ArrayContainer() {
+            content = new char[4];
+        }
+
+        ArrayContainer(char[] content, int cardinality) {
+            this.content = content;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(content, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(content, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                return new BitmapContainer(toWords(), cardinality).add(value);
+            }
+            index = -index - 1;
+            if (cardinality == content.length) {
+                content = Arrays.copyOf(content, Math.min(Math.max(cardinality * 2, 4), ARRAY_LIMIT));
+            }
+            System.arraycopy(content, index, content, index + 1, cardinality - index);
+            content[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(content, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(content, index + 1, content, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(content, Math.max(cardinality, 4)), cardinality);
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[content[i] >>> 6] |= 1L << content[i];
+            }
+            return words;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(base | content[i]);
+            }
+        }
+
+        @Override
+        int forEachFrom(int base, char from, int limit, IntConsumer action) {
+            int index = Arrays.binarySearch(content, 0, cardinality, from);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            int visited = 0;
+            for (int i = index; i < cardinality && visited < limit; i++, visited++) {
+                action.accept(base | content[i]);
+            }
+            return visited;
+        }
+
+        @Override
+        int copyTo(int base, int[] target, int offset) {
+            for (int i = 0; i < cardinality; i++) {
+                target[offset++] = base | content[i];
+            }
+            return offset;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        final long[] words;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                words[value >>> 6] &= ~bit;
+                cardinality--;
+                if (cardinality <= ARRAY_LIMIT) {
+                    return fromWords(words);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        long[] toWords() {
+            return words.clone();
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(base | (i * 64 + Long.numberOfTrailingZeros(word)));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        int forEachFrom(int base, char from, int limit, IntConsumer action) {
+            int visited = 0;
+            for (int i = from >>> 6; i < WORDS && visited < limit; i++) {
+                // Mask off the bits below from in its own word:
+                long word = i == from >>> 6 ? words[i] & (-1L << from) : words[i];
+                while (word != 0 && visited < limit) {
+                    action.accept(base | (i * 64 + Long.numberOfTrailingZeros(word)));
+                    word &= word - 1;
+                    visited++;
+                }
+            }
+            return visited;
+        }
+
+        @Override
+        int copyTo(int base, int[] target, int offset) {
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    target[offset++] = base | (i * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return offset;
+        }
+    }
+}
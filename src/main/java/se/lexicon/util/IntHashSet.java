@@ -0,0 +1,223 @@
+package se.lexicon.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * A hash set of primitive {@code int} values.
+ * <p>
+ * Values are stored unboxed in an open-addressing table (linear probing, backward-shift deletion), so
+ * {@link #add(int)}, {@link #remove(int)} and {@link #contains(int)} run in expected constant time
+ * without allocating. Iteration order is unspecified.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class IntHashSet {
+
+    // Zero marks a free slot, so the value zero is tracked separately:
+    private static final int FREE = 0;
+    private static final int MIN_TABLE_SIZE = 8;
+
+    private int[] table;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+
+    public IntHashSet() {
+        this(4);
+    }
+
+    public IntHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative.");
+        }
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int value) {
+        if (value == FREE) {
+            return containsZero;
+        }
+        return table[findSlot(value)] != FREE;
+    }
+
+    /**
+     * Adds the value to the set.
+     *
+     * @return true if the value was not already present
+     */
+    public boolean add(int value) {
+        if (value == FREE) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int slot = findSlot(value);
+        if (table[slot] != FREE) {
+            return false;
+        }
+        table[slot] = value;
+        size++;
+
+        // Keep the load factor at or below one half:
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the value from the set.
+     *
+     * @return true if the value was present
+     */
+    public boolean remove(int value) {
+        if (value == FREE) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+
+        int slot = findSlot(value);
+        if (table[slot] == FREE) {
+            return false;
+        }
+        deleteSlot(slot);
+        size--;
+        return true;
+    }
+
+    /**
+     * Passes every value in the set to the action. The set must not be modified during the call.
+     */
+    public void forEach(IntConsumer action) {
+        if (containsZero) {
+            action.accept(FREE);
+        }
+        for (int value : table) {
+            if (value != FREE) {
+                action.accept(value);
+            }
+        }
+    }
+
+    /**
+     * Iterates over the values in the set. The set must not be modified during the iteration.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private boolean zeroPending = containsZero;
+            private int slot = nextSlot(0);
+
+            @Override
+            public boolean hasNext() {
+                return zeroPending || slot < table.length;
+            }
+
+            @Override
+            public int nextInt() {
+                if (zeroPending) {
+                    zeroPending = false;
+                    return FREE;
+                }
+                if (slot >= table.length) {
+                    throw new NoSuchElementException();
+                }
+                int value = table[slot];
+                slot = nextSlot(slot + 1);
+                return value;
+            }
+        };
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size];
+        int count = 0;
+        if (containsZero) {
+            result[count++] = FREE;
+        }
+        for (int value : table) {
+            if (value != FREE) {
+                result[count++] = value;
+            }
+        }
+        return result;
+    }
+
+    public void clear() {
+        Arrays.fill(table, FREE);
+        containsZero = false;
+        size = 0;
+    }
+
+    private int nextSlot(int from) {
+        while (from < table.length && table[from] == FREE) {
+            from++;
+        }
+        return from;
+    }
+
+    private int findSlot(int value) {
+        int slot = IntLinkedHashMap.hash(value) & mask;
+        int current;
+        while ((current = table[slot]) != FREE && current != value) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void deleteSlot(int slot) {
+        int gap = slot;
+        int current = slot;
+        while (true) {
+            current = (current + 1) & mask;
+            int value = table[current];
+            if (value == FREE) {
+                break;
+            }
+            int home = IntLinkedHashMap.hash(value) & mask;
+            if (((current - home) & mask) >= ((current - gap) & mask)) {
+                table[gap] = value;
+                gap = current;
+            }
+        }
+        table[gap] = FREE;
+    }
+
+    private void rehash(int length) {
+        int[] old = table;
+        allocate(length);
+        for (int value : old) {
+            if (value != FREE) {
+                table[findSlot(value)] = value;
+            }
+        }
+    }
+
+    private void allocate(int length) {
+        table = new int[length];
+        mask = length - 1;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int length = Integer.highestOneBit(Math.max(expectedSize * 2 - 1, 1)) << 1;
+        return Math.max(length, MIN_TABLE_SIZE);
+    }
+}
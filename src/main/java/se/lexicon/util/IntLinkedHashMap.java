@@ -0,0 +1,344 @@
+package se.lexicon.util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A hash map from primitive {@code int} keys to objects that keeps its entries in insertion order.
+ * <p>
+ * Keys and values are stored in dense arrays in the order they were inserted, and an open-addressing
+ * table (linear probing) maps each key to its dense position. No key is ever boxed, and
+ * {@link #get(int)}, {@link #put(int, Object)} and {@link #remove(int)} run in expected constant time.
+ * Removed entries leave a hole in the dense arrays which is compacted away once holes dominate.
+ * <p>
+ * Null values are not allowed. This class is not thread-safe.
+ *
+ * @param <V> the type of the values
+ */
+public class IntLinkedHashMap<V> implements Iterable<V> {
+
+    private static final int EMPTY = -1;
+    private static final int DEFAULT_CAPACITY = 8;
+
+    // Dense storage, in insertion order (a null value marks a removed entry):
+    private int[] keys;
+    private Object[] values;
+
+    // Open-addressing table holding dense positions, EMPTY if the slot is free:
+    private int[] table;
+    private int mask;
+
+    private int end;
+    private int size;
+    private int modCount;
+
+    private Collection<V> valuesView;
+
+    public IntLinkedHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntLinkedHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative.");
+        }
+        int capacity = Math.max(expectedSize, DEFAULT_CAPACITY);
+        keys = new int[capacity];
+        values = new Object[capacity];
+        allocateTable(tableSizeFor(capacity));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return table[findSlot(key)] != EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int index = table[findSlot(key)];
+        return index == EMPTY ? null : (V) values[index];
+    }
+
+    /**
+     * Returns the position of the key's entry in insertion order, or -1 if the key is not present.
+     * Positions of two keys compare like their insertion order, but may shrink when a removal compacts the
+     * map, so they are only comparable until the next modification.
+     */
+    public int position(int key) {
+        return table[findSlot(key)];
+    }
+
+    /**
+     * Associates the value with the key. A replaced entry keeps its original insertion position.
+     *
+     * @return the previous value for the key, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null.");
+        }
+
+        // Replace in place if the key is already present:
+        int slot = findSlot(key);
+        int index = table[slot];
+        if (index != EMPTY) {
+            V old = (V) values[index];
+            values[index] = value;
+            return old;
+        }
+
+        // Make room in the dense arrays and the table, which may move the free slot:
+        if (end == keys.length || (size + 1) * 2 > table.length) {
+            ensureRoom(size + 1);
+            slot = findSlot(key);
+        }
+
+        keys[end] = key;
+        values[end] = value;
+        table[slot] = end;
+        end++;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    /**
+     * Removes the entry for the key.
+     *
+     * @return the removed value, or null if the key was not present
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = findSlot(key);
+        int index = table[slot];
+        if (index == EMPTY) {
+            return null;
+        }
+
+        V old = (V) values[index];
+        values[index] = null;
+        deleteSlot(slot);
+        size--;
+        modCount++;
+
+        // Trim trailing holes so that appends can reuse them:
+        while (end > 0 && values[end - 1] == null) {
+            end--;
+        }
+
+        // Compact once holes outnumber live entries:
+        if (end > DEFAULT_CAPACITY && size < end / 2) {
+            rebuild(keys.length);
+        }
+        return old;
+    }
+
+    /**
+     * Makes sure that the map can hold the given number of entries without growing.
+     */
+    public void ensureCapacity(int expectedSize) {
+        if (expectedSize > keys.length || expectedSize * 2 > table.length) {
+            ensureRoom(expectedSize);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0, end, null);
+        Arrays.fill(table, EMPTY);
+        end = 0;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Iterates over the values in insertion order. The iterator fails fast on concurrent modification.
+     */
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            private int next = skipHoles(0);
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= end) {
+                    throw new NoSuchElementException();
+                }
+                V value = (V) values[next];
+                next = skipHoles(next + 1);
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Iterates over the keys in insertion order. The iterator fails fast on concurrent modification.
+     */
+    public PrimitiveIterator.OfInt keyIterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int next = skipHoles(0);
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            public int nextInt() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= end) {
+                    throw new NoSuchElementException();
+                }
+                int key = keys[next];
+                next = skipHoles(next + 1);
+                return key;
+            }
+        };
+    }
+
+    /**
+     * Returns a read-only live view of the values, in insertion order. The view is created once and reflects
+     * every later change to the map; its iterators fail fast like {@link #iterator()}.
+     */
+    public Collection<V> values() {
+        if (valuesView == null) {
+            valuesView = new AbstractCollection<V>() {
+                @Override
+                public Iterator<V> iterator() {
+                    return IntLinkedHashMap.this.iterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return valuesView;
+    }
+
+    /**
+     * Passes every value together with its key to the action, in insertion order.
+     * The map must not be modified during the call.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachEntry(ObjIntConsumer<? super V> action) {
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                action.accept((V) values[i], keys[i]);
+            }
+        }
+    }
+
+    private int skipHoles(int from) {
+        while (from < end && values[from] == null) {
+            from++;
+        }
+        return from;
+    }
+
+    private void ensureRoom(int required) {
+        // Grow when live entries fill at least half the arrays, otherwise compacting the holes is enough:
+        int capacity = keys.length;
+        if (size >= capacity / 2 || required > capacity) {
+            capacity = Math.max(required, capacity + (capacity >> 1) + 1);
+        }
+        rebuild(capacity);
+    }
+
+    private void rebuild(int capacity) {
+        int[] newKeys = new int[capacity];
+        Object[] newValues = new Object[capacity];
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                newKeys[count] = keys[i];
+                newValues[count] = values[i];
+                count++;
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+        end = count;
+
+        allocateTable(Math.max(tableSizeFor(capacity), table.length));
+        for (int i = 0; i < end; i++) {
+            int slot = hash(keys[i]) & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i;
+        }
+    }
+
+    private void allocateTable(int length) {
+        table = new int[length];
+        Arrays.fill(table, EMPTY);
+        mask = length - 1;
+    }
+
+    // Returns the slot holding the key, or the free slot where it would be inserted:
+    private int findSlot(int key) {
+        int slot = hash(key) & mask;
+        int index;
+        while ((index = table[slot]) != EMPTY && keys[index] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Backward-shift deletion keeps probe sequences intact without tombstones:
+    private void deleteSlot(int slot) {
+        int gap = slot;
+        int current = slot;
+        while (true) {
+            current = (current + 1) & mask;
+            int index = table[current];
+            if (index == EMPTY) {
+                break;
+            }
+            int home = hash(keys[index]) & mask;
+            if (((current - home) & mask) >= ((current - gap) & mask)) {
+                table[gap] = index;
+                gap = current;
+            }
+        }
+        table[gap] = EMPTY;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int length = Integer.highestOneBit(Math.max(capacity * 2 - 1, 1)) << 1;
+        return Math.max(length, 16);
+    }
+
+    static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
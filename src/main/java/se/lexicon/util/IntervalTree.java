@@ -0,0 +1,181 @@
+package se.lexicon.util;
+
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * An interval tree over closed {@code long} intervals, for finding every interval that overlaps a query.
+ * <p>
+ * Intervals are kept in a treap ordered by start and then by id, where every node also records the
+ * largest end in its subtree. Insertion and removal take expected logarithmic time, and an overlap
+ * query takes O(log n + k) for k results, which are reported in order of start.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <V> the type of the values
+ */
+public class IntervalTree<V> {
+
+    private static final class Node<V> {
+        final long start;
+        final long end;
+        final int id;
+        final int priority;
+        final V value;
+        long maxEnd;
+        Node<V> left;
+        Node<V> right;
+
+        Node(long start, long end, int id, int priority, V value) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.priority = priority;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+
+    private final Random random = new Random();
+    private Node<V> root;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds the closed interval [start, end] for the id. An id should be stored at most once per start.
+     */
+    public void insert(long start, long end, int id, V value) {
+        if (end < start) {
+            throw new IllegalArgumentException("End cannot be before start.");
+        }
+        root = insert(root, new Node<>(start, end, id, random.nextInt(), value));
+        size++;
+    }
+
+    /**
+     * Removes the interval stored for the id at the given start.
+     *
+     * @return true if such an interval was stored
+     */
+    public boolean remove(long start, int id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    /**
+     * Passes the value of every interval overlapping the closed range [from, to] to the action,
+     * in order of start.
+     */
+    public void forEachOverlapping(long from, long to, Consumer<? super V> action) {
+        forEachOverlapping(root, from, to, action);
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    private Node<V> insert(Node<V> node, Node<V> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<V> remove(Node<V> node, long start, int id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            // Rotate the node down until it has at most one child, then splice it out:
+            if (node.left == null) {
+                size--;
+                return node.right;
+            }
+            if (node.right == null) {
+                size--;
+                return node.left;
+            }
+            if (node.left.priority > node.right.priority) {
+                node = rotateRight(node);
+                node.right = remove(node.right, start, id);
+            } else {
+                node = rotateLeft(node);
+                node.left = remove(node.left, start, id);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private void forEachOverlapping(Node<V> node, long from, long to, Consumer<? super V> action) {
+        // Nothing in this subtree ends late enough to overlap:
+        if (node == null || node.maxEnd < from) {
+            return;
+        }
+        forEachOverlapping(node.left, from, to, action);
+
+        // Only the left subtree can start early enough once this node starts after the range:
+        if (node.start <= to) {
+            if (node.end >= from) {
+                action.accept(node.value);
+            }
+            forEachOverlapping(node.right, from, to, action);
+        }
+    }
+
+    private static int compare(long start, int id, Node<?> node) {
+        int cmp = Long.compare(start, node.start);
+        return cmp != 0 ? cmp : Integer.compare(id, node.id);
+    }
+
+    private static <V> Node<V> rotateRight(Node<V> node) {
+        Node<V> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static <V> Node<V> rotateLeft(Node<V> node) {
+        Node<V> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node<?> node) {
+        long maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd > maxEnd) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > maxEnd) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+}
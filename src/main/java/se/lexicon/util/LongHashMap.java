@@ -0,0 +1,184 @@
+package se.lexicon.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from primitive {@code long} keys to values.
+ * <p>
+ * Keys are stored unboxed in an open-addressing table (linear probing, backward-shift deletion), as in
+ * {@link IntHashSet}, so {@link #get(long)}, {@link #put(long, Object)} and {@link #remove(long)} run in
+ * expected constant time without allocating. Null values are not allowed.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <V> the type of values
+ */
+public class LongHashMap<V> {
+
+    // Zero marks a free slot, so the value of key zero is kept separately:
+    private static final long FREE = 0;
+    private static final int MIN_TABLE_SIZE = 8;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private V zeroValue;
+
+    public LongHashMap() {
+        this(4);
+    }
+
+    public LongHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative.");
+        }
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value of the key, or null if the key is not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == FREE) {
+            return zeroValue;
+        }
+        return (V) values[findSlot(key)];
+    }
+
+    /**
+     * Maps the key to the value.
+     *
+     * @return the previous value of the key, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null.");
+        }
+        if (key == FREE) {
+            V previous = zeroValue;
+            zeroValue = value;
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+
+        int slot = findSlot(key);
+        V previous = (V) values[slot];
+        values[slot] = value;
+        if (previous != null) {
+            return previous;
+        }
+        keys[slot] = key;
+        size++;
+
+        // Keep the load factor at or below one half:
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the key from the map.
+     *
+     * @return the value the key had, or null if it was not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == FREE) {
+            V previous = zeroValue;
+            if (previous != null) {
+                zeroValue = null;
+                size--;
+            }
+            return previous;
+        }
+
+        int slot = findSlot(key);
+        V previous = (V) values[slot];
+        if (previous == null) {
+            return null;
+        }
+        deleteSlot(slot);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, null);
+        zeroValue = null;
+        size = 0;
+    }
+
+    // Returns the slot holding the key, or the free slot where it would go. A slot is in use exactly when
+    // it holds a value:
+    private int findSlot(long key) {
+        int slot = hash(key) & mask;
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void deleteSlot(int slot) {
+        int gap = slot;
+        int current = slot;
+        while (true) {
+            current = (current + 1) & mask;
+            Object value = values[current];
+            if (value == null) {
+                break;
+            }
+            long key = keys[current];
+            int home = hash(key) & mask;
+            if (((current - home) & mask) >= ((current - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = value;
+                gap = current;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = null;
+    }
+
+    private void rehash(int length) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int length) {
+        keys = new long[length];
+        values = new Object[length];
+        mask = length - 1;
+    }
+
+    private static int hash(long key) {
+        return IntLinkedHashMap.hash((int) (key ^ (key >>> 32)));
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int length = Integer.highestOneBit(Math.max(expectedSize * 2 - 1, 1)) << 1;
+        return Math.max(length, MIN_TABLE_SIZE);
+    }
+}
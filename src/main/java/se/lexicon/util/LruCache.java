@@ -0,0 +1,84 @@
+package se.lexicon.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Predicate;
+
+/**
+ * A {@link Cache} that evicts the least recently used entry, kept in a {@link LinkedHashMap} in access
+ * order. This class is thread-safe.
+ */
+public class LruCache<K, V> implements Cache<K, V> {
+
+    private final int maximumSize;
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public LruCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size is not allowed to be zero or negative.");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public V get(K key) {
+        return get(key, value -> true);
+    }
+
+    @Override
+    public synchronized V get(K key, Predicate<? super V> check) {
+        V value = entries.get(key);
+        if (value != null && !check.test(value)) {
+            entries.remove(key);
+            value = null;
+        }
+        if (value == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key and value cannot be null.");
+        }
+        entries.put(key, value);
+        if (entries.size() > maximumSize) {
+            Iterator<K> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            evictionCount++;
+        }
+    }
+
+    @Override
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public synchronized CacheStats stats() {
+        return new CacheStats(hitCount, missCount, evictionCount);
+    }
+}
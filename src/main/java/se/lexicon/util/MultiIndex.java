@@ -0,0 +1,68 @@
+package se.lexicon.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A secondary index mapping each key to the set of values stored under it.
+ * <p>
+ * Values under one key keep the order in which they were added. Adding, removing and looking up a
+ * key cost expected constant time, plus the size of the result for lookups.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class MultiIndex<K, V> {
+
+    final Map<K, Set<V>> buckets;
+
+    public MultiIndex() {
+        this(new HashMap<>());
+    }
+
+    MultiIndex(Map<K, Set<V>> buckets) {
+        this.buckets = buckets;
+    }
+
+    /**
+     * Adds the value under the key.
+     *
+     * @return true if the value was not already stored under the key
+     */
+    public boolean add(K key, V value) {
+        return buckets.computeIfAbsent(key, k -> new LinkedHashSet<>(2)).add(value);
+    }
+
+    /**
+     * Removes the value from the key, dropping the key once it has no values left.
+     *
+     * @return true if the value was stored under the key
+     */
+    public boolean remove(K key, V value) {
+        Set<V> bucket = buckets.get(key);
+        if (bucket == null || !bucket.remove(value)) {
+            return false;
+        }
+        if (bucket.isEmpty()) {
+            buckets.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * Returns a read-only view of the values stored under the key, which is empty if there are none.
+     */
+    public Set<V> get(K key) {
+        Set<V> bucket = buckets.get(key);
+        return bucket == null ? Collections.<V>emptySet() : Collections.unmodifiableSet(bucket);
+    }
+
+    public void clear() {
+        buckets.clear();
+    }
+}
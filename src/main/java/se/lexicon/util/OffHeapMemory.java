@@ -0,0 +1,211 @@
+package se.lexicon.util;
+
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A growable block of memory outside the Java heap, addressed by {@code long} offsets.
+ * <p>
+ * The memory is made of direct {@link ByteBuffer} pages, so it can grow past 2 GiB, and none of it is
+ * scanned or copied by the garbage collector. It starts as one small page that doubles until it reaches
+ * the page size, and then grows a page at a time. New memory reads as zero. {@code int}s must be stored
+ * at multiples of 4 and {@code long}s at multiples of 8, so that no value straddles two pages.
+ * <p>
+ * {@link #close()} frees the pages at once rather than whenever the collector gets to them; on Java 8,
+ * where that is not possible, they are freed by the collector. Any access after closing throws
+ * {@link IllegalStateException}.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class OffHeapMemory implements Closeable {
+
+    public static final int DEFAULT_PAGE_SIZE = 1 << 26;
+
+    private static final int MIN_PAGE_SIZE = 64;
+    private static final Consumer<ByteBuffer> RELEASER = releaser();
+
+    private final int pageSize;
+    private final int pageShift;
+    private final int pageMask;
+    private ByteBuffer[] pages = new ByteBuffer[0];
+    private boolean closed;
+
+    public OffHeapMemory(long initialCapacity) {
+        this(initialCapacity, DEFAULT_PAGE_SIZE);
+    }
+
+    public OffHeapMemory(long initialCapacity, int pageSize) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity cannot be negative.");
+        }
+        if (pageSize < MIN_PAGE_SIZE || Integer.bitCount(pageSize) != 1) {
+            throw new IllegalArgumentException("Page size must be a power of two of at least " + MIN_PAGE_SIZE + ".");
+        }
+        this.pageSize = pageSize;
+        this.pageShift = Integer.numberOfTrailingZeros(pageSize);
+        this.pageMask = pageSize - 1;
+        ensureCapacity(Math.max(MIN_PAGE_SIZE, initialCapacity));
+    }
+
+    /**
+     * Returns the number of bytes that can be addressed without growing.
+     */
+    public long capacity() {
+        checkOpen();
+        return pages.length == 0 ? 0 : (long) (pages.length - 1) * pageSize + pages[pages.length - 1].capacity();
+    }
+
+    /**
+     * Grows the memory so that offsets below the given capacity can be addressed, keeping its content.
+     */
+    public void ensureCapacity(long capacity) {
+        checkOpen();
+        if (capacity <= capacity()) {
+            return;
+        }
+
+        // Double the first page up to the page size, copying it over:
+        if (pages.length <= 1) {
+            int size = pages.length == 0 ? MIN_PAGE_SIZE : pages[0].capacity();
+            while (size < capacity && size < pageSize) {
+                size <<= 1;
+            }
+            ByteBuffer first = ByteBuffer.allocateDirect(size);
+            if (pages.length == 1) {
+                ByteBuffer old = pages[0];
+                old.clear();
+                first.put(old).clear();
+                RELEASER.accept(old);
+                pages[0] = first;
+            } else {
+                pages = new ByteBuffer[]{first};
+            }
+            if (capacity <= size) {
+                return;
+            }
+        }
+
+        // Then add whole pages:
+        int count = (int) ((capacity + pageMask) >>> pageShift);
+        int old = pages.length;
+        pages = Arrays.copyOf(pages, count);
+        for (int i = old; i < count; i++) {
+            pages[i] = ByteBuffer.allocateDirect(pageSize);
+        }
+    }
+
+    public byte getByte(long offset) {
+        return page(offset).get(index(offset));
+    }
+
+    public void putByte(long offset, byte value) {
+        page(offset).put(index(offset), value);
+    }
+
+    public int getInt(long offset) {
+        return page(offset).getInt(index(offset));
+    }
+
+    public void putInt(long offset, int value) {
+        page(offset).putInt(index(offset), value);
+    }
+
+    public long getLong(long offset) {
+        return page(offset).getLong(index(offset));
+    }
+
+    public void putLong(long offset, long value) {
+        page(offset).putLong(index(offset), value);
+    }
+
+    /**
+     * Copies bytes from the memory into the array, across page boundaries.
+     */
+    public void getBytes(long offset, byte[] target, int from, int length) {
+        while (length > 0) {
+            ByteBuffer page = page(offset).duplicate();
+            int index = index(offset);
+            int chunk = Math.min(length, page.capacity() - index);
+            page.position(index);
+            page.get(target, from, chunk);
+            offset += chunk;
+            from += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Copies bytes from the array into the memory, across page boundaries.
+     */
+    public void putBytes(long offset, byte[] source, int from, int length) {
+        while (length > 0) {
+            ByteBuffer page = page(offset).duplicate();
+            int index = index(offset);
+            int chunk = Math.min(length, page.capacity() - index);
+            page.position(index);
+            page.put(source, from, chunk);
+            offset += chunk;
+            from += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Frees the memory. Closing twice has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (ByteBuffer page : pages) {
+            RELEASER.accept(page);
+        }
+        pages = new ByteBuffer[0];
+    }
+
+    private ByteBuffer page(long offset) {
+        checkOpen();
+        long page = offset >>> pageShift;
+        if (offset < 0 || page >= pages.length) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " is out of bounds.");
+        }
+        return pages[(int) page];
+    }
+
+    private int index(long offset) {
+        return (int) (offset & pageMask);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Memory is closed.");
+        }
+    }
+
+    // Frees a direct buffer through Unsafe.invokeCleaner where the JDK has it (Java 9 and later):
+    private static Consumer<ByteBuffer> releaser() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            return buffer -> {
+                try {
+                    invokeCleaner.invoke(unsafe, buffer);
+                } catch (ReflectiveOperationException e) {
+                    // Left to the garbage collector.
+                }
+            };
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return buffer -> {
+            };
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package se.lexicon.util;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntPredicate;
+
+/**
+ * A {@link Utf8Column} kept in {@link OffHeapMemory}: the packed UTF-8 bytes and the start and length of
+ * every row all live outside the Java heap, so a row costs the heap nothing. The rows behave as in
+ * {@link Utf8Column}; garbage is reclaimed by copying the live bytes into new memory and freeing the old.
+ * <p>
+ * {@link #close()} frees the memory; any access afterwards throws {@link IllegalStateException}.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class OffHeapUtf8Column implements Closeable {
+
+    // Each row's entry holds a long start and an int length:
+    private static final int ENTRY_SIZE = 16;
+
+    private final int pageSize;
+    private final OffHeapMemory entries;
+    private OffHeapMemory bytes;
+    private long used;
+    private long garbage;
+    private int size;
+
+    public OffHeapUtf8Column() {
+        this(OffHeapMemory.DEFAULT_PAGE_SIZE);
+    }
+
+    public OffHeapUtf8Column(int pageSize) {
+        this.pageSize = pageSize;
+        this.entries = new OffHeapMemory(16 * ENTRY_SIZE, pageSize);
+        this.bytes = new OffHeapMemory(256, pageSize);
+    }
+
+    /**
+     * Returns the number of rows, including released ones.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of off-heap bytes allocated, including garbage and spare room.
+     */
+    public long capacityInBytes() {
+        return entries.capacity() + bytes.capacity();
+    }
+
+    /**
+     * Appends a value as a new row.
+     *
+     * @return the row number of the value
+     */
+    public int add(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null.");
+        }
+        growEntries((long) (size + 1) * ENTRY_SIZE);
+        int row = size++;
+        store(row, value.getBytes(StandardCharsets.UTF_8));
+        return row;
+    }
+
+    public String get(int row) {
+        checkRow(row);
+        byte[] value = new byte[length(row)];
+        bytes.getBytes(start(row), value, 0, value.length);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Replaces the value of a row.
+     */
+    public void set(int row, String value) {
+        checkRow(row);
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null.");
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        release(row);
+        store(row, encoded);
+    }
+
+    /**
+     * Frees the bytes of a row, which reads as the empty string afterwards.
+     */
+    public void release(int row) {
+        checkRow(row);
+        garbage += length(row);
+        entries.putInt((long) row * ENTRY_SIZE + 8, 0);
+    }
+
+    /**
+     * Drops the rows the predicate rejects, numbering the remaining rows from zero in their current order,
+     * and compacts the bytes.
+     */
+    public void retain(IntPredicate keep) {
+        int kept = 0;
+        for (int row = 0; row < size; row++) {
+            if (keep.test(row)) {
+                entries.putLong((long) kept * ENTRY_SIZE, start(row));
+                entries.putInt((long) kept * ENTRY_SIZE + 8, length(row));
+                kept++;
+            } else {
+                garbage += length(row);
+            }
+        }
+        size = kept;
+        compact(0);
+    }
+
+    public void clear() {
+        size = 0;
+        used = 0;
+        garbage = 0;
+    }
+
+    @Override
+    public void close() {
+        entries.close();
+        bytes.close();
+    }
+
+    private void store(int row, byte[] encoded) {
+        if (used + encoded.length > bytes.capacity()) {
+            makeRoom(encoded.length);
+        }
+        bytes.putBytes(used, encoded, 0, encoded.length);
+        entries.putLong((long) row * ENTRY_SIZE, used);
+        entries.putInt((long) row * ENTRY_SIZE + 8, encoded.length);
+        used += encoded.length;
+    }
+
+    // Compacts when at least half the bytes are garbage, and grows the memory when that is not enough:
+    private void makeRoom(int needed) {
+        if (garbage >= used >> 1) {
+            compact(needed);
+            if (used + needed <= bytes.capacity()) {
+                return;
+            }
+        }
+        bytes.ensureCapacity(Math.max(used + needed, bytes.capacity() + (bytes.capacity() >> 1)));
+    }
+
+    // Copies the live bytes of every row, in row order, to the front of new memory and frees the old:
+    private void compact(int needed) {
+        long live = used - garbage;
+        OffHeapMemory compacted = new OffHeapMemory(Math.max(256, live + needed + (live >> 1)), pageSize);
+        long position = 0;
+        byte[] buffer = new byte[256];
+        for (int row = 0; row < size; row++) {
+            int length = length(row);
+            if (length > buffer.length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            bytes.getBytes(start(row), buffer, 0, length);
+            compacted.putBytes(position, buffer, 0, length);
+            entries.putLong((long) row * ENTRY_SIZE, position);
+            position += length;
+        }
+        bytes.close();
+        bytes = compacted;
+        used = position;
+        garbage = 0;
+    }
+
+    private void growEntries(long needed) {
+        if (needed > entries.capacity()) {
+            entries.ensureCapacity(Math.max(needed, entries.capacity() * 2));
+        }
+    }
+
+    private long start(int row) {
+        return entries.getLong((long) row * ENTRY_SIZE);
+    }
+
+    private int length(int row) {
+        return entries.getInt((long) row * ENTRY_SIZE + 8);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " is out of bounds for size " + size + ".");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package se.lexicon.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonicalizes strings, so that equal values held by many objects share one instance.
+ * <p>
+ * Meant for values that repeat heavily, such as addresses, names and email domains; unique values gain
+ * nothing from pooling and only grow the pool. The pool holds its values strongly and stops taking new
+ * ones once it reaches its maximum size, after which values it does not already hold are returned as
+ * given. Unlike {@link String#intern()}, a pool can be cleared or dropped.
+ * <p>
+ * This class is thread-safe.
+ */
+public class StringPool {
+
+    public static final int DEFAULT_MAX_SIZE = 1 << 20;
+
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    public StringPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public StringPool(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size is not allowed to be zero or negative.");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the pooled instance equal to the value, pooling the value itself if there is none yet and
+     * the pool is not full.
+     *
+     * @param value the value to canonicalize, or null
+     * @return an instance equal to the value, or null if the value is null
+     */
+    public String canonical(String value) {
+        if (value == null) {
+            return null;
+        }
+        String canonical = values.get(value);
+        if (canonical != null) {
+            return canonical;
+        }
+        if (values.size() >= maxSize) {
+            return value;
+        }
+        canonical = values.putIfAbsent(value, value);
+        return canonical == null ? value : canonical;
+    }
+
+    /**
+     * Returns the number of pooled values.
+     */
+    public int size() {
+        return values.size();
+    }
+
+    public void clear() {
+        values.clear();
+    }
+}
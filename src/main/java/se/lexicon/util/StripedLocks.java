@@ -0,0 +1,47 @@
+package se.lexicon.util;
+
+/**
+ * A fixed set of monitor objects that keys are hashed onto, so that writers to different keys rarely
+ * contend while writers to the same key are serialized.
+ */
+public final class StripedLocks {
+
+    private final Object[] stripes;
+    private final int mask;
+
+    /**
+     * @param stripes the number of stripes, rounded up to a power of two
+     */
+    public StripedLocks(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripes cannot be zero or negative.");
+        }
+        int length = 1;
+        while (length < stripes) {
+            length <<= 1;
+        }
+        this.stripes = new Object[length];
+        for (int i = 0; i < length; i++) {
+            this.stripes[i] = new Object();
+        }
+        this.mask = length - 1;
+    }
+
+    /**
+     * Returns the monitor guarding the given key.
+     */
+    public Object forKey(Object key) {
+        return forHash(key.hashCode());
+    }
+
+    /**
+     * Returns the monitor guarding the given int key.
+     */
+    public Object forInt(int key) {
+        return forHash(Integer.hashCode(key));
+    }
+
+    private Object forHash(int hash) {
+        return stripes[IntLinkedHashMap.hash(hash) & mask];
+    }
+}
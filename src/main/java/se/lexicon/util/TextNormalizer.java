@@ -0,0 +1,22 @@
+package se.lexicon.util;
+
+import java.util.Locale;
+
+/**
+ * Normalizes text into the keys used by case-insensitive indexes.
+ */
+public final class TextNormalizer {
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Folds a value into its index key: surrounding whitespace is trimmed and the rest is lower-cased.
+     *
+     * @param value the value to fold
+     * @return the folded key
+     */
+    public static String fold(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
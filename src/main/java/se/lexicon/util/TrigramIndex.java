@@ -0,0 +1,147 @@
+package se.lexicon.util;
+
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static se.lexicon.util.TextNormalizer.fold;
+
+/**
+ * An inverted index from trigrams (three-character substrings) of case-folded texts to int ids,
+ * used for case-insensitive substring search.
+ * <p>
+ * A query of three or more characters only visits the ids posted under its rarest trigram, and each
+ * candidate is then confirmed with a substring check against its pre-folded text. Shorter queries fall
+ * back to checking every pre-folded text. Neither path allocates per stored text, and trigrams are kept as
+ * unboxed {@code long} keys, so looking one up allocates nothing.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class TrigramIndex {
+
+    private final IntLinkedHashMap<String> texts = new IntLinkedHashMap<>();
+    private final LongHashMap<IntHashSet> postings = new LongHashMap<>();
+
+    /**
+     * Indexes the text under the id, replacing any text previously indexed under it.
+     */
+    public void add(int id, String text) {
+        remove(id);
+        String folded = fold(text);
+        texts.put(id, folded);
+        for (int i = 0; i + 3 <= folded.length(); i++) {
+            long key = trigram(folded, i);
+            IntHashSet ids = postings.get(key);
+            if (ids == null) {
+                ids = new IntHashSet();
+                postings.put(key, ids);
+            }
+            ids.add(id);
+        }
+    }
+
+    /**
+     * Removes the text indexed under the id.
+     *
+     * @return true if the id was indexed
+     */
+    public boolean remove(int id) {
+        String folded = texts.remove(id);
+        if (folded == null) {
+            return false;
+        }
+        for (int i = 0; i + 3 <= folded.length(); i++) {
+            long key = trigram(folded, i);
+            IntHashSet ids = postings.get(key);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Passes the id of every text containing the query (case-insensitive) to the action.
+     *
+     * @return the number of texts checked for the query, matching or not
+     */
+    public int forEachMatch(String query, IntConsumer action) {
+        String folded = fold(query);
+
+        // Short queries have no trigram to narrow on, so check every folded text:
+        if (folded.length() < 3) {
+            texts.forEachEntry((text, id) -> {
+                if (text.contains(folded)) {
+                    action.accept(id);
+                }
+            });
+            return texts.size();
+        }
+
+        // Narrow on the rarest trigram of the query; a missing one means there is no match:
+        IntHashSet candidates = rarest(folded);
+        if (candidates == null) {
+            return 0;
+        }
+
+        // Confirm each candidate, since sharing trigrams does not imply containing the query:
+        candidates.forEach(id -> {
+            if (texts.get(id).contains(folded)) {
+                action.accept(id);
+            }
+        });
+        return candidates.size();
+    }
+
+    /**
+     * Returns a lazy stream of the ids of every text containing the query (case-insensitive), found the same
+     * way as in {@link #forEachMatch(String, IntConsumer)}. The index must not be modified while the stream
+     * is consumed.
+     */
+    public IntStream matches(String query) {
+        String folded = fold(query);
+        PrimitiveIterator.OfInt candidates;
+        if (folded.length() < 3) {
+            candidates = texts.keyIterator();
+        } else {
+            IntHashSet ids = rarest(folded);
+            if (ids == null) {
+                return IntStream.empty();
+            }
+            candidates = ids.iterator();
+        }
+        Spliterator.OfInt spliterator = Spliterators.spliteratorUnknownSize(candidates, Spliterator.DISTINCT);
+        return StreamSupport.intStream(spliterator, false).filter(id -> texts.get(id).contains(folded));
+    }
+
+    public int size() {
+        return texts.size();
+    }
+
+    public void clear() {
+        texts.clear();
+        postings.clear();
+    }
+
+    // Returns the postings of the query's rarest trigram, or null if one of its trigrams is missing:
+    private IntHashSet rarest(String folded) {
+        IntHashSet candidates = null;
+        for (int i = 0; i + 3 <= folded.length(); i++) {
+            IntHashSet ids = postings.get(trigram(folded, i));
+            if (ids == null) {
+                return null;
+            }
+            if (candidates == null || ids.size() < candidates.size()) {
+                candidates = ids;
+            }
+        }
+        return candidates;
+    }
+
+    static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+}
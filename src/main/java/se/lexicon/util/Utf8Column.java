@@ -0,0 +1,175 @@
+package se.lexicon.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * A column of strings stored as UTF-8 bytes packed into one shared array, addressed by row number.
+ * <p>
+ * A row costs its encoded bytes plus two {@code int}s, instead of a {@link String} object and its
+ * backing array. Replacing or releasing a value leaves its old bytes behind as garbage, which is
+ * reclaimed by compacting the array once it makes up half of it. {@link #get(int)} decodes a new
+ * {@code String} on every call.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class Utf8Column {
+
+    private static final int MAX_BYTES = Integer.MAX_VALUE - 8;
+
+    private byte[] bytes;
+    private int used;
+    private int garbage;
+
+    // Start and length of each row's bytes:
+    private int[] offsets;
+    private int[] lengths;
+    private int size;
+
+    public Utf8Column() {
+        this(16);
+    }
+
+    public Utf8Column(int expectedRows) {
+        if (expectedRows < 0) {
+            throw new IllegalArgumentException("Expected rows cannot be negative.");
+        }
+        int rows = Math.max(4, expectedRows);
+        this.offsets = new int[rows];
+        this.lengths = new int[rows];
+        this.bytes = new byte[rows * 8];
+    }
+
+    /**
+     * Returns the number of rows, including released ones.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes allocated for values, including garbage and spare room.
+     */
+    public long capacityInBytes() {
+        return bytes.length;
+    }
+
+    /**
+     * Appends a value as a new row.
+     *
+     * @return the row number of the value
+     */
+    public int add(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null.");
+        }
+        if (size == offsets.length) {
+            int capacity = size + (size >> 1);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        int row = size++;
+        store(row, value.getBytes(StandardCharsets.UTF_8));
+        return row;
+    }
+
+    public String get(int row) {
+        checkRow(row);
+        return new String(bytes, offsets[row], lengths[row], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Replaces the value of a row.
+     */
+    public void set(int row, String value) {
+        checkRow(row);
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null.");
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        garbage += lengths[row];
+        lengths[row] = 0;
+        store(row, encoded);
+    }
+
+    /**
+     * Frees the bytes of a row, which reads as the empty string afterwards.
+     */
+    public void release(int row) {
+        checkRow(row);
+        garbage += lengths[row];
+        lengths[row] = 0;
+    }
+
+    /**
+     * Drops the rows the predicate rejects, numbering the remaining rows from zero in their current order,
+     * and compacts the bytes.
+     */
+    public void retain(IntPredicate keep) {
+        int kept = 0;
+        for (int row = 0; row < size; row++) {
+            if (keep.test(row)) {
+                offsets[kept] = offsets[row];
+                lengths[kept] = lengths[row];
+                kept++;
+            } else {
+                garbage += lengths[row];
+            }
+        }
+        size = kept;
+        compact(0);
+    }
+
+    public void clear() {
+        size = 0;
+        used = 0;
+        garbage = 0;
+    }
+
+    private void store(int row, byte[] encoded) {
+        if (encoded.length > bytes.length - used) {
+            makeRoom(encoded.length);
+        }
+        System.arraycopy(encoded, 0, bytes, used, encoded.length);
+        offsets[row] = used;
+        lengths[row] = encoded.length;
+        used += encoded.length;
+    }
+
+    // Compacts when at least half the bytes are garbage, and grows the array when that is not enough:
+    private void makeRoom(int needed) {
+        if (garbage >= used >> 1) {
+            compact(needed);
+            if (needed <= bytes.length - used) {
+                return;
+            }
+        }
+        long live = (long) used + needed;
+        if (live > MAX_BYTES) {
+            throw new IllegalStateException("Column is full.");
+        }
+        bytes = Arrays.copyOf(bytes, (int) Math.min(MAX_BYTES, Math.max(live, bytes.length + ((long) bytes.length >> 1))));
+    }
+
+    // Copies the live bytes of every row, in row order, to the front of a right-sized array:
+    private void compact(int needed) {
+        int live = used - garbage;
+        byte[] compacted = new byte[(int) Math.min(MAX_BYTES, Math.max(16, (long) live + needed + (live >> 1)))];
+        int position = 0;
+        for (int row = 0; row < size; row++) {
+            System.arraycopy(bytes, offsets[row], compacted, position, lengths[row]);
+            offsets[row] = position;
+            position += lengths[row];
+        }
+        bytes = compacted;
+        used = position;
+        garbage = 0;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " is out of bounds for size " + size + ".");
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package se.lexicon.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A {@link Cache} with W-TinyLFU eviction. New entries enter a small LRU window of 1% of the maximum size.
+ * An entry leaving the window is admitted to the main cache only if a {@link FrequencySketch} of recent
+ * traffic rates it above the entry it would evict, so a burst of one-off keys cannot flush entries that
+ * are used often. The main cache is a segmented LRU: an entry hit while on probation moves to the
+ * protected segment, which holds 80% of the main cache, and the protected segment's least recently used
+ * entry drops back to probation when it is full.
+ * <p>
+ * This class is thread-safe.
+ */
+public class WindowTinyLfuCache<K, V> implements Cache<K, V> {
+
+    private final int maximumSize;
+    private final int windowSize;
+    private final int mainSize;
+    private final int protectedSize;
+
+    // Segments in access order, least recently used first:
+    private final LinkedHashMap<K, V> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final FrequencySketch sketch;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public WindowTinyLfuCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size is not allowed to be zero or negative.");
+        }
+        this.maximumSize = maximumSize;
+        this.windowSize = Math.max(1, maximumSize / 100);
+        this.mainSize = maximumSize - windowSize;
+        this.protectedSize = mainSize * 4 / 5;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    @Override
+    public V get(K key) {
+        return get(key, value -> true);
+    }
+
+    @Override
+    public synchronized V get(K key, Predicate<? super V> check) {
+        sketch.increment(key);
+        V value = window.get(key);
+        if (value == null) {
+            value = protectedSegment.get(key);
+        }
+        if (value == null) {
+            value = probation.remove(key);
+            if (value != null) {
+                promote(key, value);
+            }
+        }
+        if (value != null && !check.test(value)) {
+            invalidate(key);
+            value = null;
+        }
+        if (value == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key and value cannot be null.");
+        }
+        sketch.increment(key);
+
+        // Replace the value of a cached key where it is:
+        if (window.containsKey(key)) {
+            window.put(key, value);
+            return;
+        }
+        if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, value);
+            return;
+        }
+        if (probation.remove(key) != null) {
+            promote(key, value);
+            return;
+        }
+
+        // Add a new key to the window, and offer the window's eldest entry to the main cache:
+        window.put(key, value);
+        if (window.size() > windowSize) {
+            Map.Entry<K, V> candidate = removeEldest(window);
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    @Override
+    public synchronized void invalidate(K key) {
+        if (window.remove(key) == null && protectedSegment.remove(key) == null) {
+            probation.remove(key);
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    @Override
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    @Override
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public synchronized CacheStats stats() {
+        return new CacheStats(hitCount, missCount, evictionCount);
+    }
+
+    // Moves an entry into the protected segment, dropping the segment's eldest back to probation if full:
+    private void promote(K key, V value) {
+        protectedSegment.put(key, value);
+        if (protectedSegment.size() > protectedSize) {
+            Map.Entry<K, V> demoted = removeEldest(protectedSegment);
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    // Keeps the candidate from the window if there is room, or if it is used more often than the victim:
+    private void admit(K key, V value) {
+        if (probation.size() + protectedSegment.size() < mainSize) {
+            probation.put(key, value);
+            return;
+        }
+        LinkedHashMap<K, V> victims = probation.isEmpty() ? protectedSegment : probation;
+        if (victims.isEmpty()) {
+            evictionCount++;
+            return;
+        }
+        K victim = victims.keySet().iterator().next();
+        if (sketch.frequency(key) > sketch.frequency(victim)) {
+            victims.remove(victim);
+            probation.put(key, value);
+        }
+        evictionCount++;
+    }
+
+    private static <K, V> Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> segment) {
+        Iterator<Map.Entry<K, V>> eldest = segment.entrySet().iterator();
+        Map.Entry<K, V> entry = eldest.next();
+        eldest.remove();
+        return entry;
+    }
+}
@@ -0,0 +1,50 @@
+package se.lexicon.bench;
+
+import se.lexicon.dao.impl.AsyncStudentDao;
+import se.lexicon.dao.impl.ConcurrentStudentDaoImpl;
+import se.lexicon.model.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures how long an {@link AsyncStudentDao} takes to fan out many lookups against a dao that blocks
+ * for a millisecond per lookup, as a remote database would, at several in-flight bounds. It prints whether
+ * the calls ran on virtual threads. Run the main method directly; it is not part of the test suite.
+ */
+public class AsyncFanOutBenchmark {
+
+    private static final int STUDENTS = 10_000;
+    private static final int LOOKUPS = 20_000;
+    private static final int[] MAX_IN_FLIGHT = {1, 16, 64, 256, 1024};
+
+    public static void main(String[] args) {
+        ConcurrentStudentDaoImpl remoteDao = new ConcurrentStudentDaoImpl() {
+            @Override
+            public Student findById(int id) {
+                LockSupport.parkNanos(1_000_000);
+                return super.findById(id);
+            }
+        };
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            ids.add(remoteDao.save(new Student("Student " + i, "student" + i + "@school.se", "Address")).getId());
+        }
+        List<Integer> lookups = new ArrayList<>(LOOKUPS);
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookups.add(ids.get(i % STUDENTS));
+        }
+
+        for (int maxInFlight : MAX_IN_FLIGHT) {
+            try (AsyncStudentDao dao = new AsyncStudentDao(remoteDao, maxInFlight)) {
+                int count = maxInFlight == 1 ? LOOKUPS / 20 : LOOKUPS;
+                long start = System.nanoTime();
+                int found = dao.findAllById(lookups.subList(0, count)).join().size();
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("max in flight %5d: %6d lookups in %6.2f s, %8.0f lookups/s, virtual=%b%n",
+                        maxInFlight, found, seconds, found / seconds, dao.isVirtual());
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package se.lexicon.bench;
+
+import se.lexicon.dao.StudentDao;
+import se.lexicon.dao.impl.CachingStudentDao;
+import se.lexicon.dao.impl.JdbcStudentDaoImpl;
+import se.lexicon.model.Student;
+import se.lexicon.util.EvictionPolicy;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures login lookups by email against a JDBC dao on an in-memory H2 database, without a cache and
+ * behind a cache with each eviction policy. Nine of ten logins come from a small set of regular users,
+ * picked with a skew towards the most active ones, and one in ten is a random student, as in a scan.
+ * Run the main method directly; it is not part of the test suite.
+ */
+public class CacheHitRateBenchmark {
+
+    private static final int STUDENTS = 50_000;
+    private static final int REGULARS = 2_000;
+    private static final int CACHE_SIZE = 1_000;
+    private static final int LOGINS = 200_000;
+
+    public static void main(String[] args) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:")) {
+            JdbcStudentDaoImpl jdbcDao = new JdbcStudentDaoImpl(connection);
+            List<Student> students = new ArrayList<>();
+            for (int i = 0; i < STUDENTS; i++) {
+                students.add(new Student("Student " + i, "student" + i + "@school.se", "Address " + i));
+            }
+            jdbcDao.saveAll(students);
+            String[] logins = logins();
+
+            for (int round = 0; round < 2; round++) {
+                report("none", jdbcDao, logins);
+                for (EvictionPolicy policy : EvictionPolicy.values()) {
+                    CachingStudentDao cached = new CachingStudentDao(jdbcDao, CACHE_SIZE, policy);
+                    report(policy.toString(), cached, logins);
+                    System.out.printf("%-16s %s%n", "", cached.byEmailStats());
+                }
+            }
+            jdbcDao.close();
+        }
+    }
+
+    // The squared random number favours the first regulars, the most active users:
+    private static String[] logins() {
+        Random random = new Random(42);
+        String[] logins = new String[LOGINS];
+        for (int i = 0; i < LOGINS; i++) {
+            int student;
+            if (random.nextInt(10) < 9) {
+                double skew = random.nextDouble();
+                student = (int) (skew * skew * REGULARS);
+            } else {
+                student = random.nextInt(STUDENTS);
+            }
+            logins[i] = "student" + student + "@school.se";
+        }
+        return logins;
+    }
+
+    private static void report(String name, StudentDao dao, String[] logins) {
+        long start = System.nanoTime();
+        for (String email : logins) {
+            if (dao.findByEmail(email) == null) {
+                throw new IllegalStateException("Missing " + email);
+            }
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / logins.length;
+        System.out.printf("%-16s %10.2f us/login%n", name, micros);
+    }
+}
@@ -0,0 +1,51 @@
+package se.lexicon.bench;
+
+import se.lexicon.model.Student;
+import se.lexicon.persistence.FsyncPolicy;
+import se.lexicon.persistence.PersistentStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Measures the average latency of one journaled change under each fsync policy.
+ * Run the main method directly; it is not part of the test suite.
+ */
+public class JournalLatencyBenchmark {
+
+    private static final int CHANGES = 20_000;
+    private static final int FORCED_CHANGES = 500;
+
+    public static void main(String[] args) throws IOException {
+        for (int round = 0; round < 2; round++) {
+            report(FsyncPolicy.NONE, measure(FsyncPolicy.NONE, CHANGES));
+            report(FsyncPolicy.INTERVAL, measure(FsyncPolicy.INTERVAL, CHANGES));
+            report(FsyncPolicy.ALWAYS, measure(FsyncPolicy.ALWAYS, FORCED_CHANGES));
+        }
+    }
+
+    // Renames a saved student repeatedly, which appends one journal record per change:
+    private static double measure(FsyncPolicy policy, int changes) throws IOException {
+        Path directory = Files.createTempDirectory("journal-bench");
+        try (PersistentStore store = new PersistentStore(directory, policy)) {
+            Student student = new Student("Student", "bench" + System.nanoTime() + "@school.se", "Address");
+            store.getStudentDao().save(student);
+            long start = System.nanoTime();
+            for (int i = 0; i < changes; i++) {
+                student.setName("Student " + i);
+            }
+            return (System.nanoTime() - start) / 1000.0 / changes;
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void report(FsyncPolicy policy, double microsPerChange) {
+        System.out.printf("%-10s %10.2f us/change%n", policy, microsPerChange);
+    }
+}
@@ -0,0 +1,55 @@
+package se.lexicon.bench;
+
+import se.lexicon.dao.StudentDao;
+import se.lexicon.dao.impl.MeteredStudentDao;
+import se.lexicon.dao.impl.StudentDaoImpl;
+import se.lexicon.model.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the cost a {@link MeteredStudentDao} adds to the cheapest lookup there is: findById on the
+ * in-memory dao. Run the main method directly; it is not part of the test suite.
+ */
+public class MetricsOverheadBenchmark {
+
+    private static final int STUDENTS = 10_000;
+    private static final int LOOKUPS = 20_000_000;
+
+    public static void main(String[] args) {
+        StudentDaoImpl plain = new StudentDaoImpl();
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(new Student("Student " + i, "student" + i + "@school.se", "Address " + i));
+        }
+        plain.saveAll(students);
+        int firstId = students.get(0).getId();
+        MeteredStudentDao metered = new MeteredStudentDao(plain);
+
+        for (int round = 0; round < 3; round++) {
+            report("plain", measure(plain, firstId));
+            report("metered", measure(metered, firstId));
+        }
+        System.out.println(metered.metrics().stats("findById"));
+    }
+
+    private static double measure(StudentDao dao, int firstId) {
+        long found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (dao.findById(firstId + i % STUDENTS) != null) {
+                found++;
+            }
+        }
+        double nanos = (double) (System.nanoTime() - start) / LOOKUPS;
+        if (found != LOOKUPS) {
+            throw new IllegalStateException("Found " + found);
+        }
+        return nanos;
+    }
+
+    private static void report(String name, double nanosPerLookup) {
+        System.out.printf("%-10s %8.1f ns/lookup%n", name, nanosPerLookup);
+    }
+}
@@ -0,0 +1,102 @@
+package se.lexicon.bench;
+
+import se.lexicon.dao.StudentDao;
+import se.lexicon.dao.impl.OffHeapStudentDaoImpl;
+import se.lexicon.dao.impl.StudentDaoImpl;
+import se.lexicon.model.Student;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Compares garbage collection between the object-based and the off-heap student DAO while they hold many
+ * students. Each DAO is filled, and then a churn of lookups and renames runs against it; the collections
+ * and collection time during the churn are read from the garbage collector beans, and a full collection
+ * is timed afterwards. The student count is the first argument, 2,000,000 by default, and the churn
+ * length the second, 2,000,000 operations by default.
+ * Run the main method directly, with a heap large enough for the object-based DAO; it is not part of the
+ * test suite.
+ */
+public class OffHeapGcBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        for (int round = 0; round < 2; round++) {
+            measure("objects", StudentDaoImpl::new, studentCount, operations);
+            measure("off-heap", OffHeapStudentDaoImpl::new, studentCount, operations);
+        }
+    }
+
+    private static void measure(String label, Supplier<StudentDao> factory, int studentCount, int operations)
+            throws IOException {
+        StudentDao dao = factory.get();
+        int[] ids = new int[studentCount];
+        List<Student> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < studentCount; i++) {
+            Student student = new Student("Student " + i, "student" + i + "@school.se", "Storgatan " + i);
+            ids[i] = student.getId();
+            batch.add(student);
+            if (batch.size() == 10_000) {
+                dao.saveAll(batch);
+                batch.clear();
+            }
+        }
+        dao.saveAll(batch);
+        batch.clear();
+        System.gc();
+
+        // Churn: look students up and rename some, which leaves short-lived garbage behind
+        Random random = new Random(42);
+        long collections = collections();
+        long collectionMillis = collectionMillis();
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < operations; i++) {
+            Student student = dao.findById(ids[random.nextInt(studentCount)]);
+            checksum += student.getName().length();
+            if (i % 4 == 0) {
+                student.setName("Renamed " + i);
+            }
+        }
+        long churn = System.nanoTime() - start;
+        collections = collections() - collections;
+        collectionMillis = collectionMillis() - collectionMillis;
+
+        // A full collection with the students still stored
+        start = System.nanoTime();
+        System.gc();
+        long fullCollection = System.nanoTime() - start;
+
+        System.out.printf("%-8s churn %6.0f ms, %4d collections taking %5d ms, full collection %6.1f ms (%d)%n",
+                label, churn / 1e6, collections, collectionMillis, fullCollection / 1e6, checksum % 10);
+        if (dao.findAll(0, 1).isEmpty()) {
+            throw new IllegalStateException("Lost students.");
+        }
+        if (dao instanceof Closeable) {
+            ((Closeable) dao).close();
+        }
+    }
+
+    private static long collections() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long collectionMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, bean.getCollectionTime());
+        }
+        return millis;
+    }
+}
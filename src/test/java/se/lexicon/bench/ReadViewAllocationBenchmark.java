@@ -0,0 +1,73 @@
+package se.lexicon.bench;
+
+import se.lexicon.dao.StudentDao;
+import se.lexicon.dao.impl.StudentDaoImpl;
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Measures the bytes allocated per call by the copying read methods and by the read-only views.
+ * Run the main method directly; it is not part of the test suite.
+ */
+public class ReadViewAllocationBenchmark {
+
+    private static final int STUDENTS = 10_000;
+    private static final int CALLS = 2_000;
+
+    public static void main(String[] args) {
+        StudentDao dao = new StudentDaoImpl();
+        Course course = new Course("Benchmark", LocalDate.now().plusDays(1), 10);
+        for (int i = 0; i < STUDENTS; i++) {
+            Student student = new Student("Student " + i, "student" + i + "@school.se", "Address " + i);
+            dao.save(student);
+            course.register(student);
+        }
+
+        // Warm up both paths before measuring:
+        for (int round = 0; round < 3; round++) {
+            measure(() -> touch(dao.findAll()));
+            measure(() -> touch(dao.viewAll()));
+            measure(() -> touch(course.getStudents()));
+            measure(() -> touch(course.viewStudents()));
+        }
+
+        report("StudentDao.findAll()", measure(() -> touch(dao.findAll())));
+        report("StudentDao.viewAll()", measure(() -> touch(dao.viewAll())));
+        report("Course.getStudents()", measure(() -> touch(course.getStudents())));
+        report("Course.viewStudents()", measure(() -> touch(course.viewStudents())));
+    }
+
+    private static long sink;
+
+    private static void touch(List<Student> students) {
+        sink += students.size();
+        for (int i = 0; i < students.size(); i++) {
+            sink += students.get(i).getId();
+        }
+    }
+
+    private static void touch(Collection<Student> students) {
+        for (Student student : students) {
+            sink += student.getId();
+        }
+    }
+
+    private static double measure(Runnable call) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < CALLS; i++) {
+            call.run();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / (double) CALLS;
+    }
+
+    private static void report(String name, double bytesPerCall) {
+        System.out.printf("%-24s %12.1f bytes/call (%d students)%n", name, bytesPerCall, STUDENTS);
+    }
+}
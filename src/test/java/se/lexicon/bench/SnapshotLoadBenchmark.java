@@ -0,0 +1,71 @@
+package se.lexicon.bench;
+
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+import se.lexicon.persistence.FsyncPolicy;
+import se.lexicon.persistence.PersistentStore;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Measures how long a store takes to open from a checkpoint of many students, and how long the caller is
+ * held up by a background checkpoint. The student count is the first argument, 1,000,000 by default.
+ * Run the main method directly; it is not part of the test suite.
+ */
+public class SnapshotLoadBenchmark {
+
+    private static final int STUDENTS_PER_COURSE = 50;
+
+    public static void main(String[] args) throws Exception {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path directory = Files.createTempDirectory("snapshot-bench");
+        try {
+            try (PersistentStore store = new PersistentStore(directory, FsyncPolicy.NONE)) {
+                populate(store, studentCount);
+                long start = System.nanoTime();
+                store.checkpointInBackground().get();
+                System.out.printf("checkpoint  %8d ms (%d MB)%n", (System.nanoTime() - start) / 1_000_000,
+                        Files.size(directory.resolve("snapshot.bin")) >> 20);
+            }
+            for (int round = 0; round < 3; round++) {
+                System.gc();
+                long start = System.nanoTime();
+                try (PersistentStore store = new PersistentStore(directory, FsyncPolicy.NONE)) {
+                    long open = System.nanoTime() - start;
+                    long checkpointStart = System.nanoTime();
+                    CompletableFuture<Void> checkpoint = store.checkpointInBackground();
+                    long pause = System.nanoTime() - checkpointStart;
+                    checkpoint.get();
+                    System.out.printf("open        %8d ms for %d students%n", open / 1_000_000,
+                            store.getStudentDao().viewAll().size());
+                    System.out.printf("checkpoint  %8d ms, of which the caller waited %d ms%n",
+                            (System.nanoTime() - checkpointStart) / 1_000_000, pause / 1_000_000);
+                }
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    // Saves the students in batches, and puts every run of students on a course together:
+    private static void populate(PersistentStore store, int studentCount) {
+        List<Student> batch = new ArrayList<>(STUDENTS_PER_COURSE);
+        for (int i = 0; i < studentCount; i++) {
+            batch.add(new Student("Student " + i, "student" + i + "@school.se", "Gatan " + i));
+            if (batch.size() == STUDENTS_PER_COURSE || i == studentCount - 1) {
+                store.getStudentDao().saveAll(batch);
+                store.getCourseDao().save(new Course("Course " + i, LocalDate.of(2030, 1, 7), 10, batch));
+                batch = new ArrayList<>(STUDENTS_PER_COURSE);
+            }
+        }
+    }
+}
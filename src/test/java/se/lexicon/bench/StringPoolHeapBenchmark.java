@@ -0,0 +1,66 @@
+package se.lexicon.bench;
+
+import se.lexicon.dao.StudentDao;
+import se.lexicon.dao.impl.ColumnarStudentDaoImpl;
+import se.lexicon.dao.impl.StudentDaoImpl;
+import se.lexicon.model.Student;
+import se.lexicon.util.StringPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Measures the heap held per stored student with and without a {@link StringPool}, on data where values
+ * repeat: names from 5,000, addresses from 2,000 dormitories, and email domains from 20. Every value is
+ * built afresh for each student, as when read from a file or a request. The columnar DAO, which splits
+ * emails at the domain, is measured alongside. The student count is the first argument, 1,000,000 by
+ * default. Run the main method directly, with a heap large enough for the object-based DAO; it is not part
+ * of the test suite.
+ */
+public class StringPoolHeapBenchmark {
+
+    public static void main(String[] args) {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        for (int round = 0; round < 2; round++) {
+            Student.setStringPool(null);
+            measure("objects", StudentDaoImpl::new, studentCount);
+            Student.setStringPool(new StringPool());
+            measure("pooled", StudentDaoImpl::new, studentCount);
+            Student.setStringPool(null);
+            measure("columnar", ColumnarStudentDaoImpl::new, studentCount);
+        }
+    }
+
+    private static void measure(String label, Supplier<StudentDao> factory, int studentCount) {
+        long before = usedHeap();
+        StudentDao dao = factory.get();
+        List<Student> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < studentCount; i++) {
+            batch.add(new Student("Student " + (i % 5_000), "student" + i + "@school" + (i % 20) + ".se",
+                    "Dormitory " + (i % 2_000) + ", Campusvägen"));
+            if (batch.size() == 10_000) {
+                dao.saveAll(batch);
+                batch.clear();
+            }
+        }
+        dao.saveAll(batch);
+        batch.clear();
+        long bytesPerStudent = (usedHeap() - before) / studentCount;
+        StringPool pool = Student.getStringPool();
+
+        System.out.printf("%-9s %5d bytes/student%s%n", label, bytesPerStudent,
+                pool == null ? "" : " (" + pool.size() + " pooled values)");
+        if (dao.findAll().size() != studentCount) {
+            throw new IllegalStateException("Lost students.");
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,65 @@
+package se.lexicon.bench;
+
+import se.lexicon.dao.StudentDao;
+import se.lexicon.dao.impl.ColumnarStudentDaoImpl;
+import se.lexicon.dao.impl.StudentDaoImpl;
+import se.lexicon.model.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Compares the heap held per stored student, and the time of a name search, between the object-based and the
+ * columnar student DAO. The name search is done both by {@code findByName} and by a full scan of
+ * {@code streamAll}. The student count is the first argument, 1,000,000 by default.
+ * Run the main method directly, with a heap large enough for both; it is not part of the test suite.
+ */
+public class StudentHeapBenchmark {
+
+    public static void main(String[] args) {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        for (int round = 0; round < 2; round++) {
+            measure("objects", StudentDaoImpl::new, studentCount);
+            measure("columnar", ColumnarStudentDaoImpl::new, studentCount);
+        }
+    }
+
+    private static void measure(String label, Supplier<StudentDao> factory, int studentCount) {
+        long before = usedHeap();
+        StudentDao dao = factory.get();
+        List<Student> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < studentCount; i++) {
+            batch.add(new Student("Student " + (i % 100_000), "student" + i + "@school.se", "Storgatan " + i));
+            if (batch.size() == 10_000) {
+                dao.saveAll(batch);
+                batch.clear();
+            }
+        }
+        dao.saveAll(batch);
+        batch.clear();
+        long bytesPerStudent = (usedHeap() - before) / studentCount;
+
+        long start = System.nanoTime();
+        int found = dao.findByName("student 4242").size();
+        long find = System.nanoTime() - start;
+        start = System.nanoTime();
+        long scanned = dao.streamAll().filter(s -> s.getName().toLowerCase(Locale.ROOT).equals("student 4242")).count();
+        long scan = System.nanoTime() - start;
+
+        System.out.printf("%-9s %5d bytes/student, findByName %7.2f ms (%d), full scan %7.2f ms (%d)%n",
+                label, bytesPerStudent, find / 1e6, found, scan / 1e6, scanned);
+        if (dao.findAll().size() != studentCount) {
+            throw new IllegalStateException("Lost students.");
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
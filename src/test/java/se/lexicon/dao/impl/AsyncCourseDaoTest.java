@@ -0,0 +1,57 @@
+package se.lexicon.dao.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncCourseDaoTest {
+
+    private AsyncCourseDao dao;
+
+    @BeforeEach
+    void setup() {
+        dao = new AsyncCourseDao(new ConcurrentCourseDaoImpl(), 8);
+    }
+
+    @AfterEach
+    void teardown() {
+        dao.close();
+    }
+
+    @Test
+    void calls_completeWithTheDaoResults() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Course java = new Course("Java", LocalDate.of(2029, 1, 7), 12, Arrays.asList(erik));
+        Course net = new Course(".NET", LocalDate.of(2029, 2, 4), 8, Arrays.asList(erik));
+        dao.saveAll(Arrays.asList(java, net)).join();
+
+        // Act & Assert
+        assertEquals(Arrays.asList(java, net),
+                dao.findAllById(Arrays.asList(java.getId(), 9999, net.getId())).join());
+        assertEquals(Arrays.asList(net), dao.findStartingAfter(LocalDate.of(2029, 1, 7)).join());
+        assertEquals(Arrays.asList(java), dao.findActiveOn(LocalDate.of(2029, 1, 10)).join());
+        assertEquals(2, dao.findByStudent(erik).join().size());
+        assertEquals(2, (int) dao.unregisterFromAll(erik).join());
+        assertTrue(dao.delete(java).join());
+        assertEquals(Arrays.asList(net), dao.findAll().join());
+        assertEquals(8, dao.maxInFlight());
+    }
+
+    @Test
+    void failures_completeTheFutureExceptionally() {
+        // Act & Assert
+        CompletionException thrown = assertThrows(CompletionException.class,
+                () -> dao.findByDateRange(LocalDate.of(2029, 3, 1), LocalDate.of(2029, 1, 1)).join());
+        assertTrue(thrown.getCause() instanceof IllegalArgumentException);
+        assertThrows(IllegalArgumentException.class, () -> new AsyncCourseDao(null));
+    }
+}
@@ -0,0 +1,139 @@
+package se.lexicon.dao.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.lexicon.model.Student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncStudentDaoTest {
+
+    private ConcurrentStudentDaoImpl studentDao;
+    private AsyncStudentDao dao;
+
+    @BeforeEach
+    void setup() {
+        studentDao = new ConcurrentStudentDaoImpl();
+        dao = new AsyncStudentDao(studentDao);
+    }
+
+    @AfterEach
+    void teardown() {
+        dao.close();
+    }
+
+    @Test
+    void calls_completeWithTheDaoResults() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+
+        // Act
+        List<Student> saved = dao.saveAll(Arrays.asList(erik, anna)).join();
+        Student byId = dao.findById(erik.getId()).join();
+        Student byEmail = dao.findByEmail("ANNA@test.com").join();
+        List<Student> byName = dao.findByName("erik").join();
+        boolean deleted = dao.delete(anna).join();
+
+        // Assert
+        assertEquals(Arrays.asList(erik, anna), saved);
+        assertEquals(erik, byId);
+        assertEquals(anna, byEmail);
+        assertEquals(Arrays.asList(erik), byName);
+        assertTrue(deleted);
+        assertEquals(Arrays.asList(erik), dao.findAll().join());
+        assertEquals(256, dao.maxInFlight());
+    }
+
+    @Test
+    void failures_completeTheFutureExceptionally() {
+        // Arrange
+        Student erik = dao.save(new Student("Erik", "erik@test.com", "Addr1")).join();
+
+        // Act
+        CompletableFuture<Student> duplicate = dao.save(erik);
+        CompletableFuture<Student> invalid = dao.findById(0);
+
+        // Assert
+        CompletionException thrown = assertThrows(CompletionException.class, duplicate::join);
+        assertTrue(thrown.getCause() instanceof IllegalArgumentException);
+        assertThrows(CompletionException.class, invalid::join);
+        assertThrows(IllegalArgumentException.class, () -> new AsyncStudentDao(null));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncStudentDao(studentDao, 0));
+    }
+
+    @Test
+    void findAllById_fansOutManyLookups_inIdOrder() {
+        // Arrange
+        List<Student> students = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            Student student = new Student("Student " + i, "student" + i + "@test.com", "Addr" + i);
+            students.add(student);
+            ids.add(student.getId());
+        }
+        studentDao.saveAll(students);
+        ids.add(Integer.MAX_VALUE);
+
+        // Act
+        List<Student> found = dao.findAllById(ids).join();
+        List<Student> byEmail = dao.findAllByEmail(Arrays.asList("student5@test.com", "nobody@test.com")).join();
+
+        // Assert
+        assertEquals(students, found);
+        assertEquals(Arrays.asList(students.get(5)), byEmail);
+    }
+
+    @Test
+    void maxInFlight_boundsConcurrentCallsToTheDao() {
+        // Arrange: a dao that holds each lookup long enough for calls to overlap
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        ConcurrentStudentDaoImpl slowDao = new ConcurrentStudentDaoImpl() {
+            @Override
+            public Student findById(int id) {
+                mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return super.findById(id);
+            }
+        };
+        Student erik = slowDao.save(new Student("Erik", "erik@test.com", "Addr1"));
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ids.add(erik.getId());
+        }
+
+        // Act
+        List<Student> found;
+        try (AsyncStudentDao bounded = new AsyncStudentDao(slowDao, 4)) {
+            found = bounded.findAllById(ids).join();
+        }
+
+        // Assert
+        assertEquals(200, found.size());
+        assertTrue(mostRunning.get() <= 4, "Most running: " + mostRunning.get());
+        assertTrue(mostRunning.get() > 1, "Most running: " + mostRunning.get());
+    }
+
+    @Test
+    void close_rejectsNewCalls() {
+        // Act
+        dao.close();
+
+        // Assert
+        assertThrows(IllegalStateException.class, () -> dao.findById(1));
+    }
+}
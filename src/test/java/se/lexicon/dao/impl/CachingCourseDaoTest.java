@@ -0,0 +1,81 @@
+package se.lexicon.dao.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+import se.lexicon.util.EvictionPolicy;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingCourseDaoTest {
+
+    private Connection connection;
+    private JdbcCourseDaoImpl jdbcDao;
+    private CachingCourseDao dao;
+    private Student erik;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:");
+        JdbcStudentDaoImpl studentDao = new JdbcStudentDaoImpl(connection);
+        jdbcDao = new JdbcCourseDaoImpl(studentDao);
+        dao = new CachingCourseDao(jdbcDao, 100, EvictionPolicy.LRU);
+        erik = studentDao.save(new Student("Erik", "erik@test.com", "Addr1"));
+    }
+
+    @AfterEach
+    void teardown() throws SQLException {
+        jdbcDao.close();
+        connection.close();
+    }
+
+    @Test
+    void findById_repeated_isServedFromCache() {
+        // Arrange
+        Course java = dao.save(new Course("Java", LocalDate.of(2029, 1, 7), 12, Arrays.asList(erik)));
+
+        // Act
+        Course first = dao.findById(java.getId());
+        Course second = dao.findById(java.getId());
+
+        // Assert
+        assertEquals(java, first);
+        assertSame(first, second);
+        assertEquals(Arrays.asList(erik), second.getStudents());
+        assertEquals(1, dao.stats().hitCount());
+        assertEquals(1, dao.stats().missCount());
+        assertThrows(IllegalArgumentException.class, () -> dao.findById(-1));
+    }
+
+    @Test
+    void deleteAndUnregister_invalidateCachedEntries() {
+        // Arrange
+        Course java = new Course("Java", LocalDate.of(2029, 1, 7), 12, Arrays.asList(erik));
+        Course net = new Course(".NET", LocalDate.of(2029, 2, 4), 8, Arrays.asList(erik));
+        dao.saveAll(Arrays.asList(java, net));
+        Course cachedNet = dao.findById(net.getId());
+        dao.findById(java.getId());
+
+        // Act
+        int changed = dao.unregisterFromAll(erik);
+        boolean deleted = dao.delete(java);
+
+        // Assert
+        assertEquals(2, changed);
+        assertTrue(deleted);
+        assertNull(dao.findById(java.getId()));
+        Course found = dao.findById(net.getId());
+        assertNotSame(cachedNet, found);
+        assertTrue(found.getStudents().isEmpty());
+        assertEquals(Arrays.asList(net), dao.findStartingAfter(LocalDate.of(2029, 1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> new CachingCourseDao(null, 10, EvictionPolicy.LRU));
+    }
+}
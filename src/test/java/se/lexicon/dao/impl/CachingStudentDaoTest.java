@@ -0,0 +1,159 @@
+package se.lexicon.dao.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.lexicon.model.Student;
+import se.lexicon.util.EvictionPolicy;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingStudentDaoTest {
+
+    private Connection connection;
+    private JdbcStudentDaoImpl jdbcDao;
+    private CachingStudentDao dao;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        // The JDBC dao returns a new view per lookup, so a repeated object shows a cache hit
+        connection = DriverManager.getConnection("jdbc:h2:mem:");
+        jdbcDao = new JdbcStudentDaoImpl(connection);
+        dao = new CachingStudentDao(jdbcDao, 100, EvictionPolicy.WINDOW_TINY_LFU);
+    }
+
+    @AfterEach
+    void teardown() throws SQLException {
+        jdbcDao.close();
+        connection.close();
+    }
+
+    @Test
+    void findById_repeated_isServedFromCache() {
+        // Arrange
+        Student erik = dao.save(new Student("Erik", "erik@test.com", "Addr1"));
+
+        // Act
+        Student first = dao.findById(erik.getId());
+        Student second = dao.findById(erik.getId());
+
+        // Assert
+        assertEquals(erik, first);
+        assertSame(first, second);
+        assertEquals(1, dao.byIdStats().hitCount());
+        assertEquals(1, dao.byIdStats().missCount());
+        assertNull(dao.findById(9999));
+        assertThrows(IllegalArgumentException.class, () -> dao.findById(0));
+    }
+
+    @Test
+    void findByEmail_repeated_isServedFromCacheCaseInsensitively() {
+        // Arrange
+        Student erik = dao.save(new Student("Erik", "erik@test.com", "Addr1"));
+
+        // Act
+        Student first = dao.findByEmail("erik@test.com");
+        Student second = dao.findByEmail("  ERIK@test.com ");
+
+        // Assert
+        assertEquals(erik, first);
+        assertSame(first, second);
+        assertEquals(1, dao.byEmailStats().hitCount());
+        assertNull(dao.findByEmail("nobody@test.com"));
+        assertThrows(IllegalArgumentException.class, () -> dao.findByEmail(" "));
+        assertThrows(IllegalArgumentException.class, () -> dao.findByEmail(null));
+    }
+
+    @Test
+    void findByEmail_afterEmailChange_doesNotServeOldKey() {
+        // Arrange
+        dao.save(new Student("Erik", "erik@test.com", "Addr1"));
+        Student cached = dao.findByEmail("erik@test.com");
+
+        // Act
+        cached.setEmail("erik.s@test.com");
+
+        // Assert: the stale entry is dropped and counted as a miss
+        assertNull(dao.findByEmail("erik@test.com"));
+        assertEquals(0, dao.byEmailStats().hitCount());
+        assertEquals(2, dao.byEmailStats().missCount());
+        assertEquals(cached, dao.findByEmail("erik.s@test.com"));
+    }
+
+    @Test
+    void findById_racingDelete_doesNotCacheDeletedStudent() {
+        // Arrange: a delegate that lets a delete through the decorator land between its read and the cache put
+        CachingStudentDao[] caching = new CachingStudentDao[1];
+        Student[] toDelete = new Student[1];
+        StudentDaoImpl racing = new StudentDaoImpl() {
+            @Override
+            public Student findById(int id) {
+                Student found = super.findById(id);
+                if (toDelete[0] != null) {
+                    caching[0].delete(toDelete[0]);
+                    toDelete[0] = null;
+                }
+                return found;
+            }
+        };
+        caching[0] = new CachingStudentDao(racing, 100, EvictionPolicy.LRU);
+        Student erik = caching[0].save(new Student("Erik", "erik@test.com", "Addr1"));
+        toDelete[0] = erik;
+
+        // Act
+        Student stale = caching[0].findById(erik.getId());
+
+        // Assert: the read that raced the delete is returned once, but not cached
+        assertEquals(erik, stale);
+        assertNull(caching[0].findById(erik.getId()));
+    }
+
+    @Test
+    void saveAndDelete_invalidateCachedEntries() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        dao.saveAll(Arrays.asList(erik, anna));
+        Student cached = dao.findById(erik.getId());
+        dao.findByEmail("anna@test.com");
+
+        // Act
+        boolean deleted = dao.delete(erik);
+        int deletedAll = dao.deleteAll(Arrays.asList(anna));
+
+        // Assert
+        assertTrue(deleted);
+        assertEquals(1, deletedAll);
+        assertEquals(erik, cached);
+        assertNull(dao.findById(erik.getId()));
+        assertNull(dao.findByEmail("anna@test.com"));
+        assertTrue(dao.findAll().isEmpty());
+    }
+
+    @Test
+    void maximumSize_boundsEachCache() {
+        // Arrange
+        CachingStudentDao small = new CachingStudentDao(jdbcDao, 2, EvictionPolicy.LRU);
+        Student erik = small.save(new Student("Erik", "erik@test.com", "Addr1"));
+        Student anna = small.save(new Student("Anna", "anna@test.com", "Addr2"));
+        Student bob = small.save(new Student("Bob", "bob@test.com", "Addr3"));
+
+        // Act
+        small.findById(erik.getId());
+        small.findById(anna.getId());
+        small.findById(bob.getId());
+        small.findById(erik.getId());
+
+        // Assert
+        assertEquals(0, small.byIdStats().hitCount());
+        assertEquals(2, small.byIdStats().evictionCount());
+        assertThrows(IllegalArgumentException.class, () -> new CachingStudentDao(null, 2, EvictionPolicy.LRU));
+        assertThrows(IllegalArgumentException.class, () -> new CachingStudentDao(jdbcDao, 2, null));
+        assertThrows(IllegalArgumentException.class, () -> new CachingStudentDao(jdbcDao, 0, EvictionPolicy.LRU));
+    }
+}
@@ -0,0 +1,243 @@
+package se.lexicon.dao.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentCourseDaoImplTest {
+
+    private ConcurrentCourseDaoImpl dao;
+
+    @BeforeEach
+    void setup() {
+        dao = new ConcurrentCourseDaoImpl();
+    }
+
+    @Test
+    void save_and_find() {
+        // Arrange
+        Course python = new Course("Python for snakes!", LocalDate.of(2029, 1, 1), 2);
+
+        // Act
+        dao.save(python);
+
+        // Assert
+        assertEquals(python, dao.findById(python.getId()));
+        assertTrue(dao.findByName("SNAKES").contains(python));
+        assertTrue(dao.findByName("py").contains(python));
+        assertTrue(dao.findByDate(LocalDate.of(2029, 1, 1)).contains(python));
+        assertThrows(IllegalArgumentException.class, () -> dao.save(python));
+    }
+
+    @Test
+    void dateQueries() {
+        // Arrange
+        Course january = new Course("January", LocalDate.of(2029, 1, 1), 10);
+        Course march = new Course("March", LocalDate.of(2029, 3, 1), 1);
+        dao.save(march);
+        dao.save(january);
+
+        // Act & Assert
+        assertEquals(Arrays.asList(january, march),
+                dao.findByDateRange(LocalDate.of(2029, 1, 1), LocalDate.of(2029, 3, 1)));
+        assertEquals(Arrays.asList(march), dao.findStartingAfter(LocalDate.of(2029, 1, 1)));
+        assertEquals(Arrays.asList(january), dao.findNextStarting(LocalDate.of(2028, 1, 1), 1));
+        assertEquals(Arrays.asList(january), dao.findActiveOn(LocalDate.of(2029, 2, 15)));
+        assertEquals(Arrays.asList(january, march),
+                dao.findOverlapping(LocalDate.of(2029, 3, 7), LocalDate.of(2029, 3, 7)));
+        assertTrue(dao.findActiveOn(LocalDate.of(2029, 3, 12)).isEmpty());
+    }
+
+    @Test
+    void setters_updateIndexes() {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Course course = new Course("Math", LocalDate.of(2029, 1, 1), 1);
+        dao.save(course);
+
+        // Act
+        course.setCourseName("Algebra");
+        course.setStartDate(LocalDate.of(2029, 5, 1));
+        course.setWeekDuration(8);
+        course.register(anna);
+
+        // Assert
+        assertTrue(dao.findByName("Math").isEmpty());
+        assertTrue(dao.findByName("algebra").contains(course));
+        assertTrue(dao.findByDate(LocalDate.of(2029, 1, 1)).isEmpty());
+        assertTrue(dao.findActiveOn(LocalDate.of(2029, 6, 20)).contains(course));
+        assertEquals(Arrays.asList(course), dao.findByStudent(anna));
+    }
+
+    @Test
+    void delete_removesFromIndexes() {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Course course = new Course("Math", LocalDate.of(2029, 1, 1), 1, Arrays.asList(anna));
+        dao.save(course);
+
+        // Act
+        boolean removed = dao.delete(course);
+
+        // Assert
+        assertTrue(removed);
+        assertFalse(dao.delete(course));
+        assertTrue(dao.findByName("Math").isEmpty());
+        assertTrue(dao.findByStudent(anna).isEmpty());
+        assertTrue(dao.findActiveOn(LocalDate.of(2029, 1, 2)).isEmpty());
+    }
+
+    @Test
+    void saveAll_conflictWithStored_rollsBack() {
+        // Arrange
+        Course stored = new Course("Stored", LocalDate.of(2029, 1, 1), 1);
+        Course fresh = new Course("Fresh", LocalDate.of(2029, 1, 1), 1);
+        dao.save(stored);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> dao.saveAll(Arrays.asList(fresh, stored)));
+        assertNull(dao.findById(fresh.getId()));
+        assertTrue(dao.findByName("Fresh").isEmpty());
+
+        // Act & Assert: deleteAll
+        assertEquals(1, dao.deleteAll(Arrays.asList(stored, fresh)));
+    }
+
+    @Test
+    void findAll_keysetPagesAndStreams() {
+        // Arrange
+        Course c1 = new Course("Python", LocalDate.of(2029, 1, 1), 1);
+        Course c2 = new Course("Advanced Python", LocalDate.of(2029, 1, 1), 1);
+        Course c3 = new Course("Economics", LocalDate.of(2029, 3, 1), 1);
+        dao.saveAll(Arrays.asList(c3, c2, c1));
+
+        // Act & Assert
+        assertEquals(Arrays.asList(c1, c2), dao.findAll(0, 2));
+        assertEquals(Arrays.asList(c3), dao.findAll(c2.getId(), 2));
+        assertEquals(3, dao.streamAll().count());
+        assertEquals(2, dao.streamByName("python").count());
+        assertEquals(2, dao.streamByDate(LocalDate.of(2029, 1, 1)).count());
+    }
+
+    @Test
+    void deleteAndShorten_shrinkOverlapWindow() {
+        // Arrange
+        Course longCourse = new Course("Long", LocalDate.of(2029, 1, 1), 52);
+        Course shortCourse = new Course("Short", LocalDate.of(2029, 1, 1), 1);
+        Course other = new Course("Other", LocalDate.of(2029, 1, 1), 20);
+        dao.saveAll(Arrays.asList(longCourse, shortCourse, other));
+
+        // Act
+        dao.delete(longCourse);
+        other.setWeekDuration(2);
+
+        // Assert: only courses still stored, with their current durations, are found
+        assertEquals(Arrays.asList(shortCourse, other), dao.findActiveOn(LocalDate.of(2029, 1, 3)));
+        assertTrue(dao.findActiveOn(LocalDate.of(2029, 3, 1)).isEmpty());
+        longCourse.setWeekDuration(100);
+        assertTrue(dao.findActiveOn(LocalDate.of(2029, 6, 1)).isEmpty());
+    }
+
+    @Test
+    void unregisterFromAll_countsOnlyCoursesChanged() {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Student bob = new Student("Bob", "bob@test.com", "Addr2");
+        Course math = new Course("Math", LocalDate.of(2029, 1, 1), 1, Arrays.asList(anna, bob));
+        Course art = new Course("Art", LocalDate.of(2029, 1, 1), 1, Arrays.asList(anna));
+        dao.saveAll(Arrays.asList(math, art));
+
+        // Act & Assert
+        assertEquals(2, dao.unregisterFromAll(anna));
+        assertEquals(0, dao.unregisterFromAll(anna));
+        assertEquals(1, dao.unregisterFromAll(Arrays.asList(anna, bob)));
+        assertEquals(0, dao.unregisterFromAll(Arrays.asList(anna, bob)));
+        assertEquals(0, math.getStudentCount());
+    }
+
+    @Test
+    void concurrentRegisterAndUnregisterFromAll_keepsRosterAndIndexInSync() throws Exception {
+        // Arrange: one course, many students registered while others are unregistered from all courses
+        Course course = new Course("Busy", LocalDate.of(2029, 1, 1), 1);
+        dao.save(course);
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            students.add(new Student("S" + i, "s" + i + "@test.com", "Addr"));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+
+        // Act
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            futures.add(pool.submit(() -> {
+                for (int i = offset; i < students.size(); i += 4) {
+                    course.register(students.get(i));
+                    if (i % 2 == 0) {
+                        dao.unregisterFromAll(students.get(i));
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // Assert
+        assertEquals(1000, course.getStudentCount());
+        assertEquals(1000, course.getStudents().size());
+        for (int i = 0; i < students.size(); i++) {
+            assertEquals(i % 2 == 0 ? 0 : 1, dao.findByStudent(students.get(i)).size());
+        }
+    }
+
+    @Test
+    void concurrentSavesAndReads() throws Exception {
+        // Arrange
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act: half the threads save courses, the other half search
+        for (int t = 0; t < threads; t++) {
+            boolean writer = t % 2 == 0;
+            List<Course> batch = new ArrayList<>();
+            for (int i = 0; writer && i < 1_000; i++) {
+                batch.add(new Course("Course " + i, LocalDate.of(2029, 1, 1).plusDays(i % 30), 2));
+            }
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    if (writer) {
+                        dao.save(batch.get(i));
+                    } else {
+                        dao.findByName("course 1");
+                        dao.findActiveOn(LocalDate.of(2029, 1, 15));
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(4_000, dao.findAll().size());
+        assertEquals(4 * 111, dao.findByName("course 1").size());
+    }
+}
@@ -0,0 +1,255 @@
+package se.lexicon.dao.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentStudentDaoImplTest {
+
+    private ConcurrentStudentDaoImpl dao;
+
+    @BeforeEach
+    void setup() {
+        dao = new ConcurrentStudentDaoImpl();
+    }
+
+    @Test
+    void save_and_find() {
+        // Arrange
+        Student erik = new Student("Erik", "Erik@test.com", "Addr1");
+
+        // Act
+        dao.save(erik);
+
+        // Assert
+        assertEquals(erik, dao.findById(erik.getId()));
+        assertEquals(erik, dao.findByEmail("erik@TEST.com"));
+        assertTrue(dao.findByName(" erik ").contains(erik));
+        assertTrue(dao.viewAll().contains(erik));
+    }
+
+    @Test
+    void save_duplicates_throw() {
+        // Arrange
+        Student bob = new Student("Bob", "bob@test.com", "Addr1");
+        dao.save(bob);
+
+        // Act & Assert
+        Exception ex1 = assertThrows(IllegalArgumentException.class, () -> dao.save(bob));
+        assertTrue(ex1.getMessage().contains("Student already exists"));
+        Student bobby = new Student("Bobby", "BOB@test.com", "Addr2");
+        Exception ex2 = assertThrows(IllegalArgumentException.class, () -> dao.save(bobby));
+        assertTrue(ex2.getMessage().contains("already exists"));
+        assertNull(dao.findById(bobby.getId()));
+    }
+
+    @Test
+    void setters_updateIndexes() {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Student bob = new Student("Bob", "bob@test.com", "Addr2");
+        dao.save(anna);
+        dao.save(bob);
+
+        // Act
+        anna.setEmail("annie@test.com");
+        anna.setName("Annie");
+
+        // Assert
+        assertEquals(anna, dao.findByEmail("annie@test.com"));
+        assertNull(dao.findByEmail("anna@test.com"));
+        assertTrue(dao.findByName("Annie").contains(anna));
+        assertThrows(IllegalArgumentException.class, () -> bob.setEmail("annie@test.com"));
+    }
+
+    @Test
+    void delete_removesFromIndexes() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        dao.save(erik);
+
+        // Act
+        boolean removed = dao.delete(erik);
+
+        // Assert
+        assertTrue(removed);
+        assertFalse(dao.delete(erik));
+        assertNull(dao.findByEmail("erik@test.com"));
+        assertTrue(dao.findByName("Erik").isEmpty());
+    }
+
+    @Test
+    void saveAll_conflictWithStored_rollsBack() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        Student clash = new Student("Clash", "erik@test.com", "Addr3");
+        dao.save(erik);
+
+        // Act & Assert: anna is saved first, then rolled back when clash fails
+        assertThrows(IllegalArgumentException.class, () -> dao.saveAll(Arrays.asList(anna, clash)));
+        assertNull(dao.findById(anna.getId()));
+        assertNull(dao.findByEmail("anna@test.com"));
+        assertEquals(1, dao.findAll().size());
+
+        // Act & Assert: deleteAll
+        assertEquals(1, dao.deleteAll(Arrays.asList(erik, anna)));
+        assertTrue(dao.findAll().isEmpty());
+    }
+
+    @Test
+    void deleteAll_withCourseDao_unregistersFromCourses() {
+        // Arrange
+        ConcurrentCourseDaoImpl courseDao = new ConcurrentCourseDaoImpl();
+        ConcurrentStudentDaoImpl cascading = new ConcurrentStudentDaoImpl(courseDao);
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        Student bob = new Student("Bob", "bob@test.com", "Addr3");
+        cascading.saveAll(Arrays.asList(erik, anna, bob));
+        Course java = new Course("Java", LocalDate.of(2029, 1, 1), 5, Arrays.asList(erik, anna, bob));
+        Course sql = new Course("SQL", LocalDate.of(2029, 2, 1), 5, Arrays.asList(erik));
+        courseDao.saveAll(Arrays.asList(java, sql));
+
+        // Act
+        boolean deleted = cascading.delete(bob);
+        int batchDeleted = cascading.deleteAll(Arrays.asList(erik, anna));
+
+        // Assert
+        assertTrue(deleted);
+        assertEquals(2, batchDeleted);
+        assertTrue(java.getStudents().isEmpty());
+        assertTrue(sql.getStudents().isEmpty());
+        assertTrue(courseDao.findByStudent(erik).isEmpty());
+    }
+
+    @Test
+    void findAll_keysetPages_walkAllInIdOrder() {
+        // Arrange
+        List<Student> created = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            created.add(new Student("Student" + i, "student" + i + "@test.com", "Addr"));
+        }
+        for (int i = created.size() - 1; i >= 0; i--) {
+            dao.save(created.get(i));
+        }
+        dao.delete(created.remove(0));
+
+        // Act
+        List<Student> walked = new ArrayList<>();
+        int cursor = 0;
+        List<Student> page;
+        while (!(page = dao.findAll(cursor, 4)).isEmpty()) {
+            walked.addAll(page);
+            cursor = page.get(page.size() - 1).getId();
+        }
+
+        // Assert
+        assertEquals(created, walked);
+        assertEquals(9, dao.streamAll().count());
+        assertEquals(1, dao.streamByName("student3").count());
+    }
+
+    @Test
+    void delete_afterEmailAndNameChange_leavesNoStaleKeys() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        dao.save(erik);
+        erik.setEmail("erik.new@test.com");
+        erik.setName("Eric");
+
+        // Act
+        dao.delete(erik);
+
+        // Assert: both the old and the new keys are free again
+        assertNull(dao.findByEmail("erik@test.com"));
+        assertNull(dao.findByEmail("erik.new@test.com"));
+        assertTrue(dao.findByName("Eric").isEmpty());
+        dao.save(new Student("Other", "erik.new@test.com", "Addr2"));
+    }
+
+    @Test
+    void concurrentSetEmail_sameStudent_leavesOneKey() throws Exception {
+        // Arrange: 4 threads keep changing the email of one stored student
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        dao.save(erik);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+
+        // Act
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    erik.setEmail("erik" + thread + "." + i + "@test.com");
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        dao.delete(erik);
+
+        // Assert: deleting released every email the student ever had
+        for (int t = 0; t < 4; t++) {
+            for (int i = 0; i < 500; i++) {
+                assertNull(dao.findByEmail("erik" + t + "." + i + "@test.com"));
+            }
+        }
+    }
+
+    @Test
+    void concurrentSaves_sameEmail_onlyOneWins() throws Exception {
+        // Arrange: 8 threads each try to save 500 students over 100 shared emails
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger saved = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < threads; t++) {
+            List<Student> batch = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                batch.add(new Student("Student", "shared" + (i % 100) + "@test.com", "Addr"));
+            }
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (Student student : batch) {
+                    try {
+                        dao.save(student);
+                        saved.incrementAndGet();
+                    } catch (IllegalArgumentException ignored) {
+                        // Email already taken by another thread
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert: exactly one student per email
+        assertEquals(100, saved.get());
+        assertEquals(100, dao.findAll().size());
+        assertEquals(100, dao.findByName("Student").size());
+    }
+}
@@ -3,9 +3,16 @@ package se.lexicon.dao.impl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import se.lexicon.model.Course;
+import se.lexicon.model.Student;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -105,6 +112,57 @@ public class CourseDaoImplTest {
         assertTrue(found.contains(math2));
     }
 
+    @Test
+    void findByName_substringCaseInsensitive() {
+        // Arrange
+        Course python = new Course("Python for snakes!", LocalDate.of(2029, 1, 1), 10);
+        Course economics = new Course("Economics", LocalDate.of(2029, 1, 1), 10);
+        dao.save(python);
+        dao.save(economics);
+
+        // Act
+        List<Course> found = dao.findByName("FOR SNAKE");
+
+        // Assert
+        assertEquals(1, found.size());
+        assertTrue(found.contains(python));
+    }
+
+    @Test
+    void findByName_afterSetCourseNameAndDelete() {
+        // Arrange
+        Course math = new Course("Math", LocalDate.of(2029, 1, 1), 10);
+        Course physics = new Course("Physics", LocalDate.of(2029, 1, 1), 6);
+        dao.save(math);
+        dao.save(physics);
+
+        // Act: rename one course and delete the other
+        math.setCourseName("Algebra");
+        dao.delete(physics);
+
+        // Assert
+        assertTrue(dao.findByName("Math").isEmpty());
+        assertTrue(dao.findByName("algeb").contains(math));
+        assertTrue(dao.findByName("Physics").isEmpty());
+    }
+
+    @Test
+    void findByName_returnsInsertionOrder() {
+        // Arrange: courses saved out of id order, one renamed after saving
+        List<Course> created = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            created.add(new Course("Math " + i, LocalDate.of(2029, 1, 1), 1));
+        }
+        List<Course> saved = new ArrayList<>(created);
+        Collections.reverse(saved);
+        saved.forEach(dao::save);
+        saved.get(0).setCourseName("Mathematics");
+
+        // Act & Assert: long and short queries alike
+        assertEquals(saved, dao.findByName("math"));
+        assertEquals(saved, dao.findByName("ma"));
+    }
+
     @Test
     void findByName_nullOrEmpty_throws() {
         // Act & Assert: null name throws
@@ -171,6 +229,253 @@ public class CourseDaoImplTest {
         assertTrue(found.isEmpty());
     }
 
+    @Test
+    void findByDate_afterSetStartDate() {
+        // Arrange
+        LocalDate date1 = LocalDate.of(2029, 1, 1);
+        LocalDate date2 = LocalDate.of(2029, 2, 1);
+        Course course = new Course("Course1", date1, 5);
+        dao.save(course);
+
+        // Act
+        course.setStartDate(date2);
+
+        // Assert
+        assertTrue(dao.findByDate(date1).isEmpty());
+        assertTrue(dao.findByDate(date2).contains(course));
+    }
+
+    // Group: findByDateRange(), findStartingAfter(), findNextStarting()
+
+    @Test
+    void findByDateRange_inclusiveAndOrdered() {
+        // Arrange: saved out of date order
+        Course march = new Course("March", LocalDate.of(2029, 3, 1), 4);
+        Course january = new Course("January", LocalDate.of(2029, 1, 1), 4);
+        Course february = new Course("February", LocalDate.of(2029, 2, 1), 4);
+        Course april = new Course("April", LocalDate.of(2029, 4, 1), 4);
+        dao.save(march);
+        dao.save(january);
+        dao.save(february);
+        dao.save(april);
+
+        // Act
+        List<Course> found = dao.findByDateRange(LocalDate.of(2029, 1, 1), LocalDate.of(2029, 3, 1));
+
+        // Assert
+        assertEquals(Arrays.asList(january, february, march), found);
+    }
+
+    @Test
+    void findByDateRange_invalid_throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> dao.findByDateRange(null, LocalDate.of(2029, 1, 1)));
+        Exception ex = assertThrows(IllegalArgumentException.class,
+                () -> dao.findByDateRange(LocalDate.of(2029, 2, 1), LocalDate.of(2029, 1, 1)));
+        assertEquals("From date cannot be after to date.", ex.getMessage());
+    }
+
+    @Test
+    void findStartingAfter_excludesDate() {
+        // Arrange
+        Course january = new Course("January", LocalDate.of(2029, 1, 1), 4);
+        Course february = new Course("February", LocalDate.of(2029, 2, 1), 4);
+        dao.save(january);
+        dao.save(february);
+
+        // Act
+        List<Course> found = dao.findStartingAfter(LocalDate.of(2029, 1, 1));
+
+        // Assert
+        assertEquals(1, found.size());
+        assertTrue(found.contains(february));
+    }
+
+    @Test
+    void findNextStarting_limitsResult() {
+        // Arrange
+        Course january = new Course("January", LocalDate.of(2029, 1, 1), 4);
+        Course february = new Course("February", LocalDate.of(2029, 2, 1), 4);
+        Course march = new Course("March", LocalDate.of(2029, 3, 1), 4);
+        dao.save(march);
+        dao.save(february);
+        dao.save(january);
+
+        // Act
+        List<Course> found = dao.findNextStarting(LocalDate.of(2029, 1, 15), 1);
+
+        // Assert
+        assertEquals(1, found.size());
+        assertEquals(february, found.get(0));
+    }
+
+    @Test
+    void findNextStarting_invalidLimit_throws() {
+        // Act & Assert
+        Exception ex = assertThrows(IllegalArgumentException.class, () -> dao.findNextStarting(LocalDate.now(), 0));
+        assertTrue(ex.getMessage().contains("not allowed"));
+    }
+
+    // Group: findActiveOn(), findOverlapping()
+
+    @Test
+    void findActiveOn_coversWholeDuration() {
+        // Arrange: one week from Jan 1 runs through Jan 7
+        Course course = new Course("Week", LocalDate.of(2029, 1, 1), 1);
+        dao.save(course);
+
+        // Act & Assert
+        assertTrue(dao.findActiveOn(LocalDate.of(2029, 1, 1)).contains(course));
+        assertTrue(dao.findActiveOn(LocalDate.of(2029, 1, 7)).contains(course));
+        assertTrue(dao.findActiveOn(LocalDate.of(2029, 1, 8)).isEmpty());
+        assertTrue(dao.findActiveOn(LocalDate.of(2028, 12, 31)).isEmpty());
+    }
+
+    @Test
+    void findActiveOn_afterScheduleChanges() {
+        // Arrange
+        Course course = new Course("Moving", LocalDate.of(2029, 1, 1), 1);
+        dao.save(course);
+
+        // Act: extend and then move the course
+        course.setWeekDuration(4);
+        assertTrue(dao.findActiveOn(LocalDate.of(2029, 1, 20)).contains(course));
+        course.setStartDate(LocalDate.of(2029, 6, 1));
+
+        // Assert
+        assertTrue(dao.findActiveOn(LocalDate.of(2029, 1, 20)).isEmpty());
+        assertTrue(dao.findActiveOn(LocalDate.of(2029, 6, 28)).contains(course));
+    }
+
+    @Test
+    void findOverlapping_found() {
+        // Arrange
+        Course spring = new Course("Spring", LocalDate.of(2029, 3, 1), 8);
+        Course summer = new Course("Summer", LocalDate.of(2029, 6, 1), 8);
+        Course autumn = new Course("Autumn", LocalDate.of(2029, 9, 1), 8);
+        dao.save(spring);
+        dao.save(summer);
+        dao.save(autumn);
+
+        // Act
+        List<Course> found = dao.findOverlapping(LocalDate.of(2029, 4, 15), LocalDate.of(2029, 6, 1));
+
+        // Assert
+        assertEquals(Arrays.asList(spring, summer), found);
+    }
+
+    @Test
+    void findOverlapping_afterDelete() {
+        // Arrange
+        Course course = new Course("Gone", LocalDate.of(2029, 3, 1), 8);
+        dao.save(course);
+
+        // Act
+        dao.delete(course);
+
+        // Assert
+        assertTrue(dao.findOverlapping(LocalDate.of(2029, 1, 1), LocalDate.of(2029, 12, 31)).isEmpty());
+    }
+
+    // Group: findByStudent()
+
+    @Test
+    void findByStudent_followsRegistration() {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Course python = new Course("Python", LocalDate.of(2029, 1, 1), 5, Arrays.asList(anna));
+        Course economics = new Course("Economics", LocalDate.of(2029, 1, 1), 5);
+        Course history = new Course("History", LocalDate.of(2029, 1, 1), 5);
+        dao.save(python);
+        dao.save(economics);
+        dao.save(history);
+
+        // Act: register after saving, and unregister from one course
+        economics.register(anna);
+        history.register(anna);
+        history.unregister(anna);
+
+        // Assert
+        List<Course> found = dao.findByStudent(anna);
+        assertEquals(2, found.size());
+        assertTrue(found.contains(python));
+        assertTrue(found.contains(economics));
+    }
+
+    @Test
+    void findByStudent_afterSetStudentsAndDelete() {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Student bob = new Student("Bob", "bob@test.com", "Addr2");
+        Course python = new Course("Python", LocalDate.of(2029, 1, 1), 5, Arrays.asList(anna));
+        Course economics = new Course("Economics", LocalDate.of(2029, 1, 1), 5, Arrays.asList(anna));
+        dao.save(python);
+        dao.save(economics);
+
+        // Act: replace one roster and delete the other course
+        python.setStudents(Arrays.asList(bob));
+        dao.delete(economics);
+
+        // Assert
+        assertTrue(dao.findByStudent(anna).isEmpty());
+        assertEquals(Arrays.asList(python), dao.findByStudent(bob));
+    }
+
+    @Test
+    void findByStudent_null_throws() {
+        // Act & Assert
+        Exception ex = assertThrows(IllegalArgumentException.class, () -> dao.findByStudent(null));
+        assertEquals("Student cannot be null.", ex.getMessage());
+    }
+
+    // Group: unregisterFromAll()
+
+    @Test
+    void unregisterFromAll_removesStudentFromEveryRoster() {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Student bob = new Student("Bob", "bob@test.com", "Addr2");
+        Course python = new Course("Python", LocalDate.of(2029, 1, 1), 5, Arrays.asList(anna, bob));
+        Course economics = new Course("Economics", LocalDate.of(2029, 1, 1), 5, Arrays.asList(anna));
+        Course history = new Course("History", LocalDate.of(2029, 1, 1), 5, Arrays.asList(bob));
+        dao.saveAll(Arrays.asList(python, economics, history));
+
+        // Act
+        int affected = dao.unregisterFromAll(anna);
+
+        // Assert
+        assertEquals(2, affected);
+        assertEquals(Arrays.asList(bob), python.getStudents());
+        assertTrue(economics.getStudents().isEmpty());
+        assertTrue(dao.findByStudent(anna).isEmpty());
+        assertEquals(0, dao.unregisterFromAll(anna));
+    }
+
+    @Test
+    void unregisterFromAll_batch_visitsEachCourseOnce() {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Student bob = new Student("Bob", "bob@test.com", "Addr2");
+        Student carl = new Student("Carl", "carl@test.com", "Addr3");
+        Course python = new Course("Python", LocalDate.of(2029, 1, 1), 5, Arrays.asList(anna, bob, carl));
+        Course economics = new Course("Economics", LocalDate.of(2029, 1, 1), 5, Arrays.asList(bob));
+        Course history = new Course("History", LocalDate.of(2029, 1, 1), 5, Arrays.asList(carl));
+        dao.saveAll(Arrays.asList(python, economics, history));
+
+        // Act
+        int affected = dao.unregisterFromAll(Arrays.asList(anna, bob));
+
+        // Assert
+        assertEquals(2, affected);
+        assertEquals(Arrays.asList(carl), python.getStudents());
+        assertTrue(economics.getStudents().isEmpty());
+        assertEquals(Arrays.asList(carl), history.getStudents());
+        assertTrue(dao.findByStudent(bob).isEmpty());
+        assertEquals(2, dao.findByStudent(carl).size());
+        assertThrows(IllegalArgumentException.class, () -> dao.unregisterFromAll((Student) null));
+        assertThrows(IllegalArgumentException.class, () -> dao.unregisterFromAll(Arrays.asList(carl, null)));
+    }
+
     // Group: findAll()
 
     @Test
@@ -190,6 +495,89 @@ public class CourseDaoImplTest {
         assertTrue(all.contains(c2));
     }
 
+    @Test
+    void viewAll_isLiveAndReadOnly() {
+        // Arrange
+        Course c1 = new Course("C1", LocalDate.now(), 5);
+        Collection<Course> view = dao.viewAll();
+
+        // Act
+        dao.save(c1);
+
+        // Assert
+        assertEquals(1, view.size());
+        assertTrue(view.contains(c1));
+        assertThrows(UnsupportedOperationException.class, () -> view.remove(c1));
+    }
+
+    // Group: findAll(afterId, limit), streams
+
+    @Test
+    void findAll_keysetPages_walkAllInIdOrder() {
+        // Arrange: save in reverse id order
+        List<Course> created = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            created.add(new Course("Course " + i, LocalDate.of(2029, 1, 1 + i), 1));
+        }
+        for (int i = created.size() - 1; i >= 0; i--) {
+            dao.save(created.get(i));
+        }
+
+        // Act: walk pages of three using the last id as the cursor
+        List<Course> walked = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        int cursor = 0;
+        List<Course> page;
+        while (!(page = dao.findAll(cursor, 3)).isEmpty()) {
+            walked.addAll(page);
+            pageSizes.add(page.size());
+            cursor = page.get(page.size() - 1).getId();
+        }
+
+        // Assert
+        assertEquals(created, walked);
+        assertEquals(Arrays.asList(3, 3, 1), pageSizes);
+        assertTrue(dao.findAll(Integer.MAX_VALUE, 3).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> dao.findAll(-1, 3));
+        assertThrows(IllegalArgumentException.class, () -> dao.findAll(0, 0));
+    }
+
+    @Test
+    void findAll_keysetPages_skipDeleted() {
+        // Arrange
+        Course c1 = new Course("C1", LocalDate.of(2029, 1, 1), 1);
+        Course c2 = new Course("C2", LocalDate.of(2029, 1, 1), 1);
+        Course c3 = new Course("C3", LocalDate.of(2029, 1, 1), 1);
+        dao.saveAll(Arrays.asList(c1, c2, c3));
+
+        // Act
+        dao.delete(c2);
+
+        // Assert
+        assertEquals(Arrays.asList(c1, c3), dao.findAll(0, 10));
+        assertEquals(Arrays.asList(c3), dao.findAll(c1.getId(), 10));
+    }
+
+    @Test
+    void streams_matchFindMethods() {
+        // Arrange
+        Course python = new Course("Python", LocalDate.of(2029, 1, 1), 5);
+        Course advanced = new Course("Advanced Python", LocalDate.of(2029, 2, 1), 5);
+        Course economics = new Course("Economics", LocalDate.of(2029, 1, 1), 5);
+        dao.saveAll(Arrays.asList(python, advanced, economics));
+
+        // Act & Assert
+        assertEquals(Arrays.asList(python, advanced, economics), dao.streamAll().collect(Collectors.toList()));
+        assertEquals(new HashSet<>(Arrays.asList(python, advanced)),
+                dao.streamByName("PYTHON").collect(Collectors.toSet()));
+        assertEquals(1, dao.streamByName("eco").count());
+        assertEquals(Arrays.asList(python, economics),
+                dao.streamByDate(LocalDate.of(2029, 1, 1)).collect(Collectors.toList()));
+        assertEquals(0, dao.streamByDate(LocalDate.of(2030, 1, 1)).count());
+        assertThrows(IllegalArgumentException.class, () -> dao.streamByName(" "));
+        assertThrows(IllegalArgumentException.class, () -> dao.streamByDate(null));
+    }
+
     // Group: delete()
 
     @Test
@@ -225,6 +613,85 @@ public class CourseDaoImplTest {
         assertFalse(removed);
     }
 
+    // Group: saveAll(), deleteAll()
+
+    @Test
+    void saveAll_savesBatch() {
+        // Arrange
+        Course c1 = new Course("C1", LocalDate.of(2029, 1, 1), 2);
+        Course c2 = new Course("C2", LocalDate.of(2029, 2, 1), 3);
+
+        // Act
+        List<Course> saved = dao.saveAll(Arrays.asList(c1, c2));
+
+        // Assert
+        assertEquals(Arrays.asList(c1, c2), saved);
+        assertEquals(c2, dao.findById(c2.getId()));
+        assertTrue(dao.findByDate(LocalDate.of(2029, 1, 1)).contains(c1));
+    }
+
+    @Test
+    void saveAll_duplicateInBatch_savesNothing() {
+        // Arrange
+        Course c1 = new Course("C1", LocalDate.of(2029, 1, 1), 2);
+        Course c2 = new Course("C2", LocalDate.of(2029, 2, 1), 3);
+
+        // Act & Assert
+        Exception ex = assertThrows(IllegalArgumentException.class, () -> dao.saveAll(Arrays.asList(c2, c1, c1)));
+        assertTrue(ex.getMessage().contains("Course already exists"));
+        assertTrue(dao.findAll().isEmpty());
+        assertTrue(dao.findByName("C2").isEmpty());
+    }
+
+    @Test
+    void loadAll_buildsEveryIndex() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Course math = new Course("Math", LocalDate.of(2029, 1, 1), 2, Arrays.asList(erik));
+        Course java = new Course("Java", LocalDate.of(2029, 2, 1), 4);
+
+        // Act
+        dao.loadAll(Arrays.asList(math, java));
+
+        // Assert: every index is built, and changes keep them in sync
+        assertEquals(Arrays.asList(math, java), dao.findAll());
+        assertEquals(Arrays.asList(java), dao.findByName("ava"));
+        assertEquals(Arrays.asList(math), dao.findByDate(LocalDate.of(2029, 1, 1)));
+        assertEquals(Arrays.asList(math), dao.findActiveOn(LocalDate.of(2029, 1, 10)));
+        assertEquals(Arrays.asList(math), dao.findByStudent(erik));
+        java.register(erik);
+        assertEquals(2, dao.findByStudent(erik).size());
+    }
+
+    @Test
+    void loadAll_duplicateId_leavesDaoEmpty() {
+        // Arrange
+        Course math = new Course("Math", LocalDate.of(2029, 1, 1), 2);
+        Course java = new Course("Java", LocalDate.of(2029, 2, 1), 4);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> dao.loadAll(Arrays.asList(math, math)));
+        assertTrue(dao.findAll().isEmpty());
+        dao.save(math);
+        assertThrows(IllegalStateException.class, () -> dao.loadAll(Arrays.asList(java)));
+    }
+
+    @Test
+    void deleteAll_countsDeleted() {
+        // Arrange
+        Course c1 = new Course("C1", LocalDate.of(2029, 1, 1), 2);
+        Course c2 = new Course("C2", LocalDate.of(2029, 2, 1), 3);
+        dao.save(c1);
+
+        // Act
+        int deleted = dao.deleteAll(Arrays.asList(c1, c2));
+
+        // Assert
+        assertEquals(1, deleted);
+        assertTrue(dao.findAll().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> dao.deleteAll(Arrays.asList(c1, null)));
+    }
+
     // Group: clear()
 
     @Test
@@ -0,0 +1,197 @@
+package se.lexicon.dao.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JdbcCourseDaoImplTest {
+
+    private Connection connection;
+    private JdbcStudentDaoImpl studentDao;
+    private JdbcCourseDaoImpl dao;
+    private Student erik;
+    private Student anna;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        // A private in-memory database for each test
+        connection = DriverManager.getConnection("jdbc:h2:mem:");
+        studentDao = new JdbcStudentDaoImpl(connection);
+        dao = new JdbcCourseDaoImpl(studentDao);
+        erik = studentDao.save(new Student("Erik", "erik@test.com", "Addr1"));
+        anna = studentDao.save(new Student("Anna", "anna@test.com", "Addr2"));
+    }
+
+    @AfterEach
+    void teardown() throws SQLException {
+        dao.close();
+        connection.close();
+    }
+
+    @Test
+    void save_and_findById_returnsEqualViewWithRoster() {
+        // Arrange
+        Course java = new Course("Java Fullstack", LocalDate.of(2029, 1, 7), 12, Arrays.asList(anna, erik));
+
+        // Act
+        Course saved = dao.save(java);
+        Course found = dao.findById(java.getId());
+
+        // Assert: the roster keeps enrollment order
+        assertSame(java, saved);
+        assertEquals(java, found);
+        assertNotSame(java, found);
+        assertEquals("Java Fullstack", found.getCourseName());
+        assertEquals(LocalDate.of(2029, 1, 7), found.getStartDate());
+        assertEquals(12, found.getWeekDuration());
+        assertEquals(Arrays.asList(anna, erik), found.getStudents());
+        assertThrows(IllegalArgumentException.class, () -> dao.save(java));
+        assertThrows(IllegalArgumentException.class, () -> dao.save(null));
+        assertThrows(IllegalArgumentException.class, () -> new JdbcCourseDaoImpl(null));
+    }
+
+    @Test
+    void save_withUnsavedStudent_savesNothing() {
+        // Arrange
+        Student unsaved = new Student("Bob", "bob@test.com", "Addr3");
+        Course java = new Course("Java", LocalDate.of(2029, 1, 7), 4, Arrays.asList(erik, unsaved));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> dao.save(java));
+        assertNull(dao.findById(java.getId()));
+        assertThrows(IllegalArgumentException.class, () -> dao.saveAll(Arrays.asList(java)));
+        assertTrue(dao.findAll().isEmpty());
+    }
+
+    @Test
+    void changesAndRegistrations_areWrittenThrough() {
+        // Arrange
+        Course java = dao.save(new Course("Java", LocalDate.of(2029, 1, 7), 4, Arrays.asList(erik)));
+        Student unsaved = new Student("Bob", "bob@test.com", "Addr3");
+
+        // Act
+        Course view = dao.findById(java.getId());
+        view.setCourseName("Java EE");
+        view.setStartDate(LocalDate.of(2029, 2, 4));
+        view.setWeekDuration(8);
+        view.register(anna);
+        java.unregister(erik);
+
+        // Assert
+        Course found = dao.findById(java.getId());
+        assertEquals("Java EE", found.getCourseName());
+        assertEquals(LocalDate.of(2029, 2, 4), found.getStartDate());
+        assertEquals(8, found.getWeekDuration());
+        assertEquals(Arrays.asList(anna), found.getStudents());
+        assertEquals(Arrays.asList(found), dao.findActiveOn(LocalDate.of(2029, 3, 31)));
+        assertThrows(IllegalArgumentException.class, () -> view.register(unsaved));
+        assertFalse(view.getStudents().contains(unsaved));
+    }
+
+    @Test
+    void dateQueries_filterAndOrderByStartDate() {
+        // Arrange
+        Course late = new Course("Late", LocalDate.of(2029, 3, 1), 2);
+        Course early = new Course("Early", LocalDate.of(2029, 1, 1), 10);
+        Course middle = new Course("Middle", LocalDate.of(2029, 2, 1), 1);
+        dao.saveAll(Arrays.asList(late, early, middle));
+
+        // Act & Assert
+        assertEquals(Arrays.asList(early), dao.findByDate(LocalDate.of(2029, 1, 1)));
+        assertEquals(Arrays.asList(early), dao.streamByDate(LocalDate.of(2029, 1, 1)).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(early, middle, late),
+                dao.findByDateRange(LocalDate.of(2029, 1, 1), LocalDate.of(2029, 3, 1)));
+        assertEquals(Arrays.asList(middle, late), dao.findStartingAfter(LocalDate.of(2029, 1, 1)));
+        assertEquals(Arrays.asList(middle), dao.findNextStarting(LocalDate.of(2029, 1, 2), 1));
+        assertEquals(Arrays.asList(early, middle), dao.findActiveOn(LocalDate.of(2029, 2, 5)));
+        assertEquals(Arrays.asList(early, late),
+                dao.findOverlapping(LocalDate.of(2029, 3, 10), LocalDate.of(2029, 3, 11)));
+        assertThrows(IllegalArgumentException.class,
+                () -> dao.findByDateRange(LocalDate.of(2029, 3, 1), LocalDate.of(2029, 1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> dao.findNextStarting(LocalDate.of(2029, 1, 1), 0));
+    }
+
+    @Test
+    void findByName_matchesSubstringsCaseInsensitively() {
+        // Arrange
+        Course java = new Course("Java Fullstack", LocalDate.of(2029, 1, 1), 10);
+        Course net = new Course(".NET Fullstack", LocalDate.of(2029, 1, 1), 10);
+        Course discount = new Course("100% Java_Basics", LocalDate.of(2029, 1, 1), 10);
+        dao.saveAll(Arrays.asList(java, net, discount));
+
+        // Act & Assert: LIKE wildcards in the query match only themselves
+        assertEquals(Arrays.asList(java, net), dao.findByName("FULLSTACK"));
+        assertEquals(Arrays.asList(java, discount), dao.findByName("java"));
+        assertEquals(Arrays.asList(discount), dao.findByName("0% java_"));
+        assertEquals(Arrays.asList(java, net), dao.streamByName("fullstack").collect(Collectors.toList()));
+        assertThrows(IllegalArgumentException.class, () -> dao.findByName(" "));
+    }
+
+    @Test
+    void studentQueries_useTheRosterTable() {
+        // Arrange
+        Course java = new Course("Java", LocalDate.of(2029, 1, 1), 10, Arrays.asList(erik, anna));
+        Course net = new Course(".NET", LocalDate.of(2029, 1, 1), 10, Arrays.asList(anna));
+        dao.saveAll(Arrays.asList(java, net));
+
+        // Act
+        List<Course> annasCourses = dao.findByStudent(anna);
+        int changed = dao.unregisterFromAll(Arrays.asList(anna, erik));
+
+        // Assert
+        assertEquals(Arrays.asList(java, net), annasCourses);
+        assertEquals(2, changed);
+        assertTrue(dao.findByStudent(anna).isEmpty());
+        assertTrue(dao.findById(java.getId()).getStudents().isEmpty());
+        assertEquals(0, dao.unregisterFromAll(anna));
+    }
+
+    @Test
+    void deletingStudent_dropsItFromRosters() {
+        // Arrange
+        Course java = dao.save(new Course("Java", LocalDate.of(2029, 1, 1), 10, Arrays.asList(erik, anna)));
+
+        // Act
+        studentDao.delete(erik);
+
+        // Assert
+        assertEquals(Arrays.asList(anna), dao.findById(java.getId()).getStudents());
+        assertTrue(dao.findByStudent(erik).isEmpty());
+    }
+
+    @Test
+    void pagesAndDeletes_walkIdsInOrder() {
+        // Arrange: more courses than one fetched page
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            courses.add(new Course("Course " + i, LocalDate.of(2029, 1, 1).plusDays(i % 100), 1,
+                    Arrays.asList(erik)));
+        }
+        dao.saveAll(courses);
+
+        // Act
+        int deleted = dao.deleteAll(courses.subList(0, 500));
+
+        // Assert
+        assertEquals(500, deleted);
+        assertFalse(dao.delete(courses.get(0)));
+        assertEquals(courses.subList(500, 1500), dao.streamAll().collect(Collectors.toList()));
+        assertEquals(1000, dao.viewAll().size());
+        assertEquals(courses.subList(500, 502), dao.findAll(0, 2));
+        assertEquals(Arrays.asList(erik), dao.findAll(0, 1).get(0).getStudents());
+        assertEquals(1000, dao.findByStudent(erik).size());
+    }
+}
@@ -0,0 +1,172 @@
+package se.lexicon.dao.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.lexicon.model.Student;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JdbcStudentDaoImplTest {
+
+    private Connection connection;
+    private JdbcStudentDaoImpl dao;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        // A private in-memory database for each test
+        connection = DriverManager.getConnection("jdbc:h2:mem:");
+        dao = new JdbcStudentDaoImpl(connection);
+    }
+
+    @AfterEach
+    void teardown() throws SQLException {
+        dao.close();
+        connection.close();
+    }
+
+    @Test
+    void save_and_findById_returnsEqualView() {
+        // Arrange
+        Student erik = new Student("Erik Åström", "erik@test.com", "Storgatan 1");
+
+        // Act
+        Student saved = dao.save(erik);
+        Student found = dao.findById(erik.getId());
+
+        // Assert
+        assertSame(erik, saved);
+        assertEquals(erik, found);
+        assertNotSame(erik, found);
+        assertEquals("Erik Åström", found.getName());
+        assertEquals("erik@test.com", found.getEmail());
+        assertEquals("Storgatan 1", found.getAddress());
+        assertNull(dao.findById(erik.getId() + 1000));
+    }
+
+    @Test
+    void save_duplicateIdOrEmail_throws() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student other = new Student("Other", "ERIK@test.com", "Addr2");
+        dao.save(erik);
+
+        // Act & Assert
+        IllegalArgumentException id = assertThrows(IllegalArgumentException.class, () -> dao.save(erik));
+        IllegalArgumentException email = assertThrows(IllegalArgumentException.class, () -> dao.save(other));
+        assertTrue(id.getMessage().startsWith("Student already exists"));
+        assertEquals("Student with email ERIK@test.com already exists.", email.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> dao.save(null));
+        assertEquals(1, dao.findAll().size());
+    }
+
+    @Test
+    void findByEmailAndName_useFoldedKeys() {
+        // Arrange
+        Student erik = new Student("Erik", "Erik@Test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        Student erik2 = new Student(" ERIK ", "erik2@test.com", "Addr3");
+        dao.saveAll(Arrays.asList(erik, anna, erik2));
+
+        // Act & Assert
+        assertEquals(erik, dao.findByEmail("  erik@test.COM "));
+        assertNull(dao.findByEmail("nobody@test.com"));
+        assertEquals(Arrays.asList(erik, erik2), dao.findByName("erik"));
+        assertEquals(Arrays.asList(erik, erik2), dao.streamByName("Erik").collect(Collectors.toList()));
+        assertTrue(dao.findByName("Bob").isEmpty());
+    }
+
+    @Test
+    void changesToSavedStudentOrView_areWrittenThrough() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        dao.saveAll(Arrays.asList(erik, anna));
+
+        // Act
+        erik.setName("Erik Svensson");
+        Student view = dao.findById(erik.getId());
+        view.setEmail("erik.s@test.com");
+        view.setAddress("Addr9");
+
+        // Assert
+        Student found = dao.findById(erik.getId());
+        assertEquals("Erik Svensson", found.getName());
+        assertEquals("erik.s@test.com", found.getEmail());
+        assertEquals("Addr9", found.getAddress());
+        assertNull(dao.findByEmail("erik@test.com"));
+        assertThrows(IllegalArgumentException.class, () -> anna.setEmail("ERIK.S@test.com"));
+        assertEquals("anna@test.com", anna.getEmail());
+        assertEquals(anna, dao.findByEmail("anna@test.com"));
+    }
+
+    @Test
+    void saveAll_conflictWithStoredRow_savesNothing() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        dao.save(erik);
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        Student other = new Student("Other", "ERIK@test.com", "Addr3");
+
+        // Act & Assert
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> dao.saveAll(Arrays.asList(anna, other)));
+        assertEquals("Student with email ERIK@test.com already exists.", e.getMessage());
+        assertNull(dao.findById(anna.getId()));
+        assertThrows(IllegalArgumentException.class, () -> dao.saveAll(Arrays.asList(anna, anna)));
+        assertThrows(IllegalArgumentException.class, () -> dao.saveAll(null));
+
+        // The failed batch leaves nothing behind for the next one
+        dao.saveAll(Arrays.asList(anna));
+        assertEquals(Arrays.asList(erik, anna), dao.findAll());
+    }
+
+    @Test
+    void pagesStreamsAndViews_walkIdsInOrder() {
+        // Arrange: more students than one fetched page
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            students.add(new Student("Student " + i, "student" + i + "@test.com", "Addr"));
+        }
+        dao.saveAll(students);
+
+        // Act & Assert
+        assertEquals(students.subList(0, 2), dao.findAll(0, 2));
+        assertEquals(students.subList(2, 4), dao.findAll(students.get(1).getId(), 2));
+        assertEquals(students, dao.streamAll().collect(Collectors.toList()));
+        assertEquals(2500, dao.viewAll().size());
+        assertEquals(students, new ArrayList<>(dao.viewAll()));
+        assertThrows(IllegalArgumentException.class, () -> dao.findAll(-1, 2));
+        assertThrows(IllegalArgumentException.class, () -> dao.findAll(0, 0));
+    }
+
+    @Test
+    void deleteAndDeleteAll_removeRowsAndFreeEmails() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        Student bob = new Student("Bob", "bob@test.com", "Addr3");
+        dao.saveAll(Arrays.asList(erik, anna, bob));
+
+        // Act
+        boolean deleted = dao.delete(erik);
+        int deletedCount = dao.deleteAll(Arrays.asList(erik, anna));
+
+        // Assert
+        assertTrue(deleted);
+        assertFalse(dao.delete(erik));
+        assertEquals(1, deletedCount);
+        assertEquals(Arrays.asList(bob), dao.findAll());
+        dao.save(new Student("New", "erik@test.com", "Addr4"));
+        assertThrows(IllegalArgumentException.class, () -> dao.delete(null));
+        assertThrows(IllegalArgumentException.class, () -> new JdbcStudentDaoImpl(null));
+    }
+}
@@ -0,0 +1,57 @@
+package se.lexicon.dao.impl;
+
+import org.junit.jupiter.api.Test;
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MeteredCourseDaoTest {
+
+    @Test
+    void calls_areCountedPerMethodWithResultSizes() {
+        // Arrange
+        MeteredCourseDao dao = new MeteredCourseDao(new CourseDaoImpl());
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Course java = new Course("Java", LocalDate.of(2029, 1, 7), 12, Arrays.asList(erik));
+        Course net = new Course(".NET", LocalDate.of(2029, 2, 4), 8, Arrays.asList(erik));
+        dao.saveAll(Arrays.asList(java, net));
+
+        // Act
+        dao.findByDate(LocalDate.of(2029, 1, 7));
+        dao.findByStudent(erik);
+        boolean unregistered = dao.unregister(java, erik);
+        dao.register(java, erik);
+        int changed = dao.unregisterFromAll(erik);
+        dao.findAll(0, 1);
+
+        // Assert
+        assertTrue(unregistered);
+        assertEquals(1, dao.metrics().stats("register").getCalls());
+        assertEquals(1, dao.metrics().stats("unregister").getMaxResultSize());
+        assertEquals(2, changed);
+        assertEquals(1, dao.metrics().stats("findByDate").getMaxResultSize());
+        assertEquals(2, dao.metrics().stats("findByStudent").getMaxResultSize());
+        assertEquals(2, dao.metrics().stats("unregisterFromAll").getMaxResultSize());
+        assertEquals(0, dao.metrics().stats("unregisterFromAllBatch").getCalls());
+        assertEquals(1, dao.metrics().stats("findAllPage").getCalls());
+        assertEquals(0, dao.metrics().stats("findAll").getCalls());
+        assertEquals(23, dao.metrics().getOperations().size());
+    }
+
+    @Test
+    void failedCalls_areCountedAndRethrown() {
+        // Arrange
+        MeteredCourseDao dao = new MeteredCourseDao(new CourseDaoImpl());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> dao.findByDateRange(LocalDate.of(2029, 3, 1), LocalDate.of(2029, 1, 1)));
+        assertEquals(1, dao.metrics().stats("findByDateRange").getFailures());
+        assertEquals(1, dao.metrics().getTotalCalls());
+        assertThrows(IllegalArgumentException.class, () -> new MeteredCourseDao(null));
+    }
+}
@@ -0,0 +1,94 @@
+package se.lexicon.dao.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.lexicon.model.Student;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MeteredStudentDaoTest {
+
+    private MeteredStudentDao dao;
+
+    @BeforeEach
+    void setup() {
+        dao = new MeteredStudentDao(new StudentDaoImpl());
+    }
+
+    @Test
+    void calls_areCountedPerMethodWithResultSizes() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student erik2 = new Student("Erik", "erik2@test.com", "Addr2");
+        dao.saveAll(Arrays.asList(erik, erik2));
+
+        // Act
+        Student found = dao.findById(erik.getId());
+        dao.findById(9999);
+        dao.findByName("erik");
+
+        // Assert
+        assertEquals(erik, found);
+        OperationStats findById = dao.metrics().stats("findById");
+        assertEquals(2, findById.getCalls());
+        assertEquals(0, findById.getFailures());
+        assertEquals(0.5, findById.getMeanResultSize(), 1e-9);
+        assertTrue(findById.getMaxMicros() >= findById.getP50Micros());
+        assertEquals(2, dao.metrics().stats("findByName").getMaxResultSize());
+        assertEquals(2, dao.metrics().stats("saveAll").getMaxResultSize());
+        assertEquals(0, dao.metrics().stats("delete").getCalls());
+        assertEquals(4, dao.metrics().getTotalCalls());
+        assertNull(dao.metrics().stats("nothing"));
+    }
+
+    @Test
+    void failedCalls_areCountedAndRethrown() {
+        // Arrange
+        Student erik = dao.save(new Student("Erik", "erik@test.com", "Addr1"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> dao.save(erik));
+        assertThrows(IllegalArgumentException.class, () -> dao.findById(0));
+        assertEquals(2, dao.metrics().stats("save").getCalls());
+        assertEquals(1, dao.metrics().stats("save").getFailures());
+        assertEquals(1, dao.metrics().stats("findById").getFailures());
+        dao.metrics().reset();
+        assertEquals(0, dao.metrics().getTotalCalls());
+        assertThrows(IllegalArgumentException.class, () -> new MeteredStudentDao(null));
+    }
+
+    @Test
+    void register_exposesOperationsThroughJmx() throws Exception {
+        // Arrange
+        dao.save(new Student("Erik", "erik@test.com", "Addr1"));
+        dao.findByEmail("erik@test.com");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("se.lexicon:type=DaoMetrics,name=\"students\"");
+
+        // Act
+        dao.metrics().register("students");
+        try {
+            long totalCalls = (Long) server.getAttribute(name, "TotalCalls");
+            TabularData operations = (TabularData) server.getAttribute(name, "Operations");
+            CompositeData findByEmail = operations.get(new Object[]{"findByEmail"});
+
+            // Assert
+            assertEquals(2, totalCalls);
+            assertEquals(12, operations.size());
+            assertEquals(1L, ((CompositeData) findByEmail.get("value")).get("calls"));
+            assertThrows(IllegalStateException.class, () -> dao.metrics().register("students"));
+            assertThrows(IllegalStateException.class,
+                    () -> new MeteredStudentDao(new StudentDaoImpl()).metrics().register("students"));
+        } finally {
+            dao.metrics().unregister();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+}
@@ -0,0 +1,270 @@
+package se.lexicon.dao.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapCourseDaoImplTest {
+
+    private StudentDaoImpl studentDao;
+    private OffHeapCourseDaoImpl dao;
+    private Student erik;
+    private Student anna;
+
+    @BeforeEach
+    void setup() {
+        studentDao = new StudentDaoImpl();
+        erik = studentDao.save(new Student("Erik", "erik@test.com", "Addr1"));
+        anna = studentDao.save(new Student("Anna", "anna@test.com", "Addr2"));
+
+        // Small pages, so that rows and rosters cross page boundaries
+        dao = new OffHeapCourseDaoImpl(studentDao, 64);
+    }
+
+    @AfterEach
+    void teardown() {
+        dao.close();
+    }
+
+    @Test
+    void save_and_findById_returnsEqualViewWithRoster() {
+        // Arrange
+        Course java = new Course("Java Fullstack", LocalDate.of(2029, 1, 7), 12, Arrays.asList(erik, anna));
+
+        // Act
+        Course saved = dao.save(java);
+        Course found = dao.findById(java.getId());
+
+        // Assert
+        assertSame(java, saved);
+        assertEquals(java, found);
+        assertNotSame(java, found);
+        assertEquals("Java Fullstack", found.getCourseName());
+        assertEquals(LocalDate.of(2029, 1, 7), found.getStartDate());
+        assertEquals(12, found.getWeekDuration());
+        assertEquals(Arrays.asList(erik, anna), found.getStudents());
+        assertThrows(IllegalArgumentException.class, () -> dao.save(java));
+        assertThrows(IllegalArgumentException.class, () -> dao.save(null));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapCourseDaoImpl(null));
+    }
+
+    @Test
+    void changesAndRegistrations_areWrittenThrough() {
+        // Arrange
+        Course java = dao.save(new Course("Java", LocalDate.of(2029, 1, 7), 4));
+
+        // Act: register more students than the first roster run holds
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Student student = studentDao.save(new Student("Student" + i, "s" + i + "@test.com", "Addr"));
+            students.add(student);
+            java.register(student);
+        }
+        Course view = dao.findById(java.getId());
+        view.setCourseName("Java EE");
+        view.setStartDate(LocalDate.of(2029, 2, 4));
+        view.setWeekDuration(8);
+        view.unregister(students.get(0));
+
+        // Assert
+        Course found = dao.findById(java.getId());
+        assertEquals("Java EE", found.getCourseName());
+        assertEquals(LocalDate.of(2029, 2, 4), found.getStartDate());
+        assertEquals(8, found.getWeekDuration());
+        assertEquals(students.subList(1, 20), found.getStudents());
+    }
+
+    @Test
+    void dateQueries_filterAndOrderByStartDate() {
+        // Arrange
+        Course late = new Course("Late", LocalDate.of(2029, 3, 1), 2);
+        Course early = new Course("Early", LocalDate.of(2029, 1, 1), 10);
+        Course middle = new Course("Middle", LocalDate.of(2029, 2, 1), 1);
+        dao.saveAll(Arrays.asList(late, early, middle));
+
+        // Act & Assert
+        assertEquals(Arrays.asList(early), dao.findByDate(LocalDate.of(2029, 1, 1)));
+        assertEquals(Arrays.asList(early, middle, late),
+                dao.findByDateRange(LocalDate.of(2029, 1, 1), LocalDate.of(2029, 3, 1)));
+        assertEquals(Arrays.asList(middle, late), dao.findStartingAfter(LocalDate.of(2029, 1, 1)));
+        assertEquals(Arrays.asList(middle), dao.findNextStarting(LocalDate.of(2029, 1, 2), 1));
+        assertEquals(Arrays.asList(early, middle), dao.findActiveOn(LocalDate.of(2029, 2, 5)));
+        assertEquals(Arrays.asList(early, late), dao.findOverlapping(LocalDate.of(2029, 3, 10), LocalDate.of(2029, 3, 11)));
+        assertThrows(IllegalArgumentException.class,
+                () -> dao.findByDateRange(LocalDate.of(2029, 3, 1), LocalDate.of(2029, 1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> dao.findNextStarting(LocalDate.of(2029, 1, 1), 0));
+    }
+
+    @Test
+    void findByName_scansCaseInsensitively() {
+        // Arrange
+        Course java = new Course("Java Fullstack", LocalDate.of(2029, 1, 1), 10);
+        Course net = new Course(".NET Fullstack", LocalDate.of(2029, 1, 1), 10);
+        dao.saveAll(Arrays.asList(java, net));
+
+        // Act & Assert
+        assertEquals(Arrays.asList(java, net), dao.findByName("FULLSTACK"));
+        assertEquals(Arrays.asList(java), dao.findByName("java"));
+        assertThrows(IllegalArgumentException.class, () -> dao.findByName(" "));
+    }
+
+    @Test
+    void studentQueries_findRostersAndSkipDeletedStudents() {
+        // Arrange
+        Course java = new Course("Java", LocalDate.of(2029, 1, 1), 10, Arrays.asList(erik, anna));
+        Course net = new Course(".NET", LocalDate.of(2029, 1, 1), 10, Arrays.asList(anna));
+        dao.saveAll(Arrays.asList(java, net));
+
+        // Act
+        List<Course> annasCourses = dao.findByStudent(anna);
+        int changed = dao.unregisterFromAll(anna);
+        studentDao.delete(erik);
+
+        // Assert
+        assertEquals(Arrays.asList(java, net), annasCourses);
+        assertEquals(2, changed);
+        assertTrue(dao.findByStudent(anna).isEmpty());
+        assertTrue(dao.findByStudent(erik).isEmpty());
+        assertTrue(dao.findById(java.getId()).getStudents().isEmpty());
+        assertEquals(0, dao.unregisterFromAll(Collections.singletonList(anna)));
+    }
+
+    @Test
+    void studentQueries_manyCourses_followRegistrationsInSaveOrder() {
+        // Arrange: erik on every course, anna on every third
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            courses.add(dao.save(new Course("Course " + i, LocalDate.of(2029, 1, 1), 1)));
+        }
+        for (int i = courses.size() - 1; i >= 0; i--) {
+            courses.get(i).register(erik);
+            if (i % 3 == 0) {
+                courses.get(i).register(anna);
+            }
+        }
+
+        // Act: drop erik from every other course, then both from the rest in one batch
+        for (int i = 0; i < courses.size(); i += 2) {
+            courses.get(i).unregister(erik);
+        }
+        List<Course> erikCourses = dao.findByStudent(erik);
+        List<Course> annaCourses = dao.findByStudent(anna);
+        int changed = dao.unregisterFromAll(Arrays.asList(erik, anna));
+
+        // Assert
+        assertEquals(150, erikCourses.size());
+        assertEquals(courses.get(1), erikCourses.get(0));
+        assertEquals(courses.get(299), erikCourses.get(149));
+        assertEquals(100, annaCourses.size());
+        assertEquals(courses.get(0), annaCourses.get(0));
+        assertEquals(200, changed);
+        assertTrue(dao.findByStudent(erik).isEmpty());
+        assertTrue(dao.findByStudent(anna).isEmpty());
+        assertEquals(0, dao.unregisterFromAll(erik));
+    }
+
+    @Test
+    void largeRoster_registersOnceAndKeepsOrder() {
+        // Arrange: a stale view taken before the registrations
+        Course java = dao.save(new Course("Java", LocalDate.of(2029, 1, 1), 10));
+        Course staleView = dao.findById(java.getId());
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            students.add(studentDao.save(new Student("S" + i, "s" + i + "@test.com", "Addr")));
+        }
+
+        // Act: register everyone, again through the stale view, and drop every other student
+        students.forEach(java::register);
+        students.forEach(staleView::register);
+        for (int i = 0; i < students.size(); i += 2) {
+            java.unregister(students.get(i));
+        }
+
+        // Assert
+        List<Student> roster = dao.findById(java.getId()).getStudents();
+        assertEquals(10_000, roster.size());
+        assertEquals(students.get(1), roster.get(0));
+        assertEquals(students.get(19_999), roster.get(9_999));
+        assertEquals(Arrays.asList(java), dao.findByStudent(students.get(1)));
+        assertTrue(dao.findByStudent(students.get(0)).isEmpty());
+    }
+
+    @Test
+    void delete_forgetsEnrollments() {
+        // Arrange
+        Course java = dao.save(new Course("Java", LocalDate.of(2029, 1, 1), 10, Arrays.asList(erik, anna)));
+
+        // Act
+        dao.delete(java);
+        dao.save(java);
+
+        // Assert: the roster is stored again in full, and erik is found once
+        assertEquals(Arrays.asList(erik, anna), dao.findById(java.getId()).getStudents());
+        assertEquals(Arrays.asList(java), dao.findByStudent(erik));
+    }
+
+    @Test
+    void deleteAll_manyRows_compactsAndKeepsLookups() {
+        // Arrange: enough deletes to trigger compaction
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            courses.add(new Course("Course " + (i % 10), LocalDate.of(2029, 1, 1).plusDays(i), 1,
+                    Arrays.asList(erik)));
+        }
+        dao.saveAll(courses);
+
+        // Act
+        int deleted = dao.deleteAll(courses.subList(0, 2500));
+
+        // Assert
+        assertEquals(2500, deleted);
+        assertFalse(dao.delete(courses.get(0)));
+        assertEquals(courses.subList(2500, 3000), dao.findAll());
+        assertEquals(500, dao.viewAll().size());
+        Course last = courses.get(2999);
+        assertEquals(Arrays.asList(erik), dao.findById(last.getId()).getStudents());
+        assertEquals(50, dao.findByName("course 9").size());
+        assertEquals(500, dao.findByStudent(erik).size());
+        assertEquals(Arrays.asList(last), dao.findAll(courses.get(2998).getId(), 10));
+    }
+
+    @Test
+    void close_freesMemory_andLaterUseThrows() {
+        // Arrange
+        Course java = dao.save(new Course("Java", LocalDate.of(2029, 1, 1), 10));
+
+        // Act
+        dao.close();
+
+        // Assert
+        assertThrows(IllegalStateException.class, () -> dao.findById(java.getId()));
+        assertThrows(IllegalStateException.class, () -> dao.findByName("Java"));
+    }
+
+    @Test
+    void close_leavesSavedCoursesUsable() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Course java = dao.save(new Course("Java", LocalDate.of(2029, 1, 1), 10));
+
+        // Act
+        dao.close();
+        java.setCourseName("Kotlin");
+        java.setWeekDuration(4);
+        java.register(erik);
+
+        // Assert
+        assertEquals("Kotlin", java.getCourseName());
+        assertEquals(Arrays.asList(erik), java.getStudents());
+    }
+}
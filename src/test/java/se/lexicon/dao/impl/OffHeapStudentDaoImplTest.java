@@ -0,0 +1,214 @@
+package se.lexicon.dao.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapStudentDaoImplTest {
+
+    private OffHeapStudentDaoImpl dao;
+
+    @BeforeEach
+    void setup() {
+        // Small pages, so that rows and text cross page boundaries
+        dao = new OffHeapStudentDaoImpl(64, null);
+    }
+
+    @AfterEach
+    void teardown() {
+        dao.close();
+    }
+
+    @Test
+    void save_and_findById_returnsEqualView() {
+        // Arrange
+        Student erik = new Student("Erik Åström", "erik@test.com", "Storgatan 1, Göteborg");
+
+        // Act
+        Student saved = dao.save(erik);
+        Student found = dao.findById(erik.getId());
+
+        // Assert: the view is a distinct object holding the same data
+        assertSame(erik, saved);
+        assertEquals(erik, found);
+        assertNotSame(erik, found);
+        assertEquals("Erik Åström", found.getName());
+        assertEquals("erik@test.com", found.getEmail());
+        assertEquals("Storgatan 1, Göteborg", found.getAddress());
+    }
+
+    @Test
+    void save_duplicateIdOrEmail_throws() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student other = new Student("Other", "ERIK@test.com", "Addr2");
+        dao.save(erik);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> dao.save(erik));
+        assertThrows(IllegalArgumentException.class, () -> dao.save(other));
+        assertThrows(IllegalArgumentException.class, () -> dao.save(null));
+        assertEquals(1, dao.findAll().size());
+    }
+
+    @Test
+    void findByEmailAndName_areCaseInsensitive() {
+        // Arrange
+        Student erik = new Student("Erik", "Erik@Test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        Student erik2 = new Student(" ERIK ", "erik2@test.com", "Addr3");
+        dao.saveAll(Arrays.asList(erik, anna, erik2));
+
+        // Act & Assert
+        assertEquals(erik, dao.findByEmail("  erik@test.COM "));
+        assertNull(dao.findByEmail("nobody@test.com"));
+        assertEquals(Arrays.asList(erik, erik2), dao.findByName("erik"));
+        assertEquals(Arrays.asList(erik, erik2), dao.streamByName("Erik").collect(Collectors.toList()));
+        assertTrue(dao.findByName("Bob").isEmpty());
+    }
+
+    @Test
+    void changesToSavedStudentOrView_areWrittenThrough() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        dao.saveAll(Arrays.asList(erik, anna));
+
+        // Act
+        erik.setName("Erik Svensson");
+        Student view = dao.findById(erik.getId());
+        view.setEmail("erik.s@test.com");
+        view.setAddress("Addr9");
+
+        // Assert
+        Student found = dao.findById(erik.getId());
+        assertEquals("Erik Svensson", found.getName());
+        assertEquals("erik.s@test.com", found.getEmail());
+        assertEquals("Addr9", found.getAddress());
+        assertEquals(erik, dao.findByEmail("erik.s@test.com"));
+        assertNull(dao.findByEmail("erik@test.com"));
+        assertThrows(IllegalArgumentException.class, () -> anna.setEmail("ERIK.S@test.com"));
+        assertEquals(anna, dao.findByEmail("anna@test.com"));
+    }
+
+    @Test
+    void saveAll_duplicateInBatch_savesNothing() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student other = new Student("Other", "erik@TEST.com", "Addr2");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> dao.saveAll(Arrays.asList(erik, other)));
+        assertThrows(IllegalArgumentException.class, () -> dao.saveAll(null));
+        assertTrue(dao.findAll().isEmpty());
+    }
+
+    @Test
+    void deleteAll_manyRows_compactsAndKeepsLookups() {
+        // Arrange: enough deletes to trigger compaction
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            students.add(new Student("Student " + (i % 10), "student" + i + "@test.com", "Addr" + i));
+        }
+        dao.saveAll(students);
+
+        // Act
+        int deleted = dao.deleteAll(students.subList(0, 2500));
+
+        // Assert
+        assertEquals(2500, deleted);
+        assertEquals(students.subList(2500, 3000), dao.findAll());
+        assertEquals(500, dao.viewAll().size());
+        Student last = students.get(2999);
+        assertEquals("Addr2999", dao.findById(last.getId()).getAddress());
+        assertNull(dao.findByEmail("student0@test.com"));
+        assertEquals(50, dao.findByName("student 9").size());
+        last.setEmail("last@test.com");
+        assertEquals(last, dao.findByEmail("last@test.com"));
+    }
+
+    @Test
+    void findAll_page_walksIdsInOrder() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        Student bob = new Student("Bob", "bob@test.com", "Addr3");
+        dao.saveAll(Arrays.asList(bob, anna, erik));
+
+        // Act
+        List<Student> first = dao.findAll(0, 2);
+        List<Student> second = dao.findAll(first.get(1).getId(), 2);
+
+        // Assert
+        assertEquals(Arrays.asList(erik, anna), first);
+        assertEquals(Arrays.asList(bob), second);
+        assertThrows(IllegalArgumentException.class, () -> dao.findAll(-1, 2));
+        assertThrows(IllegalArgumentException.class, () -> dao.findAll(0, 0));
+    }
+
+    @Test
+    void delete_withCourseDao_unregistersFromCourses() {
+        // Arrange
+        CourseDaoImpl courseDao = new CourseDaoImpl();
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        Course java = new Course("Java", LocalDate.of(2029, 1, 1), 5, Arrays.asList(erik, anna));
+        courseDao.save(java);
+
+        try (OffHeapStudentDaoImpl cascading = new OffHeapStudentDaoImpl(courseDao)) {
+            cascading.saveAll(Arrays.asList(erik, anna));
+
+            // Act: delete through a view rather than the saved object
+            boolean deleted = cascading.delete(cascading.findById(erik.getId()));
+
+            // Assert
+            assertTrue(deleted);
+            assertEquals(Arrays.asList(anna), java.getStudents());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapStudentDaoImpl(null));
+    }
+
+    @Test
+    void close_freesMemory_andLaterUseThrows() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        dao.save(erik);
+
+        // Act
+        dao.close();
+        dao.close();
+
+        // Assert
+        assertThrows(IllegalStateException.class, () -> dao.findById(erik.getId()));
+        assertThrows(IllegalStateException.class, () -> dao.findByName("Erik"));
+    }
+
+    @Test
+    void close_leavesSavedStudentsUsable() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        dao.save(erik);
+        Student view = dao.findById(erik.getId());
+
+        // Act
+        dao.close();
+        erik.setName("Bob");
+        erik.setEmail("bob@test.com");
+        view.setAddress("Addr2");
+
+        // Assert
+        assertEquals("Bob", erik.getName());
+        assertEquals("bob@test.com", erik.getEmail());
+        assertEquals("Addr2", view.getAddress());
+    }
+}
@@ -2,9 +2,16 @@ package se.lexicon.dao.impl;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import se.lexicon.model.Course;
 import se.lexicon.model.Student;
+import se.lexicon.model.StudentListener;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -93,6 +100,86 @@ public class StudentDaoImplTest {
         assertTrue(ex2.getMessage().contains("cannot be null or empty"));
     }
 
+    @Test
+    void find_byEmail_caseInsensitive() {
+        // Arrange
+        Student erik = new Student("Erik", "Erik@Test.com", "Address1");
+        dao.save(erik);
+
+        // Act
+        Student found = dao.findByEmail("  erik@TEST.com ");
+
+        // Assert
+        assertEquals(erik, found);
+    }
+
+    @Test
+    void find_byEmail_afterSetEmail() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Address1");
+        dao.save(erik);
+
+        // Act: change the email after saving
+        erik.setEmail("erik.new@test.com");
+
+        // Assert: old email no longer matches, new one does
+        assertNull(dao.findByEmail("erik@test.com"));
+        assertEquals(erik, dao.findByEmail("erik.new@test.com"));
+    }
+
+    @Test
+    void setEmail_toExistingEmail_throws() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Address1");
+        Student anna = new Student("Anna", "anna@test.com", "Address2");
+        dao.save(erik);
+        dao.save(anna);
+
+        // Act & Assert: the change is vetoed and the email stays unchanged
+        Exception ex = assertThrows(IllegalArgumentException.class, () -> anna.setEmail("ERIK@test.com"));
+        assertTrue(ex.getMessage().contains("already exists"));
+        assertEquals("anna@test.com", anna.getEmail());
+        assertEquals(anna, dao.findByEmail("anna@test.com"));
+    }
+
+    @Test
+    void setEmail_vetoedByLaterListener_keepsOldEmailIndexed() {
+        // Arrange: a listener added after saving rejects every email change
+        Student erik = new Student("Erik", "erik@test.com", "Address1");
+        dao.save(erik);
+        erik.addListener(new StudentListener() {
+            @Override
+            public void onEmailChange(Student s, String oldEmail, String newEmail) {
+                throw new IllegalArgumentException("Vetoed.");
+            }
+        });
+
+        // Act
+        assertThrows(IllegalArgumentException.class, () -> erik.setEmail("erik.new@test.com"));
+
+        // Assert: the index was reverted along with the change
+        assertEquals("erik@test.com", erik.getEmail());
+        assertEquals(erik, dao.findByEmail("erik@test.com"));
+        assertNull(dao.findByEmail("erik.new@test.com"));
+        dao.save(new Student("Other", "erik.new@test.com", "Address2"));
+    }
+
+    @Test
+    void delete_releasesEmail() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Address1");
+        dao.save(erik);
+
+        // Act
+        dao.delete(erik);
+        erik.setEmail("other@test.com");
+
+        // Assert: a new student can take the email, and the deleted one no longer affects the index
+        Student newErik = new Student("Erik", "erik@test.com", "Address1");
+        assertEquals(newErik, dao.save(newErik));
+        assertNull(dao.findByEmail("other@test.com"));
+    }
+
     @Test
     void find_byName_found() {
         // Arrange
@@ -112,6 +199,38 @@ public class StudentDaoImplTest {
         assertTrue(found.contains(anna2));
     }
 
+    @Test
+    void find_byName_caseInsensitiveAndTrimmed() {
+        // Arrange
+        Student anna = new Student("Anna Svensson", "anna@test.com", "Addr1");
+        dao.save(anna);
+
+        // Act
+        List<Student> found = dao.findByName("  anna SVENSSON ");
+
+        // Assert
+        assertEquals(1, found.size());
+        assertTrue(found.contains(anna));
+    }
+
+    @Test
+    void find_byName_afterSetNameAndDelete() {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Student bob = new Student("Bob", "bob@test.com", "Addr2");
+        dao.save(anna);
+        dao.save(bob);
+
+        // Act: rename one student and delete the other
+        anna.setName("Annie");
+        dao.delete(bob);
+
+        // Assert
+        assertTrue(dao.findByName("Anna").isEmpty());
+        assertTrue(dao.findByName("Annie").contains(anna));
+        assertTrue(dao.findByName("Bob").isEmpty());
+    }
+
     @Test
     void find_byName_notFound() {
         // Act
@@ -181,6 +300,54 @@ public class StudentDaoImplTest {
         assertTrue(all.contains(anna));
     }
 
+    @Test
+    void findAll_keepsInsertionOrder() {
+        // Arrange: save in reverse order of creation
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        dao.save(anna);
+        dao.save(erik);
+
+        // Act
+        List<Student> all = dao.findAll();
+
+        // Assert
+        assertEquals(anna, all.get(0));
+        assertEquals(erik, all.get(1));
+    }
+
+    @Test
+    void delete_thenFindById_returnsNull() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        dao.save(erik);
+
+        // Act
+        dao.delete(erik);
+
+        // Assert
+        assertNull(dao.findById(erik.getId()));
+    }
+
+    @Test
+    void viewAll_isLiveAndReadOnly() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        Collection<Student> view = dao.viewAll();
+
+        // Act
+        dao.save(erik);
+        dao.save(anna);
+        dao.delete(erik);
+
+        // Assert: the view follows the DAO and cannot be modified
+        assertEquals(1, view.size());
+        assertTrue(view.contains(anna));
+        assertSame(view, dao.viewAll());
+        assertThrows(UnsupportedOperationException.class, () -> view.add(erik));
+    }
+
     @Test
     void delete_existing() {
         // Arrange
@@ -214,6 +381,207 @@ public class StudentDaoImplTest {
         assertFalse(removed);
     }
 
+    @Test
+    void saveAll_savesBatch() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+
+        // Act
+        List<Student> saved = dao.saveAll(Arrays.asList(erik, anna));
+
+        // Assert
+        assertEquals(Arrays.asList(erik, anna), saved);
+        assertEquals(anna, dao.findByEmail("anna@test.com"));
+        assertTrue(dao.findByName("Erik").contains(erik));
+    }
+
+    @Test
+    void saveAll_duplicateEmailInBatch_savesNothing() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student other = new Student("Other", "ERIK@test.com", "Addr2");
+
+        // Act & Assert
+        Exception ex = assertThrows(IllegalArgumentException.class, () -> dao.saveAll(Arrays.asList(erik, other)));
+        assertTrue(ex.getMessage().contains("already exists"));
+        assertTrue(dao.findAll().isEmpty());
+    }
+
+    @Test
+    void saveAll_existingStudentOrNull_savesNothing() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        dao.save(erik);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> dao.saveAll(Arrays.asList(anna, erik)));
+        assertThrows(IllegalArgumentException.class, () -> dao.saveAll(Arrays.asList(anna, null)));
+        assertThrows(IllegalArgumentException.class, () -> dao.saveAll(null));
+        assertNull(dao.findById(anna.getId()));
+        assertEquals(1, dao.findAll().size());
+    }
+
+    @Test
+    void loadAll_buildsEveryIndex() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+
+        // Act
+        dao.loadAll(Arrays.asList(anna, erik));
+
+        // Assert: every index is built, and changes keep them in sync
+        assertEquals(Arrays.asList(anna, erik), dao.findAll());
+        assertEquals(Arrays.asList(erik, anna), dao.findAll(0, 10));
+        assertEquals(erik, dao.findByEmail("ERIK@test.com"));
+        assertEquals(Arrays.asList(anna), dao.findByName("anna"));
+        anna.setEmail("anna.s@test.com");
+        assertEquals(anna, dao.findByEmail("anna.s@test.com"));
+    }
+
+    @Test
+    void loadAll_duplicateEmail_leavesDaoEmpty() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student other = new Student("Other", "ERIK@test.com", "Addr2");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> dao.loadAll(Arrays.asList(erik, other)));
+        assertTrue(dao.findAll().isEmpty());
+        assertNull(dao.findByEmail("erik@test.com"));
+    }
+
+    @Test
+    void loadAll_nonEmptyDao_throws() {
+        // Arrange
+        dao.save(new Student("Erik", "erik@test.com", "Addr1"));
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> dao.loadAll(Arrays.asList(anna)));
+        assertThrows(IllegalArgumentException.class, () -> dao.loadAll(null));
+        assertNull(dao.findById(anna.getId()));
+    }
+
+    @Test
+    void deleteAll_countsDeleted() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        Student notSaved = new Student("Bob", "bob@test.com", "Addr3");
+        dao.saveAll(Arrays.asList(erik, anna));
+
+        // Act
+        int deleted = dao.deleteAll(Arrays.asList(erik, anna, notSaved));
+
+        // Assert
+        assertEquals(2, deleted);
+        assertTrue(dao.findAll().isEmpty());
+        assertNull(dao.findByEmail("erik@test.com"));
+    }
+
+    @Test
+    void delete_withCourseDao_unregistersFromCourses() {
+        // Arrange
+        CourseDaoImpl courseDao = new CourseDaoImpl();
+        StudentDaoImpl cascading = new StudentDaoImpl(courseDao);
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        cascading.saveAll(Arrays.asList(erik, anna));
+        Course java = new Course("Java", LocalDate.of(2029, 1, 1), 5, Arrays.asList(erik, anna));
+        Course sql = new Course("SQL", LocalDate.of(2029, 2, 1), 5, Arrays.asList(erik));
+        courseDao.saveAll(Arrays.asList(java, sql));
+
+        // Act
+        boolean deleted = cascading.delete(erik);
+
+        // Assert
+        assertTrue(deleted);
+        assertEquals(Arrays.asList(anna), java.getStudents());
+        assertTrue(sql.getStudents().isEmpty());
+        assertTrue(courseDao.findByStudent(erik).isEmpty());
+    }
+
+    @Test
+    void deleteAll_withCourseDao_unregistersFromCourses() {
+        // Arrange
+        CourseDaoImpl courseDao = new CourseDaoImpl();
+        StudentDaoImpl cascading = new StudentDaoImpl(courseDao);
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        Student bob = new Student("Bob", "bob@test.com", "Addr3");
+        cascading.saveAll(Arrays.asList(erik, anna, bob));
+        Course java = new Course("Java", LocalDate.of(2029, 1, 1), 5, Arrays.asList(erik, anna, bob));
+        courseDao.save(java);
+
+        // Act
+        int deleted = cascading.deleteAll(Arrays.asList(erik, anna));
+
+        // Assert
+        assertEquals(2, deleted);
+        assertEquals(Arrays.asList(bob), java.getStudents());
+        assertThrows(IllegalArgumentException.class, () -> new StudentDaoImpl(null));
+    }
+
+    @Test
+    void delete_withoutCourseDao_keepsRosters() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        dao.save(erik);
+        Course java = new Course("Java", LocalDate.of(2029, 1, 1), 5, Arrays.asList(erik));
+
+        // Act
+        dao.delete(erik);
+
+        // Assert
+        assertEquals(Arrays.asList(erik), java.getStudents());
+    }
+
+    @Test
+    void findAll_keysetPages_walkAllInIdOrder() {
+        // Arrange: save in reverse id order, and delete one
+        List<Student> created = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            created.add(new Student("Student" + i, "student" + i + "@test.com", "Addr"));
+        }
+        for (int i = created.size() - 1; i >= 0; i--) {
+            dao.save(created.get(i));
+        }
+        dao.delete(created.remove(4));
+
+        // Act: walk pages of three using the last id as the cursor
+        List<Student> walked = new ArrayList<>();
+        int cursor = 0;
+        List<Student> page;
+        while (!(page = dao.findAll(cursor, 3)).isEmpty()) {
+            assertTrue(page.size() <= 3);
+            walked.addAll(page);
+            cursor = page.get(page.size() - 1).getId();
+        }
+
+        // Assert
+        assertEquals(created, walked);
+        assertThrows(IllegalArgumentException.class, () -> dao.findAll(-1, 3));
+        assertThrows(IllegalArgumentException.class, () -> dao.findAll(0, -3));
+    }
+
+    @Test
+    void streams_matchFindMethods() {
+        // Arrange
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        Student erik2 = new Student("ERIK", "erik2@test.com", "Addr3");
+        dao.saveAll(Arrays.asList(erik, anna, erik2));
+
+        // Act & Assert
+        assertEquals(Arrays.asList(erik, anna, erik2), dao.streamAll().collect(Collectors.toList()));
+        assertEquals(Arrays.asList(erik, erik2), dao.streamByName("erik").collect(Collectors.toList()));
+        assertEquals(0, dao.streamByName("Bob").count());
+        assertThrows(IllegalArgumentException.class, () -> dao.streamByName(null));
+    }
+
     @Test
     void clear_emptiesList() {
         // Arrange
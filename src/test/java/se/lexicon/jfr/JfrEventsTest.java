@@ -0,0 +1,230 @@
+package se.lexicon.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.lexicon.dao.impl.ConcurrentCourseDaoImpl;
+import se.lexicon.dao.impl.CourseDaoImpl;
+import se.lexicon.dao.impl.StudentDaoImpl;
+import se.lexicon.model.Course;
+import se.lexicon.model.CourseListener;
+import se.lexicon.model.Student;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JfrEventsTest {
+
+    private Recording recording;
+    private Path file;
+
+    @BeforeEach
+    void setup() throws IOException {
+        recording = new Recording();
+        file = Files.createTempFile("events", ".jfr");
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        recording.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void daoCalls_withZeroThreshold_emitEventsWithDetails() throws IOException {
+        // Arrange
+        enableAll(Duration.ZERO);
+        StudentDaoImpl studentDao = new StudentDaoImpl();
+        CourseDaoImpl courseDao = new CourseDaoImpl();
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+
+        // Act
+        recording.start();
+        studentDao.saveAll(Arrays.asList(erik, anna));
+        studentDao.findByName("erik");
+        courseDao.save(new Course("Java Fullstack", LocalDate.of(2029, 1, 7), 12, Arrays.asList(erik)));
+        courseDao.save(new Course(".NET Fullstack", LocalDate.of(2029, 2, 4), 8));
+        courseDao.findByName("java");
+        studentDao.delete(anna);
+        List<RecordedEvent> events = stopAndRead();
+
+        // Assert
+        RecordedEvent saveAll = only(events, "se.lexicon.DaoSave", "saveAll");
+        assertEquals(2, saveAll.getInt("saved"));
+        assertEquals(StudentDaoImpl.class.getName(), saveAll.getClass("dao").getName());
+        RecordedEvent findByName = only(events, "se.lexicon.DaoQuery", "findByName", CourseDaoImpl.class);
+        assertEquals(1, findByName.getInt("scanned"));
+        assertEquals(1, findByName.getInt("results"));
+        assertEquals(1, only(events, "se.lexicon.DaoQuery", "findByName", StudentDaoImpl.class).getInt("results"));
+        assertEquals(1, only(events, "se.lexicon.DaoDelete", "delete").getInt("deleted"));
+    }
+
+    @Test
+    void enrollment_withZeroThreshold_emitsEvents() throws IOException {
+        // Arrange
+        enableAll(Duration.ZERO);
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Student anna = new Student("Anna", "anna@test.com", "Addr2");
+        CourseDaoImpl courseDao = new CourseDaoImpl();
+        Course java = courseDao.save(new Course("Java", LocalDate.of(2029, 1, 7), 12));
+
+        // Act
+        recording.start();
+        courseDao.register(java, erik);
+        courseDao.register(java, erik);
+        courseDao.register(java, anna);
+        courseDao.unregister(java, erik);
+        courseDao.unregisterFromAll(Arrays.asList(anna, erik));
+        List<RecordedEvent> events = stopAndRead();
+
+        // Assert: every call is timed, and the batch names a real student
+        assertEquals(3, named(events, "se.lexicon.Enrollment", "register").size());
+        RecordedEvent unregister = only(events, "se.lexicon.Enrollment", "unregister");
+        assertEquals(java.getId(), unregister.getInt("courseId"));
+        assertEquals(erik.getId(), unregister.getInt("studentId"));
+        assertEquals(CourseDaoImpl.class.getName(), unregister.getClass("dao").getName());
+        RecordedEvent unregisterAll = only(events, "se.lexicon.Enrollment", "unregisterAll");
+        assertEquals(anna.getId(), unregisterAll.getInt("studentId"));
+        assertEquals(1, unregisterAll.getInt("students"));
+    }
+
+    @Test
+    void enrollment_onCourseDirectly_emitsNothing() throws IOException {
+        // Arrange
+        enableAll(Duration.ZERO);
+        Course java = new CourseDaoImpl().save(new Course("Java", LocalDate.of(2029, 1, 7), 12));
+
+        // Act
+        recording.start();
+        java.register(new Student("Erik", "erik@test.com", "Addr1"));
+        List<RecordedEvent> events = stopAndRead();
+
+        // Assert
+        assertTrue(named(events, "se.lexicon.Enrollment", "register").isEmpty());
+    }
+
+    @Test
+    void defaultThreshold_recordsOnlySlowOperations() throws IOException {
+        // Arrange: a listener that stalls one registration past the 1 ms threshold
+        recording.enable(DaoQueryEvent.class);
+        recording.enable(EnrollmentEvent.class);
+        StudentDaoImpl studentDao = new StudentDaoImpl();
+        CourseDaoImpl courseDao = new CourseDaoImpl();
+        Student erik = studentDao.save(new Student("Erik", "erik@test.com", "Addr1"));
+        Student anna = studentDao.save(new Student("Anna", "anna@test.com", "Addr2"));
+        Course java = courseDao.save(new Course("Java", LocalDate.of(2029, 1, 7), 12));
+        java.addListener(new CourseListener() {
+            @Override
+            public void onRegister(Course course, Student student) {
+                if (student.equals(anna)) {
+                    sleep(5);
+                }
+            }
+        });
+
+        for (int i = 0; i < 1000; i++) {
+            studentDao.findByName("erik");
+            courseDao.register(java, erik);
+            courseDao.unregister(java, erik);
+        }
+
+        // Act
+        recording.start();
+        for (int i = 0; i < 1000; i++) {
+            studentDao.findByName("erik");
+        }
+        courseDao.register(java, erik);
+        courseDao.register(java, anna);
+        List<RecordedEvent> events = stopAndRead();
+
+        // Assert: a warm lookup only crosses the threshold if something, such as a GC pause, stalls it
+        assertTrue(named(events, "se.lexicon.DaoQuery", "findByName").size() < 10);
+        RecordedEvent slow = only(events, "se.lexicon.Enrollment", "register");
+        assertEquals(anna.getId(), slow.getInt("studentId"));
+        assertTrue(slow.getDuration().toMillis() >= 1);
+    }
+
+    @Test
+    void enrollment_waitingForCourse_isTimed() throws Exception {
+        // Arrange: another thread holds the course's monitor while the dao registers on it
+        enableAll(Duration.ofMillis(1));
+        ConcurrentCourseDaoImpl courseDao = new ConcurrentCourseDaoImpl();
+        Student erik = new Student("Erik", "erik@test.com", "Addr1");
+        Course java = courseDao.save(new Course("Java", LocalDate.of(2029, 1, 7), 12));
+        CountDownLatch locked = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            synchronized (java) {
+                locked.countDown();
+                sleep(20);
+            }
+        });
+
+        // Act
+        recording.start();
+        holder.start();
+        locked.await();
+        courseDao.register(java, erik);
+        holder.join();
+        List<RecordedEvent> events = stopAndRead();
+
+        // Assert
+        RecordedEvent contended = only(events, "se.lexicon.Enrollment", "register");
+        assertEquals(ConcurrentCourseDaoImpl.class.getName(), contended.getClass("dao").getName());
+        assertTrue(contended.getDuration().toMillis() >= 1);
+    }
+
+    private void enableAll(Duration threshold) {
+        recording.enable(DaoQueryEvent.class).withThreshold(threshold);
+        recording.enable(DaoSaveEvent.class).withThreshold(threshold);
+        recording.enable(DaoDeleteEvent.class).withThreshold(threshold);
+        recording.enable(EnrollmentEvent.class).withThreshold(threshold);
+    }
+
+    private List<RecordedEvent> stopAndRead() throws IOException {
+        recording.stop();
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String type, String operation) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(type))
+                .filter(event -> operation.equals(event.getString("operation")))
+                .collect(Collectors.toList());
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String type, String operation) {
+        List<RecordedEvent> matching = named(events, type, operation);
+        assertEquals(1, matching.size(), type + " " + operation);
+        return matching.get(0);
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String type, String operation, Class<?> dao) {
+        List<RecordedEvent> matching = named(events, type, operation).stream()
+                .filter(event -> event.getClass("dao").getName().equals(dao.getName()))
+                .collect(Collectors.toList());
+        assertEquals(1, matching.size(), type + " " + operation);
+        return matching.get(0);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package se.lexicon.model;
 
 import org.junit.jupiter.api.Test;
+import se.lexicon.util.StringPool;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,6 +33,18 @@ public class CourseTest {
         assertTrue(course.getId() > 0);
     }
 
+    @Test
+    void endDateFromStartAndDuration() {
+        // Arrange
+        LocalDate start = LocalDate.now().plusDays(1);
+
+        // Act
+        Course course = new Course("Two weeks", start, 2);
+
+        // Assert: the last running day is 13 days after the start
+        assertEquals(start.plusDays(13), course.getEndDate());
+    }
+
     @Test
     void createCourseWithStudents() {
         // Arrange: Create sample students
@@ -167,6 +183,54 @@ public class CourseTest {
         assertEquals(1, course.getStudents().size());
     }
 
+    @Test
+    void registerKeepsEnrollmentOrder() {
+        // Arrange
+        Course course = new Course("Test", LocalDate.now().plusDays(1), 5);
+        Student s1 = new Student("Alice", "alice@test.com", "Addr1");
+        Student s2 = new Student("Bob", "bob@test.com", "Addr2");
+        Student s3 = new Student("Carl", "carl@test.com", "Addr3");
+
+        // Act: register three, drop the middle one, register it again
+        course.register(s3);
+        course.register(s1);
+        course.register(s2);
+        course.unregister(s1);
+        course.register(s1);
+
+        // Assert
+        assertEquals(Arrays.asList(s3, s2, s1), course.getStudents());
+    }
+
+    @Test
+    void createCourseWithDuplicateStudentsKeepsOne() {
+        // Arrange
+        Student s1 = new Student("Alice", "alice@test.com", "Addr1");
+
+        // Act
+        Course course = new Course("Test", LocalDate.now().plusDays(1), 5, Arrays.asList(s1, s1));
+
+        // Assert
+        assertEquals(1, course.getStudents().size());
+    }
+
+    @Test
+    void viewStudentsIsLiveAndReadOnly() {
+        // Arrange
+        Course course = new Course("Test", LocalDate.now().plusDays(1), 5);
+        Student alice = new Student("Alice", "alice@test.com", "Addr1");
+        Collection<Student> view = course.viewStudents();
+
+        // Act
+        course.register(alice);
+
+        // Assert
+        assertTrue(view.contains(alice));
+        course.setStudents(Collections.emptyList());
+        assertTrue(view.isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> view.add(alice));
+    }
+
     @Test
     void unregisterStudent() {
         // Arrange
@@ -193,6 +257,150 @@ public class CourseTest {
         assertEquals("Student cannot be null.", exception.getMessage());
     }
 
+    @Test
+    void unregisterAllRemovesOnlyRegisteredStudents() {
+        // Arrange
+        Student alice = new Student("Alice", "alice@test.com", "Addr1");
+        Student bob = new Student("Bob", "bob@test.com", "Addr2");
+        Student carl = new Student("Carl", "carl@test.com", "Addr3");
+        Course course = new Course("Test", LocalDate.now().plusDays(1), 5, Arrays.asList(alice, bob));
+        List<Student> unregistered = new ArrayList<>();
+        course.addListener(new CourseListener() {
+            @Override
+            public void onUnregister(Course c, Student student) {
+                unregistered.add(student);
+            }
+        });
+
+        // Act
+        course.unregisterAll(Arrays.asList(alice, carl, alice));
+
+        // Assert: only alice was removed, and the listener heard about it once
+        assertEquals(Collections.singletonList(bob), course.getStudents());
+        assertEquals(1, course.getStudentCount());
+        assertEquals(Collections.singletonList(alice), unregistered);
+        assertThrows(IllegalArgumentException.class, () -> course.unregisterAll(Arrays.asList(bob, null)));
+        assertEquals(1, course.getStudentCount());
+    }
+
+    @Test
+    void setCourseNameVetoedByListener() {
+        // Arrange: a listener rejecting every change
+        Course course = new Course("Test", LocalDate.now().plusDays(1), 5);
+        course.addListener(new CourseListener() {
+            @Override
+            public void onNameChange(Course c, String oldName, String newName) {
+                throw new IllegalArgumentException("Vetoed.");
+            }
+        });
+
+        // Act & Assert: name stays unchanged
+        assertThrows(IllegalArgumentException.class, () -> course.setCourseName("Other"));
+        assertEquals("Test", course.getCourseName());
+    }
+
+    @Test
+    void registerVetoed_revertsEarlierListeners() {
+        // Arrange: a recording listener followed by one rejecting every registration
+        Student alice = new Student("Alice", "alice@test.com", "Addr1");
+        Course course = new Course("Test", LocalDate.now().plusDays(1), 5);
+        List<String> seen = new ArrayList<>();
+        course.addListener(new CourseListener() {
+            @Override
+            public void onRegister(Course c, Student student) {
+                seen.add("register");
+            }
+
+            @Override
+            public void onUnregister(Course c, Student student) {
+                seen.add("unregister");
+            }
+        });
+        course.addListener(new CourseListener() {
+            @Override
+            public void onRegister(Course c, Student student) {
+                throw new IllegalArgumentException("Vetoed.");
+            }
+        });
+
+        // Act
+        assertThrows(IllegalArgumentException.class, () -> course.register(alice));
+
+        // Assert: the first listener heard the registration undone, and the roster is unchanged
+        assertEquals(Arrays.asList("register", "unregister"), seen);
+        assertEquals(0, course.getStudentCount());
+    }
+
+    @Test
+    void setStudentsVetoed_revertsChangesAlreadySent() {
+        // Arrange: a recording listener followed by one rejecting Carl's registration
+        Student alice = new Student("Alice", "alice@test.com", "Addr1");
+        Student bob = new Student("Bob", "bob@test.com", "Addr2");
+        Student carl = new Student("Carl", "carl@test.com", "Addr3");
+        Course course = new Course("Test", LocalDate.now().plusDays(1), 5, Arrays.asList(alice));
+        List<String> seen = new ArrayList<>();
+        course.addListener(new CourseListener() {
+            @Override
+            public void onRegister(Course c, Student student) {
+                seen.add("register " + student.getName());
+            }
+
+            @Override
+            public void onUnregister(Course c, Student student) {
+                seen.add("unregister " + student.getName());
+            }
+        });
+        course.addListener(new CourseListener() {
+            @Override
+            public void onRegister(Course c, Student student) {
+                if (student == carl) {
+                    throw new IllegalArgumentException("Vetoed.");
+                }
+            }
+        });
+
+        // Act
+        assertThrows(IllegalArgumentException.class, () -> course.setStudents(Arrays.asList(bob, carl)));
+
+        // Assert: every change the first listener heard was undone, latest first, and the roster is unchanged
+        assertEquals(Arrays.asList("unregister Alice", "register Bob", "register Carl",
+                "unregister Carl", "unregister Bob", "register Alice"), seen);
+        assertEquals(Arrays.asList(alice), course.getStudents());
+    }
+
+    @Test
+    void studentIdSetOperationsAcrossCourses() {
+        // Arrange
+        Student alice = new Student("Alice", "alice@test.com", "Addr1");
+        Student bob = new Student("Bob", "bob@test.com", "Addr2");
+        Student carl = new Student("Carl", "carl@test.com", "Addr3");
+        Course python = new Course("Python", LocalDate.now().plusDays(1), 5, Arrays.asList(alice, bob));
+        Course economics = new Course("Economics", LocalDate.now().plusDays(1), 5, Arrays.asList(bob, carl));
+
+        // Act & Assert
+        assertArrayEquals(new int[]{bob.getId()}, python.studentIdsInCommon(economics).toArray());
+        assertEquals(3, python.studentIdsInEither(economics).cardinality());
+        assertArrayEquals(new int[]{alice.getId()}, python.studentIdsNotIn(economics).toArray());
+        assertEquals(1, python.countStudentsInCommon(economics));
+    }
+
+    @Test
+    void studentIdsFollowRegistration() {
+        // Arrange
+        Course course = new Course("Test", LocalDate.now().plusDays(1), 5);
+        Student alice = new Student("Alice", "alice@test.com", "Addr1");
+
+        // Act
+        course.register(alice);
+        course.register(alice);
+
+        // Assert
+        assertEquals(1, course.getStudentCount());
+        assertTrue(course.getStudentIds().contains(alice.getId()));
+        course.unregister(alice);
+        assertEquals(0, course.getStudentCount());
+    }
+
     @Test
     void toStringContainsInfo() {
         // Arrange
@@ -231,4 +439,21 @@ public class CourseTest {
         // Assert
         assertEquals(h1, h2);
     }
+
+    @Test
+    void stringPoolSharesCourseNames() {
+        // Arrange
+        Course.setStringPool(new StringPool());
+        try {
+            // Act: two terms of the same course
+            Course spring = new Course(new String("Java Fullstack"), LocalDate.now().plusDays(1), 5);
+            Course autumn = new Course("Java", LocalDate.now().plusDays(200), 5);
+            autumn.setCourseName(new String("Java Fullstack"));
+
+            // Assert
+            assertSame(spring.getCourseName(), autumn.getCourseName());
+        } finally {
+            Course.setStringPool(null);
+        }
+    }
 }
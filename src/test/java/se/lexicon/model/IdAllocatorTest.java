@@ -0,0 +1,167 @@
+package se.lexicon.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdAllocatorTest {
+
+    @Test
+    void sequential_countsUpAndResumes() {
+        // Arrange
+        IdAllocator allocator = new SequentialIdAllocator();
+
+        // Act
+        int first = allocator.nextId();
+        allocator.advancePast(100);
+        int resumed = allocator.nextId();
+        allocator.advancePast(50);
+
+        // Assert: advancing backwards has no effect
+        assertEquals(1, first);
+        assertEquals(101, resumed);
+        assertEquals(102, allocator.nextId());
+    }
+
+    @Test
+    void block_uniqueAcrossThreads() throws Exception {
+        // Arrange
+        IdAllocator allocator = new BlockIdAllocator(64);
+
+        // Act & Assert: 8 threads allocate 10,000 ids each without duplicates
+        assertTrue(uniqueAcrossThreads(allocator));
+    }
+
+    @Test
+    void block_discardsBlocksAfterAdvance() {
+        // Arrange
+        IdAllocator allocator = new BlockIdAllocator(64);
+        allocator.nextId();
+
+        // Act
+        allocator.advancePast(10);
+
+        // Assert: the rest of the old block (2..64) is not used
+        assertTrue(allocator.nextId() > 10);
+    }
+
+    @Test
+    void block_endsAtMaxValueWithoutWrapping() {
+        // Arrange: the last block straddles Integer.MAX_VALUE
+        IdAllocator allocator = new BlockIdAllocator(64);
+        allocator.advancePast(Integer.MAX_VALUE - 3);
+
+        // Act & Assert: the last ids are handed out, then allocation fails instead of going negative
+        assertEquals(Integer.MAX_VALUE - 2, allocator.nextId());
+        assertEquals(Integer.MAX_VALUE - 1, allocator.nextId());
+        assertEquals(Integer.MAX_VALUE, allocator.nextId());
+        assertThrows(IllegalStateException.class, allocator::nextId);
+        assertThrows(IllegalStateException.class, allocator::nextId);
+    }
+
+    @Test
+    void block_invalidSize_throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new BlockIdAllocator(0));
+    }
+
+    @Test
+    void node_prefixesIds() {
+        // Arrange: two nodes with 4 node bits each
+        IdAllocator node1 = new NodeIdAllocator(1, 4, new SequentialIdAllocator());
+        IdAllocator node2 = new NodeIdAllocator(2, 4, new SequentialIdAllocator());
+
+        // Act
+        int a = node1.nextId();
+        int b = node2.nextId();
+
+        // Assert: same local id, different nodes, both positive
+        assertEquals((1 << 27) | 1, a);
+        assertEquals((2 << 27) | 1, b);
+        assertTrue(a > 0 && b > 0);
+    }
+
+    @Test
+    void node_advancesOnlyOnOwnIds() {
+        // Arrange
+        IdAllocator node1 = new NodeIdAllocator(1, 4, new SequentialIdAllocator());
+
+        // Act: an id from node 2 is ignored, an id from node 1 is honoured
+        node1.advancePast((2 << 27) | 500);
+        int afterForeign = node1.nextId();
+        node1.advancePast((1 << 27) | 500);
+
+        // Assert
+        assertEquals((1 << 27) | 1, afterForeign);
+        assertEquals((1 << 27) | 501, node1.nextId());
+    }
+
+    @Test
+    void node_invalidArguments_throw() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new NodeIdAllocator(16, 4, new SequentialIdAllocator()));
+        assertThrows(IllegalArgumentException.class, () -> new NodeIdAllocator(0, 0, new SequentialIdAllocator()));
+        assertThrows(IllegalArgumentException.class, () -> new NodeIdAllocator(0, 4, null));
+    }
+
+    @Test
+    void restoredStudent_keepsIdAndAdvancesAllocator() {
+        // Arrange
+        int restoredId = Student.getIdAllocator().nextId() + 1_000;
+
+        // Act
+        Student restored = new Student(restoredId, "Anna", "anna@test.com", "Addr1");
+        Student fresh = new Student("Bob", "bob@test.com", "Addr2");
+
+        // Assert
+        assertEquals(restoredId, restored.getId());
+        assertTrue(fresh.getId() > restoredId);
+    }
+
+    @Test
+    void restoredCourse_allowsPastStartDate() {
+        // Arrange
+        int restoredId = Course.getIdAllocator().nextId() + 1_000;
+
+        // Act
+        Course restored = new Course(restoredId, "History", LocalDate.of(2000, 1, 1), 4, new ArrayList<>());
+
+        // Assert
+        assertEquals(restoredId, restored.getId());
+        assertTrue(new Course("Next", LocalDate.now(), 1).getId() > restoredId);
+    }
+
+    private static boolean uniqueAcrossThreads(IdAllocator allocator) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<int[]>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                int[] ids = new int[10_000];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = allocator.nextId();
+                }
+                return ids;
+            }));
+        }
+        Set<Integer> seen = new HashSet<>();
+        boolean unique = true;
+        for (Future<int[]> future : futures) {
+            for (int id : future.get()) {
+                unique &= id > 0 && seen.add(id);
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        return unique;
+    }
+}
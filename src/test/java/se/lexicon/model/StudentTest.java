@@ -1,6 +1,7 @@
 package se.lexicon.model;
 
 import org.junit.jupiter.api.Test;
+import se.lexicon.util.StringPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -159,6 +160,90 @@ public class StudentTest {
         assertEquals("new.email@test.com", student.getEmail());
     }
 
+    @Test
+    void setEmailNotifiesListener() {
+        // Arrange: a listener recording the change
+        Student student = new Student("Anna", "anna@test.com", "Address 1");
+        String[] seen = new String[2];
+        student.addListener(new StudentListener() {
+            @Override
+            public void onEmailChange(Student s, String oldEmail, String newEmail) {
+                seen[0] = oldEmail;
+                seen[1] = newEmail;
+            }
+        });
+
+        // Act
+        student.setEmail("new.email@test.com");
+
+        // Assert
+        assertEquals("anna@test.com", seen[0]);
+        assertEquals("new.email@test.com", seen[1]);
+    }
+
+    @Test
+    void setEmailVetoedByListener() {
+        // Arrange: a listener rejecting every change
+        Student student = new Student("Anna", "anna@test.com", "Address 1");
+        student.addListener(new StudentListener() {
+            @Override
+            public void onEmailChange(Student s, String oldEmail, String newEmail) {
+                throw new IllegalArgumentException("Vetoed.");
+            }
+        });
+
+        // Act & Assert: email stays unchanged
+        assertThrows(IllegalArgumentException.class, () -> student.setEmail("new.email@test.com"));
+        assertEquals("anna@test.com", student.getEmail());
+    }
+
+    @Test
+    void setEmailVetoed_revertsEarlierListeners() {
+        // Arrange: a recording listener followed by one rejecting every change
+        Student student = new Student("Anna", "anna@test.com", "Address 1");
+        StringBuilder seen = new StringBuilder();
+        student.addListener(new StudentListener() {
+            @Override
+            public void onEmailChange(Student s, String oldEmail, String newEmail) {
+                seen.append(oldEmail).append(" -> ").append(newEmail).append(';');
+            }
+        });
+        student.addListener(new StudentListener() {
+            @Override
+            public void onEmailChange(Student s, String oldEmail, String newEmail) {
+                throw new IllegalArgumentException("Vetoed.");
+            }
+        });
+
+        // Act
+        assertThrows(IllegalArgumentException.class, () -> student.setEmail("new@test.com"));
+
+        // Assert: the first listener heard the change and then its revert
+        assertEquals("anna@test.com -> new@test.com;new@test.com -> anna@test.com;", seen.toString());
+        assertEquals("anna@test.com", student.getEmail());
+    }
+
+    @Test
+    void setAddressNotifiesListener() {
+        // Arrange: a listener recording the change
+        Student student = new Student("Anna", "anna@test.com", "Address 1");
+        String[] seen = new String[2];
+        student.addListener(new StudentListener() {
+            @Override
+            public void onAddressChange(Student s, String oldAddress, String newAddress) {
+                seen[0] = oldAddress;
+                seen[1] = newAddress;
+            }
+        });
+
+        // Act
+        student.setAddress("Address 2");
+
+        // Assert
+        assertEquals("Address 1", seen[0]);
+        assertEquals("Address 2", seen[1]);
+    }
+
     @Test
     void setAddressValid() {
         // Arrange: Create student with initial address
@@ -236,4 +321,24 @@ public class StudentTest {
         assertTrue(result.contains("Address 1"));
     }
 
+    @Test
+    void stringPoolSharesNamesAndAddresses() {
+        // Arrange: a student made before the pool is set
+        Student early = new Student(new String("Anna"), "anna@test.com", new String("Dorm 1"));
+        Student.setStringPool(new StringPool());
+        try {
+            // Act: make two students, change one, and canonicalize the early one
+            Student first = new Student(new String("Anna"), "anna1@test.com", new String("Dorm 1"));
+            Student second = new Student("Bob", "bob@test.com", "Dorm 2");
+            second.setAddress(new String("Dorm 1"));
+            early.canonicalize();
+
+            // Assert: all hold the same instances
+            assertSame(first.getAddress(), second.getAddress());
+            assertSame(first.getAddress(), early.getAddress());
+            assertSame(first.getName(), early.getName());
+        } finally {
+            Student.setStringPool(null);
+        }
+    }
 }
@@ -0,0 +1,60 @@
+package se.lexicon.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CourseRecordTest {
+
+    @Test
+    void registerAndUnregister_keepEnrollmentOrder() {
+        // Arrange
+        CourseRecord course = new CourseRecord(1, "Math", LocalDate.of(2020, 1, 1), 4, new int[]{5, 3, 9});
+
+        // Act
+        course.register(3);
+        course.unregister(5);
+        course.register(7);
+        course.register(5);
+        course.unregister(42);
+
+        // Assert: duplicates are ignored, and a student registering again goes last
+        assertArrayEquals(new int[]{3, 9, 7, 5}, course.studentIds());
+    }
+
+    @Test
+    void studentIds_untouchedRecord_returnsCopy() {
+        // Arrange
+        int[] loaded = {1, 2, 3};
+        CourseRecord course = new CourseRecord(1, "Math", LocalDate.of(2020, 1, 1), 4, loaded);
+
+        // Act
+        int[] ids = course.studentIds();
+        ids[0] = 99;
+
+        // Assert
+        assertArrayEquals(new int[]{1, 2, 3}, course.studentIds());
+    }
+
+    @Test
+    void replay_largeRoster_churns() {
+        // Arrange
+        CourseRecord course = new CourseRecord(1, "Big", LocalDate.of(2020, 1, 1), 4, new int[0]);
+
+        // Act: 200,000 registrations, then every other student leaves again
+        for (int id = 1; id <= 200_000; id++) {
+            course.register(id);
+        }
+        for (int id = 1; id <= 200_000; id += 2) {
+            course.unregister(id);
+        }
+
+        // Assert
+        int[] ids = course.studentIds();
+        assertEquals(100_000, ids.length);
+        assertEquals(2, ids[0]);
+        assertEquals(200_000, ids[ids.length - 1]);
+    }
+}
@@ -0,0 +1,171 @@
+package se.lexicon.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replay_rebuildsEveryRecordType() throws IOException {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Student bob = new Student("Bob", "bob@test.com", "Addr2");
+        Course java = new Course("Java", LocalDate.of(2029, 1, 1), 4, Arrays.asList(anna));
+
+        // Act: journal a history, then replay it into a fresh state
+        try (Journal journal = Journal.open(directory, 1, FsyncPolicy.NONE, 100, (type, payload) -> fail())) {
+            journal.saveStudents(Arrays.asList(anna, bob));
+            journal.setStudentName(anna.getId(), "Anna Svensson");
+            journal.setStudentEmail(anna.getId(), "anna.s@test.com");
+            journal.setStudentAddress(bob.getId(), "Addr3");
+            journal.saveCourse(java);
+            journal.register(java.getId(), bob.getId());
+            journal.unregister(java.getId(), anna.getId());
+            journal.setCourseName(java.getId(), "Java EE");
+            journal.setCourseStartDate(java.getId(), LocalDate.of(2020, 2, 3));
+            journal.setCourseWeekDuration(java.getId(), 8);
+            journal.deleteStudent(anna.getId());
+        }
+        StoreState state = new StoreState();
+        try (Journal journal = Journal.open(directory, 1, FsyncPolicy.NONE, 100, state::apply)) {
+            assertNotNull(journal);
+        }
+
+        // Assert
+        List<Student> students = state.students();
+        assertEquals(1, students.size());
+        assertEquals("Addr3", students.get(0).getAddress());
+        Course course = state.courses().get(0);
+        assertEquals(java.getId(), course.getId());
+        assertEquals("Java EE", course.getCourseName());
+        assertEquals(LocalDate.of(2020, 2, 3), course.getStartDate());
+        assertEquals(8, course.getWeekDuration());
+        assertEquals(Arrays.asList(students.get(0)), course.getStudents());
+    }
+
+    @Test
+    void tornTail_isDroppedAndAppendsContinue() throws IOException {
+        // Arrange: three records, the last one cut short as if by a crash
+        try (Journal journal = Journal.open(directory, 1, FsyncPolicy.ALWAYS, 100, (type, payload) -> fail())) {
+            journal.deleteStudent(1);
+            journal.deleteStudent(2);
+            journal.deleteStudent(3);
+        }
+        Path segment = Journal.segment(directory, 1);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 2);
+        }
+
+        // Act: reopen, append, and reopen again
+        List<Byte> firstReplay = new ArrayList<>();
+        try (Journal journal = Journal.open(directory, 1, FsyncPolicy.ALWAYS, 100, (type, payload) -> firstReplay.add(type))) {
+            journal.deleteCourse(4);
+        }
+        List<Byte> secondReplay = new ArrayList<>();
+        try (Journal journal = Journal.open(directory, 1, FsyncPolicy.ALWAYS, 100, (type, payload) -> secondReplay.add(type))) {
+            assertNotNull(journal);
+        }
+
+        // Assert
+        assertEquals(Arrays.asList(Journal.DELETE_STUDENT, Journal.DELETE_STUDENT), firstReplay);
+        assertEquals(Arrays.asList(Journal.DELETE_STUDENT, Journal.DELETE_STUDENT, Journal.DELETE_COURSE), secondReplay);
+    }
+
+    @Test
+    void corruptChecksum_stopsReplay() throws IOException {
+        // Arrange
+        try (Journal journal = Journal.open(directory, 1, FsyncPolicy.NONE, 100, (type, payload) -> fail())) {
+            journal.deleteStudent(1);
+            journal.deleteStudent(2);
+        }
+        Path segment = Journal.segment(directory, 1);
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 6] ^= 0x7F;
+        Files.write(segment, bytes);
+
+        // Act
+        AtomicInteger replayed = new AtomicInteger();
+        long valid = Journal.replay(segment, (type, payload) -> replayed.incrementAndGet());
+
+        // Assert: only the first record is intact
+        assertEquals(1, replayed.get());
+        assertEquals(Journal.HEADER_SIZE + 13, valid);
+    }
+
+    @Test
+    void rotate_startsNewSegmentAndOpenSkipsOlderOnes() throws IOException {
+        // Arrange
+        int generation;
+        try (Journal journal = Journal.open(directory, 1, FsyncPolicy.NONE, 100, (type, payload) -> fail())) {
+            journal.deleteStudent(1);
+            generation = journal.rotate();
+            journal.deleteStudent(2);
+        }
+
+        // Act: replay from the new generation, as after a snapshot
+        List<Integer> ids = new ArrayList<>();
+        try (Journal journal = Journal.open(directory, generation, FsyncPolicy.NONE, 100,
+                (type, payload) -> ids.add(payload.getInt()))) {
+            assertNotNull(journal);
+        }
+
+        // Assert
+        assertEquals(2, generation);
+        assertEquals(Arrays.asList(2), ids);
+        assertFalse(Files.exists(Journal.segment(directory, 1)));
+    }
+
+    @Test
+    void groupCommit_concurrentWritersAreAllDurable() throws Exception {
+        // Arrange
+        int threads = 8;
+        int perThread = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        // Act
+        try (Journal journal = Journal.open(directory, 1, FsyncPolicy.ALWAYS, 100, (type, payload) -> fail())) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int base = t * perThread;
+                futures.add(pool.submit(() -> {
+                    for (int i = 1; i <= perThread; i++) {
+                        journal.register(base + i, i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        // Assert
+        AtomicInteger replayed = new AtomicInteger();
+        Journal.replay(Journal.segment(directory, 1), (type, payload) -> replayed.incrementAndGet());
+        assertEquals(threads * perThread, replayed.get());
+    }
+}
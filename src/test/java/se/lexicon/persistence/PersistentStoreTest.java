@@ -0,0 +1,230 @@
+package se.lexicon.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopen_recoversSavesChangesAndDeletes() throws IOException {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Student bob = new Student("Bob", "bob@test.com", "Addr2");
+        Course java = new Course("Java", LocalDate.of(2029, 1, 1), 4);
+
+        // Act: save, change and delete through the store, then reopen it
+        try (PersistentStore store = new PersistentStore(directory, FsyncPolicy.ALWAYS)) {
+            store.getStudentDao().saveAll(Arrays.asList(anna, bob));
+            store.getCourseDao().save(java);
+            java.register(anna);
+            java.register(bob);
+            anna.setEmail("anna.s@test.com");
+            java.setWeekDuration(6);
+            store.getStudentDao().delete(bob);
+        }
+        try (PersistentStore store = new PersistentStore(directory, FsyncPolicy.ALWAYS)) {
+
+            // Assert
+            Student recovered = store.getStudentDao().findByEmail("anna.s@test.com");
+            assertNotNull(recovered);
+            assertEquals(anna.getId(), recovered.getId());
+            assertNull(store.getStudentDao().findById(bob.getId()));
+            Course course = store.getCourseDao().findById(java.getId());
+            assertEquals(6, course.getWeekDuration());
+            assertEquals(Arrays.asList(recovered), course.getStudents());
+            assertEquals(Arrays.asList(course), store.getCourseDao().findByStudent(recovered));
+        }
+    }
+
+    @Test
+    void recoveredEntities_keepJournalingChanges() throws IOException {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        try (PersistentStore store = new PersistentStore(directory, FsyncPolicy.NONE)) {
+            store.getStudentDao().save(anna);
+        }
+
+        // Act: change the recovered student, then reopen
+        try (PersistentStore store = new PersistentStore(directory, FsyncPolicy.NONE)) {
+            store.getStudentDao().findById(anna.getId()).setName("Anna Svensson");
+        }
+        try (PersistentStore store = new PersistentStore(directory, FsyncPolicy.NONE)) {
+
+            // Assert
+            assertEquals("Anna Svensson", store.getStudentDao().findById(anna.getId()).getName());
+        }
+    }
+
+    @Test
+    void checkpoint_recoversSnapshotPlusJournalTail() throws IOException {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Student bob = new Student("Bob", "bob@test.com", "Addr2");
+        Course java = new Course("Java", LocalDate.of(2029, 1, 1), 4);
+
+        // Act: checkpoint halfway, then keep changing
+        try (PersistentStore store = new PersistentStore(directory, FsyncPolicy.INTERVAL, 5)) {
+            store.getStudentDao().save(anna);
+            store.getCourseDao().save(java);
+            java.register(anna);
+            store.checkpoint();
+            store.getStudentDao().save(bob);
+            java.register(bob);
+            java.setCourseName("Java EE");
+        }
+        try (PersistentStore store = new PersistentStore(directory, FsyncPolicy.INTERVAL, 5)) {
+
+            // Assert
+            Course course = store.getCourseDao().findById(java.getId());
+            assertEquals("Java EE", course.getCourseName());
+            List<Student> roster = course.getStudents();
+            assertEquals(2, roster.size());
+            assertEquals(bob.getId(), roster.get(1).getId());
+            assertTrue(Files.exists(directory.resolve("snapshot.bin")));
+            assertFalse(Files.exists(Journal.segment(directory, 1)));
+        }
+    }
+
+    @Test
+    void checkpointInBackground_changesWhileWriting_areRecovered() throws Exception {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Student bob = new Student("Bob", "bob@test.com", "Addr2");
+        Course java = new Course("Java", LocalDate.of(2029, 1, 1), 4);
+
+        // Act: keep changing the store while the snapshot is written
+        try (PersistentStore store = new PersistentStore(directory, FsyncPolicy.NONE)) {
+            store.getStudentDao().saveAll(Arrays.asList(anna, bob));
+            store.getCourseDao().save(java);
+            java.register(anna);
+            CompletableFuture<Void> checkpoint = store.checkpointInBackground();
+            anna.setEmail("anna.s@test.com");
+            java.register(bob);
+            store.getStudentDao().delete(bob);
+            checkpoint.get();
+        }
+        try (PersistentStore store = new PersistentStore(directory, FsyncPolicy.NONE)) {
+
+            // Assert
+            assertEquals(anna.getId(), store.getStudentDao().findByEmail("anna.s@test.com").getId());
+            assertNull(store.getStudentDao().findById(bob.getId()));
+            assertEquals(1, store.getCourseDao().findById(java.getId()).getStudentCount());
+            assertFalse(Files.exists(Journal.segment(directory, 1)));
+        }
+    }
+
+    @Test
+    void deletedIds_areNotReusedAfterRestart() throws IOException {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        try (PersistentStore store = new PersistentStore(directory, FsyncPolicy.NONE)) {
+            store.getStudentDao().save(anna);
+            store.checkpoint();
+            store.getStudentDao().delete(anna);
+            store.checkpoint();
+        }
+
+        // Act
+        try (PersistentStore store = new PersistentStore(directory, FsyncPolicy.NONE)) {
+            Student next = new Student("Next", "next@test.com", "Addr2");
+
+            // Assert
+            assertTrue(store.getStudentDao().findAll().isEmpty());
+            assertTrue(next.getId() > anna.getId());
+        }
+    }
+
+    @Test
+    void vetoedChange_isNotJournaled() throws IOException {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Student bob = new Student("Bob", "bob@test.com", "Addr2");
+        try (PersistentStore store = new PersistentStore(directory, FsyncPolicy.NONE)) {
+            store.getStudentDao().saveAll(Arrays.asList(anna, bob));
+
+            // Act: the email index rejects a taken email
+            assertThrows(IllegalArgumentException.class, () -> bob.setEmail("ANNA@test.com"));
+        }
+
+        // Assert
+        try (PersistentStore store = new PersistentStore(directory, FsyncPolicy.NONE)) {
+            assertEquals("bob@test.com", store.getStudentDao().findById(bob.getId()).getEmail());
+        }
+    }
+
+    @Test
+    void failedJournalWrite_undoesSave() throws IOException {
+        // Arrange: a store whose journal can no longer be written
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Student bob = new Student("Bob", "bob@test.com", "Addr2");
+        Course math = new Course("Math", LocalDate.of(2029, 1, 1), 4);
+        PersistentStore store = new PersistentStore(directory, FsyncPolicy.NONE);
+        store.close();
+
+        // Act
+        assertThrows(UncheckedIOException.class, () -> store.getStudentDao().save(anna));
+        assertThrows(UncheckedIOException.class, () -> store.getStudentDao().saveAll(Arrays.asList(bob)));
+        assertThrows(UncheckedIOException.class, () -> store.getCourseDao().save(math));
+
+        // Assert: nothing is left in memory that the journal does not hold
+        assertNull(store.getStudentDao().findById(anna.getId()));
+        assertNull(store.getStudentDao().findByEmail("anna@test.com"));
+        assertNull(store.getStudentDao().findById(bob.getId()));
+        assertNull(store.getCourseDao().findById(math.getId()));
+    }
+
+    @Test
+    void failedJournalWrite_leavesChangesAndDeletesUnapplied() throws IOException {
+        // Arrange: saved entities in a store whose journal then can no longer be written
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Student bob = new Student("Bob", "bob@test.com", "Addr2");
+        Course math = new Course("Math", LocalDate.of(2029, 1, 1), 4, Arrays.asList(anna));
+        PersistentStore store = new PersistentStore(directory, FsyncPolicy.NONE);
+        store.getStudentDao().saveAll(Arrays.asList(anna, bob));
+        store.getCourseDao().save(math);
+        store.close();
+
+        // Act
+        assertThrows(UncheckedIOException.class, () -> anna.setEmail("anna.s@test.com"));
+        assertThrows(UncheckedIOException.class, () -> math.setCourseName("Algebra"));
+        assertThrows(UncheckedIOException.class, () -> math.register(bob));
+        assertThrows(UncheckedIOException.class, () -> store.getStudentDao().delete(anna));
+        assertThrows(UncheckedIOException.class, () -> store.getStudentDao().deleteAll(Arrays.asList(bob)));
+        assertThrows(UncheckedIOException.class, () -> store.getCourseDao().delete(math));
+
+        // Assert: the indexes still match the unchanged fields, and nothing was deleted
+        assertEquals("anna@test.com", anna.getEmail());
+        assertSame(anna, store.getStudentDao().findByEmail("anna@test.com"));
+        assertNull(store.getStudentDao().findByEmail("anna.s@test.com"));
+        assertEquals(Arrays.asList(math), store.getCourseDao().findByName("Math"));
+        assertTrue(store.getCourseDao().findByName("Algebra").isEmpty());
+        assertEquals(Arrays.asList(math), store.getCourseDao().findByStudent(anna));
+        assertTrue(store.getCourseDao().findByStudent(bob).isEmpty());
+        assertSame(bob, store.getStudentDao().findById(bob.getId()));
+        assertSame(math, store.getCourseDao().findById(math.getId()));
+    }
+
+    @Test
+    void constructor_invalidArguments_throw() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new PersistentStore(null, FsyncPolicy.NONE));
+        assertThrows(IllegalArgumentException.class, () -> new PersistentStore(directory, null));
+        assertThrows(IllegalArgumentException.class, () -> new PersistentStore(directory, FsyncPolicy.INTERVAL, 0));
+    }
+}
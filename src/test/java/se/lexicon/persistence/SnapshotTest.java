@@ -0,0 +1,105 @@
+package se.lexicon.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import se.lexicon.model.Course;
+import se.lexicon.model.Student;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeAndRead_spanningSeveralChunks_roundTrips() throws IOException {
+        // Arrange: more students than fit one chunk
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < Snapshot.CHUNK_SIZE + 10; i++) {
+            students.add(new Student("Student " + i, "student" + i + "@test.com", "Gatan " + i));
+        }
+        Course java = new Course("Java", LocalDate.of(2029, 1, 1), 4,
+                Arrays.asList(students.get(5), students.get(Snapshot.CHUNK_SIZE + 1)));
+        Path path = directory.resolve("snapshot.bin");
+
+        // Act
+        Snapshot.write(path, 7, 1_000_000, java.getId() + 100, students, Arrays.asList(CourseRecord.of(java)));
+        StoreState state = new StoreState();
+        int generation = Snapshot.read(path, state);
+
+        // Assert
+        assertEquals(7, generation);
+        assertEquals(1_000_000, state.getHighestStudentId());
+        assertEquals(java.getId() + 100, state.getHighestCourseId());
+        List<Student> loaded = state.students();
+        assertEquals(students.size(), loaded.size());
+        Student last = loaded.get(loaded.size() - 1);
+        assertEquals(students.get(students.size() - 1).getId(), last.getId());
+        assertEquals("student" + (Snapshot.CHUNK_SIZE + 9) + "@test.com", last.getEmail());
+        Course course = state.courses().get(0);
+        assertEquals("Java", course.getCourseName());
+        assertEquals(Arrays.asList(students.get(5).getId(), students.get(Snapshot.CHUNK_SIZE + 1).getId()),
+                Arrays.asList(course.getStudents().get(0).getId(), course.getStudents().get(1).getId()));
+    }
+
+    @Test
+    void read_corruptChunk_throws() throws IOException {
+        // Arrange
+        Student anna = new Student("Anna", "anna@test.com", "Addr1");
+        Path path = directory.resolve("snapshot.bin");
+        Snapshot.write(path, 1, anna.getId(), 0, Arrays.asList(anna), new ArrayList<>());
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[10] ^= 0x7F;
+        Files.write(path, bytes);
+
+        // Act & Assert
+        IOException ex = assertThrows(IOException.class, () -> Snapshot.read(path, new StoreState()));
+        assertTrue(ex.getMessage().contains("Corrupt"));
+    }
+
+    @Test
+    void read_versionOne_isStillSupported() throws IOException {
+        // Arrange: a version 1 snapshot, one stream with a trailing CRC
+        Path path = directory.resolve("snapshot.bin");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(Files.newOutputStream(path), crc))) {
+            out.writeInt(Snapshot.MAGIC);
+            out.writeInt(1);
+            out.writeInt(3);
+            out.writeInt(41);
+            out.writeInt(9);
+            out.writeInt(1);
+            out.writeInt(41);
+            for (String text : Arrays.asList("Anna", "anna@test.com", "Addr1")) {
+                byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(utf8.length);
+                out.write(utf8);
+            }
+            out.writeInt(0);
+            out.writeInt((int) crc.getValue());
+        }
+
+        // Act
+        StoreState state = new StoreState();
+        int generation = Snapshot.read(path, state);
+
+        // Assert
+        assertEquals(3, generation);
+        assertEquals(9, state.getHighestCourseId());
+        assertEquals("anna@test.com", state.students().get(0).getEmail());
+        assertTrue(state.courses().isEmpty());
+    }
+}
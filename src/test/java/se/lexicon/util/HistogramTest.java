@@ -0,0 +1,69 @@
+package se.lexicon.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramTest {
+
+    @Test
+    void percentile_smallValues_areExact() {
+        // Arrange
+        Histogram histogram = new Histogram();
+
+        // Act
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        // Assert
+        assertEquals(100, histogram.count());
+        assertEquals(50, histogram.percentile(50));
+        assertEquals(99, histogram.percentile(99));
+        assertEquals(100, histogram.percentile(100));
+        assertEquals(1, histogram.percentile(0));
+        assertEquals(50.5, histogram.mean(), 1e-9);
+        assertEquals(100, histogram.max());
+    }
+
+    @Test
+    void percentile_largeValues_areWithinBucketPrecision() {
+        // Arrange
+        Histogram histogram = new Histogram();
+        long[] values = {1_000, 123_456, 9_876_543, 1_000_000_000L, 777_777_777_777L};
+
+        // Act & Assert: each value alone is reported at most 1/64 above itself, and never above the max
+        for (long value : values) {
+            histogram.reset();
+            histogram.record(value);
+            histogram.record(value / 2);
+            long reported = histogram.percentile(50);
+            assertTrue(reported >= value / 2 && reported <= value / 2 + value / 2 / 64, "For " + value);
+            assertEquals(value, histogram.percentile(100));
+        }
+    }
+
+    @Test
+    void index_isMonotonicAndMatchesHighestValue() {
+        // Act & Assert
+        int previous = -1;
+        for (long value = 0; value < 1L << 42; value = value < 1000 ? value + 1 : value + value / 37) {
+            int index = Histogram.index(value);
+            assertTrue(index >= previous, "For " + value);
+            assertTrue(value <= Histogram.highestValue(index), "For " + value);
+            previous = index;
+        }
+    }
+
+    @Test
+    void emptyAndInvalid_areHandled() {
+        // Arrange
+        Histogram histogram = new Histogram();
+
+        // Act & Assert
+        assertEquals(0, histogram.percentile(99));
+        assertEquals(0, histogram.mean());
+        assertThrows(IllegalArgumentException.class, () -> histogram.record(-1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(101));
+    }
+}
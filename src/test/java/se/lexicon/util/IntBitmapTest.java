@@ -0,0 +1,132 @@
+package se.lexicon.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntBitmapTest {
+
+    @Test
+    void add_remove_contains() {
+        // Arrange
+        IntBitmap bitmap = new IntBitmap();
+
+        // Act
+        bitmap.add(3);
+        bitmap.add(70_000);
+        bitmap.add(3);
+        boolean removed = bitmap.remove(70_000);
+
+        // Assert
+        assertTrue(removed);
+        assertTrue(bitmap.contains(3));
+        assertFalse(bitmap.contains(70_000));
+        assertEquals(1, bitmap.cardinality());
+        assertArrayEquals(new int[]{3}, bitmap.toArray());
+    }
+
+    @Test
+    void setOperations_smallSets() {
+        // Arrange
+        IntBitmap a = IntBitmap.of(1, 2, 3, 100_000);
+        IntBitmap b = IntBitmap.of(2, 3, 4);
+
+        // Act & Assert
+        assertArrayEquals(new int[]{2, 3}, IntBitmap.and(a, b).toArray());
+        assertArrayEquals(new int[]{1, 2, 3, 4, 100_000}, IntBitmap.or(a, b).toArray());
+        assertArrayEquals(new int[]{1, 100_000}, IntBitmap.andNot(a, b).toArray());
+        assertEquals(2, IntBitmap.andCardinality(a, b));
+    }
+
+    @Test
+    void copy_isIndependent() {
+        // Arrange
+        IntBitmap original = IntBitmap.of(1, 2);
+
+        // Act
+        IntBitmap copy = new IntBitmap(original);
+        copy.add(3);
+
+        // Assert
+        assertEquals(2, original.cardinality());
+        assertEquals(3, copy.cardinality());
+    }
+
+    @Test
+    void randomDenseAndSparse_matchReferenceSets() {
+        // Arrange: a dense chunk (bit set form) and sparse values across many chunks
+        Random random = new Random(11);
+        IntBitmap a = new IntBitmap();
+        IntBitmap b = new IntBitmap();
+        TreeSet<Integer> refA = new TreeSet<>();
+        TreeSet<Integer> refB = new TreeSet<>();
+        for (int i = 0; i < 30_000; i++) {
+            int dense = random.nextInt(65_536);
+            int sparse = random.nextInt(5_000_000);
+            a.add(dense);
+            refA.add(dense);
+            b.add(i % 2 == 0 ? dense : sparse);
+            refB.add(i % 2 == 0 ? dense : sparse);
+        }
+
+        // Act: removals push the dense chunk back and forth between forms
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(65_536);
+            assertEquals(refA.remove(value), a.remove(value));
+        }
+
+        // Assert
+        TreeSet<Integer> and = new TreeSet<>(refA);
+        and.retainAll(refB);
+        TreeSet<Integer> or = new TreeSet<>(refA);
+        or.addAll(refB);
+        TreeSet<Integer> andNot = new TreeSet<>(refA);
+        andNot.removeAll(refB);
+        assertArrayEquals(toArray(refA), a.toArray());
+        assertArrayEquals(toArray(and), IntBitmap.and(a, b).toArray());
+        assertArrayEquals(toArray(or), IntBitmap.or(a, b).toArray());
+        assertArrayEquals(toArray(andNot), IntBitmap.andNot(a, b).toArray());
+        assertEquals(and.size(), IntBitmap.andCardinality(a, b));
+        assertEquals(or.size(), IntBitmap.or(a, b).cardinality());
+    }
+
+    @Test
+    void forEachFrom_walksInOrderFromTheCursor() {
+        // Arrange: an array chunk, a bit set chunk and a sparse far chunk
+        IntBitmap bitmap = new IntBitmap();
+        TreeSet<Integer> reference = new TreeSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            bitmap.add(65_536 + i * 3);
+            reference.add(65_536 + i * 3);
+        }
+        for (int value : new int[]{5, 9, 40_000, 900_000}) {
+            bitmap.add(value);
+            reference.add(value);
+        }
+
+        // Act & Assert: pages of ten from several cursors, inside and between chunks
+        for (int from : new int[]{0, 6, 9, 10, 65_537, 65_600, 95_530, 100_000}) {
+            List<Integer> page = new ArrayList<>();
+            int visited = bitmap.forEachFrom(from, 10, page::add);
+            List<Integer> expected = new ArrayList<>();
+            for (Integer value : reference.tailSet(from, true)) {
+                if (expected.size() == 10) {
+                    break;
+                }
+                expected.add(value);
+            }
+            assertEquals(expected, page);
+            assertEquals(expected.size(), visited);
+        }
+        assertEquals(0, bitmap.forEachFrom(900_001, 10, value -> fail()));
+    }
+
+    private static int[] toArray(TreeSet<Integer> set) {
+        return set.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,111 @@
+package se.lexicon.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntHashSetTest {
+
+    private IntHashSet set;
+
+    @BeforeEach
+    void setup() {
+        set = new IntHashSet();
+    }
+
+    @Test
+    void add_and_contains() {
+        // Act
+        boolean added = set.add(5);
+
+        // Assert
+        assertTrue(added);
+        assertTrue(set.contains(5));
+        assertFalse(set.contains(6));
+        assertFalse(set.add(5));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void zero_isSupported() {
+        // Act
+        set.add(0);
+
+        // Assert
+        assertTrue(set.contains(0));
+        assertArrayEquals(new int[]{0}, set.toArray());
+        assertTrue(set.remove(0));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    void remove_missing_returnsFalse() {
+        // Act & Assert
+        assertFalse(set.remove(3));
+    }
+
+    @Test
+    void forEach_visitsAllValues() {
+        // Arrange
+        set.add(1);
+        set.add(2);
+        set.add(3);
+        Set<Integer> seen = new HashSet<>();
+
+        // Act
+        set.forEach(seen::add);
+
+        // Assert
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 3)), seen);
+    }
+
+    @Test
+    void iterator_visitsAllValuesIncludingZero() {
+        // Arrange
+        set.add(0);
+        set.add(-4);
+        set.add(17);
+        Set<Integer> seen = new HashSet<>();
+
+        // Act
+        PrimitiveIterator.OfInt iterator = set.iterator();
+        while (iterator.hasNext()) {
+            seen.add(iterator.nextInt());
+        }
+
+        // Assert
+        assertEquals(new HashSet<>(Arrays.asList(0, -4, 17)), seen);
+        assertThrows(NoSuchElementException.class, iterator::nextInt);
+    }
+
+    @Test
+    void randomOperations_matchReferenceSet() {
+        // Arrange
+        Set<Integer> reference = new HashSet<>();
+        Random random = new Random(7);
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            int value = random.nextInt(1_000) - 500;
+            if (random.nextBoolean()) {
+                assertEquals(reference.add(value), set.add(value));
+            } else {
+                assertEquals(reference.remove(value), set.remove(value));
+            }
+        }
+
+        // Assert
+        assertEquals(reference.size(), set.size());
+        for (int value = -500; value < 500; value++) {
+            assertEquals(reference.contains(value), set.contains(value));
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package se.lexicon.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntLinkedHashMapTest {
+
+    private IntLinkedHashMap<String> map;
+
+    @BeforeEach
+    void setup() {
+        map = new IntLinkedHashMap<>();
+    }
+
+    @Test
+    void put_and_get() {
+        // Act
+        map.put(7, "seven");
+        map.put(-3, "minus three");
+
+        // Assert
+        assertEquals("seven", map.get(7));
+        assertEquals("minus three", map.get(-3));
+        assertNull(map.get(8));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void put_existing_replacesAndKeepsPosition() {
+        // Arrange
+        map.put(1, "a");
+        map.put(2, "b");
+
+        // Act
+        String old = map.put(1, "c");
+
+        // Assert
+        assertEquals("a", old);
+        assertEquals(Arrays.asList("c", "b"), toList(map));
+    }
+
+    @Test
+    void position_followsInsertionOrderAcrossCompaction() {
+        // Arrange: enough removals to compact the dense arrays
+        for (int key = 0; key < 100; key++) {
+            map.put(key * 31, "v" + key);
+        }
+        for (int key = 0; key < 80; key++) {
+            map.remove(key * 31);
+        }
+
+        // Act & Assert
+        assertEquals(-1, map.position(0));
+        for (int key = 81; key < 100; key++) {
+            assertTrue(map.position((key - 1) * 31) < map.position(key * 31));
+        }
+    }
+
+    @Test
+    void put_null_throws() {
+        // Act & Assert
+        Exception ex = assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+        assertEquals("Value cannot be null.", ex.getMessage());
+    }
+
+    @Test
+    void remove_existing() {
+        // Arrange
+        map.put(1, "a");
+        map.put(2, "b");
+        map.put(3, "c");
+
+        // Act
+        String removed = map.remove(2);
+
+        // Assert
+        assertEquals("b", removed);
+        assertFalse(map.containsKey(2));
+        assertEquals(Arrays.asList("a", "c"), toList(map));
+    }
+
+    @Test
+    void remove_missing_returnsNull() {
+        // Act & Assert
+        assertNull(map.remove(42));
+    }
+
+    @Test
+    void iteration_keepsInsertionOrder() {
+        // Arrange: keys deliberately out of numeric order
+        int[] keys = {50, 3, 1000, 7, 12};
+        for (int key : keys) {
+            map.put(key, "v" + key);
+        }
+
+        // Act
+        List<String> values = toList(map);
+
+        // Assert
+        assertEquals(Arrays.asList("v50", "v3", "v1000", "v7", "v12"), values);
+    }
+
+    @Test
+    void keyIterator_keepsInsertionOrderAndFailsFast() {
+        // Arrange
+        int[] keys = {50, 3, 1000, 7};
+        for (int key : keys) {
+            map.put(key, "v" + key);
+        }
+        map.remove(3);
+
+        // Act
+        List<Integer> seen = new ArrayList<>();
+        map.keyIterator().forEachRemaining((int key) -> seen.add(key));
+
+        // Assert
+        assertEquals(Arrays.asList(50, 1000, 7), seen);
+        PrimitiveIterator.OfInt iterator = map.keyIterator();
+        map.put(8, "v8");
+        assertThrows(ConcurrentModificationException.class, iterator::nextInt);
+    }
+
+    @Test
+    void iterator_failsFastOnModification() {
+        // Arrange
+        map.put(1, "a");
+        map.put(2, "b");
+        Iterator<String> it = map.iterator();
+        it.next();
+
+        // Act
+        map.put(3, "c");
+
+        // Assert
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+
+    @Test
+    void clear_emptiesMap() {
+        // Arrange
+        map.put(1, "a");
+
+        // Act
+        map.clear();
+
+        // Assert
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1));
+        assertFalse(map.iterator().hasNext());
+    }
+
+    @Test
+    void randomOperations_matchReferenceMap() {
+        // Arrange: a reference map to compare against
+        Map<Integer, String> reference = new HashMap<>();
+        Random random = new Random(42);
+
+        // Act: mix of puts and removes on a small key space, forcing growth and compaction
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key), map.remove(key));
+            } else {
+                assertEquals(reference.put(key, "v" + i), map.put(key, "v" + i));
+            }
+        }
+
+        // Assert
+        assertEquals(reference.size(), map.size());
+        for (Map.Entry<Integer, String> entry : reference.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertEquals(reference.size(), toList(map).size());
+    }
+
+    private static List<String> toList(IntLinkedHashMap<String> map) {
+        List<String> result = new ArrayList<>();
+        for (String value : map) {
+            result.add(value);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,96 @@
+package se.lexicon.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntervalTreeTest {
+
+    private IntervalTree<String> tree;
+
+    @BeforeEach
+    void setup() {
+        tree = new IntervalTree<>();
+    }
+
+    @Test
+    void overlapping_closedBounds() {
+        // Arrange
+        tree.insert(1, 5, 1, "a");
+        tree.insert(6, 10, 2, "b");
+        tree.insert(3, 20, 3, "c");
+
+        // Act & Assert: results are ordered by start
+        assertEquals(Arrays.asList("a", "c"), overlapping(5, 5));
+        assertEquals(Arrays.asList("c", "b"), overlapping(6, 6));
+        assertEquals(Arrays.asList("c"), overlapping(15, 30));
+        assertTrue(overlapping(21, 30).isEmpty());
+    }
+
+    @Test
+    void remove_byStartAndId() {
+        // Arrange
+        tree.insert(1, 5, 1, "a");
+        tree.insert(1, 9, 2, "b");
+
+        // Act
+        boolean removed = tree.remove(1, 1);
+
+        // Assert
+        assertTrue(removed);
+        assertEquals(Arrays.asList("b"), overlapping(0, 100));
+        assertFalse(tree.remove(1, 1));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    void insert_endBeforeStart_throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> tree.insert(5, 4, 1, "a"));
+    }
+
+    @Test
+    void randomIntervals_matchBruteForce() {
+        // Arrange
+        Random random = new Random(3);
+        long[][] intervals = new long[2_000][];
+        for (int id = 0; id < intervals.length; id++) {
+            long start = random.nextInt(10_000);
+            long end = start + random.nextInt(200);
+            intervals[id] = new long[]{start, end};
+            tree.insert(start, end, id, String.valueOf(id));
+        }
+
+        // Act: remove every third interval
+        for (int id = 0; id < intervals.length; id += 3) {
+            assertTrue(tree.remove(intervals[id][0], id));
+        }
+
+        // Assert: queries agree with a brute-force check
+        for (int q = 0; q < 200; q++) {
+            long from = random.nextInt(10_200);
+            long to = from + random.nextInt(50);
+            List<String> actual = overlapping(from, to);
+            int expected = 0;
+            for (int id = 0; id < intervals.length; id++) {
+                if (id % 3 != 0 && intervals[id][0] <= to && intervals[id][1] >= from) {
+                    expected++;
+                    assertTrue(actual.contains(String.valueOf(id)));
+                }
+            }
+            assertEquals(expected, actual.size());
+        }
+    }
+
+    private List<String> overlapping(long from, long to) {
+        List<String> result = new ArrayList<>();
+        tree.forEachOverlapping(from, to, result::add);
+        return result;
+    }
+}
@@ -0,0 +1,80 @@
+package se.lexicon.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongHashMapTest {
+
+    private LongHashMap<String> map;
+
+    @BeforeEach
+    void setup() {
+        map = new LongHashMap<>();
+    }
+
+    @Test
+    void put_and_get() {
+        // Act
+        String previous = map.put(5L << 32, "a");
+
+        // Assert
+        assertNull(previous);
+        assertEquals("a", map.get(5L << 32));
+        assertNull(map.get(5));
+        assertEquals("a", map.put(5L << 32, "b"));
+        assertEquals("b", map.get(5L << 32));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void zero_isSupported() {
+        // Act
+        map.put(0, "zero");
+
+        // Assert
+        assertEquals("zero", map.get(0));
+        assertEquals(1, map.size());
+        assertEquals("zero", map.remove(0));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void remove_missing_returnsNull() {
+        // Act & Assert
+        assertNull(map.remove(3));
+        assertThrows(IllegalArgumentException.class, () -> map.put(3, null));
+        assertThrows(IllegalArgumentException.class, () -> new LongHashMap<String>(-1));
+    }
+
+    @Test
+    void randomOperations_matchHashMap() {
+        // Arrange: few distinct keys, so that removals shift colliding entries back
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // Act
+        for (int i = 0; i < 20_000; i++) {
+            long key = (long) random.nextInt(500) << random.nextInt(40);
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+            } else {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+        }
+
+        // Assert
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(expected.keySet().iterator().next()));
+    }
+}
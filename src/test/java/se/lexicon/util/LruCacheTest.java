@@ -0,0 +1,91 @@
+package se.lexicon.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LruCacheTest {
+
+    @Test
+    void put_overMaximumSize_evictsLeastRecentlyUsed() {
+        // Arrange
+        LruCache<Integer, String> cache = new LruCache<>(2);
+        cache.put(1, "one");
+        cache.put(2, "two");
+
+        // Act: touch 1, so that 2 is the eldest
+        cache.get(1);
+        cache.put(3, "three");
+
+        // Assert
+        assertEquals(2, cache.size());
+        assertEquals("one", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals("three", cache.get(3));
+        assertEquals(1, cache.stats().evictionCount());
+    }
+
+    @Test
+    void get_countsHitsAndMisses() {
+        // Arrange
+        LruCache<String, String> cache = new LruCache<>(10);
+        cache.put("a", "A");
+
+        // Act
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+
+        // Assert
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(3, stats.requestCount());
+        assertEquals(2.0 / 3, stats.hitRate(), 1e-9);
+    }
+
+    @Test
+    void get_withRejectingCheck_dropsEntryAndCountsMiss() {
+        // Arrange
+        LruCache<String, String> cache = new LruCache<>(10);
+        cache.put("a", "A");
+
+        // Act
+        String rejected = cache.get("a", value -> false);
+
+        // Assert
+        assertNull(rejected);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void invalidateAndClear_removeEntries() {
+        // Arrange
+        LruCache<Integer, String> cache = new LruCache<>(10);
+        cache.put(1, "one");
+        cache.put(2, "two");
+
+        // Act
+        cache.invalidate(1);
+
+        // Assert
+        assertNull(cache.get(1));
+        assertEquals(1, cache.size());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.stats().evictionCount());
+    }
+
+    @Test
+    void invalidArguments_throw() {
+        // Arrange
+        LruCache<Integer, String> cache = new LruCache<>(1);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new LruCache<Integer, String>(0));
+        assertThrows(IllegalArgumentException.class, () -> cache.put(null, "one"));
+        assertThrows(IllegalArgumentException.class, () -> cache.put(1, null));
+    }
+}
@@ -0,0 +1,64 @@
+package se.lexicon.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultiIndexTest {
+
+    private MultiIndex<String, Integer> index;
+
+    @BeforeEach
+    void setup() {
+        index = new MultiIndex<>();
+    }
+
+    @Test
+    void add_and_get_keepsOrder() {
+        // Arrange
+        index.add("a", 3);
+        index.add("a", 1);
+        index.add("b", 2);
+
+        // Act & Assert
+        assertEquals(Arrays.asList(3, 1), new ArrayList<>(index.get("a")));
+        assertEquals(Arrays.asList(2), new ArrayList<>(index.get("b")));
+    }
+
+    @Test
+    void add_duplicate_returnsFalse() {
+        // Arrange
+        index.add("a", 1);
+
+        // Act & Assert
+        assertFalse(index.add("a", 1));
+        assertEquals(1, index.get("a").size());
+    }
+
+    @Test
+    void remove_lastValue_emptiesKey() {
+        // Arrange
+        index.add("a", 1);
+
+        // Act
+        boolean removed = index.remove("a", 1);
+
+        // Assert
+        assertTrue(removed);
+        assertTrue(index.get("a").isEmpty());
+        assertFalse(index.remove("a", 1));
+    }
+
+    @Test
+    void get_isReadOnly() {
+        // Arrange
+        index.add("a", 1);
+
+        // Act & Assert
+        assertThrows(UnsupportedOperationException.class, () -> index.get("a").add(2));
+    }
+}
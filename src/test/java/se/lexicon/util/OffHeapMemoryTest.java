@@ -0,0 +1,70 @@
+package se.lexicon.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapMemoryTest {
+
+    private OffHeapMemory memory;
+
+    @BeforeEach
+    void setup() {
+        memory = new OffHeapMemory(0, 64);
+    }
+
+    @AfterEach
+    void teardown() {
+        memory.close();
+    }
+
+    @Test
+    void ensureCapacity_growsInPages_andKeepsContent() {
+        // Arrange
+        memory.putLong(0, 42L);
+        memory.putInt(60, 7);
+
+        // Act
+        memory.ensureCapacity(1000);
+        memory.putInt(996, 9);
+
+        // Assert
+        assertEquals(1024, memory.capacity());
+        assertEquals(42L, memory.getLong(0));
+        assertEquals(7, memory.getInt(60));
+        assertEquals(9, memory.getInt(996));
+        assertEquals(0, memory.getInt(500));
+    }
+
+    @Test
+    void getAndPutBytes_crossPageBoundaries() {
+        // Arrange
+        memory.ensureCapacity(256);
+        byte[] source = new byte[150];
+        for (int i = 0; i < source.length; i++) {
+            source[i] = (byte) i;
+        }
+
+        // Act
+        memory.putBytes(50, source, 0, source.length);
+        byte[] target = new byte[150];
+        memory.getBytes(50, target, 0, target.length);
+
+        // Assert
+        assertArrayEquals(source, target);
+        assertEquals((byte) 14, memory.getByte(64));
+    }
+
+    @Test
+    void outOfBoundsOrClosed_throws() {
+        // Act & Assert
+        assertThrows(IndexOutOfBoundsException.class, () -> memory.getInt(64));
+        assertThrows(IndexOutOfBoundsException.class, () -> memory.getInt(-4));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapMemory(0, 100));
+        memory.close();
+        assertThrows(IllegalStateException.class, () -> memory.getInt(0));
+        assertThrows(IllegalStateException.class, () -> memory.ensureCapacity(128));
+    }
+}
@@ -0,0 +1,77 @@
+package se.lexicon.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapUtf8ColumnTest {
+
+    private OffHeapUtf8Column column;
+
+    @BeforeEach
+    void setup() {
+        // Small pages, so that values cross page boundaries
+        column = new OffHeapUtf8Column(64);
+    }
+
+    @AfterEach
+    void teardown() {
+        column.close();
+    }
+
+    @Test
+    void add_and_get_roundTripUtf8() {
+        // Act
+        int first = column.add("Åsa Öberg");
+        int second = column.add("");
+        int third = column.add("日本語のとても長い名前はページの境界をまたぎます");
+
+        // Assert
+        assertEquals(0, first);
+        assertEquals(1, second);
+        assertEquals(2, third);
+        assertEquals("Åsa Öberg", column.get(0));
+        assertEquals("", column.get(1));
+        assertEquals("日本語のとても長い名前はページの境界をまたぎます", column.get(2));
+        assertEquals(3, column.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> column.get(3));
+        assertThrows(IllegalArgumentException.class, () -> column.add(null));
+    }
+
+    @Test
+    void set_manyTimes_reclaimsGarbage() {
+        // Arrange
+        column.add("first");
+        column.add("second");
+
+        // Act: rewrite one row until compaction must have run
+        for (int i = 0; i < 10_000; i++) {
+            column.set(0, "value number " + i);
+        }
+
+        // Assert
+        assertEquals("value number 9999", column.get(0));
+        assertEquals("second", column.get(1));
+        assertTrue(column.capacityInBytes() < 4096);
+    }
+
+    @Test
+    void retain_dropsRowsAndRenumbers() {
+        // Arrange
+        for (int i = 0; i < 100; i++) {
+            column.add("row " + i);
+        }
+
+        // Act
+        column.retain(row -> row % 10 == 0);
+
+        // Assert
+        assertEquals(10, column.size());
+        assertEquals("row 0", column.get(0));
+        assertEquals("row 90", column.get(9));
+        column.close();
+        assertThrows(IllegalStateException.class, () -> column.get(0));
+    }
+}
@@ -0,0 +1,45 @@
+package se.lexicon.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SortedMultiIndexTest {
+
+    private SortedMultiIndex<Integer, String> index;
+
+    @BeforeEach
+    void setup() {
+        index = new SortedMultiIndex<>();
+        index.add(30, "c");
+        index.add(10, "a1");
+        index.add(20, "b");
+        index.add(10, "a2");
+    }
+
+    @Test
+    void range_respectsBounds() {
+        // Act & Assert
+        assertEquals(Arrays.asList("a1", "a2", "b", "c"), index.range(10, true, 30, true));
+        assertEquals(Arrays.asList("b"), index.range(10, false, 30, false));
+    }
+
+    @Test
+    void tail_respectsLimit() {
+        // Act & Assert
+        assertEquals(Arrays.asList("a1", "a2", "b"), index.tail(5, true, 3));
+        assertEquals(Arrays.asList("c"), index.tail(20, false, 10));
+    }
+
+    @Test
+    void remove_excludesFromRange() {
+        // Act
+        index.remove(20, "b");
+
+        // Assert
+        assertEquals(Arrays.asList("a1", "a2", "c"), index.range(0, true, 100, true));
+    }
+}
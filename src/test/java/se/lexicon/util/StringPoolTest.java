@@ -0,0 +1,44 @@
+package se.lexicon.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StringPoolTest {
+
+    @Test
+    void canonical_equalValues_shareOneInstance() {
+        // Arrange
+        StringPool pool = new StringPool();
+        String first = new String("Storgatan 1");
+        String second = new String("Storgatan 1");
+
+        // Act
+        String canonicalFirst = pool.canonical(first);
+        String canonicalSecond = pool.canonical(second);
+
+        // Assert
+        assertSame(first, canonicalFirst);
+        assertSame(first, canonicalSecond);
+        assertEquals(1, pool.size());
+        assertNull(pool.canonical(null));
+    }
+
+    @Test
+    void canonical_fullPool_returnsNewValuesAsGiven() {
+        // Arrange
+        StringPool pool = new StringPool(2);
+        String a = pool.canonical(new String("a"));
+        pool.canonical("b");
+        String c = new String("c");
+
+        // Act & Assert
+        assertSame(c, pool.canonical(c));
+        assertNotSame(c, pool.canonical(new String("c")));
+        assertSame(a, pool.canonical(new String("a")));
+        assertEquals(2, pool.size());
+        pool.clear();
+        assertEquals(0, pool.size());
+        assertThrows(IllegalArgumentException.class, () -> new StringPool(0));
+    }
+}
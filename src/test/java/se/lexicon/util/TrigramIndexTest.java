@@ -0,0 +1,94 @@
+package se.lexicon.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new TrigramIndex();
+        index.add(1, "Python for snakes!");
+        index.add(2, "Advanced Python");
+        index.add(3, "Economics");
+    }
+
+    @Test
+    void search_longQuery_caseInsensitive() {
+        // Act & Assert
+        assertEquals(new HashSet<>(Arrays.asList(1, 2)), search("PYTHON"));
+        assertEquals(new HashSet<>(Arrays.asList(3)), search("conom"));
+    }
+
+    @Test
+    void search_shortQuery_fallsBackToScan() {
+        // Act & Assert
+        assertEquals(new HashSet<>(Arrays.asList(1, 2)), search("py"));
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 3)), search("o"));
+    }
+
+    @Test
+    void matches_streamsSameIdsAsSearch() {
+        // Act & Assert
+        for (String query : new String[]{"PYTHON", "conom", "py", "o", "missing"}) {
+            Set<Integer> streamed = index.matches(query).boxed().collect(Collectors.toSet());
+            assertEquals(search(query), streamed);
+        }
+        assertEquals(1, index.matches("snakes").count());
+    }
+
+    @Test
+    void search_sharedTrigramsButNoSubstring_noMatch() {
+        // Arrange
+        index.add(4, "abcXbcd");
+
+        // Act & Assert: "abcd" has trigrams abc and bcd, both present, but is not contained
+        assertTrue(search("abcd").isEmpty());
+    }
+
+    @Test
+    void add_existingId_replacesText() {
+        // Act
+        index.add(3, "Statistics");
+
+        // Assert
+        assertTrue(search("economics").isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList(3)), search("statis"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void remove_dropsId() {
+        // Act
+        boolean removed = index.remove(1);
+
+        // Assert
+        assertTrue(removed);
+        assertEquals(new HashSet<>(Arrays.asList(2)), search("python"));
+        assertFalse(index.remove(1));
+    }
+
+    @Test
+    void forEachMatch_returnsNumberOfTextsChecked() {
+        // Act & Assert: the rarest trigram narrows to its postings, a short query checks every text
+        assertEquals(1, index.forEachMatch("economics", id -> { }));
+        assertEquals(2, index.forEachMatch("python", id -> { }));
+        assertEquals(3, index.forEachMatch("py", id -> { }));
+        assertEquals(0, index.forEachMatch("java", id -> { }));
+    }
+
+    private Set<Integer> search(String query) {
+        Set<Integer> result = new HashSet<>();
+        index.forEachMatch(query, result::add);
+        return result;
+    }
+}
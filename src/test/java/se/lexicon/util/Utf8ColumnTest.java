@@ -0,0 +1,78 @@
+package se.lexicon.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Utf8ColumnTest {
+
+    private Utf8Column column;
+
+    @BeforeEach
+    void setup() {
+        column = new Utf8Column();
+    }
+
+    @Test
+    void add_and_get_roundTripUtf8() {
+        // Act
+        int first = column.add("Åsa Öberg");
+        int second = column.add("");
+        int third = column.add("日本");
+
+        // Assert
+        assertEquals(0, first);
+        assertEquals(1, second);
+        assertEquals(2, third);
+        assertEquals("Åsa Öberg", column.get(0));
+        assertEquals("", column.get(1));
+        assertEquals("日本", column.get(2));
+        assertEquals(3, column.size());
+    }
+
+    @Test
+    void set_manyTimes_reclaimsGarbage() {
+        // Arrange
+        column.add("first");
+        column.add("second");
+
+        // Act: rewrite one row until compaction must have run
+        for (int i = 0; i < 10_000; i++) {
+            column.set(0, "value " + i);
+        }
+
+        // Assert
+        assertEquals("value 9999", column.get(0));
+        assertEquals("second", column.get(1));
+        assertTrue(column.capacityInBytes() < 1024);
+    }
+
+    @Test
+    void release_and_retain_renumberRows() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            column.add("row " + i);
+        }
+        column.release(1);
+
+        // Act
+        column.retain(row -> row % 2 == 0);
+
+        // Assert
+        assertEquals(3, column.size());
+        assertEquals("row 0", column.get(0));
+        assertEquals("row 2", column.get(1));
+        assertEquals("row 4", column.get(2));
+    }
+
+    @Test
+    void invalidArguments_throw() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> column.add(null));
+        assertThrows(IndexOutOfBoundsException.class, () -> column.get(0));
+        column.add("a");
+        assertThrows(IllegalArgumentException.class, () -> column.set(0, null));
+        assertThrows(IllegalArgumentException.class, () -> new Utf8Column(-1));
+    }
+}
@@ -0,0 +1,110 @@
+package se.lexicon.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WindowTinyLfuCacheTest {
+
+    @Test
+    void put_overMaximumSize_staysBounded() {
+        // Arrange
+        WindowTinyLfuCache<Integer, Integer> cache = new WindowTinyLfuCache<>(100);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+
+        // Assert
+        assertEquals(100, cache.size());
+        assertEquals(100, cache.maximumSize());
+        assertEquals(900, cache.stats().evictionCount());
+    }
+
+    @Test
+    void scanOfOneOffKeys_keepsFrequentlyUsedEntries() {
+        // Arrange: a hot set used several times, filling the cache
+        WindowTinyLfuCache<Integer, Integer> cache = new WindowTinyLfuCache<>(100);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 90; i++) {
+                if (cache.get(i) == null) {
+                    cache.put(i, i);
+                }
+            }
+        }
+
+        // Act: a scan of keys that are never used again
+        for (int i = 1000; i < 2000; i++) {
+            cache.put(i, i);
+        }
+
+        // Assert
+        int kept = 0;
+        for (int i = 0; i < 90; i++) {
+            if (cache.get(i) != null) {
+                kept++;
+            }
+        }
+        assertEquals(90, kept);
+        assertEquals(100, cache.size());
+    }
+
+    @Test
+    void scanOfOneOffKeys_flushesLruCache() {
+        // Arrange: the same traffic as above, for comparison
+        LruCache<Integer, Integer> cache = new LruCache<>(100);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 90; i++) {
+                if (cache.get(i) == null) {
+                    cache.put(i, i);
+                }
+            }
+        }
+
+        // Act
+        for (int i = 1000; i < 2000; i++) {
+            cache.put(i, i);
+        }
+
+        // Assert
+        for (int i = 0; i < 90; i++) {
+            assertNull(cache.get(i));
+        }
+    }
+
+    @Test
+    void getPutAndInvalidate_findEntriesInEverySegment() {
+        // Arrange
+        WindowTinyLfuCache<String, String> cache = new WindowTinyLfuCache<>(10);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C");
+
+        // Act: "a" and "b" have left the window; a hit on "a" promotes it
+        String hit = cache.get("a");
+        cache.put("b", "B2");
+        cache.invalidate("c");
+
+        // Assert
+        assertEquals("A", hit);
+        assertEquals("B2", cache.get("b"));
+        assertNull(cache.get("c"));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidArguments_throw() {
+        // Arrange
+        WindowTinyLfuCache<Integer, String> cache = new WindowTinyLfuCache<>(1);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new WindowTinyLfuCache<Integer, String>(-1));
+        assertThrows(IllegalArgumentException.class, () -> cache.put(null, "one"));
+        assertThrows(IllegalArgumentException.class, () -> cache.put(1, null));
+    }
+}